@@ -0,0 +1,37 @@
+package ch.epfl.tchu;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the whole benchmark suite (or the benchmarks matching the given regular expressions) and saves the results in
+ * jmh-result.json, so that they can be compared with those of a previous run to detect regressions.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Runs the benchmarks
+     *
+     * @param args regular expressions selecting the benchmarks to run, all of them if none is given
+     * @throws RunnerException if the benchmarks couldn't run
+     */
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        if (args.length == 0)
+            options.include("ch\\.epfl\\.tchu\\..*Benchmark");
+        for (String regexp : args)
+            options.include(regexp);
+        options.resultFormat(ResultFormatType.JSON);
+        options.result("jmh-result.json");
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,95 @@
+package ch.epfl.tchu;
+
+import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Ticket;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the SortedBag operations used throughout the game model: building bags, checking inclusion, computing
+ * unions and differences, and enumerating subsets.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortedBagBenchmark {
+
+    private List<Card> handList;
+    private SortedBag<Card> hand;
+    private SortedBag<Card> claimCards;
+    private SortedBag<Ticket> tickets;
+
+    @Setup
+    public void setup() {
+        handList = List.of(Card.BLUE, Card.RED, Card.BLUE, Card.GREEN, Card.LOCOMOTIVE, Card.GREEN, Card.WHITE,
+                Card.GREEN, Card.RED, Card.BLUE, Card.GREEN, Card.LOCOMOTIVE);
+        hand = SortedBag.of(handList);
+        claimCards = SortedBag.of(3, Card.GREEN, 1, Card.LOCOMOTIVE);
+        tickets = SortedBag.of(ChMap.tickets().subList(0, 5));
+    }
+
+    @Benchmark
+    public SortedBag<Card> sortedBagOfList() {
+        return SortedBag.of(handList);
+    }
+
+    @Benchmark
+    public SortedBag<Card> sortedBagBuilderAdd() {
+        return new SortedBag.Builder<Card>().add(hand).add(Card.YELLOW).build();
+    }
+
+    @Benchmark
+    public boolean sortedBagContains() {
+        return hand.contains(claimCards);
+    }
+
+    @Benchmark
+    public SortedBag<Card> sortedBagUnion() {
+        return hand.union(claimCards);
+    }
+
+    @Benchmark
+    public SortedBag<Card> sortedBagDifference() {
+        return hand.difference(claimCards);
+    }
+
+    @Benchmark
+    public int sortedBagCountOf() {
+        return hand.countOf(Card.GREEN);
+    }
+
+    @Benchmark
+    public List<Card> sortedBagToList() {
+        return hand.toList();
+    }
+
+    @Benchmark
+    public int sortedBagSubsetsOfSize() {
+        return tickets.subsetsOfSize(3).size();
+    }
+
+    /**
+     * Runs the benchmarks of this class
+     *
+     * @param args the program arguments (unused)
+     * @throws RunnerException if the benchmarks couldn't run
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SortedBagBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
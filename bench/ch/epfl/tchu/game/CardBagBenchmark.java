@@ -0,0 +1,115 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the TreeMap backed SortedBag<Card> with the packed CardBag on the operations that the player states use
+ * the most: adding a card, checking if a hand contains some claim cards and removing the claim cards from a hand.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardBagBenchmark {
+
+    private SortedBag<Card> hand;
+    private SortedBag<Card> claimCards;
+    private List<SortedBag<Card>> tunnelOptions;
+
+    private CardBag handBag;
+    private CardBag claimBag;
+    private CardBag[] tunnelOptionBags;
+
+    @Setup
+    public void setup() {
+        hand = new SortedBag.Builder<Card>()
+                .add(3, Card.BLUE)
+                .add(2, Card.RED)
+                .add(4, Card.GREEN)
+                .add(1, Card.WHITE)
+                .add(2, Card.LOCOMOTIVE)
+                .build();
+        claimCards = SortedBag.of(3, Card.GREEN, 1, Card.LOCOMOTIVE);
+        tunnelOptions = new Route("BEN_BEL_1", new Station(0, "A"), new Station(1, "B"), 4,
+                Route.Level.UNDERGROUND, null).possibleClaimCards();
+
+        handBag = CardBag.of(hand);
+        claimBag = CardBag.of(claimCards);
+        tunnelOptionBags = new CardBag[tunnelOptions.size()];
+        for (int i = 0; i < tunnelOptionBags.length; ++i)
+            tunnelOptionBags[i] = CardBag.of(tunnelOptions.get(i));
+    }
+
+    @Benchmark
+    public SortedBag<Card> sortedBagAddCard() {
+        return new SortedBag.Builder<Card>().add(hand).add(Card.YELLOW).build();
+    }
+
+    @Benchmark
+    public CardBag cardBagAddCard() {
+        return handBag.with(Card.YELLOW);
+    }
+
+    @Benchmark
+    public boolean sortedBagContains() {
+        return hand.contains(claimCards);
+    }
+
+    @Benchmark
+    public boolean cardBagContains() {
+        return handBag.contains(claimBag);
+    }
+
+    @Benchmark
+    public SortedBag<Card> sortedBagDifference() {
+        return hand.difference(claimCards);
+    }
+
+    @Benchmark
+    public CardBag cardBagDifference() {
+        return handBag.difference(claimBag);
+    }
+
+    @Benchmark
+    public int sortedBagPayableTunnelOptions() {
+        int payable = 0;
+        for (SortedBag<Card> option : tunnelOptions)
+            if (hand.contains(option))
+                ++payable;
+        return payable;
+    }
+
+    @Benchmark
+    public int cardBagPayableTunnelOptions() {
+        int payable = 0;
+        for (CardBag option : tunnelOptionBags)
+            if (handBag.contains(option))
+                ++payable;
+        return payable;
+    }
+
+    /**
+     * Runs the benchmarks of this class
+     *
+     * @param args the program arguments (unused)
+     * @throws RunnerException if the benchmarks couldn't run
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CardBagBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,109 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.sim.AutomaticPlayer;
+import ch.epfl.tchu.sim.GameOutcome;
+import ch.epfl.tchu.sim.Simulation;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the GameState transitions performed at every turn of a game, as well as whole games played by automatic
+ * players, which include the cost of the players and of the game itself.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStateBenchmark {
+
+    private static final List<AutomaticPlayer.Strategy> GREEDY_PLAYERS =
+            List.of(AutomaticPlayer.Strategy.GREEDY, AutomaticPlayer.Strategy.GREEDY);
+
+    private SortedBag<Ticket> tickets;
+    private GameState state;
+    private Route claimableRoute;
+    private SortedBag<Card> claimCards;
+    private long seed;
+
+    @Setup
+    public void setup() {
+        tickets = SortedBag.of(ChMap.tickets());
+        GameState state = GameState.initial(tickets, new Random(2021), 2);
+        for (PlayerId playerId : PlayerId.ALL.subList(0, 2)) {
+            state = state.withInitiallyChosenTickets(playerId, state.topTickets(3));
+            state = state.withoutTopTickets(Constants.INITIAL_TICKETS_COUNT);
+        }
+        while (claimableRoute == null) {
+            state = state.withBlindlyDrawnCard();
+            for (Route route : ChMap.routes())
+                if (state.currentPlayerState().canClaimRoute(route)) {
+                    claimableRoute = route;
+                    claimCards = state.currentPlayerState().possibleClaimCards(route).get(0);
+                    break;
+                }
+        }
+        this.state = state;
+    }
+
+    @Benchmark
+    public GameState gameStateInitial() {
+        return GameState.initial(tickets, new Random(2021), 2);
+    }
+
+    @Benchmark
+    public GameState gameStateWithBlindlyDrawnCard() {
+        return state.withBlindlyDrawnCard();
+    }
+
+    @Benchmark
+    public GameState gameStateWithDrawnFaceUpCard() {
+        return state.withDrawnFaceUpCard(2);
+    }
+
+    @Benchmark
+    public GameState gameStateWithClaimedRoute() {
+        return state.withClaimedRoute(claimableRoute, claimCards);
+    }
+
+    @Benchmark
+    public GameState gameStateWithChosenAdditionalTickets() {
+        SortedBag<Ticket> drawnTickets = state.topTickets(Constants.IN_GAME_TICKETS_COUNT);
+        return state.withChosenAdditionalTickets(drawnTickets, SortedBag.of(drawnTickets.get(0)));
+    }
+
+    @Benchmark
+    public GameState gameStateForNextTurn() {
+        return state.forNextTurn();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public GameOutcome wholeGreedyGame() {
+        return Simulation.playGame(GREEDY_PLAYERS, seed++);
+    }
+
+    /**
+     * Runs the benchmarks of this class
+     *
+     * @param args the program arguments (unused)
+     * @throws RunnerException if the benchmarks couldn't run
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GameStateBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,150 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the number of states a depth-first search visits per second through the immutable GameState transitions
+ * and through the in-place transitions of MutableGameState, undone when the search backtracks. Both searches explore
+ * the same tree: every turn, drawing two cards (the first one from the deck or from each distinct face up card), or
+ * claiming any free route the player can claim with its cheapest cards.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MutableGameStateBenchmark {
+
+    private static final List<Route> ROUTES = ChMap.routes();
+
+    @Param({"2", "3"})
+    public int depth;
+
+    private GameState state;
+    private MutableGameState mutableState;
+    private Random rng;
+
+    /**
+     * The number of states visited, reported by JMH per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodes {
+        public long nodes;
+    }
+
+    @Setup
+    public void setup() {
+        Random rng = new Random(2021);
+        GameState state = GameState.initial(SortedBag.of(ChMap.tickets()), rng, 2);
+        for (PlayerId playerId : PlayerId.ALL.subList(0, 2)) {
+            state = state.withInitiallyChosenTickets(playerId, state.topTickets(3));
+            state = state.withoutTopTickets(Constants.INITIAL_TICKETS_COUNT);
+        }
+        for (int turn = 0; turn < 16; ++turn)
+            state = state.withBlindlyDrawnCard().withBlindlyDrawnCard().forNextTurn();
+        this.state = state;
+        this.mutableState = MutableGameState.of(state);
+        this.rng = rng;
+    }
+
+    @Benchmark
+    public void immutableSearch(Nodes nodes) {
+        nodes.nodes += search(state, depth);
+    }
+
+    @Benchmark
+    public void mutableSearch(Nodes nodes) {
+        nodes.nodes += search(mutableState, depth);
+    }
+
+    private long search(GameState state, int depth) {
+        if (depth == 0)
+            return 1;
+
+        long nodes = 1;
+        if (state.canDrawCards()) {
+            Set<Card> faceUpCards = EnumSet.noneOf(Card.class);
+            for (int slot = Constants.DECK_SLOT; slot < Constants.FACE_UP_CARDS_COUNT; ++slot) {
+                if (slot != Constants.DECK_SLOT && !faceUpCards.add(state.cardState().faceUpCard(slot)))
+                    continue;
+                GameState next = state.withCardsDeckRecreatedIfNeeded(rng);
+                next = slot == Constants.DECK_SLOT ? next.withBlindlyDrawnCard() : next.withDrawnFaceUpCard(slot);
+                if (next.canDrawCards())
+                    next = next.withCardsDeckRecreatedIfNeeded(rng).withBlindlyDrawnCard();
+                nodes += search(next.forNextTurn(), depth - 1);
+            }
+        }
+
+        PlayerState player = state.currentPlayerState();
+        for (Route route : ROUTES)
+            if (!state.isRouteClaimed(route) && player.canClaimRoute(route)) {
+                SortedBag<Card> cards = player.possibleClaimCards(route).get(0);
+                nodes += search(state.withClaimedRoute(route, cards).forNextTurn(), depth - 1);
+            }
+        return nodes;
+    }
+
+    private long search(MutableGameState state, int depth) {
+        if (depth == 0)
+            return 1;
+
+        long nodes = 1;
+        int mark = state.mark();
+        if (state.canDrawCards()) {
+            Set<Card> faceUpCards = EnumSet.noneOf(Card.class);
+            for (int slot = Constants.DECK_SLOT; slot < Constants.FACE_UP_CARDS_COUNT; ++slot) {
+                if (slot != Constants.DECK_SLOT && !faceUpCards.add(state.faceUpCard(slot)))
+                    continue;
+                state.recreateDeckIfNeeded(rng);
+                if (slot == Constants.DECK_SLOT)
+                    state.drawBlindCard();
+                else
+                    state.drawFaceUpCard(slot);
+                if (state.canDrawCards()) {
+                    state.recreateDeckIfNeeded(rng);
+                    state.drawBlindCard();
+                }
+                state.endTurn();
+                nodes += search(state, depth - 1);
+                state.undo(mark);
+            }
+        }
+
+        for (Route route : ROUTES)
+            if (state.routeOwner(route) == null && state.canClaimRoute(route)) {
+                state.claimRoute(route, state.possibleClaimCards(route).get(0));
+                state.endTurn();
+                nodes += search(state, depth - 1);
+                state.undo(mark);
+            }
+        return nodes;
+    }
+
+    /**
+     * Runs the benchmarks of this class
+     *
+     * @param args the program arguments (unused)
+     * @throws RunnerException if the benchmarks couldn't run
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MutableGameStateBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
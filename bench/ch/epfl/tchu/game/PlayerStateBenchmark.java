@@ -0,0 +1,101 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the PlayerState queries and transitions that the game and the players perform at every turn, on a state
+ * taken from the middle of a recorded game.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerStateBenchmark {
+
+    private PlayerState state;
+    private PlayerState tunnelState;
+    private Route tunnel;
+    private SortedBag<Card> initialCards;
+    private SortedBag<Card> drawnCards;
+    private Route claimableRoute;
+    private SortedBag<Card> claimCards;
+
+    @Setup
+    public void setup() {
+        state = new RecordedGame(2021).ownState(0.5);
+
+        tunnel = new Route("A_B_1", new Station(0, "A"), new Station(1, "B"), 3, Route.Level.UNDERGROUND, null);
+        tunnelState = new PlayerState(SortedBag.of(),
+                SortedBag.of(4, Card.BLUE, 4, Card.LOCOMOTIVE).union(SortedBag.of(3, Card.RED)), List.of());
+        initialCards = SortedBag.of(2, Card.BLUE, 1, Card.LOCOMOTIVE);
+        drawnCards = SortedBag.of(1, Card.BLUE, 2, Card.LOCOMOTIVE);
+
+        for (Route route : ChMap.routes())
+            if (!state.routes().contains(route) && state.canClaimRoute(route)) {
+                claimableRoute = route;
+                claimCards = state.possibleClaimCards(route).get(0);
+                break;
+            }
+        if (claimableRoute == null)
+            throw new IllegalStateException("no claimable route in the recorded state");
+    }
+
+    @Benchmark
+    public int playerStateCanClaimEveryRoute() {
+        int claimable = 0;
+        for (Route route : ChMap.routes())
+            if (state.canClaimRoute(route))
+                ++claimable;
+        return claimable;
+    }
+
+    @Benchmark
+    public List<SortedBag<Card>> playerStatePossibleClaimCards() {
+        return state.possibleClaimCards(claimableRoute);
+    }
+
+    @Benchmark
+    public List<SortedBag<Card>> playerStatePossibleAdditionalCards() {
+        return tunnelState.possibleAdditionalCards(2, initialCards, drawnCards);
+    }
+
+    @Benchmark
+    public PlayerState playerStateWithClaimedRoute() {
+        return state.withClaimedRoute(claimableRoute, claimCards);
+    }
+
+    @Benchmark
+    public int playerStateTicketPoints() {
+        return state.ticketPoints();
+    }
+
+    @Benchmark
+    public int playerStateFinalPoints() {
+        return state.finalPoints();
+    }
+
+    /**
+     * Runs the benchmarks of this class
+     *
+     * @param args the program arguments (unused)
+     * @throws RunnerException if the benchmarks couldn't run
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PlayerStateBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
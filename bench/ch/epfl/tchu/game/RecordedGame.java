@@ -0,0 +1,127 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.sim.AutomaticPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A game played between two greedy automatic players, whose successive states (as seen by the first player) are
+ * recorded so that benchmarks can run on realistic states rather than hand-made ones.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+public final class RecordedGame {
+
+    private final List<PublicGameState> publicStates = new ArrayList<>();
+    private final List<PlayerState> ownStates = new ArrayList<>();
+
+    /**
+     * Plays and records the game derived from the given seed
+     *
+     * @param seed the seed of the game
+     */
+    public RecordedGame(long seed) {
+        Random rng = new Random(seed);
+        Player recordingPlayer = new RecordingPlayer(new AutomaticPlayer(AutomaticPlayer.Strategy.GREEDY, rng.nextLong()));
+        Player otherPlayer = new AutomaticPlayer(AutomaticPlayer.Strategy.GREEDY, rng.nextLong());
+        Game.play(Map.of(PlayerId.PLAYER_1, recordingPlayer, PlayerId.PLAYER_2, otherPlayer),
+                Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles"),
+                SortedBag.of(ChMap.tickets()), rng);
+    }
+
+    /**
+     * Returns the public state of the game at the given fraction of its length
+     *
+     * @param progress the fraction of the game played, between 0 and 1
+     * @return the public state of the game at the given fraction of its length
+     */
+    public PublicGameState publicState(double progress) {
+        return publicStates.get(index(progress));
+    }
+
+    /**
+     * Returns the state of the first player at the given fraction of the game
+     *
+     * @param progress the fraction of the game played, between 0 and 1
+     * @return the state of the first player at the given fraction of the game
+     */
+    public PlayerState ownState(double progress) {
+        return ownStates.get(index(progress));
+    }
+
+    private int index(double progress) {
+        return (int) Math.round(progress * (publicStates.size() - 1));
+    }
+
+    private final class RecordingPlayer implements Player {
+
+        private final Player player;
+
+        private RecordingPlayer(Player player) {
+            this.player = player;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+            player.initPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            player.receiveInfo(info);
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            publicStates.add(newState);
+            ownStates.add(ownState);
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            player.setInitialTicketChoice(tickets);
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            return player.chooseInitialTickets();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            return player.nextTurn();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            return player.chooseTickets(options);
+        }
+
+        @Override
+        public int drawSlot() {
+            return player.drawSlot();
+        }
+
+        @Override
+        public Route claimedRoute() {
+            return player.claimedRoute();
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            return player.initialClaimCards();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            return player.chooseAdditionalCards(options);
+        }
+    }
+}
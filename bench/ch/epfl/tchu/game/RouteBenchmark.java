@@ -0,0 +1,75 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the claim card computations of Route, on a long colorless tunnel which has the most possible claims.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteBenchmark {
+
+    private Station from;
+    private Station to;
+    private Route tunnel;
+    private SortedBag<Card> claimCards;
+    private SortedBag<Card> drawnCards;
+    private CardBag hand;
+
+    @Setup
+    public void setup() {
+        from = new Station(0, "A");
+        to = new Station(1, "B");
+        tunnel = new Route("A_B_1", from, to, 6, Route.Level.UNDERGROUND, null);
+        claimCards = SortedBag.of(4, Card.BLUE, 2, Card.LOCOMOTIVE);
+        drawnCards = SortedBag.of(1, Card.BLUE, 2, Card.LOCOMOTIVE);
+        hand = CardBag.of(SortedBag.of(5, Card.RED, 2, Card.LOCOMOTIVE));
+    }
+
+    @Benchmark
+    public List<SortedBag<Card>> routePossibleClaimCardsOfNewRoute() {
+        return new Route("A_B_1", from, to, 6, Route.Level.UNDERGROUND, null).possibleClaimCards();
+    }
+
+    @Benchmark
+    public List<SortedBag<Card>> routePossibleClaimCards() {
+        return tunnel.possibleClaimCards();
+    }
+
+    @Benchmark
+    public boolean routeCanBeClaimedWith() {
+        return tunnel.canBeClaimedWith(hand);
+    }
+
+    @Benchmark
+    public int routeAdditionalClaimCardsCount() {
+        return tunnel.additionalClaimCardsCount(claimCards, drawnCards);
+    }
+
+    /**
+     * Runs the benchmarks of this class
+     *
+     * @param args the program arguments (unused)
+     * @throws RunnerException if the benchmarks couldn't run
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RouteBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,79 @@
+package ch.epfl.tchu.game;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the construction of a StationPartition from the network of a player at the end of a recorded game, its
+ * incremental update when a route is added, and connectivity queries between every pair of stations.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StationPartitionBenchmark {
+
+    private List<Route> routes;
+    private List<Station> stations;
+    private StationPartition.Builder builder;
+    private StationPartition partition;
+    private Route newRoute;
+
+    @Setup
+    public void setup() {
+        routes = new RecordedGame(2021).ownState(1).routes();
+        stations = ChMap.stations();
+        builder = new StationPartition.Builder(stations.size());
+        partition = stationPartitionBuild();
+        for (Route route : ChMap.routes())
+            if (!routes.contains(route))
+                newRoute = route;
+    }
+
+    @Benchmark
+    public StationPartition stationPartitionBuild() {
+        builder.reset();
+        for (Route route : routes)
+            builder.connect(route.station1(), route.station2());
+        return builder.build();
+    }
+
+    @Benchmark
+    public StationPartition stationPartitionWithConnected() {
+        return partition.withConnected(newRoute.station1(), newRoute.station2());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(51 * 51)
+    public int stationPartitionConnectedAllPairs() {
+        int connected = 0;
+        for (Station station1 : stations)
+            for (Station station2 : stations)
+                if (partition.connected(station1, station2))
+                    ++connected;
+        return connected;
+    }
+
+    /**
+     * Runs the benchmarks of this class
+     *
+     * @param args the program arguments (unused)
+     * @throws RunnerException if the benchmarks couldn't run
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StationPartitionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
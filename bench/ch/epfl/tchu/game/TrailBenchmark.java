@@ -0,0 +1,57 @@
+package ch.epfl.tchu.game;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Trail.longest on the network of a player at the end of a recorded game, and on the whole map, which is the
+ * worst case a game can ever reach.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrailBenchmark {
+
+    private List<Route> endGameRoutes;
+    private List<Route> allRoutes;
+
+    @Setup
+    public void setup() {
+        endGameRoutes = new RecordedGame(2021).ownState(1).routes();
+        allRoutes = ChMap.routes();
+    }
+
+    @Benchmark
+    public Trail trailLongestOfEndGameNetwork() {
+        return Trail.longest(endGameRoutes);
+    }
+
+    @Benchmark
+    public Trail trailLongestOfWholeMap() {
+        return Trail.longest(allRoutes);
+    }
+
+    /**
+     * Runs the benchmarks of this class
+     *
+     * @param args the program arguments (unused)
+     * @throws RunnerException if the benchmarks couldn't run
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TrailBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
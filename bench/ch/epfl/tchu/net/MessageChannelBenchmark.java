@@ -0,0 +1,87 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.game.RecordedGame;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast a client receives the messages of a game: the state updates of a recorded game, each preceded by
+ * an info, are received and decoded as RemotePlayerClient does, in both the text and the binary formats.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageChannelBenchmark {
+
+    private static final int UPDATES = 100;
+    private static final String INFO = "Ada a tiré une carte de la pioche.";
+
+    @Param({"TEXT", "BINARY"})
+    private WireFormat format;
+
+    private byte[] messages;
+
+    @Setup
+    public void setup() {
+        RecordedGame game = new RecordedGame(2021);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MessageChannel channel = MessageChannel.text(new ByteArrayInputStream(new byte[0]), out)
+                .switchTo(format);
+        for (int i = 0; i < UPDATES; ++i) {
+            double progress = (double) i / (UPDATES - 1);
+            channel.beginMessage(MessageId.RECEIVE_INFO);
+            channel.write(Serdes.stringSerde, INFO);
+            channel.queue();
+            channel.beginMessage(MessageId.UPDATE_STATE);
+            channel.write(Serdes.publicGameStateSerde, game.publicState(progress));
+            channel.write(Serdes.playerStateSerde, game.ownState(progress));
+            channel.send();
+        }
+        messages = out.toByteArray();
+    }
+
+    @Benchmark
+    public int receiveMessages() {
+        MessageChannel channel = MessageChannel.text(new ByteArrayInputStream(messages), new ByteArrayOutputStream())
+                .switchTo(format);
+        int received = 0;
+        MessageId id;
+        while ((id = channel.receiveMessage()) != null) {
+            if (id == MessageId.RECEIVE_INFO)
+                received += channel.read(Serdes.stringSerde).length();
+            else {
+                PublicGameState gameState = channel.read(Serdes.publicGameStateSerde);
+                PlayerState ownState = channel.read(Serdes.playerStateSerde);
+                received += gameState.ticketsCount() + ownState.cards().size();
+            }
+        }
+        return received;
+    }
+
+    /**
+     * Runs the benchmarks of this class
+     *
+     * @param args the program arguments (unused)
+     * @throws RunnerException if the benchmarks couldn't run
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MessageChannelBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,108 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.game.RecordedGame;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the (de)serialization of the states sent to remote players after every move, taken from the end of a
+ * recorded game, where they are the largest, in both the text and the binary formats.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerdesBenchmark {
+
+    private PublicGameState gameState;
+    private PlayerState playerState;
+    private String serializedGameState;
+    private String serializedPlayerState;
+    private BinaryWriter writer;
+    private byte[] writtenGameState;
+    private byte[] writtenPlayerState;
+
+    @Setup
+    public void setup() {
+        RecordedGame game = new RecordedGame(2021);
+        gameState = game.publicState(1);
+        playerState = game.ownState(1);
+        serializedGameState = Serdes.publicGameStateSerde.serialize(gameState);
+        serializedPlayerState = Serdes.playerStateSerde.serialize(playerState);
+
+        writer = new BinaryWriter();
+        Serdes.publicGameStateSerde.write(writer, gameState);
+        writtenGameState = writer.toByteArray();
+        writer.reset();
+        Serdes.playerStateSerde.write(writer, playerState);
+        writtenPlayerState = writer.toByteArray();
+    }
+
+    @Benchmark
+    public String serializePublicGameState() {
+        return Serdes.publicGameStateSerde.serialize(gameState);
+    }
+
+    @Benchmark
+    public PublicGameState deserializePublicGameState() {
+        return Serdes.publicGameStateSerde.deserialize(serializedGameState);
+    }
+
+    @Benchmark
+    public String serializePlayerState() {
+        return Serdes.playerStateSerde.serialize(playerState);
+    }
+
+    @Benchmark
+    public PlayerState deserializePlayerState() {
+        return Serdes.playerStateSerde.deserialize(serializedPlayerState);
+    }
+
+    @Benchmark
+    public int writePublicGameState() {
+        writer.reset();
+        Serdes.publicGameStateSerde.write(writer, gameState);
+        return writer.size();
+    }
+
+    @Benchmark
+    public PublicGameState readPublicGameState() {
+        return Serdes.publicGameStateSerde.read(new BinaryReader(writtenGameState));
+    }
+
+    @Benchmark
+    public int writePlayerState() {
+        writer.reset();
+        Serdes.playerStateSerde.write(writer, playerState);
+        return writer.size();
+    }
+
+    @Benchmark
+    public PlayerState readPlayerState() {
+        return Serdes.playerStateSerde.read(new BinaryReader(writtenPlayerState));
+    }
+
+    /**
+     * Runs the benchmarks of this class
+     *
+     * @param args the program arguments (unused)
+     * @throws RunnerException if the benchmarks couldn't run
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SerdesBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,80 @@
+package ch.epfl.tchu.record;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Game;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.sim.AutomaticPlayer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the replay of a recorded game with the game played by automatic players, which is itself much faster
+ * than a game between humans.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReplayerBenchmark {
+
+    private static final long SEED = 2021;
+    private static final Map<PlayerId, String> PLAYER_NAMES =
+            Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles");
+
+    private GameRecord record;
+
+    @Setup
+    public void setup() throws IOException {
+        Path path = Files.createTempFile("tchu", ".log");
+        try {
+            GameLog.play(path, players(), PLAYER_NAMES, SEED);
+            record = GameLog.read(path);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    private static Map<PlayerId, Player> players() {
+        return Map.of(PlayerId.PLAYER_1, new AutomaticPlayer(AutomaticPlayer.Strategy.GREEDY, SEED),
+                PlayerId.PLAYER_2, new AutomaticPlayer(AutomaticPlayer.Strategy.GREEDY, SEED + 1));
+    }
+
+    @Benchmark
+    public Map<PlayerId, Integer> replay() {
+        return Replayer.replay(record);
+    }
+
+    @Benchmark
+    public Map<PlayerId, Integer> play() {
+        return Game.play(players(), PLAYER_NAMES, SortedBag.of(ChMap.tickets()), new Random(SEED));
+    }
+
+    /**
+     * Runs the benchmarks of this class
+     *
+     * @param args the program arguments (unused)
+     * @throws RunnerException if the benchmarks couldn't run
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ReplayerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
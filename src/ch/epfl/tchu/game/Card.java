@@ -58,11 +58,8 @@ public enum Card {
      */
 
     public static Card of(Color color) {
-        if (color == null) {
-            return LOCOMOTIVE;
-        } else {
-            return Card.valueOf(color.toString());
-        }
+        //The car cards are declared in the same order as the colors
+        return color == null ? LOCOMOTIVE : CARS.get(color.ordinal());
     }
 
     /**
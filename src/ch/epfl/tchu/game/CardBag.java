@@ -0,0 +1,226 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+import java.util.Map;
+
+/**
+ * Represents an immutable multiset of cards packed into a single long, which makes it a cheap replacement for
+ * SortedBag<Card> on the hot paths of the game (hands of the players, claim options...etc)
+ * <p>
+ * Every type of card gets a field of 7 bits: the 6 lower bits hold the multiplicity of the card (which can therefore
+ * go up to 63, way more than the 14 locomotives of the game) and the highest bit is a guard bit which is always 0 in
+ * a stored bag. The guard bits allow the comparison and subtraction of all the multiplicities at once.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+public final class CardBag {
+
+    /**
+     * The maximum multiplicity that a card can have inside a bag
+     */
+
+    public static final int MAX_COUNT = 63;
+
+    /**
+     * The empty bag of cards
+     */
+
+    public static final CardBag EMPTY = new CardBag(0L);
+
+    private static final int FIELD_BITS = 7;
+    private static final long COUNT_MASK = MAX_COUNT;
+    private static final long GUARDS = computeGuards();
+
+    private final long packed;
+
+    private CardBag(long packed) {
+        this.packed = packed;
+    }
+
+    private static long computeGuards() {
+        long guards = 0L;
+        for (Card card : Card.ALL)
+            guards |= (COUNT_MASK + 1) << shift(card);
+        return guards;
+    }
+
+    private static int shift(Card card) {
+        return card.ordinal() * FIELD_BITS;
+    }
+
+    /**
+     * Returns a bag containing the given number of occurrences of a card
+     *
+     * @param count the multiplicity of the card
+     * @param card  the card
+     * @return a bag containing count times the given card
+     * @throws IllegalArgumentException if the count is negative or bigger than MAX_COUNT
+     */
+
+    public static CardBag of(int count, Card card) {
+        Preconditions.checkArgument(count >= 0 && count <= MAX_COUNT);
+        return new CardBag((long) count << shift(card));
+    }
+
+    /**
+     * Returns a bag containing two cards with their respective multiplicity
+     *
+     * @param count1 the multiplicity of the first card
+     * @param card1  the first card
+     * @param count2 the multiplicity of the second card
+     * @param card2  the second card
+     * @return a bag containing count1 times card1 and count2 times card2
+     * @throws IllegalArgumentException if one of the counts is negative or if the bag would overflow
+     */
+
+    public static CardBag of(int count1, Card card1, int count2, Card card2) {
+        return of(count1, card1).union(of(count2, card2));
+    }
+
+    /**
+     * Returns a bag containing exactly the same cards as the given sorted bag
+     *
+     * @param cards the sorted bag to convert
+     * @return a bag containing the same cards as the given sorted bag
+     * @throws IllegalArgumentException if a card appears more than MAX_COUNT times in the given bag
+     */
+
+    public static CardBag of(SortedBag<Card> cards) {
+        long packed = 0L;
+        for (Map.Entry<Card, Integer> entry : cards.toMap().entrySet()) {
+            Preconditions.checkArgument(entry.getValue() <= MAX_COUNT);
+            packed |= (long) entry.getValue() << shift(entry.getKey());
+        }
+        return new CardBag(packed);
+    }
+
+    /**
+     * Returns the multiplicity of the given card in this bag
+     *
+     * @param card the card whose multiplicity is returned
+     * @return the number of times the card appears in the bag, 0 if it doesn't
+     */
+
+    public int countOf(Card card) {
+        return (int) ((packed >>> shift(card)) & COUNT_MASK);
+    }
+
+    /**
+     * Returns the total number of cards in this bag
+     *
+     * @return the size of the bag
+     */
+
+    public int size() {
+        int size = 0;
+        for (long p = packed; p != 0; p >>>= FIELD_BITS)
+            size += (int) (p & COUNT_MASK);
+        return size;
+    }
+
+    /**
+     * Returns true if the bag is empty
+     *
+     * @return true if the bag doesn't contain any card
+     */
+
+    public boolean isEmpty() {
+        return packed == 0L;
+    }
+
+    /**
+     * Returns true if the bag contains at least count times the given card
+     *
+     * @param count the minimum multiplicity
+     * @param card  the card to look for
+     * @return true if the card appears at least count times in the bag
+     */
+
+    public boolean contains(int count, Card card) {
+        return countOf(card) >= count;
+    }
+
+    /**
+     * Returns true if the given bag is included in this one. All the multiplicities are compared at once: the guard
+     * bit of a field survives the subtraction if and only if the multiplicity of this bag is the biggest one.
+     *
+     * @param that the bag that might be included in this one
+     * @return true if every card of that appears at least as many times in this bag
+     */
+
+    public boolean contains(CardBag that) {
+        return (((packed | GUARDS) - that.packed) & GUARDS) == GUARDS;
+    }
+
+    /**
+     * Returns a bag similar to this one with one more occurrence of the given card
+     *
+     * @param card the card to add
+     * @return a new bag with the card added
+     * @throws IllegalArgumentException if the card already appears MAX_COUNT times
+     */
+
+    public CardBag with(Card card) {
+        Preconditions.checkArgument(countOf(card) < MAX_COUNT);
+        return new CardBag(packed + (1L << shift(card)));
+    }
+
+    /**
+     * Returns the union of this bag and the given one
+     *
+     * @param that the bag to combine with this one
+     * @return a bag containing the cards of both bags
+     * @throws IllegalArgumentException if a multiplicity would exceed MAX_COUNT
+     */
+
+    public CardBag union(CardBag that) {
+        long sum = packed + that.packed;
+        Preconditions.checkArgument((sum & GUARDS) == 0);
+        return new CardBag(sum);
+    }
+
+    /**
+     * Returns the difference between this bag and the given one. As for SortedBag, the multiplicities never go below 0.
+     *
+     * @param that the bag whose cards are removed from this one
+     * @return a bag containing the cards of this bag that are not in that one
+     */
+
+    public CardBag difference(CardBag that) {
+        long subtracted = (packed | GUARDS) - that.packed;
+        long kept = subtracted & GUARDS;
+        return new CardBag(subtracted & (kept - (kept >>> (FIELD_BITS - 1))));
+    }
+
+    /**
+     * Returns a sorted bag containing the same cards as this bag
+     *
+     * @return the sorted bag corresponding to this bag
+     */
+
+    public SortedBag<Card> toSortedBag() {
+        SortedBag.Builder<Card> builder = new SortedBag.Builder<>();
+        for (Card card : Card.ALL)
+            builder.add(countOf(card), card);
+        return builder.build();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CardBag && ((CardBag) o).packed == packed;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(packed);
+    }
+
+    @Override
+    public String toString() {
+        return toSortedBag().toString();
+    }
+}
@@ -3,10 +3,10 @@ package ch.epfl.tchu.game;
 import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.util.Objects.checkIndex;
 
@@ -21,17 +21,35 @@ import static java.util.Objects.checkIndex;
 public final class CardState extends PublicCardState {
 
     private final List<Card> faceUpCards;
-    public final List<Card> deckCards;
-    private final List<Card> discardsCards;
 
+    //The deck holds the ordinals of its cards from deckTop to the end of the array, which is never modified so that
+    //drawing a card only moves deckTop in a new state sharing the same array
+    private final byte[] deck;
+    private final int deckTop;
 
-    private CardState(List<Card> faceUpCards, List<Card> deckCards, List<Card> discardsCards) {
+    //The discards are the first discardsSize ordinals of an append-only buffer. The buffer is shared by the states
+    //derived from one another, and a state may append to it in place as long as no other state has appended past
+    //its own discards (which is tracked by the buffer's high-water mark), otherwise it copies the buffer.
+    private final byte[] discards;
+    private final int discardsSize;
+    private final AtomicInteger discardsHighWater;
 
-        super(faceUpCards, deckCards.size(), discardsCards.size());
-        this.faceUpCards = List.copyOf(faceUpCards);
-        this.deckCards = List.copyOf(deckCards);
-        this.discardsCards = List.copyOf(discardsCards);
 
+    private CardState(List<Card> faceUpCards, byte[] deck, int deckTop, byte[] discards, int discardsSize,
+                      AtomicInteger discardsHighWater) {
+
+        super(faceUpCards, deck.length - deckTop, discardsSize);
+        this.faceUpCards = faceUpCards;
+        this.deck = deck;
+        this.deckTop = deckTop;
+        this.discards = discards;
+        this.discardsSize = discardsSize;
+        this.discardsHighWater = discardsHighWater;
+
+    }
+
+    private static CardState withoutDiscards(List<Card> faceUpCards, byte[] deck) {
+        return new CardState(faceUpCards, deck, 0, new byte[Constants.TOTAL_CARDS_COUNT], 0, new AtomicInteger());
     }
 
     /**
@@ -44,21 +62,60 @@ public final class CardState extends PublicCardState {
 
     public static CardState of(Deck<Card> deck) {
         Preconditions.checkArgument(deck.size() >= 5);
-        SortedBag.Builder<Card> builder = new SortedBag.Builder<Card>();
-        List<Card> faceUpCards = new ArrayList<>();
-        for (int i = 0; i < 5; ++i) {
-            faceUpCards.add(deck.topCard());
-            deck = deck.withoutTopCard();
-        }
+        List<Card> cards = deck.toList();
+        byte[] deckCards = new byte[cards.size() - 5];
+        for (int i = 0; i < deckCards.length; ++i)
+            deckCards[i] = (byte) cards.get(i + 5).ordinal();
+        return withoutDiscards(List.copyOf(cards.subList(0, 5)), deckCards);
+    }
 
-        List<Card> deckCards = new ArrayList<Card>();
-        while (!deck.isEmpty()) {
-            deckCards.add(deck.topCard());
-            deck = deck.withoutTopCard();
-        }
+    /**
+     * Returns the distribution of cards made of the given face up cards, deck (from its top card) and discards (in the
+     * order in which they were discarded, which is the one the deck is recreated from)
+     *
+     * @param faceUpCards the face up cards
+     * @param deckCards   the cards of the deck, from its top card
+     * @param discards    the discarded cards
+     * @return the distribution of cards
+     */
+    static CardState of(List<Card> faceUpCards, List<Card> deckCards, List<Card> discards) {
+        Preconditions.checkArgument(faceUpCards.size() == Constants.FACE_UP_CARDS_COUNT);
+        byte[] deck = ordinals(deckCards, deckCards.size());
+        byte[] discardsBuffer = ordinals(discards, Math.max(Constants.TOTAL_CARDS_COUNT, discards.size()));
+        return new CardState(List.copyOf(faceUpCards), deck, 0, discardsBuffer, discards.size(),
+                new AtomicInteger(discards.size()));
+    }
+
+    private static byte[] ordinals(List<Card> cards, int capacity) {
+        byte[] ordinals = new byte[capacity];
+        for (int i = 0; i < cards.size(); ++i)
+            ordinals[i] = (byte) cards.get(i).ordinal();
+        return ordinals;
+    }
 
-        List<Card> discardsCards = builder.build().toList();
-        return new CardState(faceUpCards, deckCards, discardsCards);
+    /**
+     * Returns the cards of the deck, from its top card
+     *
+     * @return the cards of the deck
+     */
+    List<Card> deckCards() {
+        return cards(deck, deckTop, deck.length);
+    }
+
+    /**
+     * Returns the discarded cards, in the order in which they were discarded
+     *
+     * @return the discarded cards
+     */
+    List<Card> discardedCards() {
+        return cards(discards, 0, discardsSize);
+    }
+
+    private static List<Card> cards(byte[] ordinals, int from, int to) {
+        Card[] cards = new Card[to - from];
+        for (int i = from; i < to; ++i)
+            cards[i - from] = Card.ALL.get(ordinals[i]);
+        return List.of(cards);
     }
 
     /**
@@ -70,12 +127,10 @@ public final class CardState extends PublicCardState {
      */
 
     public CardState withDrawnFaceUpCard(int slot) {
-        Preconditions.checkArgument(deckCards.size() != 0);
-        List<Card> tempFaceUpCards = new ArrayList<>(faceUpCards);
-        List<Card> tempDeckCards = new ArrayList<>(deckCards);
-        tempFaceUpCards.set(checkIndex(slot, 5), deckCards.get(0));
-        tempDeckCards.remove(0);
-        return new CardState(tempFaceUpCards, tempDeckCards, discardsCards);
+        Preconditions.checkArgument(!isDeckEmpty());
+        Card[] newFaceUpCards = faceUpCards.toArray(new Card[0]);
+        newFaceUpCards[checkIndex(slot, 5)] = topDeckCard();
+        return new CardState(List.of(newFaceUpCards), deck, deckTop + 1, discards, discardsSize, discardsHighWater);
     }
 
     /**
@@ -85,8 +140,8 @@ public final class CardState extends PublicCardState {
      */
 
     public Card topDeckCard() {
-        Preconditions.checkArgument(deckCards.size() != 0);
-        return deckCards.get(0);
+        Preconditions.checkArgument(!isDeckEmpty());
+        return Card.ALL.get(deck[deckTop]);
     }
 
     /**
@@ -96,12 +151,8 @@ public final class CardState extends PublicCardState {
      */
 
     public CardState withoutTopDeckCard() {
-        Preconditions.checkArgument(deckCards.size() != 0);
-        List<Card> tempDeckCards = new ArrayList<>(deckCards);
-        tempDeckCards.remove(0);
-        List<Card> tempFaceUp = new ArrayList<>(faceUpCards);
-        List<Card> tempDiscardsCards = new ArrayList<>(discardsCards);
-        return new CardState(tempFaceUp, tempDeckCards, tempDiscardsCards);
+        Preconditions.checkArgument(!isDeckEmpty());
+        return new CardState(faceUpCards, deck, deckTop + 1, discards, discardsSize, discardsHighWater);
     }
 
     /**
@@ -114,11 +165,16 @@ public final class CardState extends PublicCardState {
 
 
     public CardState withDeckRecreatedFromDiscards(Random rng) {
-        Preconditions.checkArgument(deckCards.size() == 0);
-        List<Card> newDeckCards = new ArrayList<>(discardsCards);
-        List<Card> newDiscardsCards = new ArrayList<>();
-        Collections.shuffle(newDeckCards, rng);
-        return new CardState(faceUpCards, newDeckCards, newDiscardsCards);
+        Preconditions.checkArgument(isDeckEmpty());
+        byte[] newDeck = Arrays.copyOf(discards, discardsSize);
+        //Same algorithm as Collections.shuffle, so that a given random generator gives the same deck as before
+        for (int i = newDeck.length; i > 1; --i) {
+            int j = rng.nextInt(i);
+            byte card = newDeck[i - 1];
+            newDeck[i - 1] = newDeck[j];
+            newDeck[j] = card;
+        }
+        return withoutDiscards(faceUpCards, newDeck);
     }
 
     /**
@@ -129,8 +185,20 @@ public final class CardState extends PublicCardState {
      */
 
     public CardState withMoreDiscardedCards(SortedBag<Card> additionalDiscards) {
-        List<Card> newDiscardsCards = new ArrayList<>(discardsCards);
-        newDiscardsCards.addAll(additionalDiscards.toList());
-        return new CardState(faceUpCards, deckCards, newDiscardsCards);
+        if (additionalDiscards.isEmpty())
+            return this;
+
+        int newSize = discardsSize + additionalDiscards.size();
+        byte[] newDiscards = discards;
+        AtomicInteger newHighWater = discardsHighWater;
+        if (newSize > discards.length || !discardsHighWater.compareAndSet(discardsSize, newSize)) {
+            newDiscards = Arrays.copyOf(discards, Math.max(discards.length, newSize));
+            newHighWater = new AtomicInteger(newSize);
+        }
+
+        int i = discardsSize;
+        for (Card card : additionalDiscards)
+            newDiscards[i++] = (byte) card.ordinal();
+        return new CardState(faceUpCards, deck, deckTop, newDiscards, newSize, newHighWater);
     }
 }
@@ -14,12 +14,16 @@ import java.util.*;
 
 public final class Deck<C extends Comparable<C>> {
 
+    //The cards are stored in an array shared by all the decks derived from the same shuffled deck, each deck seeing
+    //the cards from offset (its top card) to offset + size
+    private final Object[] cards;
+    private final int offset;
     private final int size;
-    private final List<C> deck;
 
 
-    private Deck(int size, List<C> deck) {
-        this.deck = new ArrayList<>(deck);
+    private Deck(Object[] cards, int offset, int size) {
+        this.cards = cards;
+        this.offset = offset;
         this.size = size;
     }
 
@@ -34,7 +38,7 @@ public final class Deck<C extends Comparable<C>> {
     public static <C extends Comparable<C>> Deck<C> of(SortedBag<C> cards, Random rng) {
         List<C> tempList = cards.toList();
         Collections.shuffle(tempList, rng);
-        return new Deck<C>(tempList.size(), tempList);
+        return new Deck<C>(tempList.toArray(), 0, tempList.size());
     }
 
     /**
@@ -65,7 +69,7 @@ public final class Deck<C extends Comparable<C>> {
         if (isEmpty()) {
             throw new IllegalArgumentException();
         }
-        return deck.get(0);
+        return card(0);
     }
 
     /**
@@ -77,9 +81,7 @@ public final class Deck<C extends Comparable<C>> {
         if (isEmpty()) {
             throw new IllegalArgumentException();
         }
-        List<C> newList = new ArrayList<C>(deck);
-        newList.remove(0);
-        return new Deck<C>(size - 1, newList);
+        return new Deck<C>(cards, offset + 1, size - 1);
     }
 
     /**
@@ -92,9 +94,21 @@ public final class Deck<C extends Comparable<C>> {
         Preconditions.checkArgument(count >= 0);
         Preconditions.checkArgument(count <= size);
 
+        if (count == 0)
+            return SortedBag.of();
+        if (count == 1)
+            return SortedBag.of(card(0));
+
+        //Sorting the top cards lets the builder insert every distinct card once, with its multiplicity
+        Object[] topCards = Arrays.copyOfRange(cards, offset, offset + count);
+        Arrays.sort(topCards);
         SortedBag.Builder<C> builder = new SortedBag.Builder<C>();
-        for (int i = 0; i < count; ++i)
-            builder.add(deck.get(i));
+        int start = 0;
+        for (int i = 1; i <= count; ++i)
+            if (i == count || !topCards[i].equals(topCards[start])) {
+                builder.add(i - start, cast(topCards[start]));
+                start = i;
+            }
 
         return builder.build();
     }
@@ -109,11 +123,40 @@ public final class Deck<C extends Comparable<C>> {
         Preconditions.checkArgument(count >= 0);
         Preconditions.checkArgument(count <= size);
 
-        List<C> tempList = new ArrayList<>();
+        return new Deck<>(cards, offset + count, size - count);
+    }
+
+    /**
+     * Returns a deck made of the given cards, in the given order, the first one being its top card
+     *
+     * @param cards the cards of the deck, from the top one to the bottom one
+     * @param <C>   the type of the cards
+     * @return a deck made of the given cards
+     */
+
+    static <C extends Comparable<C>> Deck<C> ofOrdered(List<C> cards) {
+        return new Deck<C>(cards.toArray(), 0, cards.size());
+    }
 
-        for (int i = count; i < size; ++i)
-            tempList.add(deck.get(i));
+    /**
+     * Returns the cards of this deck, from the top one to the bottom one
+     *
+     * @return an immutable list of the cards of the deck
+     */
+
+    List<C> toList() {
+        List<C> list = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i)
+            list.add(card(i));
+        return Collections.unmodifiableList(list);
+    }
+
+    private C card(int index) {
+        return cast(cards[offset + index]);
+    }
 
-        return new Deck<>(size - count, tempList);
+    @SuppressWarnings("unchecked")
+    private C cast(Object card) {
+        return (C) card;
     }
 }
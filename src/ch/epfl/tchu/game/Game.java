@@ -4,12 +4,16 @@ import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.gui.Info;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 
 /**
- * This class represents a game of tChu. It takes care of "playing" the game correctly from start to end.
+ * This class represents a game of tChu. It takes care of "playing" the game correctly from start to end, for 2 or 3
+ * players (the players taking part in a game are the first ones of PlayerId.ALL).
  *
  * @author Marvin Chedid (302446)
  * @author Johnny Borkhoche (296169)
@@ -22,60 +26,60 @@ public final class Game {
     /**
      * This method facilitates the running of a game of tChu. It essentially "plays" the game's steps, as its name intends.
      *
-     * @param players     a map of 2 players, associating each player Id with its player
-     * @param playerNames a map of 2 players, which associates each player Id to a name
+     * @param players     a map of 2 or 3 players, associating each player Id with its player
+     * @param playerNames a map of the same players, which associates each player Id to a name
      * @param tickets     a sorted bag of tickets
      * @param rng         the random variable that will be used to create the initial state of the game, shuffle the cards, create decks when needed..etc
+     * @return the final points of each player, longest trail bonus included
+     * @throws IllegalArgumentException if there are less than 2 players, or if the two maps don't have the same players
      */
-    public static void play(Map<PlayerId, Player> players, Map<PlayerId, String> playerNames,
+    public static Map<PlayerId, Integer> play(Map<PlayerId, Player> players, Map<PlayerId, String> playerNames,
                             SortedBag<Ticket> tickets, Random rng) {
 
-        //Creating initial game state
-        GameState gameTurn = GameState.initial(tickets, rng, 2);
+        Preconditions.checkArgument(players.size() >= 2 && players.size() <= PlayerId.COUNT);
+        Preconditions.checkArgument(playerNames.size() == players.size());
 
+        List<PlayerId> playerIds = PlayerId.ALL.subList(0, players.size());
+        Preconditions.checkArgument(players.keySet().containsAll(playerIds)
+                && playerNames.keySet().containsAll(playerIds));
 
-        Preconditions.checkArgument(players.size() == PlayerId.COUNT - 1);
-        Preconditions.checkArgument(playerNames.size() == PlayerId.COUNT - 1);
+        //Creating initial game state
+        GameState gameTurn = GameState.initial(tickets, rng, playerIds.size());
 
-        Info player1 = new Info(playerNames.get(PlayerId.PLAYER_1));
-        Info player2 = new Info(playerNames.get(PlayerId.PLAYER_2));
+        Map<PlayerId, Info> infos = new EnumMap<>(PlayerId.class);
+        for (PlayerId playerId : playerIds)
+            infos.put(playerId, new Info(playerNames.get(playerId)));
 
         //Initializing players
-        players.get(PlayerId.PLAYER_1).initPlayers(PlayerId.PLAYER_1, playerNames);
-        players.get(PlayerId.PLAYER_1).updateState(gameTurn, gameTurn.playerState(PlayerId.PLAYER_1));
-        players.get(PlayerId.PLAYER_2).initPlayers(PlayerId.PLAYER_2, playerNames);
-        players.get(PlayerId.PLAYER_2).updateState(gameTurn, gameTurn.playerState(PlayerId.PLAYER_2));
+        for (PlayerId playerId : playerIds) {
+            players.get(playerId).initPlayers(playerId, playerNames);
+            players.get(playerId).updateState(gameTurn, gameTurn.playerState(playerId));
+        }
 
         //Informing the players of who is starting
-        if (gameTurn.currentPlayerId() == PlayerId.PLAYER_1)
-            sendInfoToPlayers(players, player1.willPlayFirst());
-        else
-            sendInfoToPlayers(players, player2.willPlayFirst());
+        sendInfoToPlayers(players, infos.get(gameTurn.currentPlayerId()).willPlayFirst());
 
 
         //Players choose their initial tickets
-        players.get(PlayerId.PLAYER_1).setInitialTicketChoice(gameTurn.topTickets(Constants.INITIAL_TICKETS_COUNT));
-        gameTurn = gameTurn.withoutTopTickets(Constants.INITIAL_TICKETS_COUNT);
-        players.get(PlayerId.PLAYER_2).setInitialTicketChoice(gameTurn.topTickets(Constants.INITIAL_TICKETS_COUNT));
-        gameTurn = gameTurn.withoutTopTickets(Constants.INITIAL_TICKETS_COUNT);
+        for (PlayerId playerId : playerIds) {
+            players.get(playerId).setInitialTicketChoice(gameTurn.topTickets(Constants.INITIAL_TICKETS_COUNT));
+            gameTurn = gameTurn.withoutTopTickets(Constants.INITIAL_TICKETS_COUNT);
+        }
 
         informPlayersOfGameState(players, gameTurn);
 
-        gameTurn = gameTurn.withInitiallyChosenTickets(PlayerId.PLAYER_1,
-                players.get(PlayerId.PLAYER_1).chooseInitialTickets());
-        gameTurn = gameTurn.withInitiallyChosenTickets(PlayerId.PLAYER_2,
-                players.get(PlayerId.PLAYER_2).chooseInitialTickets());
+        for (PlayerId playerId : playerIds)
+            gameTurn = gameTurn.withInitiallyChosenTickets(playerId, players.get(playerId).chooseInitialTickets());
 
-
-        sendInfoToPlayers(players, player1.keptTickets(gameTurn.playerState(PlayerId.PLAYER_1).ticketCount()));
-        sendInfoToPlayers(players, player2.keptTickets(gameTurn.playerState(PlayerId.PLAYER_2).ticketCount()));
+        for (PlayerId playerId : playerIds)
+            sendInfoToPlayers(players, infos.get(playerId).keptTickets(gameTurn.playerState(playerId).ticketCount()));
 
         //Game starts
         do {
 
             Player currentPlayer = players.get(gameTurn.currentPlayerId());
             PlayerState currentPlayerState = gameTurn.currentPlayerState();
-            Info currentPlayerInfo = (gameTurn.currentPlayerId() == PlayerId.PLAYER_1) ? player1 : player2;
+            Info currentPlayerInfo = infos.get(gameTurn.currentPlayerId());
             sendInfoToPlayers(players, currentPlayerInfo.canPlay());
             informPlayersOfGameState(players, gameTurn);
             Player.TurnKind turn = currentPlayer.nextTurn();
@@ -189,33 +193,45 @@ public final class Game {
         //Final counting
         informPlayersOfGameState(players, gameTurn);
 
-        int pointsPlayer1 = gameTurn.playerState(PlayerId.PLAYER_1).finalPoints();
-        int pointsPlayer2 = gameTurn.playerState(PlayerId.PLAYER_2).finalPoints();
-
-        Trail longestPlayer1 = Trail.longest(gameTurn.playerState(PlayerId.PLAYER_1).routes());
-        Trail longestPlayer2 = Trail.longest(gameTurn.playerState(PlayerId.PLAYER_2).routes());
-
-        if (longestPlayer1.length() > longestPlayer2.length()) {
-            sendInfoToPlayers(players, player1.getsLongestTrailBonus(longestPlayer1));
-            pointsPlayer1 += Constants.LONGEST_TRAIL_BONUS_POINTS;
-        } else if (longestPlayer1.length() < longestPlayer2.length()) {
-            sendInfoToPlayers(players, player2.getsLongestTrailBonus(longestPlayer2));
-            pointsPlayer2 += Constants.LONGEST_TRAIL_BONUS_POINTS;
-        } else {
-            pointsPlayer1 += Constants.LONGEST_TRAIL_BONUS_POINTS;
-            pointsPlayer2 += Constants.LONGEST_TRAIL_BONUS_POINTS;
-            sendInfoToPlayers(players, player1.getsLongestTrailBonus(longestPlayer1));
-            sendInfoToPlayers(players, player2.getsLongestTrailBonus(longestPlayer2));
+        Map<PlayerId, Integer> points = new EnumMap<>(PlayerId.class);
+        Map<PlayerId, Trail> longestTrails = new EnumMap<>(PlayerId.class);
+        int longestLength = 0;
+        for (PlayerId playerId : playerIds) {
+            points.put(playerId, gameTurn.playerState(playerId).finalPoints());
+            Trail longest = Trail.longest(gameTurn.playerState(playerId).routes());
+            longestTrails.put(playerId, longest);
+            longestLength = Math.max(longestLength, longest.length());
         }
 
-        if (pointsPlayer1 > pointsPlayer2)
-            sendInfoToPlayers(players, player1.won(pointsPlayer1, pointsPlayer2));
-        else if (pointsPlayer1 < pointsPlayer2)
-            sendInfoToPlayers(players, player2.won(pointsPlayer2, pointsPlayer1));
-        else
-            sendInfoToPlayers(players, Info.draw(List.of(playerNames.get(PlayerId.PLAYER_1),
-                    playerNames.get(PlayerId.PLAYER_2)), pointsPlayer1));
+        //Every player whose trail is the longest (possibly several of them) gets the bonus
+        for (PlayerId playerId : playerIds)
+            if (longestTrails.get(playerId).length() == longestLength) {
+                sendInfoToPlayers(players, infos.get(playerId).getsLongestTrailBonus(longestTrails.get(playerId)));
+                points.merge(playerId, Constants.LONGEST_TRAIL_BONUS_POINTS, Integer::sum);
+            }
+
+        int maxPoints = Integer.MIN_VALUE;
+        for (PlayerId playerId : playerIds)
+            maxPoints = Math.max(maxPoints, points.get(playerId));
+
+        List<PlayerId> winners = new ArrayList<>();
+        int bestLoserPoints = Integer.MIN_VALUE;
+        for (PlayerId playerId : playerIds)
+            if (points.get(playerId) == maxPoints)
+                winners.add(playerId);
+            else
+                bestLoserPoints = Math.max(bestLoserPoints, points.get(playerId));
+
+        if (winners.size() == 1)
+            sendInfoToPlayers(players, infos.get(winners.get(0)).won(maxPoints, bestLoserPoints));
+        else {
+            List<String> winnerNames = new ArrayList<>();
+            for (PlayerId winner : winners)
+                winnerNames.add(playerNames.get(winner));
+            sendInfoToPlayers(players, Info.draw(winnerNames, maxPoints));
+        }
 
+        return Collections.unmodifiableMap(points);
     }
 
     /**
@@ -225,8 +241,8 @@ public final class Game {
      * @param info    the info to send to all players
      */
     private static void sendInfoToPlayers(Map<PlayerId, Player> players, String info) {
-        players.get(PlayerId.PLAYER_1).receiveInfo(info);
-        players.get(PlayerId.PLAYER_2).receiveInfo(info);
+        for (PlayerId playerToInform : PlayerId.ALL.subList(0, players.size()))
+            players.get(playerToInform).receiveInfo(info);
     }
 
     /**
@@ -236,9 +252,8 @@ public final class Game {
      * @param gameState the updated game state
      */
     private static void informPlayersOfGameState(Map<PlayerId, Player> players, GameState gameState) {
-        for (PlayerId playerToInform : PlayerId.ALL)
-            if (playerToInform != PlayerId.PLAYER_3)
-                players.get(playerToInform).updateState(gameState, gameState.playerState(playerToInform));
+        for (PlayerId playerToInform : PlayerId.ALL.subList(0, players.size()))
+            players.get(playerToInform).updateState(gameState, gameState.playerState(playerToInform));
 
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -19,12 +19,21 @@ public final class GameState extends PublicGameState {
     private final CardState privateCardState;
     private final PlayerId currentPlayerId;
     private final PlayerId lastPlayer;
-    final Map<PlayerId, PlayerState> privatePlayerState;
+    //Never modified once the state is built, so that it can be shared with the next states
+    private final EnumMap<PlayerId, PlayerState> privatePlayerState;
 
+    GameState(Deck<Ticket> allTickets, int ticketsCount, CardState privateCardState, PlayerId currentPlayerId,
+              EnumMap<PlayerId, PlayerState> privatePlayerState, PlayerId lastPlayer) {
+        this(allTickets, ticketsCount, privateCardState, currentPlayerId, privatePlayerState, lastPlayer,
+                RouteOwnership.of(privatePlayerState));
+    }
+
+    //Used by the transitions, which pass on the route ownership of the previous state or derive it from there
     private GameState(Deck<Ticket> allTickets, int ticketsCount, CardState privateCardState, PlayerId currentPlayerId,
-                      Map<PlayerId, PlayerState> privatePlayerState, PlayerId lastPlayer) {
+                      EnumMap<PlayerId, PlayerState> privatePlayerState, PlayerId lastPlayer,
+                      RouteOwnership routeOwnership) {
 
-        super(ticketsCount, privateCardState, currentPlayerId, new TreeMap<>(privatePlayerState), lastPlayer);
+        super(ticketsCount, privateCardState, currentPlayerId, lastPlayer, privatePlayerState, routeOwnership);
 
         Preconditions.checkArgument(allTickets.size() >= 0);
         Preconditions.checkArgument(allTickets.size() == ticketsCount);
@@ -34,7 +43,14 @@ public final class GameState extends PublicGameState {
         this.privateCardState = privateCardState;
         this.currentPlayerId = currentPlayerId;
         this.lastPlayer = lastPlayer;
-        this.privatePlayerState = new TreeMap<>(privatePlayerState);
+        this.privatePlayerState = privatePlayerState;
+    }
+
+    //Returns a copy of the player states where the state of the given player is replaced, the others being shared
+    private EnumMap<PlayerId, PlayerState> withPlayerState(PlayerId playerId, PlayerState playerState) {
+        EnumMap<PlayerId, PlayerState> newPlayerState = privatePlayerState.clone();
+        newPlayerState.put(playerId, playerState);
+        return newPlayerState;
     }
 
     /**
@@ -68,7 +84,7 @@ public final class GameState extends PublicGameState {
         CardState publicCardState = CardState.of(deckCards);
         PlayerId currentPlayerId = PlayerId.ALL.get(rng.nextInt(2));
 
-        Map<PlayerId, PlayerState> privatePlayerState = new TreeMap<>();
+        EnumMap<PlayerId, PlayerState> privatePlayerState = new EnumMap<>(PlayerId.class);
 
         privatePlayerState.putIfAbsent(PlayerId.PLAYER_1, PlayerState.initial(builderPlayer1.build()));
         privatePlayerState.putIfAbsent(PlayerId.PLAYER_2, PlayerState.initial(builderPlayer2.build()));
@@ -79,6 +95,62 @@ public final class GameState extends PublicGameState {
     }
 
 
+    /**
+     * Returns a complete game state which the given player cannot tell apart from the actual one, given what it knows:
+     * the public state of the game and its own state. The cards it cannot see are dealt at random to the hands of the
+     * other players, the deck and the discards, and the tickets it cannot see are drawn at random from the given ones
+     * and dealt to the other players and the ticket deck. Search algorithms sample such states to play as if they knew
+     * the whole state.
+     *
+     * @param publicState   the public state of the game
+     * @param ownId         the identity of the player
+     * @param ownState      the state of the player
+     * @param unseenTickets the tickets that may be in the ticket deck or held by the other players
+     * @param rng           the random generator dealing the unseen cards and tickets
+     * @return a complete game state consistent with the given states
+     * @throws IllegalArgumentException if the number of unseen cards doesn't match the public state, or if there are
+     *                                  not enough unseen tickets
+     */
+    public static GameState determinized(PublicGameState publicState, PlayerId ownId, PlayerState ownState,
+                                         SortedBag<Ticket> unseenTickets, Random rng) {
+        PublicCardState publicCardState = publicState.cardState();
+        List<Card> unseenCards = Constants.ALL_CARDS
+                .difference(ownState.cards())
+                .difference(SortedBag.of(publicCardState.faceUpCards()))
+                .toList();
+        Collections.shuffle(unseenCards, rng);
+        List<Ticket> tickets = unseenTickets.toList();
+        Collections.shuffle(tickets, rng);
+
+        int cardIndex = 0;
+        int ticketIndex = 0;
+        EnumMap<PlayerId, PlayerState> playerStates = new EnumMap<>(PlayerId.class);
+        for (Map.Entry<PlayerId, PublicPlayerState> e : publicState.getPlayerState().entrySet()) {
+            if (e.getKey() == ownId) {
+                playerStates.put(ownId, ownState);
+                continue;
+            }
+            PublicPlayerState playerState = e.getValue();
+            Preconditions.checkArgument(cardIndex + playerState.cardCount() <= unseenCards.size()
+                    && ticketIndex + playerState.ticketCount() <= tickets.size());
+            playerStates.put(e.getKey(), new PlayerState(
+                    SortedBag.of(tickets.subList(ticketIndex, ticketIndex += playerState.ticketCount())),
+                    SortedBag.of(unseenCards.subList(cardIndex, cardIndex += playerState.cardCount())),
+                    playerState.routes()));
+        }
+
+        int deckEnd = cardIndex + publicCardState.deckSize();
+        Preconditions.checkArgument(deckEnd + publicCardState.discardsSize() == unseenCards.size()
+                && ticketIndex + publicState.ticketsCount() <= tickets.size());
+        CardState cardState = CardState.of(publicCardState.faceUpCards(), unseenCards.subList(cardIndex, deckEnd),
+                unseenCards.subList(deckEnd, unseenCards.size()));
+        Deck<Ticket> ticketDeck = Deck.of(
+                SortedBag.of(tickets.subList(ticketIndex, ticketIndex + publicState.ticketsCount())), rng);
+
+        return new GameState(ticketDeck, publicState.ticketsCount(), cardState, publicState.currentPlayerId(),
+                playerStates, publicState.lastPlayer(), publicState.routeOwnership());
+    }
+
     /**
      * Returns the count number of tickets from the top of the tickets deck. Throws an exception if the tickets deck is
      * empty, or if you are trying to return more tickets than there actually are
@@ -100,7 +172,7 @@ public final class GameState extends PublicGameState {
     public GameState withoutTopTickets(int count) {
         Preconditions.checkArgument(count >= 0 && count <= ticketsCount);
         return new GameState(allTickets.withoutTopCards(count), ticketsCount - count, privateCardState, currentPlayerId,
-                privatePlayerState, lastPlayer);
+                privatePlayerState, lastPlayer, routeOwnership());
     }
 
     /**
@@ -121,7 +193,7 @@ public final class GameState extends PublicGameState {
     public GameState withoutTopCard() {
         Preconditions.checkArgument(privateCardState.deckSize() > 0);
         return new GameState(allTickets, ticketsCount, privateCardState.withoutTopDeckCard(), currentPlayerId,
-                privatePlayerState, lastPlayer);
+                privatePlayerState, lastPlayer, routeOwnership());
     }
 
     /**
@@ -133,7 +205,7 @@ public final class GameState extends PublicGameState {
      */
     public GameState withMoreDiscardedCards(SortedBag<Card> discardedCards) {
         return new GameState(allTickets, ticketsCount, privateCardState.withMoreDiscardedCards(discardedCards),
-                currentPlayerId, privatePlayerState, lastPlayer);
+                currentPlayerId, privatePlayerState, lastPlayer, routeOwnership());
     }
 
     /**
@@ -144,9 +216,9 @@ public final class GameState extends PublicGameState {
      * @return a game state similar to the previous one, with the deck of cards recreated if needed
      */
     public GameState withCardsDeckRecreatedIfNeeded(Random rng) {
-        return privateCardState.deckCards.size() == 0
-                ? new GameState(allTickets, ticketsCount, privateCardState.withDeckRecreatedFromDiscards(rng), currentPlayerId, privatePlayerState, lastPlayer)
-                : new GameState(allTickets, ticketsCount, privateCardState, currentPlayerId, privatePlayerState, lastPlayer);
+        return privateCardState.isDeckEmpty()
+                ? new GameState(allTickets, ticketsCount, privateCardState.withDeckRecreatedFromDiscards(rng), currentPlayerId, privatePlayerState, lastPlayer, routeOwnership())
+                : this;
     }
 
     /**
@@ -159,9 +231,9 @@ public final class GameState extends PublicGameState {
      */
     public GameState withInitiallyChosenTickets(PlayerId playerId, SortedBag<Ticket> chosenTickets) {
         Preconditions.checkArgument(privatePlayerState.get(playerId).tickets().size() < 1);
-        Map<PlayerId, PlayerState> mapToReturn = new TreeMap<>(privatePlayerState);
-        mapToReturn.put(playerId, mapToReturn.get(playerId).withAddedTickets(chosenTickets));
-        return new GameState(allTickets, ticketsCount, privateCardState, currentPlayerId, mapToReturn, lastPlayer);
+        EnumMap<PlayerId, PlayerState> mapToReturn =
+                withPlayerState(playerId, privatePlayerState.get(playerId).withAddedTickets(chosenTickets));
+        return new GameState(allTickets, ticketsCount, privateCardState, currentPlayerId, mapToReturn, lastPlayer, routeOwnership());
     }
 
     /**
@@ -175,9 +247,9 @@ public final class GameState extends PublicGameState {
     public GameState withChosenAdditionalTickets(SortedBag<Ticket> drawnTickets, SortedBag<Ticket> chosenTickets) {
         Preconditions.checkArgument(drawnTickets.contains(chosenTickets));
         Deck<Ticket> allTicketsToReturn = allTickets.withoutTopCards(drawnTickets.size());
-        Map<PlayerId, PlayerState> mapToReturn = new TreeMap<>(privatePlayerState);
-        mapToReturn.put(currentPlayerId, mapToReturn.get(currentPlayerId).withAddedTickets(chosenTickets));
-        return new GameState(allTicketsToReturn, ticketsCount - drawnTickets.size(), privateCardState, currentPlayerId, mapToReturn, lastPlayer);
+        EnumMap<PlayerId, PlayerState> mapToReturn =
+                withPlayerState(currentPlayerId, currentPlayerState().withAddedTickets(chosenTickets));
+        return new GameState(allTicketsToReturn, ticketsCount - drawnTickets.size(), privateCardState, currentPlayerId, mapToReturn, lastPlayer, routeOwnership());
     }
 
     /**
@@ -189,10 +261,10 @@ public final class GameState extends PublicGameState {
      */
     public GameState withDrawnFaceUpCard(int slot) {
         Preconditions.checkArgument(canDrawCards());
-        Map<PlayerId, PlayerState> mapToReturn = new TreeMap<>(privatePlayerState);
-        mapToReturn.put(currentPlayerId, mapToReturn.get(currentPlayerId).withAddedCard(privateCardState.faceUpCard(slot)));
+        EnumMap<PlayerId, PlayerState> mapToReturn =
+                withPlayerState(currentPlayerId, currentPlayerState().withAddedCard(privateCardState.faceUpCard(slot)));
         CardState cardStateToReturn = privateCardState.withDrawnFaceUpCard(slot);
-        return new GameState(allTickets, ticketsCount, cardStateToReturn, currentPlayerId, mapToReturn, lastPlayer);
+        return new GameState(allTickets, ticketsCount, cardStateToReturn, currentPlayerId, mapToReturn, lastPlayer, routeOwnership());
     }
 
     /**
@@ -203,10 +275,10 @@ public final class GameState extends PublicGameState {
      */
     public GameState withBlindlyDrawnCard() {
         Preconditions.checkArgument(canDrawCards());
-        Map<PlayerId, PlayerState> mapToReturn = new TreeMap<>(privatePlayerState);
-        mapToReturn.put(currentPlayerId, mapToReturn.get(currentPlayerId).withAddedCard(privateCardState.topDeckCard()));
+        EnumMap<PlayerId, PlayerState> mapToReturn =
+                withPlayerState(currentPlayerId, currentPlayerState().withAddedCard(privateCardState.topDeckCard()));
         CardState cardStateToReturn = privateCardState.withoutTopDeckCard();
-        return new GameState(allTickets, ticketsCount, cardStateToReturn, currentPlayerId, mapToReturn, lastPlayer);
+        return new GameState(allTickets, ticketsCount, cardStateToReturn, currentPlayerId, mapToReturn, lastPlayer, routeOwnership());
     }
 
     /**
@@ -218,10 +290,10 @@ public final class GameState extends PublicGameState {
      * @return a game state where the current player has claimed the route given using the cards provided
      */
     public GameState withClaimedRoute(Route route, SortedBag<Card> cards) {
-        Map<PlayerId, PlayerState> mapToReturn = new TreeMap<>(privatePlayerState);
-        PlayerState playerToReturn = mapToReturn.get(currentPlayerId).withClaimedRoute(route, cards);
-        mapToReturn.put(currentPlayerId, playerToReturn);
-        return new GameState(allTickets, ticketsCount, privateCardState.withMoreDiscardedCards(cards), currentPlayerId, mapToReturn, lastPlayer);
+        EnumMap<PlayerId, PlayerState> mapToReturn =
+                withPlayerState(currentPlayerId, currentPlayerState().withClaimedRoute(route, cards));
+        return new GameState(allTickets, ticketsCount, privateCardState.withMoreDiscardedCards(cards), currentPlayerId, mapToReturn, lastPlayer,
+                routeOwnership().withClaimedRoute(route, currentPlayerId));
     }
 
     /**
@@ -248,8 +320,26 @@ public final class GameState extends PublicGameState {
         else
             playerIdToReturn = currentPlayerId.next3Players();
         return lastTurnBegins()
-                ? new GameState(allTickets, ticketsCount, privateCardState, playerIdToReturn, privatePlayerState, playerIdToReturn) //playerIdToReturn.next();
-                : new GameState(allTickets, ticketsCount, privateCardState, playerIdToReturn, privatePlayerState, lastPlayer);
+                ? new GameState(allTickets, ticketsCount, privateCardState, playerIdToReturn, privatePlayerState, playerIdToReturn, routeOwnership()) //playerIdToReturn.next();
+                : new GameState(allTickets, ticketsCount, privateCardState, playerIdToReturn, privatePlayerState, lastPlayer, routeOwnership());
+    }
+
+    /**
+     * Returns the ticket deck
+     *
+     * @return the ticket deck
+     */
+    Deck<Ticket> ticketDeck() {
+        return allTickets;
+    }
+
+    /**
+     * Returns the complete distribution of cards, including the deck and discards
+     *
+     * @return the complete distribution of cards
+     */
+    CardState fullCardState() {
+        return privateCardState;
     }
 
     /**
@@ -0,0 +1,774 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Represents the state of a game of tChu as a mutable set of primitive arrays, for the search algorithms which explore
+ * many hypothetical turns from a given state. Unlike GameState, whose transitions build a new state, the transitions of
+ * this class modify the state in place and record in a journal how to revert themselves: a search plays a turn,
+ * explores from there, and then undoes the turn back to a mark, without building any state.
+ * <p>
+ * The transitions follow the same rules as the ones of GameState, so that a state converted from a GameState and going
+ * through the same transitions, with the same random generator, converts back to the same GameState. The routes must be
+ * the ones of ChMap.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+public final class MutableGameState {
+
+    private static final List<Route> ROUTES = ChMap.routes();
+    private static final Map<Route, Integer> ROUTE_INDICES = new HashMap<>();
+    //The possible claim cards of each route, in the same order, each one packed as its car (LOCOMOTIVE if none), count
+    //of cars and count of locomotives
+    private static final int[][] CLAIM_OPTIONS = new int[ChMap.routes().size()][];
+    private static final int NO_PLAYER = -1;
+
+    //The operations of the journal, each recorded after its operands
+    private static final int TOP_TICKETS_REMOVED = 0;
+    private static final int TICKETS_ADDED = 1;
+    private static final int BLIND_CARD_DRAWN = 2;
+    private static final int FACE_UP_CARD_DRAWN = 3;
+    private static final int TOP_CARD_REMOVED = 4;
+    private static final int CARDS_DISCARDED = 5;
+    private static final int ROUTE_CLAIMED = 6;
+    private static final int DECK_RECREATED = 7;
+    private static final int TURN_ENDED = 8;
+
+    static {
+        for (int i = 0; i < ROUTES.size(); ++i) {
+            ROUTE_INDICES.put(ROUTES.get(i), i);
+            List<SortedBag<Card>> possibleCards = ROUTES.get(i).possibleClaimCards();
+            CLAIM_OPTIONS[i] = new int[possibleCards.size()];
+            for (int j = 0; j < possibleCards.size(); ++j) {
+                SortedBag<Card> cards = possibleCards.get(j);
+                Card car = Card.LOCOMOTIVE;
+                for (Card card : cards.toSet())
+                    if (card != Card.LOCOMOTIVE)
+                        car = card;
+                int locomotives = cards.countOf(Card.LOCOMOTIVE);
+                CLAIM_OPTIONS[i][j] = car.ordinal() << 16 | (cards.size() - locomotives) << 8 | locomotives;
+            }
+        }
+    }
+
+    private final int playerCount;
+    private int currentPlayer;
+    private int lastPlayer;
+
+    //The ticket deck is the end of the array from ticketTop on, each player's tickets the start of its own array
+    private final Ticket[] ticketDeck;
+    private int ticketTop;
+    private final Ticket[][] tickets;
+    private final int[] ticketCounts;
+
+    //Cards are stored by ordinal, the hands as the count of each card of each player
+    private final int[] faceUpCards;
+    private byte[] deck;
+    private int deckTop;
+    private byte[] discards;
+    private int discardsSize;
+    private final int[] hands;
+    private final int[] handSizes;
+
+    //Routes are stored by index in ChMap.routes(), the routes of each player in the order in which it claimed them
+    private final int[] routeOwners;
+    private final int[][] routes;
+    private final int[] routeCounts;
+    private final int[] carCounts;
+    private final int[] claimPoints;
+
+    private int[] journal = new int[256];
+    private int journalSize;
+    //The deck and discards replaced by the recreations of the deck that are still in the journal
+    private final List<byte[]> replacedCards = new ArrayList<>();
+
+    private MutableGameState(GameState state) {
+        playerCount = state.getPlayerState().size();
+        Preconditions.checkArgument(playerCount >= 2);
+        for (int player = 0; player < playerCount; ++player)
+            Preconditions.checkArgument(state.getPlayerState().containsKey(PlayerId.ALL.get(player)));
+        currentPlayer = state.currentPlayerId().ordinal();
+        lastPlayer = state.lastPlayer() == null ? NO_PLAYER : state.lastPlayer().ordinal();
+
+        List<Ticket> deckTickets = state.ticketDeck().toList();
+        int ticketTotal = deckTickets.size();
+        for (PublicPlayerState playerState : state.getPlayerState().values())
+            ticketTotal += playerState.ticketCount();
+        ticketDeck = deckTickets.toArray(new Ticket[0]);
+        tickets = new Ticket[playerCount][ticketTotal];
+        ticketCounts = new int[playerCount];
+
+        CardState cardState = state.fullCardState();
+        faceUpCards = new int[Constants.FACE_UP_CARDS_COUNT];
+        for (int slot : Constants.FACE_UP_CARD_SLOTS)
+            faceUpCards[slot] = cardState.faceUpCard(slot).ordinal();
+        deck = ordinals(cardState.deckCards(), cardState.deckSize());
+        int cardTotal = Constants.FACE_UP_CARDS_COUNT + cardState.deckSize() + cardState.discardsSize();
+        for (PublicPlayerState playerState : state.getPlayerState().values())
+            cardTotal += playerState.cardCount();
+        discards = ordinals(cardState.discardedCards(), cardTotal);
+        discardsSize = cardState.discardsSize();
+        hands = new int[playerCount * Card.COUNT];
+        handSizes = new int[playerCount];
+
+        routeOwners = new int[ROUTES.size()];
+        Arrays.fill(routeOwners, NO_PLAYER);
+        routes = new int[playerCount][ROUTES.size()];
+        routeCounts = new int[playerCount];
+        carCounts = new int[playerCount];
+        claimPoints = new int[playerCount];
+
+        for (int player = 0; player < playerCount; ++player) {
+            PlayerState playerState = state.playerState(PlayerId.ALL.get(player));
+            for (Ticket ticket : playerState.tickets())
+                tickets[player][ticketCounts[player]++] = ticket;
+            for (Card card : playerState.cards())
+                hands[player * Card.COUNT + card.ordinal()] += 1;
+            handSizes[player] = playerState.cardCount();
+            for (Route route : playerState.routes()) {
+                int index = routeIndex(route);
+                routeOwners[index] = player;
+                routes[player][routeCounts[player]++] = index;
+            }
+            carCounts[player] = playerState.carCount();
+            claimPoints[player] = playerState.claimPoints();
+        }
+    }
+
+    /**
+     * Returns a mutable state equal to the given game state
+     *
+     * @param state the game state
+     * @return a mutable state equal to the given game state
+     * @throws IllegalArgumentException if the players aren't the first ones of PlayerId.ALL, or if a route isn't one
+     *                                  of ChMap
+     */
+    public static MutableGameState of(GameState state) {
+        return new MutableGameState(state);
+    }
+
+    /**
+     * Returns the game state equal to this state
+     *
+     * @return the game state equal to this state
+     */
+    public GameState toGameState() {
+        EnumMap<PlayerId, PlayerState> playerStates = new EnumMap<>(PlayerId.class);
+        for (int player = 0; player < playerCount; ++player)
+            playerStates.put(PlayerId.ALL.get(player), playerState(PlayerId.ALL.get(player)));
+
+        List<Card> faceUpCardList = new ArrayList<>(Constants.FACE_UP_CARDS_COUNT);
+        for (int card : faceUpCards)
+            faceUpCardList.add(Card.ALL.get(card));
+        CardState cardState = CardState.of(faceUpCardList, cards(deck, deckTop, deck.length),
+                cards(discards, 0, discardsSize));
+
+        Deck<Ticket> ticketDeck = Deck.ofOrdered(Arrays.asList(this.ticketDeck).subList(ticketTop,
+                this.ticketDeck.length));
+        return new GameState(ticketDeck, ticketDeck.size(), cardState, currentPlayerId(), playerStates, lastPlayer());
+    }
+
+    /**
+     * Returns the number of players of the game
+     *
+     * @return the number of players of the game
+     */
+    public int playerCount() {
+        return playerCount;
+    }
+
+    /**
+     * Returns the identity of the current player
+     *
+     * @return the identity of the current player
+     */
+    public PlayerId currentPlayerId() {
+        return PlayerId.ALL.get(currentPlayer);
+    }
+
+    /**
+     * Returns the identity of the last player, or null if the last turn hasn't begun
+     *
+     * @return the identity of the last player, or null if it isn't known yet
+     */
+    public PlayerId lastPlayer() {
+        return lastPlayer == NO_PLAYER ? null : PlayerId.ALL.get(lastPlayer);
+    }
+
+    /**
+     * Returns the state of the given player; unlike the other methods, this one builds a new object
+     *
+     * @param playerId the player
+     * @return the state of the player
+     */
+    public PlayerState playerState(PlayerId playerId) {
+        int player = player(playerId);
+        SortedBag.Builder<Card> cards = new SortedBag.Builder<>();
+        for (Card card : Card.ALL)
+            cards.add(hands[player * Card.COUNT + card.ordinal()], card);
+        List<Route> playerRoutes = new ArrayList<>(routeCounts[player]);
+        for (int i = 0; i < routeCounts[player]; ++i)
+            playerRoutes.add(ROUTES.get(routes[player][i]));
+        return new PlayerState(SortedBag.of(Arrays.asList(tickets[player]).subList(0, ticketCounts[player])),
+                cards.build(), playerRoutes);
+    }
+
+    /**
+     * Returns the number of tickets in the ticket deck
+     *
+     * @return the number of tickets in the ticket deck
+     */
+    public int ticketsCount() {
+        return ticketDeck.length - ticketTop;
+    }
+
+    /**
+     * Returns true if the current player can draw tickets, following the same rule as PublicGameState
+     *
+     * @return true if the current player can draw tickets
+     */
+    public boolean canDrawTickets() {
+        return playerCount == 2 ? ticketsCount() > 0 : ticketsCount() > 2;
+    }
+
+    /**
+     * Returns the given number of tickets from the top of the ticket deck
+     *
+     * @param count the number of tickets
+     * @return the tickets on top of the ticket deck
+     * @throws IllegalArgumentException if count is negative or greater than the number of tickets in the deck
+     */
+    public SortedBag<Ticket> topTickets(int count) {
+        Preconditions.checkArgument(count >= 0 && count <= ticketsCount());
+        return SortedBag.of(Arrays.asList(ticketDeck).subList(ticketTop, ticketTop + count));
+    }
+
+    /**
+     * Returns the face up card at the given slot
+     *
+     * @param slot the slot of the card
+     * @return the face up card at the given slot
+     * @throws IndexOutOfBoundsException if the slot isn't a face up card slot
+     */
+    public Card faceUpCard(int slot) {
+        return Card.ALL.get(faceUpCards[Objects.checkIndex(slot, Constants.FACE_UP_CARDS_COUNT)]);
+    }
+
+    /**
+     * Returns the number of cards in the deck
+     *
+     * @return the number of cards in the deck
+     */
+    public int deckSize() {
+        return deck.length - deckTop;
+    }
+
+    /**
+     * Returns true if the deck is empty
+     *
+     * @return true if the deck is empty
+     */
+    public boolean isDeckEmpty() {
+        return deckTop == deck.length;
+    }
+
+    /**
+     * Returns the number of discarded cards
+     *
+     * @return the number of discarded cards
+     */
+    public int discardsSize() {
+        return discardsSize;
+    }
+
+    /**
+     * Returns true if the current player can draw cards, i.e. if the deck and discards hold at least 5 cards
+     *
+     * @return true if the current player can draw cards
+     */
+    public boolean canDrawCards() {
+        return deckSize() + discardsSize >= 5;
+    }
+
+    /**
+     * Returns the top card of the deck
+     *
+     * @return the top card of the deck
+     * @throws IllegalArgumentException if the deck is empty
+     */
+    public Card topCard() {
+        Preconditions.checkArgument(!isDeckEmpty());
+        return Card.ALL.get(deck[deckTop]);
+    }
+
+    /**
+     * Returns the number of cards of the given player
+     *
+     * @param playerId the player
+     * @return the number of cards of the player
+     */
+    public int cardCount(PlayerId playerId) {
+        return handSizes[player(playerId)];
+    }
+
+    /**
+     * Returns the number of cards of the given type held by the given player
+     *
+     * @param playerId the player
+     * @param card     the type of card
+     * @return the number of such cards held by the player
+     */
+    public int cardCount(PlayerId playerId, Card card) {
+        return hands[player(playerId) * Card.COUNT + card.ordinal()];
+    }
+
+    /**
+     * Returns the number of tickets of the given player
+     *
+     * @param playerId the player
+     * @return the number of tickets of the player
+     */
+    public int ticketCount(PlayerId playerId) {
+        return ticketCounts[player(playerId)];
+    }
+
+    /**
+     * Returns the number of cars left to the given player
+     *
+     * @param playerId the player
+     * @return the number of cars left to the player
+     */
+    public int carCount(PlayerId playerId) {
+        return carCounts[player(playerId)];
+    }
+
+    /**
+     * Returns the number of points the given player got by claiming routes
+     *
+     * @param playerId the player
+     * @return the claim points of the player
+     */
+    public int claimPoints(PlayerId playerId) {
+        return claimPoints[player(playerId)];
+    }
+
+    /**
+     * Returns the owner of the given route, or null if no player claimed it
+     *
+     * @param route the route
+     * @return the owner of the route, or null if the route is free
+     * @throws IllegalArgumentException if the route isn't one of ChMap
+     */
+    public PlayerId routeOwner(Route route) {
+        int owner = routeOwners[routeIndex(route)];
+        return owner == NO_PLAYER ? null : PlayerId.ALL.get(owner);
+    }
+
+    /**
+     * Returns true if the current player has enough cars and cards to claim the given route, regardless of its owner,
+     * following the same rule as PlayerState
+     *
+     * @param route the route
+     * @return true if the current player can claim the route
+     */
+    public boolean canClaimRoute(Route route) {
+        if (carCounts[currentPlayer] < route.length())
+            return false;
+
+        int hand = currentPlayer * Card.COUNT;
+        int locomotives = route.level() == Route.Level.UNDERGROUND ? hands[hand + Card.LOCOMOTIVE.ordinal()] : 0;
+        if (locomotives >= route.length())
+            return true;
+
+        if (route.color() != null)
+            return hands[hand + Card.of(route.color()).ordinal()] + locomotives >= route.length();
+
+        for (Card car : Card.CARS)
+            if (hands[hand + car.ordinal()] + locomotives >= route.length())
+                return true;
+        return false;
+    }
+
+    /**
+     * Returns the cards the current player could use to claim the given route, in the same order as PlayerState
+     *
+     * @param route the route
+     * @return the cards the current player could use to claim the route
+     * @throws IllegalArgumentException if the current player doesn't have enough cars to claim the route
+     */
+    public List<SortedBag<Card>> possibleClaimCards(Route route) {
+        Preconditions.checkArgument(carCounts[currentPlayer] >= route.length());
+        int[] options = CLAIM_OPTIONS[routeIndex(route)];
+        int hand = currentPlayer * Card.COUNT;
+        List<SortedBag<Card>> claimCards = new ArrayList<>();
+        for (int i = 0; i < options.length; ++i) {
+            int car = options[i] >>> 16;
+            int carCount = options[i] >>> 8 & 0xFF;
+            int locomotiveCount = options[i] & 0xFF;
+            if (hands[hand + car] >= (car == Card.LOCOMOTIVE.ordinal() ? carCount + locomotiveCount : carCount)
+                    && hands[hand + Card.LOCOMOTIVE.ordinal()] >= locomotiveCount)
+                claimCards.add(route.possibleClaimCards().get(i));
+        }
+        return claimCards;
+    }
+
+    /**
+     * Returns the additional cards the current player could play to claim a tunnel, in the same order as PlayerState
+     *
+     * @param additionalCardsCount the number of additional cards to play
+     * @param initialCards         the cards initially played to claim the tunnel
+     * @param drawnCards           the three cards drawn from the deck
+     * @return the additional cards the current player could play
+     * @throws IllegalArgumentException under the same conditions as PlayerState.possibleAdditionalCards
+     */
+    public List<SortedBag<Card>> possibleAdditionalCards(int additionalCardsCount, SortedBag<Card> initialCards,
+                                                         SortedBag<Card> drawnCards) {
+        Preconditions.checkArgument(additionalCardsCount >= 1
+                && additionalCardsCount <= Constants.ADDITIONAL_TUNNEL_CARDS);
+        Preconditions.checkArgument(initialCards.size() > 0 && initialCards.toSet().size() <= 2);
+        Preconditions.checkArgument(drawnCards.size() == Constants.ADDITIONAL_TUNNEL_CARDS);
+
+        Card card = null;
+        for (Card initialCard : initialCards.toSet())
+            if (initialCard != Card.LOCOMOTIVE) {
+                Preconditions.checkArgument(card == null);
+                card = initialCard;
+            }
+
+        int hand = currentPlayer * Card.COUNT;
+        int locomotivesLeft = hands[hand + Card.LOCOMOTIVE.ordinal()] - initialCards.countOf(Card.LOCOMOTIVE);
+        int carsLeft = card == null ? 0 : hands[hand + card.ordinal()] - initialCards.countOf(card);
+
+        List<SortedBag<Card>> additionalCards = new ArrayList<>();
+        for (int locomotiveCount = card == null ? additionalCardsCount : 0;
+             locomotiveCount <= additionalCardsCount; ++locomotiveCount)
+            if (locomotiveCount <= locomotivesLeft && additionalCardsCount - locomotiveCount <= carsLeft)
+                additionalCards.add(card == null
+                        ? SortedBag.of(locomotiveCount, Card.LOCOMOTIVE)
+                        : SortedBag.of(additionalCardsCount - locomotiveCount, card, locomotiveCount, Card.LOCOMOTIVE));
+        return additionalCards;
+    }
+
+    /**
+     * Returns true if the current player has 2 cars or less and the last player isn't known yet, i.e. if ending the
+     * turn begins the last turn
+     *
+     * @return true if ending the turn begins the last turn
+     */
+    public boolean lastTurnBegins() {
+        return carCounts[currentPlayer] <= 2 && lastPlayer == NO_PLAYER;
+    }
+
+    /**
+     * Returns the mark of the current state, which undo(int) reverts to
+     *
+     * @return the mark of the current state
+     */
+    public int mark() {
+        return journalSize;
+    }
+
+    /**
+     * Reverts all the transitions made since the given mark was taken
+     *
+     * @param mark the mark, returned by mark()
+     * @throws IllegalArgumentException if the state was already reverted before the mark
+     */
+    public void undo(int mark) {
+        Preconditions.checkArgument(mark >= 0 && mark <= journalSize);
+        while (journalSize > mark)
+            undoLast();
+    }
+
+    /**
+     * Removes the given number of tickets from the top of the ticket deck, as GameState.withoutTopTickets
+     *
+     * @param count the number of tickets
+     * @throws IllegalArgumentException if count is negative or greater than the number of tickets in the deck
+     */
+    public void removeTopTickets(int count) {
+        Preconditions.checkArgument(count >= 0 && count <= ticketsCount());
+        ticketTop += count;
+        record(count);
+        record(TOP_TICKETS_REMOVED);
+    }
+
+    /**
+     * Gives the given tickets to the given player, as GameState.withInitiallyChosenTickets
+     *
+     * @param playerId      the player
+     * @param chosenTickets the tickets chosen by the player
+     * @throws IllegalArgumentException if the player already has tickets
+     */
+    public void chooseInitialTickets(PlayerId playerId, SortedBag<Ticket> chosenTickets) {
+        Preconditions.checkArgument(ticketCounts[player(playerId)] == 0);
+        addTickets(player(playerId), chosenTickets);
+    }
+
+    /**
+     * Removes the drawn tickets from the top of the ticket deck and gives the chosen ones to the current player, as
+     * GameState.withChosenAdditionalTickets
+     *
+     * @param drawnTickets  the tickets drawn
+     * @param chosenTickets the tickets kept by the current player
+     * @throws IllegalArgumentException if the chosen tickets aren't among the drawn ones, or if there are fewer tickets
+     *                                  in the deck than drawn
+     */
+    public void chooseAdditionalTickets(SortedBag<Ticket> drawnTickets, SortedBag<Ticket> chosenTickets) {
+        Preconditions.checkArgument(drawnTickets.contains(chosenTickets));
+        removeTopTickets(drawnTickets.size());
+        addTickets(currentPlayer, chosenTickets);
+    }
+
+    /**
+     * Recreates the deck by shuffling the discards if it is empty, as GameState.withCardsDeckRecreatedIfNeeded
+     *
+     * @param rng the random generator shuffling the discards
+     */
+    public void recreateDeckIfNeeded(Random rng) {
+        if (!isDeckEmpty())
+            return;
+
+        //Same algorithm as CardState, so that a given random generator gives the same deck
+        byte[] newDeck = Arrays.copyOf(discards, discardsSize);
+        for (int i = newDeck.length; i > 1; --i) {
+            int j = rng.nextInt(i);
+            byte card = newDeck[i - 1];
+            newDeck[i - 1] = newDeck[j];
+            newDeck[j] = card;
+        }
+
+        replacedCards.add(deck);
+        replacedCards.add(discards);
+        record(deckTop);
+        record(discardsSize);
+        record(DECK_RECREATED);
+        deck = newDeck;
+        deckTop = 0;
+        discards = new byte[discards.length];
+        discardsSize = 0;
+    }
+
+    /**
+     * Gives the face up card at the given slot to the current player and replaces it by the top card of the deck, as
+     * GameState.withDrawnFaceUpCard
+     *
+     * @param slot the slot of the card
+     * @throws IllegalArgumentException  if the current player cannot draw cards or if the deck is empty
+     * @throws IndexOutOfBoundsException if the slot isn't a face up card slot
+     */
+    public void drawFaceUpCard(int slot) {
+        Preconditions.checkArgument(canDrawCards() && !isDeckEmpty());
+        int card = faceUpCards[Objects.checkIndex(slot, Constants.FACE_UP_CARDS_COUNT)];
+        hands[currentPlayer * Card.COUNT + card] += 1;
+        handSizes[currentPlayer] += 1;
+        faceUpCards[slot] = deck[deckTop++];
+        record(slot);
+        record(card);
+        record(FACE_UP_CARD_DRAWN);
+    }
+
+    /**
+     * Gives the top card of the deck to the current player, as GameState.withBlindlyDrawnCard
+     *
+     * @throws IllegalArgumentException if the current player cannot draw cards or if the deck is empty
+     */
+    public void drawBlindCard() {
+        Preconditions.checkArgument(canDrawCards() && !isDeckEmpty());
+        hands[currentPlayer * Card.COUNT + deck[deckTop++]] += 1;
+        handSizes[currentPlayer] += 1;
+        record(BLIND_CARD_DRAWN);
+    }
+
+    /**
+     * Removes the top card of the deck, as GameState.withoutTopCard
+     *
+     * @throws IllegalArgumentException if the deck is empty
+     */
+    public void removeTopCard() {
+        Preconditions.checkArgument(!isDeckEmpty());
+        deckTop += 1;
+        record(TOP_CARD_REMOVED);
+    }
+
+    /**
+     * Adds the given cards to the discards, as GameState.withMoreDiscardedCards
+     *
+     * @param cards the discarded cards
+     */
+    public void discard(SortedBag<Card> cards) {
+        record(appendDiscards(cards));
+        record(CARDS_DISCARDED);
+    }
+
+    /**
+     * Makes the current player claim the given route with the given cards, which are discarded, as
+     * GameState.withClaimedRoute
+     *
+     * @param route the route
+     * @param cards the cards used to claim the route
+     * @throws IllegalArgumentException if the route isn't one of ChMap, if it was already claimed, or if the current
+     *                                  player doesn't hold the cards
+     */
+    public void claimRoute(Route route, SortedBag<Card> cards) {
+        int index = routeIndex(route);
+        Preconditions.checkArgument(routeOwners[index] == NO_PLAYER);
+        int hand = currentPlayer * Card.COUNT;
+        for (Map.Entry<Card, Integer> e : cards.toMap().entrySet())
+            Preconditions.checkArgument(hands[hand + e.getKey().ordinal()] >= e.getValue());
+
+        int count = appendDiscards(cards);
+        for (int i = discardsSize - count; i < discardsSize; ++i)
+            hands[hand + discards[i]] -= 1;
+        handSizes[currentPlayer] -= count;
+        routeOwners[index] = currentPlayer;
+        routes[currentPlayer][routeCounts[currentPlayer]++] = index;
+        carCounts[currentPlayer] -= route.length();
+        claimPoints[currentPlayer] += route.claimPoints();
+        record(currentPlayer);
+        record(count);
+        record(ROUTE_CLAIMED);
+    }
+
+    /**
+     * Ends the turn of the current player, as GameState.forNextTurn: the next player becomes the current one, and also
+     * the last one if the last turn begins
+     */
+    public void endTurn() {
+        record(currentPlayer);
+        record(lastPlayer);
+        record(TURN_ENDED);
+        boolean lastTurnBegins = lastTurnBegins();
+        currentPlayer = (currentPlayer + 1) % playerCount;
+        if (lastTurnBegins)
+            lastPlayer = currentPlayer;
+    }
+
+    private void addTickets(int player, SortedBag<Ticket> chosenTickets) {
+        for (Ticket ticket : chosenTickets)
+            tickets[player][ticketCounts[player]++] = ticket;
+        record(player);
+        record(chosenTickets.size());
+        record(TICKETS_ADDED);
+    }
+
+    //Appends the given cards to the discards and returns their number
+    private int appendDiscards(SortedBag<Card> cards) {
+        int size = discardsSize;
+        for (Map.Entry<Card, Integer> e : cards.toMap().entrySet()) {
+            if (size + e.getValue() > discards.length)
+                discards = Arrays.copyOf(discards, size + e.getValue());
+            Arrays.fill(discards, size, size + e.getValue(), (byte) e.getKey().ordinal());
+            size += e.getValue();
+        }
+        int count = size - discardsSize;
+        discardsSize = size;
+        return count;
+    }
+
+    private void record(int value) {
+        if (journalSize == journal.length)
+            journal = Arrays.copyOf(journal, 2 * journal.length);
+        journal[journalSize++] = value;
+    }
+
+    private int pop() {
+        return journal[--journalSize];
+    }
+
+    private void undoLast() {
+        switch (pop()) {
+            case TOP_TICKETS_REMOVED:
+                ticketTop -= pop();
+                break;
+            case TICKETS_ADDED: {
+                int count = pop();
+                int player = pop();
+                for (int i = 0; i < count; ++i)
+                    tickets[player][--ticketCounts[player]] = null;
+                break;
+            }
+            case BLIND_CARD_DRAWN:
+                hands[currentPlayer * Card.COUNT + deck[--deckTop]] -= 1;
+                handSizes[currentPlayer] -= 1;
+                break;
+            case FACE_UP_CARD_DRAWN: {
+                int card = pop();
+                int slot = pop();
+                faceUpCards[slot] = card;
+                deckTop -= 1;
+                hands[currentPlayer * Card.COUNT + card] -= 1;
+                handSizes[currentPlayer] -= 1;
+                break;
+            }
+            case TOP_CARD_REMOVED:
+                deckTop -= 1;
+                break;
+            case CARDS_DISCARDED:
+                discardsSize -= pop();
+                break;
+            case ROUTE_CLAIMED: {
+                int count = pop();
+                int player = pop();
+                int index = routes[player][--routeCounts[player]];
+                Route route = ROUTES.get(index);
+                routeOwners[index] = NO_PLAYER;
+                carCounts[player] += route.length();
+                claimPoints[player] -= route.claimPoints();
+                for (int i = discardsSize - count; i < discardsSize; ++i)
+                    hands[player * Card.COUNT + discards[i]] += 1;
+                handSizes[player] += count;
+                discardsSize -= count;
+                break;
+            }
+            case DECK_RECREATED:
+                discardsSize = pop();
+                deckTop = pop();
+                discards = replacedCards.remove(replacedCards.size() - 1);
+                deck = replacedCards.remove(replacedCards.size() - 1);
+                break;
+            case TURN_ENDED:
+                lastPlayer = pop();
+                currentPlayer = pop();
+                break;
+            default:
+                throw new IllegalStateException("corrupt journal");
+        }
+    }
+
+    private int player(PlayerId playerId) {
+        return Objects.checkIndex(playerId.ordinal(), playerCount);
+    }
+
+    private static int routeIndex(Route route) {
+        Integer index = ROUTE_INDICES.get(Objects.requireNonNull(route));
+        Preconditions.checkArgument(index != null);
+        return index;
+    }
+
+    private static byte[] ordinals(List<Card> cards, int capacity) {
+        byte[] ordinals = new byte[capacity];
+        for (int i = 0; i < cards.size(); ++i)
+            ordinals[i] = (byte) cards.get(i).ordinal();
+        return ordinals;
+    }
+
+    private static List<Card> cards(byte[] ordinals, int from, int to) {
+        List<Card> cards = new ArrayList<>(to - from);
+        for (int i = from; i < to; ++i)
+            cards.add(Card.ALL.get(ordinals[i]));
+        return cards;
+    }
+}
@@ -5,7 +5,6 @@ import ch.epfl.tchu.SortedBag;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Supplier;
 
 /**
  * Represents the entirety of a player's state, namely his tickets, card, routes, the number of wagons/locomotives he has,
@@ -17,14 +16,15 @@ import java.util.function.Supplier;
 
 public final class PlayerState extends PublicPlayerState {
 
-    final SortedBag<Ticket> tickets;
-    final SortedBag<Card> cards;
-    final List<Route> routes;
+    //Sorted bags are immutable, so the tickets are shared between successive states
+    private final SortedBag<Ticket> tickets;
 
-    //Gets instances of the Ticket Builders
-    final Supplier<SortedBag.Builder<Ticket>> ticketSupplier = SortedBag.Builder::new;
-    //Gets instances of Card Builders
-    final Supplier<SortedBag.Builder<Card>> cardSupplier = SortedBag.Builder::new;
+    //The player's cards, counted in a packed bag. The sorted bag is only built when someone asks for it
+    private final CardBag cardBag;
+    private SortedBag<Card> cards;
+
+    //The connectivity of the player's network, carried from one state to the next as routes get claimed
+    private final StationPartition connectivity;
 
 
     /**
@@ -36,17 +36,27 @@ public final class PlayerState extends PublicPlayerState {
      * @param routes  the routes the player owns
      */
     public PlayerState(SortedBag<Ticket> tickets, SortedBag<Card> cards, List<Route> routes) {
-        super(tickets.size(), cards.size(), routes);
-        this.tickets = ticketSupplier.get()
-                .add(tickets)
-                .build();
-        this.cards = cardSupplier.get()
-                .add(cards)
-                .build();
-        this.routes = new ArrayList<>();
-        this.routes.addAll(routes);
+        this(tickets, CardBag.of(cards), routes, connectivityOf(routes));
+        this.cards = cards;
+    }
 
+    private PlayerState(SortedBag<Ticket> tickets, CardBag cardBag, List<Route> routes,
+                        StationPartition connectivity) {
+        super(tickets.size(), cardBag.size(), routes);
+        this.tickets = tickets;
+        this.cardBag = cardBag;
+        this.connectivity = connectivity;
+    }
+
+    private static StationPartition connectivityOf(List<Route> routes) {
+        int stationCount = ChMap.stations().size();
+        for (Route route : routes)
+            stationCount = Math.max(stationCount, Math.max(route.station1().id(), route.station2().id()) + 1);
 
+        StationPartition.Builder builder = new StationPartition.Builder(stationCount);
+        for (Route route : routes)
+            builder.connect(route.station1(), route.station2());
+        return builder.build();
     }
 
     /**
@@ -71,9 +81,7 @@ public final class PlayerState extends PublicPlayerState {
      * @return returns the player's tickets.
      */
     public SortedBag<Ticket> tickets() {
-        return ticketSupplier.get()
-                .add(tickets)
-                .build();
+        return tickets;
     }
 
     /**
@@ -84,11 +92,7 @@ public final class PlayerState extends PublicPlayerState {
      */
 
     public PlayerState withAddedTickets(SortedBag<Ticket> newTickets) {
-        SortedBag<Ticket> tempTickets = ticketSupplier.get()
-                .add(tickets)
-                .add(newTickets)
-                .build();
-        return new PlayerState(tempTickets, cards, routes);
+        return new PlayerState(tickets.union(newTickets), cardBag, routes(), connectivity);
     }
 
     /**
@@ -98,9 +102,20 @@ public final class PlayerState extends PublicPlayerState {
      */
 
     public SortedBag<Card> cards() {
-        return cardSupplier.get()
-                .add(cards)
-                .build();
+        if (cards == null)
+            cards = cardBag.toSortedBag();
+        return cards;
+    }
+
+    /**
+     * This method returns all wagon/locomotive cards of the player as a packed bag, which is much cheaper to query
+     * than the sorted bag returned by cards()
+     *
+     * @return a CardBag of the player's cards
+     */
+
+    public CardBag cardBag() {
+        return cardBag;
     }
 
     /**
@@ -110,11 +125,7 @@ public final class PlayerState extends PublicPlayerState {
      * @return a player state similar to the previous one, but with the added card as well
      */
     public PlayerState withAddedCard(Card card) {
-        SortedBag<Card> cardsTemp = cardSupplier.get()
-                .add(cards)
-                .add(card)
-                .build();
-        return new PlayerState(tickets, cardsTemp, routes);
+        return new PlayerState(tickets, cardBag.with(card), routes(), connectivity);
     }
 
 
@@ -126,12 +137,7 @@ public final class PlayerState extends PublicPlayerState {
      */
 
     public boolean canClaimRoute(Route route) {
-        List<SortedBag<Card>> possibleCards = route.possibleClaimCards();
-        for (SortedBag<Card> possibleCard : possibleCards)
-            if (cards.contains(possibleCard) && this.carCount() >= route.length())
-                return true;
-
-        return false;
+        return carCount() >= route.length() && route.canBeClaimedWith(cardBag);
     }
 
     /**
@@ -146,11 +152,12 @@ public final class PlayerState extends PublicPlayerState {
         Preconditions.checkArgument(super.carCount() >= route.length());
 
         List<SortedBag<Card>> possibleCards = route.possibleClaimCards();
+        List<CardBag> possibleCardBags = route.possibleClaimCardBags();
         List<SortedBag<Card>> bag = new ArrayList<SortedBag<Card>>();
 
-        for (SortedBag<Card> possibleCard : possibleCards)
-            if (cards.contains(possibleCard))
-                bag.add(possibleCard);
+        for (int i = 0; i < possibleCards.size(); ++i)
+            if (cardBag.contains(possibleCardBags.get(i)))
+                bag.add(possibleCards.get(i));
 
         return bag;
     }
@@ -173,87 +180,25 @@ public final class PlayerState extends PublicPlayerState {
         Preconditions.checkArgument(initialCards.size() > 0);
         Preconditions.checkArgument(drawnCards.size() == Constants.ADDITIONAL_TUNNEL_CARDS);
 
-        Card tempCard = null;
+        Card card = null;
 
-        for (Card card : initialCards.toList()) {
-            if (tempCard == null) {
-                if (card != Card.LOCOMOTIVE)
-                    tempCard = card;
-            } else {
-                if (card != Card.LOCOMOTIVE && card != tempCard)
-                    Preconditions.checkArgument(false);
+        for (Card initialCard : initialCards.toSet())
+            if (initialCard != Card.LOCOMOTIVE) {
+                Preconditions.checkArgument(card == null);
+                card = initialCard;
             }
-        }
 
-        List<Card> claimedCards = initialCards.toList();
+        //The additional cards must be taken among the cards the player still holds once the initial ones are played
+        CardBag cardsLeft = cardBag.difference(CardBag.of(initialCards));
         List<SortedBag<Card>> bag = new ArrayList<SortedBag<Card>>();
 
-        int wagonNeeded = 0;
-        int wagonInitialCards = 0;
-        int wagonAvailable = 0;
-
-        int locNeeded = 0;
-        int locInitialCards = 0;
-        int locAvailable = 0;
-
-        Card card = null;
-
-
-        for (Card claimedCard : claimedCards)
-            if (claimedCard != Card.LOCOMOTIVE)
-                card = claimedCard;
-
-        for (Card cardDrawn : drawnCards) {
-            wagonNeeded = ((cardDrawn != Card.LOCOMOTIVE) && (cardDrawn == card)) ? wagonNeeded + 1 : wagonNeeded;
-            locNeeded = (cardDrawn == Card.LOCOMOTIVE) ? locNeeded + 1 : locNeeded;
-        }
-        for (Card initialCard : initialCards) {
-            wagonInitialCards = ((initialCard != Card.LOCOMOTIVE) && (initialCard == card)) ? wagonInitialCards + 1 : wagonInitialCards;
-            locInitialCards = (initialCard == Card.LOCOMOTIVE) ? locInitialCards + 1 : locInitialCards;
-        }
-        for (Card availableCard : cards) {
-            wagonAvailable = ((availableCard != Card.LOCOMOTIVE) && (availableCard == card)) ? wagonAvailable + 1 : wagonAvailable;
-            locAvailable = ((availableCard == Card.LOCOMOTIVE)) ? locAvailable + 1 : locAvailable;
-        }
-
-        SortedBag.Builder<Card> initialCardsBuilder = new SortedBag.Builder<>();
-        initialCardsBuilder.add(initialCards);
-
-        if (wagonNeeded == 0) {
-            if (locNeeded > 0)
-                if (locAvailable - locInitialCards >= locNeeded) {
-                    SortedBag<Card> otherCardsTemp = cardSupplier.get()
-                            .add(additionalCardsCount, Card.LOCOMOTIVE)
-                            .build();
-                    bag.add(otherCardsTemp);
-                }
-        } else {
-            if ((locAvailable - locInitialCards >= locNeeded) && (wagonAvailable - wagonInitialCards >= wagonNeeded)) {
-                for (int i = 0; i <= additionalCardsCount; ++i) {
-                    SortedBag<Card> tempCards = cardSupplier.get()
-                            .add(additionalCardsCount - i, card)
-                            .add(i, Card.LOCOMOTIVE)
-                            .build();
-                    if (cards.contains(tempCards))
-                        bag.add(tempCards);
-
-                }
-            } else if ((locAvailable - locInitialCards >= locNeeded)) {
-                SortedBag<Card> tempCards = cardSupplier.get()
-                        .add(additionalCardsCount, Card.LOCOMOTIVE)
-                        .build();
-                if (cards.contains(tempCards))
-                    bag.add(tempCards);
-
-            } else if ((wagonAvailable - wagonInitialCards >= wagonNeeded)) {
-                SortedBag<Card> tempCards = cardSupplier.get()
-                        .add(additionalCardsCount, card)
-                        .build();
-                if (cards.contains(tempCards))
-                    bag.add(tempCards);
-
-            }
-        }
+        for (int locomotiveCount = card == null ? additionalCardsCount : 0;
+             locomotiveCount <= additionalCardsCount; ++locomotiveCount)
+            if (cardsLeft.contains(locomotiveCount, Card.LOCOMOTIVE)
+                    && (card == null || cardsLeft.contains(additionalCardsCount - locomotiveCount, card)))
+                bag.add(card == null
+                        ? SortedBag.of(locomotiveCount, Card.LOCOMOTIVE)
+                        : SortedBag.of(additionalCardsCount - locomotiveCount, card, locomotiveCount, Card.LOCOMOTIVE));
         return bag;
     }
 
@@ -267,9 +212,11 @@ public final class PlayerState extends PublicPlayerState {
      */
 
     public PlayerState withClaimedRoute(Route route, SortedBag<Card> claimCards) {
-        List<Route> newRoutes = new ArrayList<>(List.copyOf(routes));
+        List<Route> newRoutes = new ArrayList<>(routes().size() + 1);
+        newRoutes.addAll(routes());
         newRoutes.add(route);
-        return new PlayerState(tickets, cards.difference(claimCards), newRoutes);
+        return new PlayerState(tickets, cardBag.difference(CardBag.of(claimCards)), List.copyOf(newRoutes),
+                connectivity.withConnected(route.station1(), route.station2()));
     }
 
     /**
@@ -283,17 +230,34 @@ public final class PlayerState extends PublicPlayerState {
 
         int points = 0;
 
-        StationPartition.Builder stationConnectivityBuilder = new StationPartition.Builder(51);
-        for (Route route : routes)
-            stationConnectivityBuilder.connect(route.station1(), route.station2());
-
-        StationPartition testConnectivity = stationConnectivityBuilder.build();
         for (Ticket ticket : tickets)
-            points += ticket.points(testConnectivity);
+            points += ticket.points(connectivity);
 
         return points;
     }
 
+    /**
+     * Returns the connectivity of the player's network. It is kept up to date by withClaimedRoute, so querying it
+     * never requires going through the player's routes.
+     *
+     * @return the connectivity of the stations through the routes of the player
+     */
+
+    public StationConnectivity connectivity() {
+        return connectivity;
+    }
+
+    /**
+     * Returns true if the given ticket is completed by the player's network, i.e if it would bring him points
+     *
+     * @param ticket the ticket whose completion is checked
+     * @return true if the ticket is completed using the routes of the player
+     */
+
+    public boolean isTicketCompleted(Ticket ticket) {
+        return ticket.points(connectivity) > 0;
+    }
+
     /**
      * Returns the final amount of points that the player has gotten, namely the ticket points (obtained through
      * his tickets) and the claim points (his construction points basically)
@@ -3,9 +3,11 @@ package ch.epfl.tchu.game;
 import ch.epfl.tchu.Preconditions;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.Objects;
 
 /**
  * Represents the public game state of a game of tChu, namely the number of tickets, the public card state, the current
@@ -21,7 +23,10 @@ public class PublicGameState {
     private final PublicCardState cardState;
     private final PlayerId currentPlayerId;
     private final PlayerId lastPlayer;
+    //Read-only view of the player states, whose map can be shared with other game states (see GameState)
     private final Map<PlayerId, PublicPlayerState> playerState;
+    //Owner of each route of the map, shared with the next game states as long as no route is claimed
+    private final RouteOwnership routeOwnership;
 
 
     /**
@@ -36,6 +41,42 @@ public class PublicGameState {
      */
     public PublicGameState(int ticketsCount, PublicCardState cardState, PlayerId currentPlayerId,
                            Map<PlayerId, PublicPlayerState> playerState, PlayerId lastPlayer) throws NullPointerException {
+        this(ticketsCount, cardState, currentPlayerId, lastPlayer, copyOf(playerState));
+    }
+
+    /**
+     * Constructor used by GameState, which doesn't copy the given map of player states so that it can be shared by
+     * successive game states. The map must therefore never be modified once given to this constructor.
+     *
+     * @param ticketsCount    the number of tickets
+     * @param cardState       the game's card state
+     * @param currentPlayerId the current player's id
+     * @param lastPlayer      the last player of the game (null if not known yet)
+     * @param playerState     the game's current player states, which are not copied
+     * @throws NullPointerException if the current player id or the card state are null
+     */
+
+    PublicGameState(int ticketsCount, PublicCardState cardState, PlayerId currentPlayerId, PlayerId lastPlayer,
+                    EnumMap<PlayerId, ? extends PublicPlayerState> playerState) {
+        this(ticketsCount, cardState, currentPlayerId, lastPlayer, playerState, RouteOwnership.of(playerState));
+    }
+
+    /**
+     * Constructor used by GameState, which takes the ownership of the routes along with the player states, so that
+     * the transitions which don't claim any route can pass it on unchanged. The ownership must match the routes of the
+     * given player states.
+     *
+     * @param ticketsCount    the number of tickets
+     * @param cardState       the game's card state
+     * @param currentPlayerId the current player's id
+     * @param lastPlayer      the last player of the game (null if not known yet)
+     * @param playerState     the game's current player states, which are not copied
+     * @param routeOwnership  the owners of the routes claimed by the players
+     * @throws NullPointerException if the current player id or the card state are null
+     */
+
+    PublicGameState(int ticketsCount, PublicCardState cardState, PlayerId currentPlayerId, PlayerId lastPlayer,
+                    EnumMap<PlayerId, ? extends PublicPlayerState> playerState, RouteOwnership routeOwnership) {
         Preconditions.checkArgument(ticketsCount >= 0);
         //Preconditions.checkArgument(playerState.size() == 3);
         if (currentPlayerId == null || cardState == null) {
@@ -45,7 +86,14 @@ public class PublicGameState {
         this.cardState = cardState;
         this.currentPlayerId = currentPlayerId;
         this.lastPlayer = lastPlayer;
-        this.playerState = new TreeMap<>(playerState);
+        this.playerState = Collections.unmodifiableMap(playerState);
+        this.routeOwnership = routeOwnership;
+    }
+
+    private static EnumMap<PlayerId, PublicPlayerState> copyOf(Map<PlayerId, PublicPlayerState> playerState) {
+        EnumMap<PlayerId, PublicPlayerState> copy = new EnumMap<>(PlayerId.class);
+        copy.putAll(playerState);
+        return copy;
     }
 
     /**
@@ -121,14 +169,56 @@ public class PublicGameState {
     /**
      * Returns the map of player states
      *
-     * @return the map of player states
+     * @return an unmodifiable view of the map of player states
      */
     public Map<PlayerId, PublicPlayerState> getPlayerState() {
         return playerState;
     }
 
     /**
-     * This method returns a list of all the routes that have been claimed so far by both players
+     * Returns the id of the player who owns the given route, or null if the route is still free. The owner of a route
+     * of the map is read in constant time from the route ownership index of this state.
+     *
+     * @param route the route
+     * @return the owner of the route, or null if nobody claimed it
+     * @throws NullPointerException if the route is null
+     */
+    public PlayerId routeOwner(Route route) {
+        int index = RouteOwnership.indexOf(Objects.requireNonNull(route));
+        if (index >= 0)
+            return routeOwnership.owner(index);
+        for (Map.Entry<PlayerId, PublicPlayerState> e : playerState.entrySet()) {
+            if (e.getValue().routes().contains(route))
+                return e.getKey();
+        }
+        return null;
+    }
+
+    /**
+     * Returns true if the given route has been claimed by one of the players, false if it is still free. Like
+     * routeOwner, this is answered in constant time for the routes of the map.
+     *
+     * @param route the route
+     * @return true if the route is claimed
+     * @throws NullPointerException if the route is null
+     */
+    public boolean isRouteClaimed(Route route) {
+        int index = RouteOwnership.indexOf(Objects.requireNonNull(route));
+        return index >= 0 ? routeOwnership.isClaimed(index) : routeOwner(route) != null;
+    }
+
+    /**
+     * Returns the ownership of the routes of this state, to be passed on to the next states
+     *
+     * @return the route ownership index
+     */
+    RouteOwnership routeOwnership() {
+        return routeOwnership;
+    }
+
+    /**
+     * This method returns a list of all the routes that have been claimed so far by both players. Use isRouteClaimed
+     * or routeOwner to check a single route, which doesn't build a new list.
      *
      * @return a list of all the routes claimed so far
      */
@@ -24,6 +24,10 @@ public final class Route {
     private final Level level;
     private final Color color;
 
+    //The claim cards of the route never change, so they are computed once when the route is created
+    private final List<SortedBag<Card>> possibleClaimCards;
+    private final List<CardBag> possibleClaimCardBags;
+
     //Gets instances of Card Builders
     final Supplier<SortedBag.Builder<Card>> cardSupplier = SortedBag.Builder::new;
 
@@ -67,6 +71,12 @@ public final class Route {
         this.level = Objects.requireNonNull(level);
         this.length = length;
         this.color = color;
+
+        this.possibleClaimCards = List.copyOf(computePossibleClaimCards());
+        List<CardBag> claimCardBags = new ArrayList<>(possibleClaimCards.size());
+        for (SortedBag<Card> claimCards : possibleClaimCards)
+            claimCardBags.add(CardBag.of(claimCards));
+        this.possibleClaimCardBags = List.copyOf(claimCardBags);
     }
 
     /**
@@ -155,9 +165,45 @@ public final class Route {
      * Returns a List of all possible cards that could be used by the player to claim a route, sorted in
      * ascending order by number of Locomotive cards and then by color
      *
-     * @return a list of all possible cards that the player might use to claim a specific route
+     * @return an unmodifiable list of all possible cards that the player might use to claim a specific route
      */
     public List<SortedBag<Card>> possibleClaimCards() {
+        return possibleClaimCards;
+    }
+
+    /**
+     * Returns the same claim cards as possibleClaimCards(), in the same order, but as packed bags
+     *
+     * @return an unmodifiable list of the claim cards of the route as packed bags
+     */
+    List<CardBag> possibleClaimCardBags() {
+        return possibleClaimCardBags;
+    }
+
+    /**
+     * Returns true if at least one of the possible claim cards of the route can be paid using the given cards. The
+     * claim cards are never materialized: a tunnel can be paid if the cards of one color completed by the locomotives
+     * are enough, or with locomotives only; an overground route needs enough cards of a single color.
+     *
+     * @param cards the cards that would be used to pay for the route
+     * @return true if the route can be claimed using some of the given cards
+     */
+    public boolean canBeClaimedWith(CardBag cards) {
+        int locomotives = level == Level.UNDERGROUND ? cards.countOf(Card.LOCOMOTIVE) : 0;
+        if (locomotives >= length)
+            return true;
+
+        if (color != null)
+            return cards.countOf(Card.of(color)) + locomotives >= length;
+
+        for (Card car : Card.CARS)
+            if (cards.countOf(car) + locomotives >= length)
+                return true;
+
+        return false;
+    }
+
+    private List<SortedBag<Card>> computePossibleClaimCards() {
         List<SortedBag<Card>> bag = new ArrayList<SortedBag<Card>>();
         if (this.level.numberedLevel() == 0) {
             if (this.color == null) {
@@ -0,0 +1,110 @@
+package ch.epfl.tchu.game;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable index of the owners of the routes of the map, indexed by the position of each route in ChMap.routes().
+ * It holds the owner of each route and a bitset of the claimed routes, so that both can be read in constant time
+ * instead of searching the routes of every player. Routes which aren't part of the map aren't indexed.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+final class RouteOwnership {
+
+    private static final List<Route> ROUTES = ChMap.routes();
+    private static final Map<Route, Integer> INDICES = new HashMap<>();
+    private static final byte NO_OWNER = -1;
+
+    static {
+        for (int i = 0; i < ROUTES.size(); ++i)
+            INDICES.put(ROUTES.get(i), i);
+    }
+
+    //Index of the owner of each route in PlayerId.ALL, or NO_OWNER if the route is free
+    private final byte[] owners;
+    //Bit i of word i / 64 is set if and only if the route of index i is claimed
+    private final long[] claimed;
+
+    private RouteOwnership(byte[] owners, long[] claimed) {
+        this.owners = owners;
+        this.claimed = claimed;
+    }
+
+    /**
+     * Returns the index of the given route in ChMap.routes(), or -1 if it isn't a route of the map
+     *
+     * @param route the route
+     * @return the index of the route, or -1 if it isn't a route of the map
+     */
+    static int indexOf(Route route) {
+        Integer index = INDICES.get(route);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the ownership of the routes held in the given player states
+     *
+     * @param playerState the player states
+     * @return the ownership of the routes claimed by the given players
+     */
+    static RouteOwnership of(Map<PlayerId, ? extends PublicPlayerState> playerState) {
+        byte[] owners = new byte[ROUTES.size()];
+        Arrays.fill(owners, NO_OWNER);
+        long[] claimed = new long[(ROUTES.size() + Long.SIZE - 1) / Long.SIZE];
+        for (Map.Entry<PlayerId, ? extends PublicPlayerState> e : playerState.entrySet()) {
+            for (Route route : e.getValue().routes()) {
+                int index = indexOf(route);
+                if (index >= 0) {
+                    owners[index] = (byte) e.getKey().ordinal();
+                    claimed[index / Long.SIZE] |= 1L << index;
+                }
+            }
+        }
+        return new RouteOwnership(owners, claimed);
+    }
+
+    /**
+     * Returns an ownership identical to this one, except that the given route is owned by the given player. The
+     * ownership is returned as is if the route isn't a route of the map.
+     *
+     * @param route    the claimed route
+     * @param playerId the player claiming the route
+     * @return the ownership once the given player has claimed the route
+     */
+    RouteOwnership withClaimedRoute(Route route, PlayerId playerId) {
+        int index = indexOf(route);
+        if (index < 0)
+            return this;
+        byte[] newOwners = owners.clone();
+        newOwners[index] = (byte) playerId.ordinal();
+        long[] newClaimed = claimed.clone();
+        newClaimed[index / Long.SIZE] |= 1L << index;
+        return new RouteOwnership(newOwners, newClaimed);
+    }
+
+    /**
+     * Returns the owner of the route of the given index, or null if it is free
+     *
+     * @param index the index of the route in ChMap.routes()
+     * @return the owner of the route, or null if it is free
+     */
+    PlayerId owner(int index) {
+        byte owner = owners[index];
+        return owner == NO_OWNER ? null : PlayerId.ALL.get(owner);
+    }
+
+    /**
+     * Returns true if and only if the route of the given index is claimed
+     *
+     * @param index the index of the route in ChMap.routes()
+     * @return true if the route is claimed
+     */
+    boolean isClaimed(int index) {
+        return (claimed[index / Long.SIZE] & 1L << index) != 0;
+    }
+}
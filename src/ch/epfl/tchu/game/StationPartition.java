@@ -2,7 +2,7 @@ package ch.epfl.tchu.game;
 
 import ch.epfl.tchu.Preconditions;
 
-import java.util.Objects;
+import java.util.Arrays;
 
 /**
  * Represents a partition of the stations
@@ -13,6 +13,7 @@ import java.util.Objects;
 
 public final class StationPartition implements StationConnectivity {
 
+    //Representative of the subset of every station, flattened so that a query is a simple comparison
     private final int[] partition;
 
     private StationPartition(int[] partition) {
@@ -21,14 +22,49 @@ public final class StationPartition implements StationConnectivity {
 
     @Override
     public boolean connected(Station station1, Station station2) {
-        return (station1.id() > partition.length || station2.id() > partition.length)
-                ? Objects.equals(station1.id(), station2.id())
+        return (station1.id() >= partition.length || station2.id() >= partition.length)
+                ? station1.id() == station2.id()
                 : partition[station1.id()] == partition[station2.id()];
     }
 
+    /**
+     * Returns a partition similar to this one, but where the two given stations are connected. This partition is not
+     * modified, and is returned as is if the stations were already connected. Stations whose id is out of the bounds
+     * of this partition are added to it.
+     *
+     * @param station1 the first station
+     * @param station2 the second station
+     * @return a partition where the two stations are connected
+     */
+
+    public StationPartition withConnected(Station station1, Station station2) {
+        if (connected(station1, station2))
+            return this;
+
+        int size = Math.max(partition.length, Math.max(station1.id(), station2.id()) + 1);
+        int[] newPartition = Arrays.copyOf(partition, size);
+        for (int i = partition.length; i < size; ++i)
+            newPartition[i] = i;
+
+        int representative1 = newPartition[station1.id()];
+        int representative2 = newPartition[station2.id()];
+        for (int i = 0; i < newPartition.length; ++i)
+            if (newPartition[i] == representative2)
+                newPartition[i] = representative1;
+
+        return new StationPartition(newPartition);
+    }
+
+    /**
+     * Builder of a partition, implemented as a disjoint-set forest (union-find) using union by rank and path
+     * compression, so that connecting two stations takes a nearly constant time. The builder can be reused after a
+     * call to build(), and can be reset without allocating new arrays.
+     */
+
     public static final class Builder {
 
-        private final int[] partition;
+        private final int[] parent;
+        private final int[] rank;
 
         /**
          * Creates a partition
@@ -39,14 +75,14 @@ public final class StationPartition implements StationConnectivity {
         public Builder(int stationcount) {
             Preconditions.checkArgument(stationcount >= 0);
 
-            this.partition = new int[stationcount];
-            for (int i = 0; i < stationcount; ++i)
-                partition[i] = i;
+            this.parent = new int[stationcount];
+            this.rank = new int[stationcount];
+            reset();
         }
 
         /**
-         * Connects two stations by changing the representative of the subset of stations that station 2 belongs to
-         * and assigning it to the representative of the subset of stations that station 1 belongs to.
+         * Connects two stations by merging the subsets of stations they belong to. The representative of the
+         * subset with the smallest rank is attached to the representative of the other one.
          *
          * @param station1 the first station
          * @param station2 the second station
@@ -54,24 +90,59 @@ public final class StationPartition implements StationConnectivity {
          */
 
         public Builder connect(Station station1, Station station2) {
-            for (int i = 0; i < partition.length; ++i)
-                if (partition[i] == partition[station2.id()] && i != station2.id())
-                    partition[i] = partition[station1.id()];
+            int representative1 = representative(station1.id());
+            int representative2 = representative(station2.id());
+
+            if (representative1 == representative2)
+                return this;
 
-            partition[station2.id()] = partition[station1.id()];
+            if (rank[representative1] < rank[representative2]) {
+                parent[representative1] = representative2;
+            } else {
+                parent[representative2] = representative1;
+                if (rank[representative1] == rank[representative2])
+                    ++rank[representative1];
+            }
 
             return this;
         }
 
         /**
-         * Returns a new partition of the stations
+         * Disconnects all the stations, so that the builder can be used to build a new partition of the same size
+         *
+         * @return the builder of a partition
+         */
+
+        public Builder reset() {
+            for (int i = 0; i < parent.length; ++i) {
+                parent[i] = i;
+                rank[i] = 0;
+            }
+            return this;
+        }
+
+        /**
+         * Returns a new partition of the stations. The builder can still be used afterwards, as the partition does
+         * not share any data with it.
          *
          * @return new partition of an instance
          */
 
         public StationPartition build() {
+            int[] partition = new int[parent.length];
+            for (int i = 0; i < partition.length; ++i)
+                partition[i] = representative(i);
             return new StationPartition(partition);
         }
 
+        //Returns the representative of the station, halving the path to it along the way
+        private int representative(int stationId) {
+            int id = stationId;
+            while (parent[id] != id) {
+                parent[id] = parent[parent[id]];
+                id = parent[id];
+            }
+            return id;
+        }
     }
 }
@@ -19,6 +19,9 @@ public final class Ticket implements Comparable<Ticket> {
     private final List<Trip> trips = new ArrayList<>();
     private final Trip ticketTrip;
 
+    //Tickets are sorted by their text, which is thus computed once rather than at every comparison
+    private final String text;
+
 
     /**
      * Main Constructor for the class Ticket, creates a ticket with the list of itineraries provided and throws an illegal argument exception in case the list is empty
@@ -39,6 +42,7 @@ public final class Ticket implements Comparable<Ticket> {
             }
         } while (i < tripsArgument.size());
         ticketTrip = trips.get(0);
+        text = computeText();
     }
 
     /**
@@ -52,6 +56,7 @@ public final class Ticket implements Comparable<Ticket> {
     public Ticket(Station from, Station to, int points) {
         trips.add(new Trip(from, to, points));
         ticketTrip = trips.get(0);
+        text = computeText();
     }
 
     /**
@@ -87,7 +92,7 @@ public final class Ticket implements Comparable<Ticket> {
 
     @Override
     public int compareTo(Ticket that) {
-        return computeText().compareTo(that.computeText());
+        return text.compareTo(that.text);
     }
 
     /**
@@ -97,7 +102,7 @@ public final class Ticket implements Comparable<Ticket> {
      */
 
     public String text() {
-        return computeText();
+        return text;
     }
 
     /**
@@ -158,6 +163,6 @@ public final class Ticket implements Comparable<Ticket> {
 
     @Override
     public String toString() {
-        return computeText();
+        return text;
     }
 }
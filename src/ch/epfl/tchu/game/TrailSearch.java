@@ -0,0 +1,595 @@
+package ch.epfl.tchu.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Search of the longest trail that can be made out of a list of routes, used by Trail.longest
+ * <p>
+ * The routes are the edges of a multigraph whose vertices are the stations. Stations are renumbered from 0 and routes
+ * are identified by their index in the list, so that the routes taken by the trail under construction fit in a
+ * bitset. Every connected component of the graph is searched separately, the biggest first, and the components whose
+ * total length cannot beat the best trail found so far are skipped.
+ * <p>
+ * For a given component, an upper bound of the length of its trails is computed first (see componentUpperBound), and
+ * a trail reaching it is looked for directly. When none is found, a depth-first search extends trails one route at a
+ * time, starting from the stations of odd degree if there are some (a longest trail can't be extended, so its ends
+ * have an odd degree), and cuts the branches whose own upper bound (see upperBound) is not bigger than the best length
+ * found so far. The search of a component stops as soon as a trail reaches the bound of the component.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+final class TrailSearch {
+
+    //Biggest number of stations to match when computing the bound of a component, the memoization table of the
+    //matching has 2^MAX_MATCHED_STATIONS entries
+    private static final int MAX_MATCHED_STATIONS = 20;
+    private static final int UNKNOWN = Integer.MIN_VALUE;
+    private static final int INFINITY = Integer.MAX_VALUE / 4;
+
+    private final Station[] stations;
+    private final int[] ends1;
+    private final int[] ends2;
+    private final int[] lengths;
+    private final int[][] incidentRoutes;
+
+    private final long[] used;
+    private final int[] path;
+    private int pathStart;
+    private int targetLength;
+
+    private int bestLength;
+    private int bestStart;
+    private int[] bestPath;
+
+    private final int[] visitMarks;
+    private final int[] visitStack;
+    private final int[] remainingDegrees;
+    private final int[] parities;
+    private final int[] lostLengths;
+    private int visitMark;
+
+    /**
+     * Prepares the search of the longest trail made out of the given routes
+     *
+     * @param routes the routes that can be used by the trail
+     */
+
+    TrailSearch(List<Route> routes) {
+        int routeCount = routes.size();
+
+        Map<Integer, Integer> indexOfStation = new HashMap<>();
+        List<Station> stationList = new ArrayList<>();
+        ends1 = new int[routeCount];
+        ends2 = new int[routeCount];
+        lengths = new int[routeCount];
+        for (int i = 0; i < routeCount; ++i) {
+            Route route = routes.get(i);
+            ends1[i] = indexOf(route.station1(), indexOfStation, stationList);
+            ends2[i] = indexOf(route.station2(), indexOfStation, stationList);
+            lengths[i] = route.length();
+        }
+
+        int stationCount = stationList.size();
+        stations = stationList.toArray(new Station[0]);
+
+        int[] degrees = new int[stationCount];
+        for (int i = 0; i < routeCount; ++i) {
+            ++degrees[ends1[i]];
+            ++degrees[ends2[i]];
+        }
+        incidentRoutes = new int[stationCount][];
+        for (int i = 0; i < stationCount; ++i)
+            incidentRoutes[i] = new int[degrees[i]];
+        int[] filled = new int[stationCount];
+        for (int i = 0; i < routeCount; ++i) {
+            incidentRoutes[ends1[i]][filled[ends1[i]]++] = i;
+            incidentRoutes[ends2[i]][filled[ends2[i]]++] = i;
+        }
+
+        used = new long[(routeCount + Long.SIZE - 1) / Long.SIZE];
+        path = new int[routeCount];
+        bestPath = new int[0];
+
+        visitMarks = new int[stationCount];
+        visitStack = new int[stationCount];
+        remainingDegrees = new int[stationCount];
+        parities = new int[stationCount];
+        lostLengths = new int[stationCount];
+    }
+
+    private static int indexOf(Station station, Map<Integer, Integer> indexOfStation, List<Station> stationList) {
+        Integer index = indexOfStation.get(station.id());
+        if (index == null) {
+            index = stationList.size();
+            indexOfStation.put(station.id(), index);
+            stationList.add(station);
+        }
+        return index;
+    }
+
+    /**
+     * Searches the longest trail
+     */
+
+    void run() {
+        for (int[] component : components()) {
+            if (totalLength(component) <= bestLength)
+                break;
+            searchComponent(component);
+        }
+    }
+
+    /**
+     * Returns the length of the longest trail found by run
+     *
+     * @return the length of the longest trail, 0 if there are no routes
+     */
+
+    int bestLength() {
+        return bestLength;
+    }
+
+    /**
+     * Returns the stations of the longest trail found by run, every route of the trail adding its two stations in the
+     * order in which they are visited
+     *
+     * @return the stations of the longest trail, empty if there are no routes
+     */
+
+    List<Station> bestStations() {
+        List<Station> trailStations = new ArrayList<>();
+        int station = bestStart;
+        for (int route : bestPath) {
+            int next = other(route, station);
+            trailStations.add(stations[station]);
+            trailStations.add(stations[next]);
+            station = next;
+        }
+        return trailStations;
+    }
+
+    private List<int[]> components() {
+        List<int[]> components = new ArrayList<>();
+        boolean[] seen = new boolean[stations.length];
+        for (int first = 0; first < stations.length; ++first) {
+            if (seen[first])
+                continue;
+            seen[first] = true;
+            int size = 0;
+            visitStack[size++] = first;
+            for (int i = 0; i < size; ++i)
+                for (int route : incidentRoutes[visitStack[i]]) {
+                    int other = other(route, visitStack[i]);
+                    if (!seen[other]) {
+                        seen[other] = true;
+                        visitStack[size++] = other;
+                    }
+                }
+            components.add(Arrays.copyOf(visitStack, size));
+        }
+        components.sort(Comparator.comparingInt(this::totalLength).reversed());
+        return components;
+    }
+
+    private int totalLength(int[] component) {
+        int total = 0;
+        for (int station : component)
+            for (int route : incidentRoutes[station])
+                total += lengths[route];
+        return total / 2;
+    }
+
+    private void searchComponent(int[] component) {
+        targetLength = componentUpperBound(component);
+        if (bestLength >= targetLength)
+            return;
+
+        List<Integer> starts = new ArrayList<>();
+        for (int station : component)
+            if (incidentRoutes[station].length % 2 == 1)
+                starts.add(station);
+        if (starts.isEmpty())
+            starts.add(component[0]);
+
+        for (int start : starts) {
+            pathStart = start;
+            extend(start, 0, 0);
+            if (bestLength >= targetLength)
+                return;
+        }
+    }
+
+    private void extend(int station, int length, int depth) {
+        if (length > bestLength)
+            keep(pathStart, Arrays.copyOf(path, depth), length);
+        if (bestLength >= targetLength || upperBound(station, length) <= bestLength)
+            return;
+
+        for (int route : incidentRoutes[station]) {
+            if (isUsed(route))
+                continue;
+            used[route >>> 6] |= 1L << route;
+            path[depth] = route;
+            extend(other(route, station), length + lengths[route], depth + 1);
+            used[route >>> 6] &= ~(1L << route);
+            if (bestLength >= targetLength)
+                return;
+        }
+    }
+
+    private void keep(int start, int[] routes, int length) {
+        bestStart = start;
+        bestPath = routes;
+        bestLength = length;
+    }
+
+    /**
+     * Returns an upper bound of the length of the trails extending the current one, which ends at the given station.
+     * <p>
+     * Only the unused routes reachable from the station can still be taken. Among them, the pendant routes (whose
+     * other station has no other unused route) can only be the last route of the trail, so only the longest of them
+     * is counted. Apart from the two ends of the trail, every station having an odd number of the remaining routes
+     * must have one of them left unused. Every such station gets a lost length that is at most the length of each of
+     * its routes minus the lost length of the station at the other end, so that no route is lost twice, and the lost
+     * lengths are subtracted from the bound, except the biggest one (the station could be the other end).
+     */
+
+    private int upperBound(int station, int length) {
+        ++visitMark;
+        visitMarks[station] = visitMark;
+        int size = 0;
+        visitStack[size++] = station;
+
+        for (int i = 0; i < size; ++i) {
+            int current = visitStack[i];
+            int degree = 0;
+            for (int route : incidentRoutes[current]) {
+                if (isUsed(route))
+                    continue;
+                ++degree;
+                int other = other(route, current);
+                if (visitMarks[other] != visitMark) {
+                    visitMarks[other] = visitMark;
+                    visitStack[size++] = other;
+                }
+            }
+            remainingDegrees[current] = degree;
+        }
+
+        int doubledRemaining = 0;
+        int longestPendant = 0;
+        for (int i = 0; i < size; ++i) {
+            int current = visitStack[i];
+            lostLengths[current] = 0;
+            if (i > 0 && remainingDegrees[current] == 1)
+                continue;
+
+            int parity = 0;
+            for (int route : incidentRoutes[current]) {
+                if (isUsed(route))
+                    continue;
+                int other = other(route, current);
+                if (other != station && remainingDegrees[other] == 1)
+                    longestPendant = Math.max(longestPendant, lengths[route]);
+                else {
+                    parity ^= 1;
+                    doubledRemaining += lengths[route];
+                }
+            }
+            parities[current] = parity;
+        }
+
+        int lost = 0;
+        int biggestLost = 0;
+        for (int i = 1; i < size; ++i) {
+            int current = visitStack[i];
+            if (remainingDegrees[current] == 1 || parities[current] == 0)
+                continue;
+
+            int lostLength = INFINITY;
+            for (int route : incidentRoutes[current]) {
+                if (isUsed(route))
+                    continue;
+                int other = other(route, current);
+                if (other == station || remainingDegrees[other] != 1)
+                    lostLength = Math.min(lostLength, lengths[route] - lostLengths[other]);
+            }
+            lostLengths[current] = lostLength;
+            lost += lostLength;
+            biggestLost = Math.max(biggestLost, lostLength);
+        }
+        return length + longestPendant + doubledRemaining / 2 - (lost - biggestLost);
+    }
+
+    /**
+     * Returns an upper bound of the length of the trails of the given component, and keeps a trail reaching it when
+     * one is found.
+     * <p>
+     * The pendant routes of the component (those leading to a station that has no other route) can only be at the
+     * ends of a trail, so a trail is made of a trail of the core (the other routes) going from a station x to a station
+     * y, plus at most one pendant route at x and one at y (or two at x if x = y). The routes of the core that the
+     * trail doesn't take have an odd number of routes at the stations whose parity is not the expected one: the
+     * stations of odd degree in the core, x and y excepted (or included if they have an even degree). The shortest set
+     * of routes having a given set of stations of odd degree is found by matching these stations in pairs with
+     * shortest paths, and the choice of x and y is left to the matching by adding two stations standing for the ends.
+     * <p>
+     * The routes of the core that are not in the matching paths, plus the pendant routes at the ends, form a trail of
+     * the length of the bound if they are connected and have at most two stations of odd degree.
+     */
+
+    private int componentUpperBound(int[] component) {
+        int componentLength = totalLength(component);
+
+        int[] localIndex = new int[stations.length];
+        Arrays.fill(localIndex, -1);
+        int coreSize = 0;
+        int coreLength = 0;
+        boolean[] inCore = new boolean[lengths.length];
+        for (int station : component)
+            for (int route : incidentRoutes[station])
+                if (!isPendant(route)) {
+                    inCore[route] = true;
+                    if (localIndex[station] == -1)
+                        localIndex[station] = coreSize++;
+                }
+        if (coreSize == 0)
+            return componentLength;
+        for (int route = 0; route < lengths.length; ++route)
+            if (inCore[route])
+                coreLength += lengths[route];
+
+        int[] coreStations = new int[coreSize];
+        for (int station : component)
+            if (localIndex[station] != -1)
+                coreStations[localIndex[station]] = station;
+
+        //Longest and second longest pendant routes of every station of the core
+        int[][] pendants = new int[coreSize][2];
+        for (int[] stationPendants : pendants)
+            Arrays.fill(stationPendants, -1);
+        for (int station : coreStations)
+            for (int route : incidentRoutes[station])
+                if (!inCore[route]) {
+                    int[] stationPendants = pendants[localIndex[station]];
+                    if (stationPendants[0] == -1 || lengths[route] > lengths[stationPendants[0]]) {
+                        stationPendants[1] = stationPendants[0];
+                        stationPendants[0] = route;
+                    } else if (stationPendants[1] == -1 || lengths[route] > lengths[stationPendants[1]])
+                        stationPendants[1] = route;
+                }
+        int[] pendantLengths = new int[coreSize];
+        int[] pendantPairLengths = new int[coreSize];
+        for (int i = 0; i < coreSize; ++i) {
+            pendantLengths[i] = pendants[i][0] == -1 ? 0 : lengths[pendants[i][0]];
+            pendantPairLengths[i] = pendantLengths[i] + (pendants[i][1] == -1 ? 0 : lengths[pendants[i][1]]);
+        }
+
+        //Shortest paths between the stations of the core, firstRoutes[u][v] being the first route from u to v
+        int[][] distances = new int[coreSize][coreSize];
+        int[][] firstRoutes = new int[coreSize][coreSize];
+        for (int u = 0; u < coreSize; ++u) {
+            Arrays.fill(distances[u], INFINITY);
+            distances[u][u] = 0;
+            for (int route : incidentRoutes[coreStations[u]]) {
+                if (!inCore[route])
+                    continue;
+                int v = localIndex[other(route, coreStations[u])];
+                if (lengths[route] < distances[u][v]) {
+                    distances[u][v] = lengths[route];
+                    firstRoutes[u][v] = route;
+                }
+            }
+        }
+        for (int w = 0; w < coreSize; ++w)
+            for (int u = 0; u < coreSize; ++u)
+                for (int v = 0; v < coreSize; ++v)
+                    if (distances[u][w] + distances[w][v] < distances[u][v]) {
+                        distances[u][v] = distances[u][w] + distances[w][v];
+                        firstRoutes[u][v] = firstRoutes[u][w];
+                    }
+
+        List<Integer> oddStations = new ArrayList<>();
+        for (int u = 0; u < coreSize; ++u) {
+            int degree = 0;
+            for (int route : incidentRoutes[coreStations[u]])
+                if (inCore[route])
+                    ++degree;
+            if (degree % 2 == 1)
+                oddStations.add(u);
+        }
+        int matchedCount = oddStations.size() + 2;
+        if (matchedCount > MAX_MATCHED_STATIONS)
+            return componentLength;
+
+        //The last two matched stations stand for the ends of the trail: matching a station t with one of them means
+        //that a path goes from t to an end, matching them together means that a path goes from an end to the other
+        int firstEnd = matchedCount - 2;
+        int secondEnd = matchedCount - 1;
+        int[][] costs = new int[matchedCount][matchedCount];
+        int[] endOf = new int[matchedCount];
+        for (int i = 0; i < firstEnd; ++i) {
+            int t = oddStations.get(i);
+            for (int j = 0; j < firstEnd; ++j)
+                costs[i][j] = distances[t][oddStations.get(j)];
+            int best = INFINITY;
+            for (int x = 0; x < coreSize; ++x)
+                if (distances[t][x] - pendantLengths[x] < best) {
+                    best = distances[t][x] - pendantLengths[x];
+                    endOf[i] = x;
+                }
+            costs[i][firstEnd] = costs[firstEnd][i] = costs[i][secondEnd] = costs[secondEnd][i] = best;
+        }
+        int endsCost = 0;
+        int end1 = -1;
+        int end2 = -1;
+        for (int x = 0; x < coreSize; ++x) {
+            if (-pendantPairLengths[x] < endsCost) {
+                endsCost = -pendantPairLengths[x];
+                end1 = end2 = x;
+            }
+            for (int y = x + 1; y < coreSize; ++y)
+                if (distances[x][y] - pendantLengths[x] - pendantLengths[y] < endsCost) {
+                    endsCost = distances[x][y] - pendantLengths[x] - pendantLengths[y];
+                    end1 = x;
+                    end2 = y;
+                }
+        }
+        costs[firstEnd][secondEnd] = costs[secondEnd][firstEnd] = endsCost;
+
+        int[] memo = new int[1 << matchedCount];
+        Arrays.fill(memo, UNKNOWN);
+        int upperBound = Math.min(componentLength, coreLength - matchingCost((1 << matchedCount) - 1, costs, memo));
+
+        //Routes of the core outside of the matching paths, and pendant routes at the ends
+        boolean[] taken = Arrays.copyOf(inCore, inCore.length);
+        int[] endCounts = new int[coreSize];
+        int mask = (1 << matchedCount) - 1;
+        while (mask != 0) {
+            int i = Integer.numberOfTrailingZeros(mask);
+            int j = matchedPartner(mask, costs, memo);
+            mask &= ~(1 << i) & ~(1 << j);
+            if (i == firstEnd) {
+                if (end1 != -1) {
+                    removePath(end1, end2, coreStations, localIndex, firstRoutes, taken);
+                    ++endCounts[end1];
+                    ++endCounts[end2];
+                }
+            } else if (j >= firstEnd) {
+                removePath(oddStations.get(i), endOf[i], coreStations, localIndex, firstRoutes, taken);
+                ++endCounts[endOf[i]];
+            } else
+                removePath(oddStations.get(i), oddStations.get(j), coreStations, localIndex, firstRoutes, taken);
+        }
+        for (int x = 0; x < coreSize; ++x)
+            for (int k = 0; k < Math.min(endCounts[x], 2); ++k)
+                if (pendants[x][k] != -1)
+                    taken[pendants[x][k]] = true;
+
+        keepEulerianTrail(component, taken);
+        return upperBound;
+    }
+
+    private int matchingCost(int mask, int[][] costs, int[] memo) {
+        if (mask == 0)
+            return 0;
+        if (memo[mask] != UNKNOWN)
+            return memo[mask];
+
+        int i = Integer.numberOfTrailingZeros(mask);
+        int rest = mask & ~(1 << i);
+        int best = INFINITY;
+        for (int others = rest; others != 0; others &= others - 1) {
+            int j = Integer.numberOfTrailingZeros(others);
+            best = Math.min(best, costs[i][j] + matchingCost(rest & ~(1 << j), costs, memo));
+        }
+        memo[mask] = best;
+        return best;
+    }
+
+    private int matchedPartner(int mask, int[][] costs, int[] memo) {
+        int i = Integer.numberOfTrailingZeros(mask);
+        int rest = mask & ~(1 << i);
+        for (int others = rest; others != 0; others &= others - 1) {
+            int j = Integer.numberOfTrailingZeros(others);
+            if (costs[i][j] + matchingCost(rest & ~(1 << j), costs, memo) == memo[mask])
+                return j;
+        }
+        // matchingCost(mask) is the minimum over these very partners, one of which must therefore reach it
+        throw new IllegalStateException("no partner of station " + i + " reaches the minimum matching cost "
+                + memo[mask] + " of mask " + Integer.toBinaryString(mask));
+    }
+
+    private void removePath(int from, int to, int[] coreStations, int[] localIndex, int[][] firstRoutes,
+                            boolean[] taken) {
+        int u = from;
+        while (u != to) {
+            int route = firstRoutes[u][to];
+            taken[route] = !taken[route];
+            u = localIndex[other(route, coreStations[u])];
+        }
+    }
+
+    /**
+     * Keeps the trail going through all the given routes of the component if there is one and if it is longer than
+     * the best trail found so far (Hierholzer's algorithm)
+     */
+
+    private void keepEulerianTrail(int[] component, boolean[] taken) {
+        int routeCount = 0;
+        int length = 0;
+        int start = -1;
+        int oddCount = 0;
+        for (int station : component) {
+            int degree = 0;
+            for (int route : incidentRoutes[station])
+                if (taken[route])
+                    ++degree;
+            if (degree % 2 == 1) {
+                ++oddCount;
+                start = station;
+            } else if (degree > 0 && start == -1)
+                start = station;
+        }
+        for (int route = 0; route < taken.length; ++route)
+            if (taken[route]) {
+                ++routeCount;
+                length += lengths[route];
+            }
+        if (oddCount > 2 || routeCount == 0 || length <= bestLength)
+            return;
+
+        boolean[] visited = new boolean[taken.length];
+        int[] nextIncident = new int[stations.length];
+        int[] stackStations = new int[routeCount + 1];
+        int[] stackRoutes = new int[routeCount + 1];
+        int[] trail = new int[routeCount];
+        int trailSize = 0;
+        int top = 0;
+        stackStations[0] = start;
+        stackRoutes[0] = -1;
+        while (top >= 0) {
+            int station = stackStations[top];
+            int[] incident = incidentRoutes[station];
+            while (nextIncident[station] < incident.length
+                    && (!taken[incident[nextIncident[station]]] || visited[incident[nextIncident[station]]]))
+                ++nextIncident[station];
+            if (nextIncident[station] < incident.length) {
+                int route = incident[nextIncident[station]];
+                visited[route] = true;
+                ++top;
+                stackStations[top] = other(route, station);
+                stackRoutes[top] = route;
+            } else {
+                if (stackRoutes[top] != -1)
+                    trail[trailSize++] = stackRoutes[top];
+                --top;
+            }
+        }
+        if (trailSize != routeCount)
+            return;
+
+        int[] trailRoutes = new int[routeCount];
+        for (int i = 0; i < routeCount; ++i)
+            trailRoutes[i] = trail[routeCount - 1 - i];
+        keep(start, trailRoutes, length);
+    }
+
+    private boolean isPendant(int route) {
+        return incidentRoutes[ends1[route]].length == 1 || incidentRoutes[ends2[route]].length == 1;
+    }
+
+    private boolean isUsed(int route) {
+        return (used[route >>> 6] & (1L << route)) != 0;
+    }
+
+    private int other(int route, int station) {
+        return ends1[route] == station ? ends2[route] : ends1[route];
+    }
+}
@@ -168,16 +168,22 @@ public class ApplicationMain {
 
         SortedBag<Ticket> tickets = SortedBag.of(ChMap.tickets());
         if (mode.equals(modes.get(0))) {
-            GameOriginal.play(Map.of(
+            RemotePlayerProxy player2 = new RemotePlayerProxy(serverSocket1.accept());
+            Game.play(Map.of(
                     PlayerId.PLAYER_1, new GraphicalPlayerAdapter(),
-                    PlayerId.PLAYER_2, new RemotePlayerProxy(serverSocket1.accept())), names, tickets, new Random());
+                    PlayerId.PLAYER_2, player2), names, tickets, new Random());
+            player2.flush();
         }
         else if (mode.equals(modes.get(1))) {
-            Game3Players.play(Map.of(
+            RemotePlayerProxy player2 = new RemotePlayerProxy(serverSocket1.accept());
+            RemotePlayerProxy player3 = new RemotePlayerProxy(serverSocket2.accept());
+            Game.play(Map.of(
                     PlayerId.PLAYER_1, new GraphicalPlayerAdapter(),
-                    PlayerId.PLAYER_2, new RemotePlayerProxy(serverSocket1.accept()),
-                    PlayerId.PLAYER_3, new RemotePlayerProxy(serverSocket2.accept())), names3Players, tickets, new Random()
+                    PlayerId.PLAYER_2, player2,
+                    PlayerId.PLAYER_3, player3), names3Players, tickets, new Random()
             );
+            player2.flush();
+            player3.flush();
         }
     }
 }
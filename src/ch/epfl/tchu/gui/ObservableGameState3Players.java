@@ -84,28 +84,10 @@ public final class ObservableGameState3Players extends ObservableGameState {
             faceUpCards.get(slot).set(newCard);
         }
 
-        List<Route> player1Routes = newGameState.playerState(PlayerId.PLAYER_1).routes();
         for (Route route : ChMap.routes()) {
-            for (Route playerRoute : player1Routes) {
-                if (route.id().equals(playerRoute.id()))
-                    routesOwnership.get(route).set(PlayerId.PLAYER_1);
-            }
-        }
-
-        List<Route> player2Routes = newGameState.playerState(PlayerId.PLAYER_2).routes();
-        for (Route route : ChMap.routes()) {
-            for (Route playerRoute : player2Routes) {
-                if (route.id().equals(playerRoute.id()))
-                    routesOwnership.get(route).set(PlayerId.PLAYER_2);
-            }
-        }
-
-        List<Route> player3Routes = newGameState.playerState(PlayerId.PLAYER_3).routes();
-        for (Route route : ChMap.routes()) {
-            for (Route playerRoute : player3Routes) {
-                if (route.id().equals(playerRoute.id()))
-                    routesOwnership.get(route).set(PlayerId.PLAYER_3);
-            }
+            PlayerId owner = newGameState.routeOwner(route);
+            if (owner != null)
+                routesOwnership.get(route).set(owner);
         }
 
 
@@ -0,0 +1,140 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.Preconditions;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class reads the values written by a BinaryWriter back from an array of bytes.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+public final class BinaryReader {
+
+    private byte[] bytes;
+    private int position;
+    private int limit;
+
+    /**
+     * Constructs a reader of all the given bytes
+     *
+     * @param bytes the bytes to read
+     */
+    public BinaryReader(byte[] bytes) {
+        reset(bytes, bytes.length);
+    }
+
+    /**
+     * Makes the reader read the given number of bytes of the given array, from its start
+     *
+     * @param bytes  the array containing the bytes to read
+     * @param length the number of bytes to read
+     */
+    public void reset(byte[] bytes, int length) {
+        Preconditions.checkArgument(length >= 0 && length <= bytes.length);
+        this.bytes = bytes;
+        this.position = 0;
+        this.limit = length;
+    }
+
+    /**
+     * Returns whether some bytes remain to be read
+     *
+     * @return true if some bytes remain to be read
+     */
+    public boolean hasRemaining() {
+        return position < limit;
+    }
+
+    /**
+     * Returns the number of bytes that remain to be read
+     *
+     * @return the number of bytes that remain to be read
+     */
+    public int remaining() {
+        return limit - position;
+    }
+
+    /**
+     * Reads a single byte
+     *
+     * @return the byte read, between 0 and 255
+     * @throws IllegalArgumentException if there is no byte left
+     */
+    public int readByte() {
+        Preconditions.checkArgument(position < limit);
+        return bytes[position++] & 0xFF;
+    }
+
+    /**
+     * Reads a positive integer written with BinaryWriter.writeVarInt
+     *
+     * @return the integer read
+     * @throws IllegalArgumentException if the bytes left don't contain a valid integer
+     */
+    public int readVarInt() {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IllegalArgumentException("malformed variable length integer");
+    }
+
+    /**
+     * Reads an integer written with BinaryWriter.writeSignedVarInt
+     *
+     * @return the integer read
+     * @throws IllegalArgumentException if the bytes left don't contain a valid integer
+     */
+    public int readSignedVarInt() {
+        int zigzag = readVarInt();
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    /**
+     * Reads a long written with BinaryWriter.writeLong
+     *
+     * @return the long read
+     * @throws IllegalArgumentException if less than 8 bytes are left
+     */
+    public long readLong() {
+        Preconditions.checkArgument(limit - position >= 8);
+        long value = 0;
+        for (int i = 0; i < 8; ++i)
+            value = (value << 8) | (bytes[position++] & 0xFF);
+        return value;
+    }
+
+    /**
+     * Reads the given number of bytes into the given array
+     *
+     * @param destination the array to read the bytes into
+     * @param offset      the index of destination at which the first byte is stored
+     * @param length      the number of bytes to read
+     * @throws IllegalArgumentException if less bytes are left
+     */
+    public void readBytes(byte[] destination, int offset, int length) {
+        Preconditions.checkArgument(length <= limit - position);
+        System.arraycopy(bytes, position, destination, offset, length);
+        position += length;
+    }
+
+    /**
+     * Reads a string written with BinaryWriter.writeString
+     *
+     * @return the string read
+     * @throws IllegalArgumentException if the bytes left don't contain a valid string
+     */
+    public String readString() {
+        int length = readVarInt();
+        Preconditions.checkArgument(length <= limit - position);
+        String string = new String(bytes, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return string;
+    }
+}
@@ -0,0 +1,149 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.Preconditions;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * This class represents a growable buffer into which the binary wire format writes values: single bytes, variable
+ * length integers (7 bits per byte, least significant group first) and length-prefixed UTF-8 strings.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+public final class BinaryWriter {
+
+    private byte[] bytes = new byte[64];
+    private int size;
+
+    /**
+     * Writes a single byte
+     *
+     * @param b the byte to write (only its 8 least significant bits are written)
+     * @return this writer
+     */
+    public BinaryWriter writeByte(int b) {
+        ensureCapacity(1);
+        bytes[size++] = (byte) b;
+        return this;
+    }
+
+    /**
+     * Writes a positive integer on as few bytes as possible: 1 byte below 128, 2 bytes below 16384, etc.
+     *
+     * @param value the integer to write
+     * @return this writer
+     * @throws IllegalArgumentException if the integer is negative
+     */
+    public BinaryWriter writeVarInt(int value) {
+        Preconditions.checkArgument(value >= 0);
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[size++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * Writes an integer that may be negative, small absolute values taking few bytes ("zigzag" encoding)
+     *
+     * @param value the integer to write
+     * @return this writer
+     */
+    public BinaryWriter writeSignedVarInt(int value) {
+        ensureCapacity(5);
+        int zigzag = (value << 1) ^ (value >> 31);
+        while ((zigzag & ~0x7F) != 0) {
+            bytes[size++] = (byte) ((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        bytes[size++] = (byte) zigzag;
+        return this;
+    }
+
+    /**
+     * Writes a long on 8 bytes, most significant byte first
+     *
+     * @param value the long to write
+     * @return this writer
+     */
+    public BinaryWriter writeLong(long value) {
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8)
+            bytes[size++] = (byte) (value >>> shift);
+        return this;
+    }
+
+    /**
+     * Writes the given bytes as they are, without their length
+     *
+     * @param source the array containing the bytes to write
+     * @param offset the index of the first byte to write
+     * @param length the number of bytes to write
+     * @return this writer
+     */
+    public BinaryWriter writeBytes(byte[] source, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(source, offset, bytes, size, length);
+        size += length;
+        return this;
+    }
+
+    /**
+     * Writes a string as its UTF-8 length followed by its UTF-8 bytes
+     *
+     * @param string the string to write
+     * @return this writer
+     */
+    public BinaryWriter writeString(String string) {
+        byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(utf8.length);
+        return writeBytes(utf8, 0, utf8.length);
+    }
+
+    /**
+     * Returns the number of bytes written since the last reset
+     *
+     * @return the number of bytes written since the last reset
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Empties the writer, keeping its buffer for the next values
+     */
+    public void reset() {
+        size = 0;
+    }
+
+    /**
+     * Returns a copy of the bytes written since the last reset
+     *
+     * @return a copy of the bytes written since the last reset
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    /**
+     * Writes the bytes written since the last reset onto the given stream
+     *
+     * @param out the stream to write onto
+     * @throws IOException if the stream fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, size);
+    }
+
+    private void ensureCapacity(int additionalBytes) {
+        if (size + additionalBytes > bytes.length)
+            bytes = Arrays.copyOf(bytes, Math.max(2 * bytes.length, size + additionalBytes));
+    }
+}
@@ -0,0 +1,320 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Game;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.Ticket;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class represents a headless tChu server, which accepts any number of clients on a single port, seats them at
+ * tables of a given number of players in the order in which they connect, and plays the games of all tables at once.
+ * <p>
+ * The format of each connection is negotiated as soon as it is accepted, while other clients keep being accepted; the
+ * game of a table is then played on a thread of its own, since the players are called one after the other and each
+ * call waits for the answer of its client. A client that disconnects while waiting for its table to be complete is
+ * replaced by the next one; once the game is started, a table whose client disconnects, sends an invalid reply or
+ * doesn't answer a request within the reply timeout, is aborted without affecting the others. A table whose game fails
+ * for any other reason, which is a bug, is aborted too and the failure is reported on the standard error.
+ * <p>
+ * These tasks run on the executor given to the server, a thread per task by default. As nearly all of them are
+ * waiting for a client at any time, running them on virtual threads (on a Java runtime that has them, with
+ * {@code Executors.newVirtualThreadPerTaskExecutor()}) lets a server host many more tables than it has threads.
+ * <p>
+ * Usage: {@code GameServer [port [playersPerTable]]}, e.g. {@code GameServer 5109 3}.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+public final class GameServer implements AutoCloseable {
+
+    /**
+     * Port on which the server accepts clients by default, which is the one clients connect to by default
+     */
+    public static final int DEFAULT_PORT = 5109;
+
+    /**
+     * Delay (in milliseconds) given by default to the clients to answer each request; it leaves human players plenty
+     * of time to think, while freeing the tables of clients that hang
+     */
+    public static final int DEFAULT_REPLY_TIMEOUT_MILLIS = 5 * 60 * 1000;
+
+    // Clients connecting faster than they are accepted wait in a queue of this length, to which the system may set a
+    // lower limit; the default length of 50 is too short for a server hosting hundreds of tables
+    private static final int ACCEPT_BACKLOG = 1024;
+
+    private static final List<String> PLAYER_NAMES = List.of("Ada", "Charles", "Xi");
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+
+    private final ServerSocket serverSocket;
+    private final int playersPerTable;
+    private final int replyTimeoutMillis;
+    private final ExecutorService executor;
+    private final List<Seat> waitingSeats = new ArrayList<>();
+    private final AtomicInteger startedTables = new AtomicInteger();
+    private final AtomicInteger finishedTables = new AtomicInteger();
+    private final AtomicInteger abortedTables = new AtomicInteger();
+    private Thread acceptor;
+
+    /**
+     * A client whose format has been negotiated, waiting for its table to be complete
+     */
+    private static final class Seat {
+
+        private final Socket socket;
+        private final RemotePlayerProxy proxy;
+
+        private Seat(Socket socket, RemotePlayerProxy proxy) {
+            this.socket = socket;
+            this.proxy = proxy;
+        }
+    }
+
+    /**
+     * Constructs a server listening on the given port, giving clients the default delay to answer each request and
+     * running each of its tasks on a thread of its own; clients are only accepted once it is started
+     *
+     * @param port            the port on which clients are accepted, or 0 for any free port
+     * @param playersPerTable the number of players seated at each table
+     * @throws IllegalArgumentException if the number of players per table is not between 2 and PlayerId.COUNT
+     * @throws IOException              if the port cannot be opened
+     */
+    public GameServer(int port, int playersPerTable) throws IOException {
+        this(port, playersPerTable, DEFAULT_REPLY_TIMEOUT_MILLIS, Executors.newCachedThreadPool());
+    }
+
+    /**
+     * Constructs a server listening on the given port; clients are only accepted once it is started
+     *
+     * @param port               the port on which clients are accepted, or 0 for any free port
+     * @param playersPerTable    the number of players seated at each table
+     * @param replyTimeoutMillis the delay (in milliseconds) given to the clients to answer each request, or 0 for no
+     *                           limit
+     * @param executor           the executor running the negotiation of each connection and the game of each table,
+     *                           which must not bound the number of tasks running at once; it is shut down with the
+     *                           server
+     * @throws IllegalArgumentException if the number of players per table is not between 2 and PlayerId.COUNT, or if
+     *                                  the delay is negative
+     * @throws IOException              if the port cannot be opened
+     */
+    public GameServer(int port, int playersPerTable, int replyTimeoutMillis, ExecutorService executor)
+            throws IOException {
+        Preconditions.checkArgument(playersPerTable >= 2 && playersPerTable <= PlayerId.COUNT);
+        Preconditions.checkArgument(replyTimeoutMillis >= 0);
+        this.playersPerTable = playersPerTable;
+        this.replyTimeoutMillis = replyTimeoutMillis;
+        this.executor = Objects.requireNonNull(executor);
+        this.serverSocket = new ServerSocket(port, ACCEPT_BACKLOG);
+    }
+
+    /**
+     * Returns the port on which the server accepts clients
+     *
+     * @return the port on which the server accepts clients
+     */
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Starts accepting clients, on a thread of its own
+     *
+     * @throws IllegalStateException if the server was already started
+     */
+    public synchronized void start() {
+        if (acceptor != null)
+            throw new IllegalStateException("the server was already started");
+        acceptor = new Thread(this::acceptClients, "tchu-server-acceptor");
+        acceptor.start();
+    }
+
+    private void acceptClients() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                try {
+                    executor.execute(() -> seat(socket));
+                } catch (RejectedExecutionException e) {
+                    close(socket);
+                }
+            } catch (SocketException e) {
+                // The server socket was closed
+                return;
+            } catch (IOException e) {
+                System.err.println("Could not accept a client: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Negotiates the format of a new client, then seats it at the table being completed, and starts that table if it
+     * is now complete
+     */
+    private void seat(Socket socket) {
+        Seat seat;
+        try {
+            seat = new Seat(socket, new RemotePlayerProxy(socket, WireFormat.BINARY, replyTimeoutMillis));
+        } catch (UncheckedIOException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            // The client disconnected or answered the format offer with invalid bytes
+            close(socket);
+            return;
+        } catch (RuntimeException e) {
+            System.err.println("Could not seat a client:");
+            e.printStackTrace();
+            close(socket);
+            return;
+        }
+
+        // Tables are started while holding the lock, so that the server cannot be closed in between
+        synchronized (waitingSeats) {
+            if (serverSocket.isClosed()) {
+                close(socket);
+                return;
+            }
+            waitingSeats.add(seat);
+            if (waitingSeats.size() == playersPerTable)
+                dropDisconnectedSeats();
+            if (waitingSeats.size() == playersPerTable) {
+                List<Seat> table = List.copyOf(waitingSeats);
+                waitingSeats.clear();
+                startedTables.incrementAndGet();
+                executor.execute(() -> play(table));
+            }
+        }
+    }
+
+    /**
+     * Drops the waiting seats whose client disconnected meanwhile, which would otherwise abort the game of the clients
+     * seated at the same table
+     */
+    private void dropDisconnectedSeats() {
+        Iterator<Seat> seats = waitingSeats.iterator();
+        while (seats.hasNext()) {
+            Seat seat = seats.next();
+            if (seat.proxy.clientDisconnected()) {
+                close(seat.socket);
+                seats.remove();
+            }
+        }
+    }
+
+    private void play(List<Seat> seats) {
+        Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        Map<PlayerId, String> playerNames = new EnumMap<>(PlayerId.class);
+        for (int i = 0; i < seats.size(); ++i) {
+            players.put(PlayerId.ALL.get(i), seats.get(i).proxy);
+            playerNames.put(PlayerId.ALL.get(i), PLAYER_NAMES.get(i));
+        }
+
+        try {
+            Game.play(players, playerNames, TICKETS, new Random());
+            for (Seat seat : seats)
+                seat.proxy.flush();
+            finishedTables.incrementAndGet();
+        } catch (UncheckedIOException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            // A client disconnected, didn't answer in time or sent a reply that isn't valid, which the serdes or the
+            // game reject; either way, the game cannot go on
+            abortedTables.incrementAndGet();
+        } catch (RuntimeException e) {
+            abortedTables.incrementAndGet();
+            System.err.println("Aborted a table whose game failed:");
+            e.printStackTrace();
+        } finally {
+            for (Seat seat : seats)
+                close(seat.socket);
+        }
+    }
+
+    private static void close(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Nothing more can be done with this client
+        }
+    }
+
+    /**
+     * Returns the number of tables whose game was started
+     *
+     * @return the number of tables whose game was started
+     */
+    public int startedTables() {
+        return startedTables.get();
+    }
+
+    /**
+     * Returns the number of tables whose game ended normally
+     *
+     * @return the number of tables whose game ended normally
+     */
+    public int finishedTables() {
+        return finishedTables.get();
+    }
+
+    /**
+     * Returns the number of tables whose game was aborted, because a client disconnected, sent an invalid reply or
+     * didn't answer in time, or because the game failed
+     *
+     * @return the number of tables whose game was aborted
+     */
+    public int abortedTables() {
+        return abortedTables.get();
+    }
+
+    /**
+     * Stops accepting clients, disconnects the clients waiting for their table to be complete, and waits for the games
+     * in progress to end
+     *
+     * @throws IOException if the server socket could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        synchronized (waitingSeats) {
+            for (Seat seat : waitingSeats)
+                close(seat.socket);
+            waitingSeats.clear();
+            executor.shutdown();
+        }
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Starts a server, which runs until the program is stopped
+     *
+     * @param args the port and the number of players per table, both optional
+     * @throws IOException if the port cannot be opened
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int playersPerTable = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        GameServer server = new GameServer(port, playersPerTable);
+        server.start();
+        System.out.printf("tChu server listening on port %d, %d players per table%n", server.port(), playersPerTable);
+    }
+}
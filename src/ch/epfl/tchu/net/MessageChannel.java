@@ -0,0 +1,584 @@
+package ch.epfl.tchu.net;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * This class represents the connection between the proxy of a distant player and its client, through which messages
+ * (sent by the proxy) and replies (sent by the client) are exchanged in a given wire format. A message is made of its
+ * id followed by its arguments, a reply only of its arguments; both are written and read argument by argument, with
+ * the Serde of each argument. Messages that don't expect a reply can be queued rather than sent, to be sent together
+ * with the next message or reply sent, so that they share a single write to the socket.
+ * <p>
+ * The format is negotiated when the client connects: the proxy starts in text and, if it prefers the binary format,
+ * offers it with a PROTOCOL message. A client that accepts it answers with a PROTOCOL message of its own, which the
+ * proxy acknowledges with a last PROTOCOL message, after which both switch to the binary format. Clients that don't
+ * know about the binary format ignore the offer, so that the proxy falls back to text after a short delay.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+abstract class MessageChannel {
+
+    private static final List<MessageId> MESSAGE_IDS = List.of(MessageId.values());
+
+    final BufferedInputStream in;
+    final BufferedOutputStream out;
+
+    private MessageChannel(BufferedInputStream in, BufferedOutputStream out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    /**
+     * Returns a text channel over the streams of the given socket
+     *
+     * @param socket the socket connecting the proxy and the client
+     * @return a text channel over the streams of the socket
+     */
+    static MessageChannel text(Socket socket) {
+        try {
+            // Messages are already gathered by the channel, delaying them further would only delay the replies
+            socket.setTcpNoDelay(true);
+            return text(socket.getInputStream(), socket.getOutputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns a text channel over the given streams, which are buffered by the channel
+     *
+     * @param in  the stream from which messages or replies are received
+     * @param out the stream to which messages or replies are sent
+     * @return a text channel over the given streams
+     */
+    static MessageChannel text(InputStream in, OutputStream out) {
+        return new Text(new BufferedInputStream(in), new BufferedOutputStream(out));
+    }
+
+    /**
+     * Opens the proxy's side of the connection and negotiates its format: the binary format is offered if preferred,
+     * and used if the client accepts it within the given delay; the text format is used otherwise.
+     *
+     * @param socket          the socket connecting the proxy and the client
+     * @param preferredFormat the format preferred by the proxy
+     * @param timeoutMillis   the delay after which a client which didn't answer is considered to only know the text
+     *                        format
+     * @return a channel in the negotiated format
+     */
+    static MessageChannel offer(Socket socket, WireFormat preferredFormat, int timeoutMillis) {
+        MessageChannel channel = text(socket);
+        if (preferredFormat == WireFormat.TEXT)
+            return channel;
+
+        channel.beginMessage(MessageId.PROTOCOL);
+        channel.write(Serdes.wireFormatSerde, preferredFormat);
+        channel.send();
+        try {
+            socket.setSoTimeout(timeoutMillis);
+            try {
+                if (channel.receiveMessage() == MessageId.PROTOCOL
+                        && channel.read(Serdes.wireFormatSerde) == preferredFormat) {
+                    channel.beginMessage(MessageId.PROTOCOL);
+                    channel.write(Serdes.wireFormatSerde, preferredFormat);
+                    channel.send();
+                    return channel.switchTo(preferredFormat);
+                }
+            } catch (UncheckedIOException e) {
+                if (!(e.getCause() instanceof SocketTimeoutException))
+                    throw e;
+            } finally {
+                socket.setSoTimeout(0);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return channel;
+    }
+
+    /**
+     * Answers, on the client's side, to the format offered by the proxy in a PROTOCOL message: the offer is accepted if
+     * it is the format accepted by the client, and the channel switches to it once the proxy has acknowledged it. If
+     * the proxy has given up waiting for the answer, it goes on in text and its message is kept to be received next.
+     *
+     * @param offeredFormat  the format offered by the proxy
+     * @param acceptedFormat the format accepted by the client
+     * @return the channel to use from now on
+     */
+    MessageChannel answerOffer(WireFormat offeredFormat, WireFormat acceptedFormat) {
+        if (offeredFormat != acceptedFormat || format() != WireFormat.TEXT)
+            return this;
+
+        beginMessage(MessageId.PROTOCOL);
+        write(Serdes.wireFormatSerde, acceptedFormat);
+        send();
+        MessageId next = receiveMessage();
+        if (next == MessageId.PROTOCOL && read(Serdes.wireFormatSerde) == acceptedFormat)
+            return switchTo(acceptedFormat);
+        if (next != null)
+            ((Text) this).keepLastMessage();
+        return this;
+    }
+
+    /**
+     * Returns this channel as a binary channel, whose writer and reader give access to the arguments which only exist
+     * in the binary format
+     *
+     * @return this channel as a binary channel
+     * @throws IllegalStateException if this channel isn't in the binary format
+     */
+    Binary binary() {
+        if (!(this instanceof Binary))
+            throw new IllegalStateException("not a binary channel");
+        return (Binary) this;
+    }
+
+    /**
+     * Returns whether the peer closed the connection, without consuming anything it sent; a peer that sends nothing
+     * within the given delay is considered connected.
+     *
+     * @param socket        the socket of the channel
+     * @param timeoutMillis the delay (in milliseconds, at least 1) to wait for the end of the stream
+     * @return true if the peer closed or reset the connection
+     */
+    boolean peerClosed(Socket socket, int timeoutMillis) {
+        try {
+            int replyTimeout = socket.getSoTimeout();
+            socket.setSoTimeout(timeoutMillis);
+            try {
+                in.mark(1);
+                if (in.read() == -1)
+                    return true;
+                in.reset();
+                return false;
+            } catch (SocketTimeoutException e) {
+                return false;
+            } finally {
+                socket.setSoTimeout(replyTimeout);
+            }
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Returns a channel in the given format, over the same streams as this one
+     *
+     * @param format the format of the new channel
+     * @return a channel in the given format, over the same streams as this one
+     */
+    MessageChannel switchTo(WireFormat format) {
+        return format == WireFormat.TEXT ? new Text(in, out) : new Binary(in, out);
+    }
+
+    /**
+     * Returns the format of the channel
+     *
+     * @return the format of the channel
+     */
+    abstract WireFormat format();
+
+    /**
+     * Starts writing a message with the given id
+     *
+     * @param id the id of the message
+     */
+    abstract void beginMessage(MessageId id);
+
+    /**
+     * Starts writing a reply
+     */
+    abstract void beginReply();
+
+    /**
+     * Writes the next argument of the message or reply being written
+     *
+     * @param serde the serde of the argument
+     * @param value the argument
+     * @param <T>   the type of the argument
+     */
+    abstract <T> void write(Serde<T> serde, T value);
+
+    /**
+     * Sends the message or reply written since its beginning, along with the messages queued before it
+     */
+    void send() {
+        queue();
+        flush();
+    }
+
+    /**
+     * Queues the message written since its beginning, to be sent with the next message or reply sent, or by flush
+     */
+    abstract void queue();
+
+    /**
+     * Sends the messages queued since the last message or reply sent
+     */
+    void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Waits for the next message and returns its id; its arguments are then read with read. Messages with an unknown
+     * id are skipped.
+     *
+     * @return the id of the message received, or null if the connection was closed
+     */
+    abstract MessageId receiveMessage();
+
+    /**
+     * Waits for the next reply, whose arguments are then read with read
+     */
+    abstract void receiveReply();
+
+    /**
+     * Reads the next argument of the message or reply received
+     *
+     * @param serde the serde of the argument
+     * @param <T>   the type of the argument
+     * @return the argument
+     */
+    abstract <T> T read(Serde<T> serde);
+
+    /**
+     * The text format: a message is a line made of the name of its id and of its serialized arguments, separated by
+     * spaces; a reply is a line made of its only argument.
+     */
+    private static final class Text extends MessageChannel {
+
+        // The longest lines, state updates with every route claimed, take less than 1000 bytes; like frames of the
+        // binary format, longer lines are rejected rather than buffered without end
+        static final int MAX_LINE_LENGTH = Binary.MAX_FRAME_LENGTH;
+
+        private static final byte[][] ID_NAMES = new byte[MESSAGE_IDS.size()][];
+        private static final byte[] PROTOCOL_PREFIX = (MessageId.PROTOCOL.name() + " ").getBytes(US_ASCII);
+
+        static {
+            for (MessageId id : MESSAGE_IDS)
+                ID_NAMES[id.ordinal()] = id.name().getBytes(US_ASCII);
+        }
+
+        private final StringBuilder written = new StringBuilder();
+        private byte[] bytes = new byte[256];
+        private boolean firstArgument;
+        private byte[] line = new byte[256];
+        private int lineLength;
+        private int[] argumentStarts = new int[8];
+        private int argumentCount;
+        private int nextArgument;
+        private boolean lastMessageKept;
+
+        private Text(BufferedInputStream in, BufferedOutputStream out) {
+            super(in, out);
+        }
+
+        @Override
+        WireFormat format() {
+            return WireFormat.TEXT;
+        }
+
+        @Override
+        void beginMessage(MessageId id) {
+            written.setLength(0);
+            written.append(id.name());
+            firstArgument = false;
+        }
+
+        @Override
+        void beginReply() {
+            written.setLength(0);
+            firstArgument = true;
+        }
+
+        @Override
+        <T> void write(Serde<T> serde, T value) {
+            if (!firstArgument)
+                written.append(' ');
+            firstArgument = false;
+            written.append(serde.serialize(value));
+        }
+
+        @Override
+        void queue() {
+            written.append('\n');
+            int length = written.length();
+            if (length > bytes.length)
+                bytes = new byte[Math.max(length, 2 * bytes.length)];
+            // Serialized arguments only contain ASCII characters
+            for (int i = 0; i < length; ++i)
+                bytes[i] = (byte) written.charAt(i);
+            try {
+                out.write(bytes, 0, length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        MessageId receiveMessage() {
+            while (true) {
+                if (lastMessageKept)
+                    lastMessageKept = false;
+                else if (!readLine())
+                    return null;
+
+                splitArguments(0);
+                MessageId id = idNamed(argumentEnd(0));
+                if (id != null) {
+                    nextArgument = 1;
+                    return id;
+                }
+            }
+        }
+
+        @Override
+        void receiveReply() {
+            // Skips the answer of a client to a format offer the proxy had stopped waiting for
+            do {
+                if (!readLine())
+                    throw new UncheckedIOException(new EOFException("connection closed while waiting for a reply"));
+            } while (lineLength >= PROTOCOL_PREFIX.length
+                    && Arrays.equals(line, 0, PROTOCOL_PREFIX.length, PROTOCOL_PREFIX, 0, PROTOCOL_PREFIX.length));
+            argumentStarts[0] = 0;
+            argumentCount = 1;
+            nextArgument = 0;
+        }
+
+        @Override
+        <T> T read(Serde<T> serde) {
+            int start = argumentStarts[nextArgument];
+            int end = argumentEnd(nextArgument++);
+            return serde.deserialize(new String(line, start, end - start, US_ASCII));
+        }
+
+        private void keepLastMessage() {
+            lastMessageKept = true;
+        }
+
+        /**
+         * Finds the start of each argument of the line, the arguments being separated by spaces
+         */
+        private void splitArguments(int from) {
+            argumentStarts[0] = from;
+            argumentCount = 1;
+            for (int i = from; i < lineLength; ++i)
+                if (line[i] == ' ') {
+                    if (argumentCount == argumentStarts.length)
+                        argumentStarts = Arrays.copyOf(argumentStarts, 2 * argumentStarts.length);
+                    argumentStarts[argumentCount++] = i + 1;
+                }
+        }
+
+        private int argumentEnd(int argument) {
+            return argument + 1 < argumentCount ? argumentStarts[argument + 1] - 1 : lineLength;
+        }
+
+        /**
+         * Returns the id whose name is made of the first bytes of the line, up to the given index
+         */
+        private MessageId idNamed(int end) {
+            for (MessageId id : MESSAGE_IDS) {
+                byte[] name = ID_NAMES[id.ordinal()];
+                if (name.length == end && Arrays.equals(line, 0, end, name, 0, end))
+                    return id;
+            }
+            return null;
+        }
+
+        /**
+         * Reads a line into the line buffer. The bytes available are read at once, then the stream is reset and made
+         * to skip only the line, so that nothing past its end is consumed from the stream in case the channel switches
+         * to another format.
+         *
+         * @return false if the connection was closed before the line
+         * @throws UncheckedIOException if the line is longer than MAX_LINE_LENGTH
+         */
+        private boolean readLine() {
+            lineLength = 0;
+            try {
+                while (true) {
+                    if (lineLength == line.length) {
+                        if (lineLength > MAX_LINE_LENGTH)
+                            throw new IOException("line too long");
+                        // One more byte than the longest line, for its newline
+                        line = Arrays.copyOf(line, Math.min(2 * line.length, MAX_LINE_LENGTH + 1));
+                    }
+                    in.mark(line.length - lineLength);
+                    int count = in.read(line, lineLength, line.length - lineLength);
+                    if (count == -1)
+                        return lineLength != 0;
+                    for (int i = lineLength; i < lineLength + count; ++i)
+                        if (line[i] == '\n') {
+                            in.reset();
+                            skip(i - lineLength + 1);
+                            lineLength = i;
+                            return true;
+                        }
+                    lineLength += count;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void skip(long count) throws IOException {
+            while (count > 0) {
+                long skipped = in.skip(count);
+                if (skipped <= 0)
+                    throw new EOFException("connection closed in the middle of a line");
+                count -= skipped;
+            }
+        }
+    }
+
+    /**
+     * The binary format: a message or reply is a frame made of its length (as a variable length integer) followed by
+     * its bytes, which are, for a message, the ordinal of its id followed by its arguments in binary form and, for a
+     * reply, its arguments in binary form.
+     */
+    static final class Binary extends MessageChannel {
+
+        // The largest messages, a full state update with every route and card or the list of all tickets, take less
+        // than 200 bytes; longer frames can only come from a faulty or hostile peer and are rejected before allocating
+        static final int MAX_FRAME_LENGTH = 1 << 12;
+
+        private final BinaryWriter writer = new BinaryWriter();
+        private final BinaryWriter frameHeader = new BinaryWriter();
+        private final BinaryReader reader = new BinaryReader(new byte[0]);
+        private byte[] frame = new byte[256];
+
+        private Binary(BufferedInputStream in, BufferedOutputStream out) {
+            super(in, out);
+        }
+
+        @Override
+        WireFormat format() {
+            return WireFormat.BINARY;
+        }
+
+        /**
+         * Returns the writer of the message or reply being written, to which arguments can be written directly
+         *
+         * @return the writer of the current message or reply
+         */
+        BinaryWriter writer() {
+            return writer;
+        }
+
+        /**
+         * Returns the reader of the last message or reply received, from which arguments can be read directly
+         *
+         * @return the reader of the last message or reply received
+         */
+        BinaryReader reader() {
+            return reader;
+        }
+
+        @Override
+        void beginMessage(MessageId id) {
+            writer.reset();
+            writer.writeByte(id.ordinal());
+        }
+
+        @Override
+        void beginReply() {
+            writer.reset();
+        }
+
+        @Override
+        <T> void write(Serde<T> serde, T value) {
+            serde.write(writer, value);
+        }
+
+        @Override
+        void queue() {
+            frameHeader.reset();
+            frameHeader.writeVarInt(writer.size());
+            try {
+                frameHeader.writeTo(out);
+                writer.writeTo(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        MessageId receiveMessage() {
+            while (receiveFrame()) {
+                int ordinal = reader.readByte();
+                if (ordinal < MESSAGE_IDS.size())
+                    return MESSAGE_IDS.get(ordinal);
+            }
+            return null;
+        }
+
+        @Override
+        void receiveReply() {
+            if (!receiveFrame())
+                throw new UncheckedIOException(new EOFException("connection closed while waiting for a reply"));
+        }
+
+        @Override
+        <T> T read(Serde<T> serde) {
+            return serde.read(reader);
+        }
+
+        /**
+         * Reads the next frame into the reader, and returns false if the connection was closed before it
+         */
+        private boolean receiveFrame() {
+            try {
+                int length = 0;
+                for (int shift = 0; ; shift += 7) {
+                    int b = in.read();
+                    if (b == -1) {
+                        if (shift == 0)
+                            return false;
+                        throw new EOFException("connection closed in the middle of a frame");
+                    }
+                    if (shift > 28)
+                        throw new IOException("malformed frame length");
+                    length |= (b & 0x7F) << shift;
+                    if ((b & 0x80) == 0)
+                        break;
+                }
+                if (length < 0)
+                    throw new IOException("malformed frame length");
+                if (length > MAX_FRAME_LENGTH)
+                    throw new IOException("frame too long");
+
+                if (length > frame.length)
+                    frame = new byte[Math.min(Math.max(length, 2 * frame.length), MAX_FRAME_LENGTH)];
+                int read = 0;
+                while (read < length) {
+                    int count = in.read(frame, read, length - read);
+                    if (count == -1)
+                        throw new EOFException("connection closed in the middle of a frame");
+                    read += count;
+                }
+                reader.reset(frame, length);
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
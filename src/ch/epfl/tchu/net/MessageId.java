@@ -3,7 +3,8 @@ package ch.epfl.tchu.net;
 
 /**
  * This enum enumerates all types of messages that the server could send to the clients. The messages actually correspond
- * to the methods in the Player interface.
+ * to the methods in the Player interface, except PROTOCOL which is used to negotiate the format of the messages, and
+ * UPDATE_STATE_DELTA which, in the binary format, sends a state as its difference with the previous one.
  *
  * @author Marvin Chedid (302446)
  * @author Johnny Borkhoche (296169)
@@ -19,7 +20,9 @@ public enum MessageId {
     DRAW_SLOT(),
     ROUTE(),
     CARDS(),
-    CHOOSE_ADDITIONAL_CARDS();
+    CHOOSE_ADDITIONAL_CARDS(),
+    PROTOCOL(),
+    UPDATE_STATE_DELTA();
 
     /**
      * MessageId's constructor.
@@ -9,9 +9,7 @@ import java.net.Socket;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
 
-import static java.nio.charset.StandardCharsets.US_ASCII;
 import static ch.epfl.tchu.game.PlayerId.*;
 
 /**
@@ -26,36 +24,50 @@ public final class RemotePlayerClient {
     private final int port;
     private final String name;
     private final Player self;
+    private final WireFormat acceptedFormat;
 
     /**
-     * Public constructor for the RemotePlayerClient class
+     * Public constructor for the RemotePlayerClient class. The client accepts the binary format if the server offers it.
      *
      * @param self the player this client belongs to
      * @param name the name of the player to whom this client belongs
      * @param port the port number that the player will be using to communicate with the distant game server
      */
     public RemotePlayerClient(Player self, String name, int port) {
+        this(self, name, port, WireFormat.BINARY);
+    }
+
+    /**
+     * Constructor for the RemotePlayerClient class, which chooses the format that the client accepts if the server
+     * offers it
+     *
+     * @param self           the player this client belongs to
+     * @param name           the name of the player to whom this client belongs
+     * @param port           the port number that the player will be using to communicate with the distant game server
+     * @param acceptedFormat the format accepted by the client besides the text format
+     */
+    public RemotePlayerClient(Player self, String name, int port, WireFormat acceptedFormat) {
         this.self = self;
         this.name = name;
         this.port = port;
+        this.acceptedFormat = acceptedFormat;
     }
 
     /**
-     * This method runs a loop during which it awaits a message coming from the proxy, splits it into a String array,
-     * determines the type of message received, and appropriately either deserializes or serializes said message
-     * and calls the corresponding Player method.
+     * This method runs a loop during which it awaits a message coming from the proxy, determines the type of message
+     * received, and appropriately either deserializes or serializes its arguments and calls the corresponding Player
+     * method.
      */
     public void run() {
-        try (Socket thisSocket = new Socket(name, port);
-             BufferedReader r = new BufferedReader(new InputStreamReader(thisSocket.getInputStream(), US_ASCII));
-             BufferedWriter w = new BufferedWriter(new OutputStreamWriter(thisSocket.getOutputStream(), US_ASCII))) {
-            String command;
-            while ((command = r.readLine()) != null) {
-                String[] array = command.split(Pattern.quote(" "), -1);
-                switch (array[0]) {
-                    case "INIT_PLAYERS":
-                        PlayerId player = playerIdSerde.deserialize(array[1]);
-                        List<String> n = listStringSerde.deserialize(array[2]);
+        try (Socket thisSocket = new Socket(name, port)) {
+            MessageChannel channel = MessageChannel.text(thisSocket);
+            StateDeltaCodec stateDeltaCodec = new StateDeltaCodec();
+            MessageId command;
+            while ((command = channel.receiveMessage()) != null) {
+                switch (command) {
+                    case INIT_PLAYERS:
+                        PlayerId player = channel.read(playerIdSerde);
+                        List<String> n = channel.read(listStringSerde);
                         Map<PlayerId, String> tempMap = new EnumMap<>(PlayerId.class);
                         tempMap.putIfAbsent(PLAYER_1, n.get(0));
                         tempMap.putIfAbsent(PLAYER_2, n.get(1));
@@ -63,35 +75,45 @@ public final class RemotePlayerClient {
                             tempMap.putIfAbsent(PLAYER_3, n.get(2));
                         self.initPlayers(player, tempMap);
                         break;
-                    case "RECEIVE_INFO":
-                        self.receiveInfo(stringSerde.deserialize(array[1]));
+                    case RECEIVE_INFO:
+                        self.receiveInfo(channel.read(stringSerde));
                         break;
-                    case "UPDATE_STATE":
-                        self.updateState(publicGameStateSerde.deserialize(array[1]), playerStateSerde.deserialize(array[2]));
+                    case UPDATE_STATE:
+                        StateDeltaCodec.Update keyframe = new StateDeltaCodec.Update(
+                                channel.read(publicGameStateSerde), channel.read(playerStateSerde));
+                        stateDeltaCodec.setBase(keyframe);
+                        self.updateState(keyframe.gameState(), keyframe.ownState());
                         break;
-                    case "SET_INITIAL_TICKETS":
-                        self.setInitialTicketChoice(sortedBagTicketSerde.deserialize(array[1]));
+                    case UPDATE_STATE_DELTA:
+                        StateDeltaCodec.Update update = stateDeltaCodec.read(channel.binary().reader());
+                        self.updateState(update.gameState(), update.ownState());
                         break;
-                    case "CHOOSE_INITIAL_TICKETS":
-                        writeToServer(w, sortedBagTicketSerde.serialize(self.chooseInitialTickets()));
+                    case SET_INITIAL_TICKETS:
+                        self.setInitialTicketChoice(channel.read(sortedBagTicketSerde));
                         break;
-                    case "NEXT_TURN":
-                        writeToServer(w, turnKindSerde.serialize(self.nextTurn()));
+                    case CHOOSE_INITIAL_TICKETS:
+                        reply(channel, sortedBagTicketSerde, self.chooseInitialTickets());
                         break;
-                    case "CHOOSE_TICKETS":
-                        writeToServer(w, sortedBagTicketSerde.serialize(self.chooseTickets(sortedBagTicketSerde.deserialize(array[1]))));
+                    case NEXT_TURN:
+                        reply(channel, turnKindSerde, self.nextTurn());
                         break;
-                    case "DRAW_SLOT":
-                        writeToServer(w, intSerde.serialize(self.drawSlot()));
+                    case CHOOSE_TICKETS:
+                        reply(channel, sortedBagTicketSerde, self.chooseTickets(channel.read(sortedBagTicketSerde)));
                         break;
-                    case "ROUTE":
-                        writeToServer(w, routeSerde.serialize(self.claimedRoute()));
+                    case DRAW_SLOT:
+                        reply(channel, intSerde, self.drawSlot());
                         break;
-                    case "CARDS":
-                        writeToServer(w, sortedBagCardSerde.serialize(self.initialClaimCards()));
+                    case ROUTE:
+                        reply(channel, routeSerde, self.claimedRoute());
                         break;
-                    case "CHOOSE_ADDITIONAL_CARDS":
-                        writeToServer(w, sortedBagCardSerde.serialize(self.chooseAdditionalCards(listSortedBagCardSerde.deserialize(array[1]))));
+                    case CARDS:
+                        reply(channel, sortedBagCardSerde, self.initialClaimCards());
+                        break;
+                    case CHOOSE_ADDITIONAL_CARDS:
+                        reply(channel, sortedBagCardSerde, self.chooseAdditionalCards(channel.read(listSortedBagCardSerde)));
+                        break;
+                    case PROTOCOL:
+                        channel = channel.answerOffer(channel.read(wireFormatSerde), acceptedFormat);
                         break;
                 }
             }
@@ -101,19 +123,17 @@ public final class RemotePlayerClient {
     }
 
     /**
-     * Auxiliary function written to modularize our code. It serves as a template to write a message into the socket's
-     * input stream
+     * Auxiliary function written to modularize our code. It sends the given value as the reply to the message
+     * received last.
      *
-     * @param w   the buffered writer used to write onto the socket's input stream
-     * @param msg the message to write in the socket's stream
+     * @param channel the channel connecting the client to the server
+     * @param serde   the serde of the reply
+     * @param value   the reply
+     * @param <T>     the type of the reply
      */
-    public void writeToServer(BufferedWriter w, String msg) {
-        try {
-            w.write(msg);
-            w.write('\n');
-            w.flush();
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+    private static <T> void reply(MessageChannel channel, Serde<T> serde, T value) {
+        channel.beginReply();
+        channel.write(serde, value);
+        channel.send();
     }
 }
@@ -1,19 +1,24 @@
 package ch.epfl.tchu.net;
 
+import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.game.*;
 
 import static ch.epfl.tchu.net.Serdes.*;
 import static ch.epfl.tchu.net.MessageId.*;
 
-import java.io.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.Socket;
 import java.util.*;
 
-import static java.nio.charset.StandardCharsets.US_ASCII;
-
 /**
  * This class represents the proxy for a distant player
+ * <p>
+ * To save writes to the socket, the notifications that precede a state update or a request (the initialization of
+ * the players, the infos and the initial tickets) are not sent right away, but with the update or the request. The
+ * notifications sent after the last update of a game are only sent by flush, which must thus be called at the end of
+ * the game.
  *
  * @author Marvin Chedid (302446)
  * @author Johnny Borkhoche (296169)
@@ -21,30 +26,97 @@ import static java.nio.charset.StandardCharsets.US_ASCII;
 
 public final class RemotePlayerProxy implements Player {
 
-    private final BufferedWriter w;
-    private final BufferedReader r;
+    /**
+     * Delay (in milliseconds) after which a client that didn't answer the offer of the binary format is considered to
+     * only know the text format
+     */
+    public static final int HANDSHAKE_TIMEOUT_MILLIS = 500;
+
+    /**
+     * Maximal number of states sent as deltas (in the binary format) between two states sent in full
+     */
+    public static final int KEYFRAME_INTERVAL = 32;
+
+    private final Socket socket;
+    private final MessageChannel channel;
+    private final StateDeltaCodec stateDeltaCodec = new StateDeltaCodec();
+    private int deltasSinceKeyframe;
 
     /**
-     * RemotePlayerProxy's public constructor, which takes the socket that this proxy will connect to as a parameter
+     * RemotePlayerProxy's public constructor, which takes the socket that this proxy will connect to as a parameter.
+     * The binary format is offered to the client, and used if it accepts it.
      *
      * @param socket the socket that the distant player will read from and write to
      */
     public RemotePlayerProxy(Socket socket) {
+        this(socket, WireFormat.BINARY);
+    }
+
+    /**
+     * RemotePlayerProxy's constructor, which negotiates with the client the format of the messages
+     *
+     * @param socket          the socket that the distant player will read from and write to
+     * @param preferredFormat the format offered to the client; the text format is used if the client doesn't accept it
+     */
+    public RemotePlayerProxy(Socket socket, WireFormat preferredFormat) {
+        this(socket, preferredFormat, 0);
+    }
+
+    /**
+     * RemotePlayerProxy's constructor, which negotiates with the client the format of the messages and gives it a
+     * limited delay to answer each request. A client that doesn't answer in time makes the request throw an
+     * UncheckedIOException caused by a SocketTimeoutException, so that a server isn't blocked forever by a client that
+     * hangs.
+     *
+     * @param socket             the socket that the distant player will read from and write to
+     * @param preferredFormat    the format offered to the client; the text format is used if the client doesn't accept
+     *                           it
+     * @param replyTimeoutMillis the delay (in milliseconds) given to the client to answer each request, or 0 for no
+     *                           limit
+     * @throws IllegalArgumentException if the delay is negative
+     */
+    public RemotePlayerProxy(Socket socket, WireFormat preferredFormat, int replyTimeoutMillis) {
+        Preconditions.checkArgument(replyTimeoutMillis >= 0);
+        this.socket = socket;
+        this.channel = MessageChannel.offer(socket, preferredFormat, HANDSHAKE_TIMEOUT_MILLIS);
         try {
-            this.w = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), US_ASCII));
-            this.r = new BufferedReader(new InputStreamReader(socket.getInputStream(), US_ASCII));
+            socket.setSoTimeout(replyTimeoutMillis);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
+    /**
+     * Sends the notifications that were not sent yet, which must be done at the end of the game
+     */
+    public void flush() {
+        channel.flush();
+    }
+
+    /**
+     * Returns whether the client closed its connection, which is checked without waiting for any request to fail; the
+     * client must not be waiting for a reply to a request
+     *
+     * @return true if the client closed its connection
+     */
+    boolean clientDisconnected() {
+        return channel.peerClosed(socket, 1);
+    }
+
+    /**
+     * Returns the format negotiated with the client
+     *
+     * @return the format negotiated with the client
+     */
+    public WireFormat wireFormat() {
+        return channel.format();
+    }
+
     /**
      * Same documentation as the super method from the class Player.java
      */
     @Override
     public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
-        String id = playerIdSerde.serialize(ownId);
-
         List<String> names = new ArrayList<>();
 
         names.add(playerNames.get(PlayerId.PLAYER_1));
@@ -52,9 +124,10 @@ public final class RemotePlayerProxy implements Player {
         if (playerNames.size() == 3)
             names.add(playerNames.get(PlayerId.PLAYER_3));
 
-        String players = listStringSerde.serialize(names);
-        String msg = INIT_PLAYERS.name() + " " + id + " " + players;
-        writeToServer(msg);
+        channel.beginMessage(INIT_PLAYERS);
+        channel.write(playerIdSerde, ownId);
+        channel.write(listStringSerde, names);
+        channel.queue();
     }
 
     /**
@@ -62,9 +135,9 @@ public final class RemotePlayerProxy implements Player {
      */
     @Override
     public void receiveInfo(String info) {
-        String infoReceived = stringSerde.serialize(info);
-        String msg = RECEIVE_INFO.name() + " " + infoReceived;
-        writeToServer(msg);
+        channel.beginMessage(RECEIVE_INFO);
+        channel.write(stringSerde, info);
+        channel.queue();
     }
 
     /**
@@ -72,10 +145,23 @@ public final class RemotePlayerProxy implements Player {
      */
     @Override
     public void updateState(PublicGameState newState, PlayerState ownState) {
-        String newStateSerial = publicGameStateSerde.serialize(newState);
-        String ownStateSerial = playerStateSerde.serialize(ownState);
-        String msg = UPDATE_STATE.name() + " " + newStateSerial + " " + ownStateSerial;
-        writeToServer(msg);
+        if (channel.format() == WireFormat.BINARY) {
+            StateDeltaCodec.Update update = new StateDeltaCodec.Update(newState, ownState);
+            if (deltasSinceKeyframe < KEYFRAME_INTERVAL && stateDeltaCodec.isApplicable(update)) {
+                channel.beginMessage(UPDATE_STATE_DELTA);
+                stateDeltaCodec.write(channel.binary().writer(), update);
+                channel.send();
+                ++deltasSinceKeyframe;
+                return;
+            }
+            stateDeltaCodec.setBase(update);
+            deltasSinceKeyframe = 0;
+        }
+
+        channel.beginMessage(UPDATE_STATE);
+        channel.write(publicGameStateSerde, newState);
+        channel.write(playerStateSerde, ownState);
+        channel.send();
     }
 
     /**
@@ -83,9 +169,9 @@ public final class RemotePlayerProxy implements Player {
      */
     @Override
     public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
-        String ticketsSerial = sortedBagTicketSerde.serialize(tickets);
-        String msg = SET_INITIAL_TICKETS.name() + " " + ticketsSerial;
-        writeToServer(msg);
+        channel.beginMessage(SET_INITIAL_TICKETS);
+        channel.write(sortedBagTicketSerde, tickets);
+        channel.queue();
     }
 
     /**
@@ -93,9 +179,8 @@ public final class RemotePlayerProxy implements Player {
      */
     @Override
     public SortedBag<Ticket> chooseInitialTickets() {
-        String msg = CHOOSE_INITIAL_TICKETS.name();
-        writeToServer(msg);
-        return sortedBagTicketSerde.deserialize(readFromServer());
+        channel.beginMessage(CHOOSE_INITIAL_TICKETS);
+        return request(sortedBagTicketSerde);
     }
 
     /**
@@ -103,9 +188,8 @@ public final class RemotePlayerProxy implements Player {
      */
     @Override
     public TurnKind nextTurn() {
-        String msg = NEXT_TURN.name();
-        writeToServer(msg);
-        return turnKindSerde.deserialize(readFromServer());
+        channel.beginMessage(NEXT_TURN);
+        return request(turnKindSerde);
     }
 
     /**
@@ -113,10 +197,9 @@ public final class RemotePlayerProxy implements Player {
      */
     @Override
     public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
-        String listOptions = sortedBagTicketSerde.serialize(options);
-        String msg = CHOOSE_TICKETS.name() + " " + listOptions;
-        writeToServer(msg);
-        return sortedBagTicketSerde.deserialize(readFromServer());
+        channel.beginMessage(CHOOSE_TICKETS);
+        channel.write(sortedBagTicketSerde, options);
+        return request(sortedBagTicketSerde);
     }
 
     /**
@@ -124,9 +207,8 @@ public final class RemotePlayerProxy implements Player {
      */
     @Override
     public int drawSlot() {
-        String msg = DRAW_SLOT.name();
-        writeToServer(msg);
-        return intSerde.deserialize(readFromServer());
+        channel.beginMessage(DRAW_SLOT);
+        return request(intSerde);
     }
 
     /**
@@ -134,9 +216,8 @@ public final class RemotePlayerProxy implements Player {
      */
     @Override
     public Route claimedRoute() {
-        String msg = ROUTE.name();
-        writeToServer(msg);
-        return routeSerde.deserialize(readFromServer());
+        channel.beginMessage(ROUTE);
+        return request(routeSerde);
     }
 
     /**
@@ -144,9 +225,8 @@ public final class RemotePlayerProxy implements Player {
      */
     @Override
     public SortedBag<Card> initialClaimCards() {
-        String msg = CARDS.name();
-        writeToServer(msg);
-        return sortedBagCardSerde.deserialize(readFromServer());
+        channel.beginMessage(CARDS);
+        return request(sortedBagCardSerde);
     }
 
     /**
@@ -154,37 +234,21 @@ public final class RemotePlayerProxy implements Player {
      */
     @Override
     public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
-        String listOptions = listSortedBagCardSerde.serialize(options);
-        String msg = CHOOSE_ADDITIONAL_CARDS.name() + " " + listOptions;
-        writeToServer(msg);
-        return sortedBagCardSerde.deserialize(readFromServer());
+        channel.beginMessage(CHOOSE_ADDITIONAL_CARDS);
+        channel.write(listSortedBagCardSerde, options);
+        return request(sortedBagCardSerde);
     }
 
     /**
-     * Function to write to the server
+     * Sends the message being written and returns the reply of the client
      *
-     * @param msg the information that we want to send
+     * @param replySerde the serde of the reply
+     * @param <T>        the type of the reply
+     * @return the reply of the client
      */
-    public void writeToServer(String msg) {
-        try {
-            w.write(msg);
-            w.write('\n');
-            w.flush();
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
-    }
-
-    /**
-     * Reads from the server
-     *
-     * @return returns the message read
-     */
-    public String readFromServer() {
-        try {
-            return r.readLine();
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+    private <T> T request(Serde<T> replySerde) {
+        channel.send();
+        channel.receiveReply();
+        return channel.read(replySerde);
     }
 }
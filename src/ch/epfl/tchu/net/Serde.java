@@ -1,16 +1,21 @@
 package ch.epfl.tchu.net;
 
 
+import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 /**
- * This generic interface represents a serializer-deserializer which will be used in the client/server communication
+ * This generic interface represents a serializer-deserializer which will be used in the client/server communication.
+ * Every Serde has a textual form, and a binary form used by the binary wire format; by default, the binary form simply
+ * contains the textual one.
  *
  * @author Marvin Chedid (302446)
  * @author Johnny Borkhoche (296169)
@@ -34,6 +39,26 @@ public interface Serde<T> {
      */
     public abstract T deserialize(String message);
 
+    /**
+     * Writes the binary form of the object passed as argument
+     *
+     * @param writer the writer to write the object into
+     * @param t      the object to be written
+     */
+    public default void write(BinaryWriter writer, T t) {
+        writer.writeString(serialize(t));
+    }
+
+    /**
+     * Reads back an object written by write
+     *
+     * @param reader the reader to read the object from
+     * @return the object read
+     */
+    public default T read(BinaryReader reader) {
+        return deserialize(reader.readString());
+    }
+
     /**
      * Generic method that takes two functions as argument: a serializer and a deserializer. It returns an anonymous class of Serde where the serialize and deserialize methods are implemented using the two parameters.
      *
@@ -58,32 +83,92 @@ public interface Serde<T> {
     }
 
     /**
-     * Generic method that takes a list containing all the enumerated values of a set as an argument.
+     * Generic method that takes the functions implementing both the textual and the binary forms of a Serde, and
+     * returns the corresponding Serde.
+     *
+     * @param serializer   the serializer that we wish to use
+     * @param deserializer the deserializer that we wish to use
+     * @param writer       writes the binary form of an object
+     * @param reader       reads back an object from its binary form
+     * @param <T>          Generic type of the method
+     * @return a Serde<T> whose four methods are implemented
+     */
+    public static <T> Serde<T> of(Function<T, String> serializer, Function<String, T> deserializer,
+                                  BiConsumer<BinaryWriter, T> writer, Function<BinaryReader, T> reader) {
+        return new Serde<T>() {
+
+            @Override
+            public String serialize(T t) {
+                return serializer.apply(t);
+            }
+
+            @Override
+            public T deserialize(String message) {
+                return deserializer.apply(message);
+            }
+
+            @Override
+            public void write(BinaryWriter binaryWriter, T t) {
+                writer.accept(binaryWriter, t);
+            }
+
+            @Override
+            public T read(BinaryReader binaryReader) {
+                return reader.apply(binaryReader);
+            }
+        };
+    }
+
+    /**
+     * Generic method that takes a list containing all the enumerated values of a set as an argument. The index of
+     * each value and its textual form are computed once, so that serializing a value doesn't go through the list.
+     * Serializing or writing a value that isn't in the list throws an IllegalArgumentException, rather than encoding
+     * a value that would not be decoded as itself.
      *
      * @param list the list of all values in a set that we will be using in the creation of our Serde
      * @param <T>  Generic type of the method
      * @return a Serde<T> whose two methods (serialize and deserialize) are implemented.
      */
     public static <T> Serde<T> oneOf(List<T> list) {
+        Map<T, Integer> indices = new HashMap<>();
+        String[] serializedIndices = new String[list.size()];
+        for (int i = 0; i < list.size(); ++i) {
+            indices.putIfAbsent(list.get(i), i);
+            serializedIndices[i] = Integer.toString(i);
+        }
+
         return new Serde<T>() {
 
+            private int indexOf(T t) {
+                Integer index = indices.get(t);
+                Preconditions.checkArgument(index != null);
+                return index;
+            }
+
             @Override
             public String serialize(T t) {
-                if (t != null) {
-                    int index = list.indexOf(t);
-                    return Integer.toString(index);
-                }
-                return "";
+                return t == null ? "" : serializedIndices[indexOf(t)];
             }
 
             @Override
             public T deserialize(String message) {
                 if (!message.equals("")) {
-                    int index = Integer.parseInt(message);
+                    int index = parseIndex(message);
                     return list.get(index);
                 }
                 return null;
             }
+
+            @Override
+            public void write(BinaryWriter writer, T t) {
+                writer.writeVarInt(t == null ? 0 : indexOf(t) + 1);
+            }
+
+            @Override
+            public T read(BinaryReader reader) {
+                int index = reader.readVarInt();
+                return index == 0 ? null : list.get(index - 1);
+            }
         };
     }
 
@@ -101,22 +186,36 @@ public interface Serde<T> {
         return new Serde<List<T>>() {
             @Override
             public String serialize(List<T> t) {
-                final String delimiter = ",";
-                return t.stream()
-                        .map(serde::serialize)
-                        .collect(Collectors.joining(delimiter));
+                return join(t, serde);
             }
 
 
             @Override
             public List<T> deserialize(String message) {
-                String[] array = message.split(Pattern.quote(separator), -1);
                 if (message.equals("")) {
                     return List.of();
                 }
-                return Arrays.stream(array)
-                        .map(serde::deserialize)
-                        .collect(Collectors.toList());
+                List<String> parts = split(message, separator);
+                List<T> list = new ArrayList<>(parts.size());
+                for (String part : parts)
+                    list.add(serde.deserialize(part));
+                return list;
+            }
+
+            @Override
+            public void write(BinaryWriter writer, List<T> t) {
+                writer.writeVarInt(t.size());
+                for (T element : t)
+                    serde.write(writer, element);
+            }
+
+            @Override
+            public List<T> read(BinaryReader reader) {
+                int size = reader.readVarInt();
+                List<T> list = new ArrayList<>(size);
+                for (int i = 0; i < size; ++i)
+                    list.add(serde.read(reader));
+                return list;
             }
         };
     }
@@ -135,20 +234,87 @@ public interface Serde<T> {
 
             @Override
             public String serialize(SortedBag<T> t) {
-                final String delimiter = ",";
-                return t.stream()
-                        .map(serde::serialize)
-                        .collect(Collectors.joining(delimiter));
+                return join(t, serde);
             }
 
             @Override
             public SortedBag<T> deserialize(String message) {
-                String[] array = message.split(Pattern.quote(separator), -1);
-                return SortedBag.of(Arrays.stream(array)
-                        .map(serde::deserialize)
-                        .collect(Collectors.toList()));
+                SortedBag.Builder<T> builder = new SortedBag.Builder<>();
+                for (String part : split(message, separator))
+                    builder.add(serde.deserialize(part));
+                return builder.build();
+            }
+
+            /**
+             * The binary form of a bag is the number of its distinct elements, followed by each of them with its count
+             */
+            @Override
+            public void write(BinaryWriter writer, SortedBag<T> t) {
+                Set<T> distinct = t.toSet();
+                writer.writeVarInt(distinct.size());
+                for (T element : distinct) {
+                    serde.write(writer, element);
+                    writer.writeVarInt(t.countOf(element));
+                }
+            }
+
+            @Override
+            public SortedBag<T> read(BinaryReader reader) {
+                int distinct = reader.readVarInt();
+                SortedBag.Builder<T> builder = new SortedBag.Builder<>();
+                for (int i = 0; i < distinct; ++i) {
+                    T element = serde.read(reader);
+                    builder.add(reader.readVarInt(), element);
+                }
+                return builder.build();
             }
         };
     }
 
+    /**
+     * Serializes the given elements with the given serde, separated by commas
+     */
+    private static <T> String join(Iterable<T> elements, Serde<T> serde) {
+        StringBuilder joined = new StringBuilder();
+        boolean first = true;
+        for (T element : elements) {
+            if (!first)
+                joined.append(',');
+            first = false;
+            joined.append(serde.serialize(element));
+        }
+        return joined.toString();
+    }
+
+    /**
+     * Splits the given message around the given separator, keeping empty parts, without going through a regular
+     * expression
+     */
+    private static List<String> split(String message, String separator) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        int end;
+        while ((end = message.indexOf(separator, start)) != -1) {
+            parts.add(message.substring(start, end));
+            start = end + separator.length();
+        }
+        parts.add(message.substring(start));
+        return parts;
+    }
+
+    /**
+     * Parses the given index, made of decimal digits only, without going through Integer.parseInt
+     *
+     * @throws NumberFormatException if the message is not a valid index
+     */
+    private static int parseIndex(String message) {
+        int index = 0;
+        for (int i = 0; i < message.length(); ++i) {
+            int digit = message.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || index > (Integer.MAX_VALUE - digit) / 10)
+                throw new NumberFormatException("invalid index: " + message);
+            index = 10 * index + digit;
+        }
+        return index;
+    }
 }
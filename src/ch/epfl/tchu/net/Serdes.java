@@ -7,7 +7,6 @@ import ch.epfl.tchu.game.*;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.function.Function;
-import java.util.regex.Pattern;
 
 import static ch.epfl.tchu.game.PlayerId.*;
 
@@ -28,7 +27,8 @@ public final class Serdes {
     /**
      * Serde that takes care of serializing/deserializing objects of type Int
      */
-    public static final Serde<Integer> intSerde = Serde.of(intEncoder, intDecoder);
+    public static final Serde<Integer> intSerde = Serde.of(intEncoder, intDecoder,
+            BinaryWriter::writeSignedVarInt, BinaryReader::readSignedVarInt);
 
     //String serde
     public static final Function<String, String> stringEncoder = str -> Base64.getEncoder().encodeToString(str.getBytes(StandardCharsets.UTF_8));
@@ -36,7 +36,8 @@ public final class Serdes {
     /**
      * Serde that takes care of serializing/deserializing objects of type
      */
-    public static final Serde<String> stringSerde = Serde.of(stringEncoder, stringDecoder);
+    public static final Serde<String> stringSerde = Serde.of(stringEncoder, stringDecoder,
+            BinaryWriter::writeString, BinaryReader::readString);
 
     //Enum serde
     /**
@@ -59,6 +60,11 @@ public final class Serdes {
      * Serde that takes care of serializing/deserializing objects of type Ticket
      */
     public static final Serde<Ticket> ticketSerde = Serde.oneOf(ChMap.tickets());
+    /**
+     * Serde that takes care of serializing/deserializing objects of type WireFormat, used to negotiate the format of
+     * the messages when a client connects
+     */
+    public static final Serde<WireFormat> wireFormatSerde = Serde.oneOf(WireFormat.ALL);
 
     //List serde
     /**
@@ -84,7 +90,9 @@ public final class Serdes {
     /**
      * Serde that takes care of serializing/deserializing objects of type SortedBag<Card>
      */
-    public static final Serde<SortedBag<Card>> sortedBagCardSerde = Serde.of(sortedBagCardEncoder, sortedBagCardDecoder);
+    private static final Serde<SortedBag<Card>> binaryBagCardSerde = Serde.bagOf(cardSerde, ",");
+    public static final Serde<SortedBag<Card>> sortedBagCardSerde = Serde.of(sortedBagCardEncoder, sortedBagCardDecoder,
+            binaryBagCardSerde::write, binaryBagCardSerde::read);
 
     //SortedBag<Ticket> serde
     public static final Function<SortedBag<Ticket>, String> sortedBagTicketEncoder = sbt -> listTicketSerde.serialize(sbt.toList());
@@ -92,7 +100,9 @@ public final class Serdes {
     /**
      * Serde that takes care of serializing/deserializing objects of type SortedBag<Ticket>
      */
-    public static final Serde<SortedBag<Ticket>> sortedBagTicketSerde = Serde.of(sortedBagTicketEncoder, sortedBagTicketDecoder);
+    private static final Serde<SortedBag<Ticket>> binaryBagTicketSerde = Serde.bagOf(ticketSerde, ",");
+    public static final Serde<SortedBag<Ticket>> sortedBagTicketSerde = Serde.of(sortedBagTicketEncoder, sortedBagTicketDecoder,
+            binaryBagTicketSerde::write, binaryBagTicketSerde::read);
 
     //List<SortedBag<Card>> serde
     public static final Function<List<SortedBag<Card>>, String> listSortedBagCardEncoder = lsbc -> {
@@ -106,14 +116,16 @@ public final class Serdes {
     };
     public static final Function<String, List<SortedBag<Card>>> listSortedBagCardDecoder = msg -> {
         List<SortedBag<Card>> decoded = new ArrayList<>();
-        List<String> array_first = List.of(msg.split(Pattern.quote(";"), -1));
+        List<String> array_first = List.of(msg.split(";", -1));
         array_first.forEach(s -> decoded.add(sortedBagCardSerde.deserialize(s)));
         return decoded;
     };
     /**
      * Serde that takes care of serializing/deserializing objects of type List<SortedBag<Card>>
      */
-    public static final Serde<List<SortedBag<Card>>> listSortedBagCardSerde = Serde.of(listSortedBagCardEncoder, listSortedBagCardDecoder);
+    private static final Serde<List<SortedBag<Card>>> binaryListSortedBagCardSerde = Serde.listOf(sortedBagCardSerde, ";");
+    public static final Serde<List<SortedBag<Card>>> listSortedBagCardSerde = Serde.of(listSortedBagCardEncoder, listSortedBagCardDecoder,
+            binaryListSortedBagCardSerde::write, binaryListSortedBagCardSerde::read);
 
     //Map<PlayerId, String> serde
     public static final Function<Map<PlayerId, String>, String> mapPlayerIdStringEncoder = (mpids -> {
@@ -131,14 +143,14 @@ public final class Serdes {
     });
 
     public static final Function<String, Map<PlayerId, String>> mapPlayerIdStringDecoder = msg -> {
-        String[] array = msg.split(Pattern.quote(":"), -1);
-        String[] array_1 = array[0].split(Pattern.quote(","), -1);
-        String[] array_2 = array[1].split(Pattern.quote(","), -1);
+        String[] array = msg.split(":", -1);
+        String[] array_1 = array[0].split(",", -1);
+        String[] array_2 = array[1].split(",", -1);
         Map<PlayerId, String> tempMap = new TreeMap<>();
         tempMap.putIfAbsent(playerIdSerde.deserialize(array_1[0]), stringSerde.deserialize(array_1[1]));
         tempMap.putIfAbsent(playerIdSerde.deserialize(array_2[0]), stringSerde.deserialize(array_2[1]));
         if (array.length == 3) {
-            String[] array_3 = array[2].split(Pattern.quote(","), -1);
+            String[] array_3 = array[2].split(",", -1);
             tempMap.putIfAbsent(playerIdSerde.deserialize(array_3[0]), stringSerde.deserialize(array_3[1]));
         }
         return tempMap;
@@ -146,14 +158,61 @@ public final class Serdes {
     /**
      * Serde that takes care of serializing/deserializing objects of type Map<PlayerId, String>>
      */
-    public static final Serde<Map<PlayerId, String>> mapPlayerIdStringSerde = Serde.of(mapPlayerIdStringEncoder, mapPlayerIdStringDecoder);
+    public static final Serde<Map<PlayerId, String>> mapPlayerIdStringSerde = Serde.of(mapPlayerIdStringEncoder, mapPlayerIdStringDecoder,
+            (w, mpids) -> {
+                w.writeVarInt(mpids.size());
+                for (PlayerId playerId : PlayerId.ALL.subList(0, mpids.size()))
+                    w.writeString(mpids.get(playerId));
+            },
+            r -> {
+                Map<PlayerId, String> tempMap = new EnumMap<>(PlayerId.class);
+                int size = r.readVarInt();
+                for (PlayerId playerId : PlayerId.ALL.subList(0, size))
+                    tempMap.put(playerId, r.readString());
+                return tempMap;
+            });
+
+    //Set of routes, in binary form only: the number of routes followed by their indices if there are few of them, or
+    //by one bit per route of the map otherwise (which then takes less space)
+    private static final int ROUTE_SET_BYTES = (ChMap.routes().size() + Byte.SIZE - 1) / Byte.SIZE;
+
+    private static void writeRouteSet(BinaryWriter w, List<Route> routes) {
+        w.writeVarInt(routes.size());
+        if (routes.size() <= ROUTE_SET_BYTES) {
+            for (Route route : routes)
+                routeSerde.write(w, route);
+        } else {
+            byte[] bits = new byte[ROUTE_SET_BYTES];
+            for (Route route : routes) {
+                int index = ChMap.routes().indexOf(route);
+                bits[index / Byte.SIZE] |= 1 << (index % Byte.SIZE);
+            }
+            w.writeBytes(bits, 0, bits.length);
+        }
+    }
+
+    private static List<Route> readRouteSet(BinaryReader r) {
+        int size = r.readVarInt();
+        List<Route> routes = new ArrayList<>(size);
+        if (size <= ROUTE_SET_BYTES) {
+            for (int i = 0; i < size; ++i)
+                routes.add(routeSerde.read(r));
+        } else {
+            byte[] bits = new byte[ROUTE_SET_BYTES];
+            r.readBytes(bits, 0, bits.length);
+            for (int index = 0; index < ChMap.routes().size(); ++index)
+                if ((bits[index / Byte.SIZE] & (1 << (index % Byte.SIZE))) != 0)
+                    routes.add(ChMap.routes().get(index));
+        }
+        return routes;
+    }
 
     //PublicCardState serde
     public static final Function<PublicCardState, String> publicCardStateEncoder = pcs -> listCardSerde.serialize(pcs.faceUpCards())
             + ";" + intSerde.serialize(pcs.deckSize())
             + ";" + intSerde.serialize(pcs.discardsSize());
     public static final Function<String, PublicCardState> publicCardStateDecoder = msg -> {
-        String[] array = msg.split(Pattern.quote(";"), -1);
+        String[] array = msg.split(";", -1);
         return new PublicCardState(listCardSerde.deserialize(array[0]),
                 intSerde.deserialize(array[1]),
                 intSerde.deserialize(array[2]));
@@ -162,14 +221,26 @@ public final class Serdes {
     /**
      * Serde that takes care of serializing/deserializing objects of type PublicCardState
      */
-    public static final Serde<PublicCardState> publicCardStateSerde = Serde.of(publicCardStateEncoder, publicCardStateDecoder);
+    public static final Serde<PublicCardState> publicCardStateSerde = Serde.of(publicCardStateEncoder, publicCardStateDecoder,
+            (w, pcs) -> {
+                for (Card card : pcs.faceUpCards())
+                    cardSerde.write(w, card);
+                w.writeVarInt(pcs.deckSize());
+                w.writeVarInt(pcs.discardsSize());
+            },
+            r -> {
+                List<Card> faceUpCards = new ArrayList<>(Constants.FACE_UP_CARDS_COUNT);
+                for (int slot = 0; slot < Constants.FACE_UP_CARDS_COUNT; ++slot)
+                    faceUpCards.add(cardSerde.read(r));
+                return new PublicCardState(faceUpCards, r.readVarInt(), r.readVarInt());
+            });
 
     //PublicPlayerstate serde
     public static final Function<PublicPlayerState, String> publicPlayerStateEncoder = pps -> intSerde.serialize(pps.ticketCount())
             + ";" + intSerde.serialize(pps.cardCount())
             + ";" + listRouteSerde.serialize(pps.routes());
     public static final Function<String, PublicPlayerState> publicPlayerStateDecoder = msg -> {
-        String[] array = msg.split(Pattern.quote(";"), -1);
+        String[] array = msg.split(";", -1);
         return new PublicPlayerState(intSerde.deserialize(array[0]),
                 intSerde.deserialize(array[1]),
                 listRouteSerde.deserialize(array[2]));
@@ -178,14 +249,20 @@ public final class Serdes {
     /**
      * Serde that takes care of serializing/deserializing objects of type PublicPlayerState
      */
-    public static final Serde<PublicPlayerState> publicPlayerStateSerde = Serde.of(publicPlayerStateEncoder, publicPlayerStateDecoder);
+    public static final Serde<PublicPlayerState> publicPlayerStateSerde = Serde.of(publicPlayerStateEncoder, publicPlayerStateDecoder,
+            (w, pps) -> {
+                w.writeVarInt(pps.ticketCount());
+                w.writeVarInt(pps.cardCount());
+                writeRouteSet(w, pps.routes());
+            },
+            r -> new PublicPlayerState(r.readVarInt(), r.readVarInt(), readRouteSet(r)));
 
     //PlayerState serde
     public static final Function<PlayerState, String> playerStateEncoder = ps -> sortedBagTicketSerde.serialize(ps.tickets())
             + ";" + sortedBagCardSerde.serialize(ps.cards())
             + ";" + listRouteSerde.serialize(ps.routes());
     public static final Function<String, PlayerState> playerStateDecoder = msg -> {
-        String[] array = msg.split(Pattern.quote(";"), -1);
+        String[] array = msg.split(";", -1);
         return new PlayerState(sortedBagTicketSerde.deserialize(array[0]),
                 sortedBagCardSerde.deserialize(array[1]),
                 listRouteSerde.deserialize(array[2]));
@@ -194,7 +271,13 @@ public final class Serdes {
     /**
      * Serde that takes care of serializing/deserializing objects of type PlayerState
      */
-    public static final Serde<PlayerState> playerStateSerde = Serde.of(playerStateEncoder, playerStateDecoder);
+    public static final Serde<PlayerState> playerStateSerde = Serde.of(playerStateEncoder, playerStateDecoder,
+            (w, ps) -> {
+                sortedBagTicketSerde.write(w, ps.tickets());
+                sortedBagCardSerde.write(w, ps.cards());
+                writeRouteSet(w, ps.routes());
+            },
+            r -> new PlayerState(sortedBagTicketSerde.read(r), sortedBagCardSerde.read(r), readRouteSet(r)));
 
     //PublicGameState serde
     public static final Function<PublicGameState, String> publicGameStateEncoder = (pgs -> {
@@ -215,7 +298,7 @@ public final class Serdes {
 
     });
     public static final Function<String, PublicGameState> publicGameStateDecoder = msg -> {
-        String[] array = msg.split(Pattern.quote(":"), -1);
+        String[] array = msg.split(":", -1);
         Map<PlayerId, PublicPlayerState> tempMap = new TreeMap<>();
         if (array.length == 7) {
             tempMap = Map.of(PLAYER_1, publicPlayerStateSerde.deserialize(array[3]),
@@ -238,6 +321,25 @@ public final class Serdes {
     /**
      * Serde that takes care of serializing/deserializing objects of type PublicGameState
      */
-    public static final Serde<PublicGameState> publicGameStateSerde = Serde.of(publicGameStateEncoder, publicGameStateDecoder);
+    public static final Serde<PublicGameState> publicGameStateSerde = Serde.of(publicGameStateEncoder, publicGameStateDecoder,
+            (w, pgs) -> {
+                w.writeVarInt(pgs.ticketsCount());
+                publicCardStateSerde.write(w, pgs.cardState());
+                playerIdSerde.write(w, pgs.currentPlayerId());
+                w.writeVarInt(pgs.getPlayerState().size());
+                for (PlayerId playerId : PlayerId.ALL.subList(0, pgs.getPlayerState().size()))
+                    publicPlayerStateSerde.write(w, pgs.playerState(playerId));
+                playerIdSerde.write(w, pgs.lastPlayer());
+            },
+            r -> {
+                int ticketsCount = r.readVarInt();
+                PublicCardState cardState = publicCardStateSerde.read(r);
+                PlayerId currentPlayerId = playerIdSerde.read(r);
+                Map<PlayerId, PublicPlayerState> tempMap = new EnumMap<>(PlayerId.class);
+                int playerCount = r.readVarInt();
+                for (PlayerId playerId : PlayerId.ALL.subList(0, playerCount))
+                    tempMap.put(playerId, publicPlayerStateSerde.read(r));
+                return new PublicGameState(ticketsCount, cardState, currentPlayerId, tempMap, playerIdSerde.read(r));
+            });
 
 }
@@ -0,0 +1,273 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.Constants;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicCardState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.game.PublicPlayerState;
+import ch.epfl.tchu.game.Route;
+import ch.epfl.tchu.game.Ticket;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class represents the codec of the states sent with UPDATE_STATE_DELTA messages: each state is written as its
+ * difference with the previous one (its base), that both ends of the connection keep. The base is set by the full
+ * states sent with UPDATE_STATE messages (the "keyframes"), then replaced by every state written or read.
+ * <p>
+ * A delta starts with flags telling which fields of the public game state changed, followed by their new values; the
+ * face up cards are only sent for the slots that changed. Then come, for each player, flags telling whether its ticket
+ * count and card count changed and whether it claimed new routes, followed by the new values and routes; and finally
+ * the same for the own state of the player, whose new tickets and routes are sent, and whose cards are sent again if
+ * they changed. Deltas thus rely on the fact that tickets and routes are only ever added to a player; isApplicable
+ * tells whether a state can be written as a delta of the base.
+ * <p>
+ * Deltas only exist in the binary format, which is why this codec isn't a Serde: it only writes to a BinaryWriter and
+ * reads from a BinaryReader, which the proxy and the client get from their binary channel.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+final class StateDeltaCodec {
+
+    private static final int TICKETS_COUNT = 1;
+    private static final int FACE_UP_CARDS = 1 << 1;
+    private static final int DECK_SIZE = 1 << 2;
+    private static final int DISCARDS_SIZE = 1 << 3;
+    private static final int CURRENT_PLAYER = 1 << 4;
+    private static final int LAST_PLAYER = 1 << 5;
+
+    private static final int TICKET_COUNT = 1;
+    private static final int CARD_COUNT = 1 << 1;
+    private static final int NEW_ROUTES = 1 << 2;
+    private static final int NEW_TICKETS = 1 << 3;
+    private static final int CARDS = 1 << 4;
+
+    private Update base;
+
+    /**
+     * This class represents the arguments of an UPDATE_STATE message: the public state of the game and the own state
+     * of the player.
+     */
+    static final class Update {
+
+        private final PublicGameState gameState;
+        private final PlayerState ownState;
+
+        /**
+         * Constructs the arguments of an UPDATE_STATE message
+         *
+         * @param gameState the public state of the game
+         * @param ownState  the own state of the player
+         */
+        Update(PublicGameState gameState, PlayerState ownState) {
+            this.gameState = gameState;
+            this.ownState = ownState;
+        }
+
+        /**
+         * Returns the public state of the game
+         *
+         * @return the public state of the game
+         */
+        PublicGameState gameState() {
+            return gameState;
+        }
+
+        /**
+         * Returns the own state of the player
+         *
+         * @return the own state of the player
+         */
+        PlayerState ownState() {
+            return ownState;
+        }
+    }
+
+    /**
+     * Sets the base of the next delta, which happens whenever a full state is sent or received
+     *
+     * @param base the new base
+     */
+    void setBase(Update base) {
+        this.base = base;
+    }
+
+    /**
+     * Returns whether the given state can be written as a delta of the base: a base must have been set, the game must
+     * have the same players, and no ticket nor route may have been removed from a player.
+     *
+     * @param update the state to write
+     * @return true if the state can be written as a delta of the base
+     */
+    boolean isApplicable(Update update) {
+        if (base == null)
+            return false;
+        Map<PlayerId, PublicPlayerState> basePlayers = base.gameState.getPlayerState();
+        Map<PlayerId, PublicPlayerState> players = update.gameState.getPlayerState();
+        if (!basePlayers.keySet().equals(players.keySet()))
+            return false;
+        for (PlayerId playerId : players.keySet())
+            if (!isExtension(basePlayers.get(playerId).routes(), players.get(playerId).routes()))
+                return false;
+        return isExtension(base.ownState.routes(), update.ownState.routes())
+                && update.ownState.tickets().contains(base.ownState.tickets());
+    }
+
+    private static boolean isExtension(List<Route> base, List<Route> routes) {
+        return routes.size() >= base.size() && routes.subList(0, base.size()).equals(base);
+    }
+
+    /**
+     * Writes the given state as a delta of the base, which it then replaces. The state must be applicable (see
+     * isApplicable).
+     *
+     * @param writer the writer to which the delta is written
+     * @param update the state to write
+     */
+    void write(BinaryWriter writer, Update update) {
+        PublicGameState from = base.gameState;
+        PublicGameState to = update.gameState;
+        PublicCardState fromCards = from.cardState();
+        PublicCardState toCards = to.cardState();
+
+        int changedSlots = 0;
+        for (int slot : Constants.FACE_UP_CARD_SLOTS)
+            if (fromCards.faceUpCard(slot) != toCards.faceUpCard(slot))
+                changedSlots |= 1 << slot;
+
+        int flags = (from.ticketsCount() != to.ticketsCount() ? TICKETS_COUNT : 0)
+                | (changedSlots != 0 ? FACE_UP_CARDS : 0)
+                | (fromCards.deckSize() != toCards.deckSize() ? DECK_SIZE : 0)
+                | (fromCards.discardsSize() != toCards.discardsSize() ? DISCARDS_SIZE : 0)
+                | (from.currentPlayerId() != to.currentPlayerId() ? CURRENT_PLAYER : 0)
+                | (from.lastPlayer() != to.lastPlayer() ? LAST_PLAYER : 0);
+        writer.writeVarInt(flags);
+        if ((flags & TICKETS_COUNT) != 0)
+            writer.writeVarInt(to.ticketsCount());
+        if ((flags & FACE_UP_CARDS) != 0) {
+            writer.writeByte(changedSlots);
+            for (int slot : Constants.FACE_UP_CARD_SLOTS)
+                if ((changedSlots & (1 << slot)) != 0)
+                    Serdes.cardSerde.write(writer, toCards.faceUpCard(slot));
+        }
+        if ((flags & DECK_SIZE) != 0)
+            writer.writeVarInt(toCards.deckSize());
+        if ((flags & DISCARDS_SIZE) != 0)
+            writer.writeVarInt(toCards.discardsSize());
+        if ((flags & CURRENT_PLAYER) != 0)
+            Serdes.playerIdSerde.write(writer, to.currentPlayerId());
+        if ((flags & LAST_PLAYER) != 0)
+            Serdes.playerIdSerde.write(writer, to.lastPlayer());
+
+        for (PlayerId playerId : to.getPlayerState().keySet()) {
+            PublicPlayerState fromPlayer = from.playerState(playerId);
+            PublicPlayerState toPlayer = to.playerState(playerId);
+            int playerFlags = (fromPlayer.ticketCount() != toPlayer.ticketCount() ? TICKET_COUNT : 0)
+                    | (fromPlayer.cardCount() != toPlayer.cardCount() ? CARD_COUNT : 0)
+                    | (fromPlayer.routes().size() != toPlayer.routes().size() ? NEW_ROUTES : 0);
+            writer.writeVarInt(playerFlags);
+            if ((playerFlags & TICKET_COUNT) != 0)
+                writer.writeVarInt(toPlayer.ticketCount());
+            if ((playerFlags & CARD_COUNT) != 0)
+                writer.writeVarInt(toPlayer.cardCount());
+            if ((playerFlags & NEW_ROUTES) != 0)
+                Serdes.listRouteSerde.write(writer,
+                        toPlayer.routes().subList(fromPlayer.routes().size(), toPlayer.routes().size()));
+        }
+
+        PlayerState fromOwn = base.ownState;
+        PlayerState toOwn = update.ownState;
+        boolean newTickets = toOwn.tickets().size() != fromOwn.tickets().size();
+        boolean newCards = !toOwn.cards().equals(fromOwn.cards());
+        int ownFlags = (newTickets ? NEW_TICKETS : 0)
+                | (newCards ? CARDS : 0)
+                | (toOwn.routes().size() != fromOwn.routes().size() ? NEW_ROUTES : 0);
+        writer.writeVarInt(ownFlags);
+        if (newTickets)
+            Serdes.sortedBagTicketSerde.write(writer, toOwn.tickets().difference(fromOwn.tickets()));
+        if (newCards)
+            Serdes.sortedBagCardSerde.write(writer, toOwn.cards());
+        if ((ownFlags & NEW_ROUTES) != 0)
+            Serdes.listRouteSerde.write(writer,
+                    toOwn.routes().subList(fromOwn.routes().size(), toOwn.routes().size()));
+
+        base = update;
+    }
+
+    /**
+     * Reads a delta and returns the state it rebuilds from the base, which it then replaces
+     *
+     * @param reader the reader from which the delta is read
+     * @return the state rebuilt from the delta
+     */
+    Update read(BinaryReader reader) {
+        PublicGameState from = base.gameState;
+        PublicCardState fromCards = from.cardState();
+
+        int flags = reader.readVarInt();
+        int ticketsCount = (flags & TICKETS_COUNT) != 0 ? reader.readVarInt() : from.ticketsCount();
+        List<Card> faceUpCards = fromCards.faceUpCards();
+        if ((flags & FACE_UP_CARDS) != 0) {
+            int changedSlots = reader.readByte();
+            faceUpCards = new ArrayList<>(faceUpCards);
+            for (int slot : Constants.FACE_UP_CARD_SLOTS)
+                if ((changedSlots & (1 << slot)) != 0)
+                    faceUpCards.set(slot, Serdes.cardSerde.read(reader));
+        }
+        int deckSize = (flags & DECK_SIZE) != 0 ? reader.readVarInt() : fromCards.deckSize();
+        int discardsSize = (flags & DISCARDS_SIZE) != 0 ? reader.readVarInt() : fromCards.discardsSize();
+        PlayerId currentPlayerId = (flags & CURRENT_PLAYER) != 0
+                ? Serdes.playerIdSerde.read(reader)
+                : from.currentPlayerId();
+        PlayerId lastPlayer = (flags & LAST_PLAYER) != 0 ? Serdes.playerIdSerde.read(reader) : from.lastPlayer();
+
+        Map<PlayerId, PublicPlayerState> players = new EnumMap<>(PlayerId.class);
+        for (PlayerId playerId : from.getPlayerState().keySet()) {
+            PublicPlayerState fromPlayer = from.playerState(playerId);
+            int playerFlags = reader.readVarInt();
+            if (playerFlags == 0) {
+                players.put(playerId, fromPlayer);
+                continue;
+            }
+            int ticketCount = (playerFlags & TICKET_COUNT) != 0 ? reader.readVarInt() : fromPlayer.ticketCount();
+            int cardCount = (playerFlags & CARD_COUNT) != 0 ? reader.readVarInt() : fromPlayer.cardCount();
+            List<Route> routes = (playerFlags & NEW_ROUTES) != 0
+                    ? concat(fromPlayer.routes(), Serdes.listRouteSerde.read(reader))
+                    : fromPlayer.routes();
+            players.put(playerId, new PublicPlayerState(ticketCount, cardCount, routes));
+        }
+
+        PlayerState fromOwn = base.ownState;
+        PlayerState ownState = fromOwn;
+        int ownFlags = reader.readVarInt();
+        if (ownFlags != 0) {
+            SortedBag<Ticket> tickets = (ownFlags & NEW_TICKETS) != 0
+                    ? fromOwn.tickets().union(Serdes.sortedBagTicketSerde.read(reader))
+                    : fromOwn.tickets();
+            SortedBag<Card> cards = (ownFlags & CARDS) != 0 ? Serdes.sortedBagCardSerde.read(reader) : fromOwn.cards();
+            List<Route> routes = (ownFlags & NEW_ROUTES) != 0
+                    ? concat(fromOwn.routes(), Serdes.listRouteSerde.read(reader))
+                    : fromOwn.routes();
+            ownState = new PlayerState(tickets, cards, routes);
+        }
+
+        base = new Update(new PublicGameState(ticketsCount, new PublicCardState(faceUpCards, deckSize, discardsSize),
+                currentPlayerId, players, lastPlayer), ownState);
+        return base;
+    }
+
+    private static List<Route> concat(List<Route> routes, List<Route> newRoutes) {
+        List<Route> concatenation = new ArrayList<>(routes.size() + newRoutes.size());
+        concatenation.addAll(routes);
+        concatenation.addAll(newRoutes);
+        return concatenation;
+    }
+}
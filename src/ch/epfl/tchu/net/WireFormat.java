@@ -0,0 +1,27 @@
+package ch.epfl.tchu.net;
+
+import java.util.List;
+
+/**
+ * This enum represents the formats in which the proxy and the client of a distant player may exchange their messages;
+ * the format is negotiated when the client connects (see MessageChannel).
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+public enum WireFormat {
+
+    /**
+     * Messages are lines of ASCII text, made of the name of the message followed by its serialized arguments. This is
+     * the original format, which every client understands.
+     */
+    TEXT,
+
+    /**
+     * Messages are length-prefixed frames of bytes, made of the ordinal of the message followed by its arguments in a
+     * compact binary form.
+     */
+    BINARY;
+
+    public static final List<WireFormat> ALL = List.of(WireFormat.values());
+}
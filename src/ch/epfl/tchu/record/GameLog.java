@@ -0,0 +1,354 @@
+package ch.epfl.tchu.record;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Game;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.Ticket;
+import ch.epfl.tchu.net.BinaryReader;
+import ch.epfl.tchu.net.BinaryWriter;
+import ch.epfl.tchu.net.MessageId;
+import ch.epfl.tchu.net.Serde;
+import ch.epfl.tchu.net.Serdes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+/**
+ * This class represents the log of a game, to which the decisions of its players are appended as they are taken.
+ * <p>
+ * A game only depends on the seed of its random number generator, which draws the initial state and every reshuffle
+ * of the discards, and on the decisions of its players; the log therefore only contains these, from which every state
+ * of the game can be rebuilt exactly, and the game resumed after a crash.
+ * <p>
+ * The log starts with the bytes "tChu", followed by frames, each made of the length of its content, its content, and
+ * the CRC-32 of its content on 4 bytes. The first frame contains the version of the format, the seed and the names of
+ * the players; each of the following contains the decisions of a turn, each of them being the index of its player,
+ * the code of its kind and its value, in the binary form of the corresponding serde. The codes of the kinds of
+ * decision are fixed by the log format (see DecisionKind), independently of the order of the network messages.
+ * <p>
+ * To keep the turn loop fast, the decisions of a turn are only written once the next turn begins, in a single write,
+ * and they are only forced to the disk every few turns and when the log is closed: a crash may lose the last few
+ * turns, but never leaves the log inconsistent, since a frame that was only partially written is ignored.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+public final class GameLog implements AutoCloseable {
+
+    /**
+     * Number of turns whose decisions are written between two forced writes to the disk, by default
+     */
+    public static final int DEFAULT_SYNC_INTERVAL = 16;
+
+    private static final byte[] MAGIC = {'t', 'C', 'h', 'u'};
+    private static final int FORMAT_VERSION = 1;
+    private static final int CRC_LENGTH = 4;
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+
+    /**
+     * The kinds of decision found in a log, with the code identifying them in the log and the serde of their values.
+     * The codes are part of the format and must never change; they match the ordinals MessageId had when the format
+     * was defined, so that the logs written since then can still be read.
+     */
+    private enum DecisionKind {
+        CHOOSE_INITIAL_TICKETS(4, MessageId.CHOOSE_INITIAL_TICKETS, Serdes.sortedBagTicketSerde),
+        NEXT_TURN(5, MessageId.NEXT_TURN, Serdes.turnKindSerde),
+        CHOOSE_TICKETS(6, MessageId.CHOOSE_TICKETS, Serdes.sortedBagTicketSerde),
+        DRAW_SLOT(7, MessageId.DRAW_SLOT, Serdes.intSerde),
+        ROUTE(8, MessageId.ROUTE, Serdes.routeSerde),
+        CARDS(9, MessageId.CARDS, Serdes.sortedBagCardSerde),
+        CHOOSE_ADDITIONAL_CARDS(10, MessageId.CHOOSE_ADDITIONAL_CARDS, Serdes.sortedBagCardSerde);
+
+        private static final Map<MessageId, DecisionKind> BY_MESSAGE = new EnumMap<>(MessageId.class);
+
+        static {
+            for (DecisionKind kind : values())
+                BY_MESSAGE.put(kind.message, kind);
+        }
+
+        private final int code;
+        private final MessageId message;
+        private final Serde<?> serde;
+
+        DecisionKind(int code, MessageId message, Serde<?> serde) {
+            this.code = code;
+            this.message = message;
+            this.serde = serde;
+        }
+
+        /**
+         * Returns the kind of the decision asked for by the given message
+         *
+         * @throws IllegalArgumentException if the message doesn't ask for a decision
+         */
+        static DecisionKind of(MessageId message) {
+            DecisionKind kind = BY_MESSAGE.get(message);
+            Preconditions.checkArgument(kind != null);
+            return kind;
+        }
+
+        /**
+         * Returns the kind of decision identified by the given code in the log
+         *
+         * @throws IllegalArgumentException if no kind of decision has this code
+         */
+        static DecisionKind ofCode(int code) {
+            for (DecisionKind kind : values()) {
+                if (kind.code == code)
+                    return kind;
+            }
+            throw new IllegalArgumentException("unknown decision code " + code);
+        }
+    }
+
+    private final FileChannel channel;
+    private final int syncInterval;
+    private final BinaryWriter decisions = new BinaryWriter();
+    private final BinaryWriter frame = new BinaryWriter();
+    private final CRC32 crc = new CRC32();
+    private int framesSinceSync;
+
+    private GameLog(FileChannel channel, int syncInterval) {
+        Preconditions.checkArgument(syncInterval > 0);
+        this.channel = channel;
+        this.syncInterval = syncInterval;
+    }
+
+    /**
+     * Creates the log of a new game, replacing any existing file at the given path
+     *
+     * @param path         the path of the log
+     * @param seed         the seed of the random number generator of the game
+     * @param playerNames  the names of the players
+     * @param syncInterval the number of turns whose decisions are written between two forced writes to the disk
+     * @return the new log, to which decisions can be appended
+     * @throws IllegalArgumentException if the interval isn't strictly positive
+     * @throws IOException              if the log cannot be written
+     */
+    public static GameLog create(Path path, long seed, Map<PlayerId, String> playerNames, int syncInterval)
+            throws IOException {
+        Preconditions.checkArgument(syncInterval > 0);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        GameLog log = new GameLog(channel, syncInterval);
+        try {
+            log.writeFully(ByteBuffer.wrap(MAGIC));
+            log.decisions.writeVarInt(FORMAT_VERSION).writeLong(seed);
+            Serdes.mapPlayerIdStringSerde.write(log.decisions, playerNames);
+            log.writeFrame();
+            channel.force(false);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return log;
+    }
+
+    /**
+     * Reads the log at the given path; a last frame that was only partially written, or corrupted, is ignored along
+     * with the rest of the file
+     *
+     * @param path the path of the log
+     * @return the game recorded in the log
+     * @throws IOException              if the log cannot be read
+     * @throws IllegalArgumentException if the file isn't a log, if its header is invalid, or if it contains a kind of
+     *                                  decision that this version doesn't know
+     */
+    public static GameRecord read(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        Preconditions.checkArgument(bytes.length >= MAGIC.length
+                && Arrays.equals(bytes, 0, MAGIC.length, MAGIC, 0, MAGIC.length));
+
+        BinaryReader reader = new BinaryReader(bytes);
+        reader.readBytes(new byte[MAGIC.length], 0, MAGIC.length);
+        CRC32 crc = new CRC32();
+
+        byte[] header = readFrame(reader, crc);
+        Preconditions.checkArgument(header != null);
+        BinaryReader headerReader = new BinaryReader(header);
+        Preconditions.checkArgument(headerReader.readVarInt() == FORMAT_VERSION);
+        long seed = headerReader.readLong();
+        Map<PlayerId, String> playerNames = Serdes.mapPlayerIdStringSerde.read(headerReader);
+
+        List<GameRecord.Decision> decisions = new ArrayList<>();
+        long validLength = bytes.length - reader.remaining();
+        byte[] content;
+        while ((content = readFrame(reader, crc)) != null) {
+            BinaryReader frameReader = new BinaryReader(content);
+            while (frameReader.hasRemaining()) {
+                PlayerId playerId = PlayerId.ALL.get(frameReader.readByte());
+                DecisionKind kind = DecisionKind.ofCode(frameReader.readByte());
+                decisions.add(new GameRecord.Decision(playerId, kind.message, kind.serde.read(frameReader)));
+            }
+            validLength = bytes.length - reader.remaining();
+        }
+        return new GameRecord(seed, playerNames, decisions, validLength);
+    }
+
+    /**
+     * Reads the content of the next frame, or returns null if it is incomplete or corrupted
+     */
+    private static byte[] readFrame(BinaryReader reader, CRC32 crc) {
+        try {
+            int length = reader.readVarInt();
+            if (length > reader.remaining() - CRC_LENGTH)
+                return null;
+            byte[] content = new byte[length];
+            reader.readBytes(content, 0, length);
+            int storedCrc = 0;
+            for (int i = 0; i < CRC_LENGTH; ++i)
+                storedCrc = (storedCrc << 8) | reader.readByte();
+            crc.reset();
+            crc.update(content, 0, length);
+            return (int) crc.getValue() == storedCrc ? content : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Plays a whole game, logging it at the given path
+     *
+     * @param path        the path of the log, replaced if it exists
+     * @param players     the players
+     * @param playerNames the names of the players
+     * @param seed        the seed of the random number generator of the game
+     * @return the points of each player at the end of the game
+     * @throws IOException if the log cannot be written
+     */
+    public static Map<PlayerId, Integer> play(Path path, Map<PlayerId, Player> players,
+                                              Map<PlayerId, String> playerNames, long seed) throws IOException {
+        try (GameLog log = create(path, seed, playerNames, DEFAULT_SYNC_INTERVAL)) {
+            return playLogged(log, players, new GameRecord(seed, playerNames, List.of(), 0));
+        }
+    }
+
+    /**
+     * Resumes the game logged at the given path, after a crash or a restart: the decisions found in the log are
+     * replayed to rebuild the exact state of the game, without asking the given players, and the game goes on with
+     * them from that state, the new decisions being appended to the log.
+     * <p>
+     * Each player is only informed of the game once its own logged decisions have all been replayed: it is then
+     * initialised, given its initial ticket choice and the current state as they were, and receives the infos from
+     * there on.
+     *
+     * @param path    the path of the log
+     * @param players the players, which must be the same as the ones of the logged game
+     * @return the points of each player at the end of the game
+     * @throws IOException              if the log cannot be read or written
+     * @throws IllegalArgumentException if the players don't match the logged game
+     * @throws IllegalStateException    if the decisions of the log don't match the game
+     */
+    public static Map<PlayerId, Integer> resume(Path path, Map<PlayerId, Player> players) throws IOException {
+        GameRecord record = read(path);
+        Preconditions.checkArgument(players.keySet().equals(record.playerNames().keySet()));
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE);
+        try (GameLog log = new GameLog(channel, DEFAULT_SYNC_INTERVAL)) {
+            // Drops any partially written frame, which the new decisions would otherwise follow
+            channel.truncate(record.validLength());
+            channel.position(record.validLength());
+            return playLogged(log, players, record);
+        }
+    }
+
+    private static Map<PlayerId, Integer> playLogged(GameLog log, Map<PlayerId, Player> players, GameRecord record) {
+        Map<PlayerId, Player> loggedPlayers = new EnumMap<>(PlayerId.class);
+        for (Map.Entry<PlayerId, Player> e : players.entrySet()) {
+            List<GameRecord.Decision> decisions = record.decisionsOf(e.getKey());
+            loggedPlayers.put(e.getKey(), new LoggedPlayer(log, e.getKey(), e.getValue(), decisions));
+        }
+        return Game.play(loggedPlayers, record.playerNames(), TICKETS, new Random(record.seed()));
+    }
+
+    /**
+     * Adds a decision to the ones of the current turn
+     *
+     * @param playerId the player who took the decision
+     * @param kind     the message asking for the decision
+     * @param value    the value chosen by the player
+     * @throws IllegalArgumentException if the message doesn't ask for a decision
+     */
+    void append(PlayerId playerId, MessageId kind, Object value) {
+        DecisionKind decisionKind = DecisionKind.of(kind);
+        decisions.writeByte(playerId.ordinal()).writeByte(decisionKind.code);
+        write(decisionKind.serde, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void write(Serde<T> serde, Object value) {
+        serde.write(decisions, (T) value);
+    }
+
+    /**
+     * Writes the decisions of the turn that ended, if any, and forces them to the disk if enough turns were written
+     * since the last time
+     *
+     * @throws UncheckedIOException if the log cannot be written
+     */
+    void endTurn() {
+        if (decisions.size() == 0)
+            return;
+        try {
+            writeFrame();
+            if (++framesSinceSync == syncInterval) {
+                channel.force(false);
+                framesSinceSync = 0;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeFrame() throws IOException {
+        byte[] content = decisions.toByteArray();
+        crc.reset();
+        crc.update(content);
+        int checksum = (int) crc.getValue();
+
+        frame.reset();
+        frame.writeVarInt(content.length);
+        frame.writeBytes(content, 0, content.length);
+        for (int shift = 24; shift >= 0; shift -= 8)
+            frame.writeByte(checksum >>> shift);
+        writeFully(ByteBuffer.wrap(frame.toByteArray()));
+        decisions.reset();
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    /**
+     * Writes the decisions of the current turn and forces the log to the disk, then closes it
+     *
+     * @throws IOException if the log cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (decisions.size() > 0)
+                writeFrame();
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+}
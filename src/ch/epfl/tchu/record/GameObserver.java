@@ -0,0 +1,88 @@
+package ch.epfl.tchu.record;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.game.Ticket;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * This interface represents an observer of a player during a replay: it receives the notifications the player received
+ * during the recorded game, but is never asked for a decision. Its methods do nothing by default, so that an observer
+ * only overrides the notifications it needs.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+public interface GameObserver {
+
+    /**
+     * Called at the start of the game with the id of the observed player and the names of all players
+     *
+     * @param ownId       the id of the observed player
+     * @param playerNames the names of the players
+     */
+    default void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+    }
+
+    /**
+     * Called with every info sent to the observed player
+     *
+     * @param info the info
+     */
+    default void receiveInfo(String info) {
+    }
+
+    /**
+     * Called every time the state of the game changes
+     *
+     * @param newState the new public state of the game
+     * @param ownState the new state of the observed player
+     */
+    default void updateState(PublicGameState newState, PlayerState ownState) {
+    }
+
+    /**
+     * Called at the start of the game with the initial tickets the observed player chooses from
+     *
+     * @param tickets the initial tickets offered to the observed player
+     */
+    default void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+    }
+
+    /**
+     * Returns an observer forwarding the notifications to the given player, e.g. a graphical player to watch a replay
+     *
+     * @param player the player to which the notifications are forwarded
+     * @return an observer forwarding the notifications to the player
+     */
+    static GameObserver of(Player player) {
+        Objects.requireNonNull(player);
+        return new GameObserver() {
+            @Override
+            public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+                player.initPlayers(ownId, playerNames);
+            }
+
+            @Override
+            public void receiveInfo(String info) {
+                player.receiveInfo(info);
+            }
+
+            @Override
+            public void updateState(PublicGameState newState, PlayerState ownState) {
+                player.updateState(newState, ownState);
+            }
+
+            @Override
+            public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+                player.setInitialTicketChoice(tickets);
+            }
+        };
+    }
+}
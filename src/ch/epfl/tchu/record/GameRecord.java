@@ -0,0 +1,140 @@
+package ch.epfl.tchu.record;
+
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.net.MessageId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * This class represents a game read back from its log: the seed from which its random events were drawn, the names of
+ * its players, and the decisions they took, in the order in which they took them. As the game only depends on these,
+ * they determine each of its states.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+public final class GameRecord {
+
+    private final long seed;
+    private final Map<PlayerId, String> playerNames;
+    private final List<Decision> decisions;
+    private final long validLength;
+
+    /**
+     * A decision taken by a player, identified by the message that asks a remote player to take it
+     */
+    public static final class Decision {
+
+        private final PlayerId playerId;
+        private final MessageId kind;
+        private final Object value;
+
+        /**
+         * Constructs a decision
+         *
+         * @param playerId the player who took the decision
+         * @param kind     the message asking for the decision, from CHOOSE_INITIAL_TICKETS to CHOOSE_ADDITIONAL_CARDS
+         * @param value    the value chosen by the player, of the type returned by the corresponding method of Player
+         */
+        public Decision(PlayerId playerId, MessageId kind, Object value) {
+            this.playerId = Objects.requireNonNull(playerId);
+            this.kind = Objects.requireNonNull(kind);
+            this.value = Objects.requireNonNull(value);
+        }
+
+        /**
+         * Returns the player who took the decision
+         *
+         * @return the player who took the decision
+         */
+        public PlayerId playerId() {
+            return playerId;
+        }
+
+        /**
+         * Returns the message asking for the decision
+         *
+         * @return the message asking for the decision
+         */
+        public MessageId kind() {
+            return kind;
+        }
+
+        /**
+         * Returns the value chosen by the player
+         *
+         * @return the value chosen by the player
+         */
+        public Object value() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return playerId + " " + kind + " " + value;
+        }
+    }
+
+    GameRecord(long seed, Map<PlayerId, String> playerNames, List<Decision> decisions, long validLength) {
+        this.seed = seed;
+        this.playerNames = Map.copyOf(playerNames);
+        this.decisions = List.copyOf(decisions);
+        this.validLength = validLength;
+    }
+
+    /**
+     * Returns the seed of the random number generator of the game
+     *
+     * @return the seed of the random number generator of the game
+     */
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * Returns the names of the players
+     *
+     * @return the names of the players
+     */
+    public Map<PlayerId, String> playerNames() {
+        return playerNames;
+    }
+
+    /**
+     * Returns the decisions taken by the players, in the order in which they were taken
+     *
+     * @return the decisions taken by the players
+     */
+    public List<Decision> decisions() {
+        return decisions;
+    }
+
+    /**
+     * Returns the decisions taken by the given player, in the order in which they were taken
+     *
+     * @param playerId the player
+     * @return the decisions taken by the player
+     */
+    public List<Decision> decisionsOf(PlayerId playerId) {
+        List<Decision> decisionsOf = new ArrayList<>();
+        for (Decision decision : decisions) {
+            if (decision.playerId() == playerId)
+                decisionsOf.add(decision);
+        }
+        return decisionsOf;
+    }
+
+    /**
+     * Returns the length of the valid part of the log, which is shorter than the log if its last frame was only
+     * partially written
+     *
+     * @return the length of the valid part of the log, in bytes
+     */
+    long validLength() {
+        return validLength;
+    }
+}
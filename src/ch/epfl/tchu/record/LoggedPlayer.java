@@ -0,0 +1,154 @@
+package ch.epfl.tchu.record;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.game.Route;
+import ch.epfl.tchu.game.Ticket;
+import ch.epfl.tchu.net.MessageId;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * This class represents a player whose decisions are appended to the log of the game.
+ * <p>
+ * When a game is resumed, the decisions it already took are first replayed from the log, without the player being
+ * called; the notifications received meanwhile are held back, and the ones the player needs to catch up with the game
+ * are forwarded once the replay is over.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+final class LoggedPlayer implements Player {
+
+    private final GameLog log;
+    private final PlayerId id;
+    private final Player player;
+    private final ReplayedPlayer replayed;
+    private boolean caughtUp;
+
+    private PlayerId ownId;
+    private Map<PlayerId, String> playerNames;
+    private SortedBag<Ticket> initialTicketChoice;
+    private PublicGameState lastState;
+    private PlayerState lastOwnState;
+
+    /**
+     * Constructs a logged player
+     *
+     * @param log      the log of the game
+     * @param id       the identity of the player
+     * @param player   the player
+     * @param replayed the decisions already taken by the player, in order, which are replayed before it is called
+     */
+    LoggedPlayer(GameLog log, PlayerId id, Player player, List<GameRecord.Decision> replayed) {
+        this.log = log;
+        this.id = id;
+        this.player = player;
+        this.replayed = new ReplayedPlayer(replayed, null);
+        this.caughtUp = replayed.isEmpty();
+    }
+
+    /**
+     * Returns whether the player is to be called, which is once all its recorded decisions have been replayed; it is
+     * then informed of the notifications it missed
+     */
+    private boolean live() {
+        if (!caughtUp && replayed.isDone()) {
+            caughtUp = true;
+            if (ownId != null)
+                player.initPlayers(ownId, playerNames);
+            if (initialTicketChoice != null)
+                player.setInitialTicketChoice(initialTicketChoice);
+            if (lastState != null)
+                player.updateState(lastState, lastOwnState);
+        }
+        return caughtUp;
+    }
+
+    private <T> T decide(MessageId kind, Supplier<T> decision) {
+        if (!replayed.isDone())
+            return replayed.decide(kind);
+        live();
+        T value = decision.get();
+        log.append(id, kind, value);
+        return value;
+    }
+
+    @Override
+    public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+        if (live())
+            player.initPlayers(ownId, playerNames);
+        else {
+            this.ownId = ownId;
+            this.playerNames = playerNames;
+        }
+    }
+
+    @Override
+    public void receiveInfo(String info) {
+        if (live())
+            player.receiveInfo(info);
+    }
+
+    @Override
+    public void updateState(PublicGameState newState, PlayerState ownState) {
+        if (live())
+            player.updateState(newState, ownState);
+        else {
+            lastState = newState;
+            lastOwnState = ownState;
+        }
+    }
+
+    @Override
+    public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+        if (live())
+            player.setInitialTicketChoice(tickets);
+        else
+            initialTicketChoice = tickets;
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseInitialTickets() {
+        return decide(MessageId.CHOOSE_INITIAL_TICKETS, player::chooseInitialTickets);
+    }
+
+    @Override
+    public TurnKind nextTurn() {
+        // A new turn begins, the decisions of the previous one are complete
+        log.endTurn();
+        return decide(MessageId.NEXT_TURN, player::nextTurn);
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+        return decide(MessageId.CHOOSE_TICKETS, () -> player.chooseTickets(options));
+    }
+
+    @Override
+    public int drawSlot() {
+        return decide(MessageId.DRAW_SLOT, player::drawSlot);
+    }
+
+    @Override
+    public Route claimedRoute() {
+        return decide(MessageId.ROUTE, player::claimedRoute);
+    }
+
+    @Override
+    public SortedBag<Card> initialClaimCards() {
+        return decide(MessageId.CARDS, player::initialClaimCards);
+    }
+
+    @Override
+    public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+        return decide(MessageId.CHOOSE_ADDITIONAL_CARDS, () -> player.chooseAdditionalCards(options));
+    }
+}
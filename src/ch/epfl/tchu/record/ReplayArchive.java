@@ -0,0 +1,532 @@
+package ch.epfl.tchu.record;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Constants;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.Route;
+import ch.epfl.tchu.game.Ticket;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * This class represents an archive of recorded games, written by a ReplayArchiveWriter, which is mapped in memory and
+ * scanned without rebuilding the states of its games: its turns and its tickets are read straight from the archive.
+ * <p>
+ * The archive is columnar: each property of the turns (and of the tickets) is stored in a column of its own, in which
+ * each turn has a value of fixed width, the routes, cards and tickets being identified by their index in ChMap or
+ * Card.ALL; a scan only touches the columns it reads. The turns of each game, then its tickets (those kept by its
+ * players at the end of the game) are contiguous, and an index, sorted by game id, gives their position.
+ * <p>
+ * The archive starts with the bytes "tChA", followed by the version of the format, the number of games, turns and
+ * tickets (all on 4 bytes), then the games in the order in which they were written (their id on 8 bytes, their first
+ * turn, their number of turns, their first ticket and their number of tickets, each on 4 bytes), then the game ids in
+ * increasing order, each followed by the index of its game, then the turn columns and finally the ticket columns.
+ * <p>
+ * Each column being mapped on its own, an archive holds up to Integer.MAX_VALUE / 4 turns, some five million games;
+ * larger histories are split into several archives.
+ * <p>
+ * Usage: {@code ReplayArchive archive [log...]}, e.g. {@code ReplayArchive games.tcha game1.tchu game2.tchu}: if
+ * logs are given, they are first written to the archive; the popularity of the routes and the completion rates of the
+ * tickets of the games of the archive are then printed.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+public final class ReplayArchive {
+
+    static final byte[] MAGIC = {'t', 'C', 'h', 'A'};
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = MAGIC.length + 4 * Integer.BYTES;
+    static final int GAME_BYTES = Long.BYTES + 4 * Integer.BYTES;
+    static final int GAME_ID_BYTES = Long.BYTES + Integer.BYTES;
+
+    // The turn columns, in the order in which they are stored, and the width of their values
+    static final int PLAYERS = 0, KINDS = 1, ROUTES = 2, CLAIMED = 3, SLOTS = 4, CARDS = 5, TICKETS = 6;
+    static final int[] TURN_COLUMN_BYTES = {1, 1, 1, 1, 1, Short.BYTES, Integer.BYTES};
+
+    // The ticket columns, in the order in which they are stored, and the width of their values
+    static final int TICKET_PLAYERS = 0, TICKET_IDS = 1, TICKET_COMPLETED = 2;
+    static final int[] TICKET_COLUMN_BYTES = {1, 1, 1};
+
+    /**
+     * Maximum number of turns of an archive, for its widest column to be mapped at once
+     */
+    public static final int MAX_TURNS = Integer.MAX_VALUE / Integer.BYTES;
+
+    // Values of the ROUTES column of the turns without route, and of the SLOTS and TICKETS nibbles and bytes without
+    // slot or ticket
+    static final int NO_ROUTE = 0xFF;
+    static final int NO_VALUE = 0;
+
+    private static final List<Route> ROUTES_BY_ID = ChMap.routes();
+    private static final List<Ticket> TICKETS_BY_ID = ChMap.tickets();
+
+    private final int gameCount;
+    private final int turnCount;
+    private final int ticketCount;
+    private final ByteBuffer games;
+    private final ByteBuffer gameIds;
+    private final ByteBuffer[] turnColumns = new ByteBuffer[TURN_COLUMN_BYTES.length];
+    private final ByteBuffer[] ticketColumns = new ByteBuffer[TICKET_COLUMN_BYTES.length];
+
+    private ReplayArchive(FileChannel channel) throws IOException {
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+        byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        Preconditions.checkArgument(Arrays.equals(magic, MAGIC) && header.getInt() == FORMAT_VERSION);
+        gameCount = header.getInt();
+        turnCount = header.getInt();
+        ticketCount = header.getInt();
+        Preconditions.checkArgument(gameCount >= 0 && turnCount >= 0 && turnCount <= MAX_TURNS && ticketCount >= 0);
+
+        long position = HEADER_BYTES;
+        games = channel.map(FileChannel.MapMode.READ_ONLY, position, (long) gameCount * GAME_BYTES);
+        position += games.capacity();
+        gameIds = channel.map(FileChannel.MapMode.READ_ONLY, position, (long) gameCount * GAME_ID_BYTES);
+        position += gameIds.capacity();
+        for (int c = 0; c < turnColumns.length; ++c) {
+            turnColumns[c] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    (long) turnCount * TURN_COLUMN_BYTES[c]);
+            position += turnColumns[c].capacity();
+        }
+        for (int c = 0; c < ticketColumns.length; ++c) {
+            ticketColumns[c] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    (long) ticketCount * TICKET_COLUMN_BYTES[c]);
+            position += ticketColumns[c].capacity();
+        }
+        Preconditions.checkArgument(position == channel.size());
+    }
+
+    /**
+     * Maps the archive at the given path in memory
+     *
+     * @param path the path of the archive
+     * @return the archive
+     * @throws IOException              if the archive cannot be read
+     * @throws IllegalArgumentException if the file isn't an archive
+     */
+    public static ReplayArchive open(Path path) throws IOException {
+        // The mappings stay valid once the channel is closed
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Preconditions.checkArgument(channel.size() >= HEADER_BYTES);
+            return new ReplayArchive(channel);
+        }
+    }
+
+    /**
+     * Returns the number of games of the archive
+     *
+     * @return the number of games of the archive
+     */
+    public int gameCount() {
+        return gameCount;
+    }
+
+    /**
+     * Returns the number of turns of all the games of the archive
+     *
+     * @return the number of turns of the archive
+     */
+    public int turnCount() {
+        return turnCount;
+    }
+
+    /**
+     * Returns the id of the game of the given index, the games being indexed in the order in which they were written
+     *
+     * @param game the index of the game
+     * @return the id of the game
+     * @throws IndexOutOfBoundsException if there is no game of this index
+     */
+    public long gameId(int game) {
+        return games.getLong(gameOffset(game));
+    }
+
+    /**
+     * Returns the index of the game of the given id, or -1 if the archive doesn't contain it
+     *
+     * @param gameId the id of the game
+     * @return the index of the game, or -1
+     */
+    public int gameIndex(long gameId) {
+        int low = 0;
+        int high = gameCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long id = gameIds.getLong(middle * GAME_ID_BYTES);
+            if (id < gameId)
+                low = middle + 1;
+            else if (id > gameId)
+                high = middle - 1;
+            else
+                return gameIds.getInt(middle * GAME_ID_BYTES + Long.BYTES);
+        }
+        return -1;
+    }
+
+    private int gameOffset(int game) {
+        Objects.checkIndex(game, gameCount);
+        return game * GAME_BYTES;
+    }
+
+    /**
+     * Returns a scanner of all the turns of the archive, game after game
+     *
+     * @return a scanner of all the turns of the archive
+     */
+    public TurnScanner turns() {
+        return new TurnScanner(0, 0, turnCount);
+    }
+
+    /**
+     * Returns a scanner of the turns of the given game
+     *
+     * @param game the index of the game
+     * @return a scanner of the turns of the game
+     * @throws IndexOutOfBoundsException if there is no game of this index
+     */
+    public TurnScanner turns(int game) {
+        int first = games.getInt(gameOffset(game) + Long.BYTES);
+        return new TurnScanner(game, first, first + games.getInt(gameOffset(game) + Long.BYTES + Integer.BYTES));
+    }
+
+    /**
+     * Returns a scanner of all the tickets of the archive, game after game
+     *
+     * @return a scanner of all the tickets of the archive
+     */
+    public TicketScanner tickets() {
+        return new TicketScanner(0, 0, ticketCount);
+    }
+
+    /**
+     * Returns a scanner of the tickets of the given game
+     *
+     * @param game the index of the game
+     * @return a scanner of the tickets of the game
+     * @throws IndexOutOfBoundsException if there is no game of this index
+     */
+    public TicketScanner tickets(int game) {
+        int first = games.getInt(gameOffset(game) + Long.BYTES + 2 * Integer.BYTES);
+        return new TicketScanner(game, first, first + games.getInt(gameOffset(game) + Long.BYTES + 3 * Integer.BYTES));
+    }
+
+    /**
+     * Returns the index of the game containing the given turn or ticket, starting from the given game
+     */
+    private int gameContaining(int game, int element, int firstField) {
+        int offset = game * GAME_BYTES + Long.BYTES + firstField * Integer.BYTES;
+        while (element >= games.getInt(offset) + games.getInt(offset + Integer.BYTES)) {
+            ++game;
+            offset += GAME_BYTES;
+        }
+        return game;
+    }
+
+    /**
+     * A scanner of turns, which reads the turn on which it is positioned straight from the archive; it is positioned
+     * before the first turn when created
+     */
+    public final class TurnScanner {
+
+        private final int end;
+        private int game;
+        private int turn;
+
+        private TurnScanner(int game, int first, int end) {
+            this.game = game;
+            this.turn = first - 1;
+            this.end = end;
+        }
+
+        /**
+         * Moves to the next turn, if any
+         *
+         * @return true if the scanner moved to the next turn, false if there is none
+         */
+        public boolean next() {
+            if (turn + 1 >= end)
+                return false;
+            ++turn;
+            game = gameContaining(game, turn, 0);
+            return true;
+        }
+
+        /**
+         * Returns the index of the game of the turn
+         *
+         * @return the index of the game of the turn
+         */
+        public int game() {
+            return game;
+        }
+
+        /**
+         * Returns the player who played the turn
+         *
+         * @return the player who played the turn
+         */
+        public PlayerId playerId() {
+            return PlayerId.ALL.get(turnColumns[PLAYERS].get(turn));
+        }
+
+        /**
+         * Returns the kind of the turn
+         *
+         * @return the kind of the turn
+         */
+        public Player.TurnKind kind() {
+            return Player.TurnKind.ALL.get(turnColumns[KINDS].get(turn));
+        }
+
+        /**
+         * Returns the index in ChMap.routes() of the route the player tried to claim, or -1 if the turn isn't a claim
+         *
+         * @return the index of the route the player tried to claim, or -1
+         */
+        public int routeId() {
+            int route = turnColumns[ROUTES].get(turn) & 0xFF;
+            return route == NO_ROUTE ? -1 : route;
+        }
+
+        /**
+         * Returns the route the player tried to claim, or null if the turn isn't a claim
+         *
+         * @return the route the player tried to claim, or null
+         */
+        public Route route() {
+            int route = routeId();
+            return route == -1 ? null : ROUTES_BY_ID.get(route);
+        }
+
+        /**
+         * Returns whether the player claimed the route, which it may fail to do when the route is a tunnel
+         *
+         * @return true if the player claimed the route
+         */
+        public boolean claimed() {
+            return turnColumns[CLAIMED].get(turn) != 0;
+        }
+
+        /**
+         * Returns the number of cards the player drew (0, 1 or 2)
+         *
+         * @return the number of cards the player drew
+         */
+        public int drawCount() {
+            int slots = turnColumns[SLOTS].get(turn);
+            return (slots & 0xF) == NO_VALUE ? 0 : ((slots >>> 4) & 0xF) == NO_VALUE ? 1 : 2;
+        }
+
+        /**
+         * Returns the slot from which the player drew the given card of the turn
+         *
+         * @param draw the index of the card drawn (0 or 1)
+         * @return the slot of the card, Constants.DECK_SLOT or between 0 and 4
+         * @throws IndexOutOfBoundsException if the player didn't draw this card
+         */
+        public int slot(int draw) {
+            Objects.checkIndex(draw, drawCount());
+            return ((turnColumns[SLOTS].get(turn) >>> (4 * draw)) & 0xF) - 1 + Constants.DECK_SLOT;
+        }
+
+        /**
+         * Returns the number of cards of the given type the player played to claim the route, or tried to play if
+         * it failed to claim it
+         *
+         * @param card the type of card
+         * @return the number of cards of this type played
+         */
+        public int cardCount(Card card) {
+            int cards = turnColumns[CARDS].getShort(turn * Short.BYTES);
+            if (card == Card.LOCOMOTIVE)
+                return cards & 0xF;
+            return ((cards >>> 8) & 0xF) == card.ordinal() ? (cards >>> 4) & 0xF : 0;
+        }
+
+        /**
+         * Returns the cards the player played to claim the route, or tried to play if it failed to claim it
+         *
+         * @return the cards played
+         */
+        public SortedBag<Card> cards() {
+            int cards = turnColumns[CARDS].getShort(turn * Short.BYTES);
+            return new SortedBag.Builder<Card>()
+                    .add((cards >>> 4) & 0xF, Card.ALL.get((cards >>> 8) & 0xF))
+                    .add(cards & 0xF, Card.LOCOMOTIVE)
+                    .build();
+        }
+
+        /**
+         * Returns the number of tickets the player kept when drawing tickets
+         *
+         * @return the number of tickets kept
+         */
+        public int keptTicketCount() {
+            int tickets = turnColumns[TICKETS].getInt(turn * Integer.BYTES);
+            int count = 0;
+            while (count < Integer.BYTES && ((tickets >>> (8 * count)) & 0xFF) != NO_VALUE)
+                ++count;
+            return count;
+        }
+
+        /**
+         * Returns the given ticket kept by the player when drawing tickets
+         *
+         * @param index the index of the ticket among the ones kept
+         * @return the ticket kept
+         * @throws IndexOutOfBoundsException if the player didn't keep so many tickets
+         */
+        public Ticket keptTicket(int index) {
+            Objects.checkIndex(index, keptTicketCount());
+            return TICKETS_BY_ID.get(((turnColumns[TICKETS].getInt(turn * Integer.BYTES) >>> (8 * index)) & 0xFF) - 1);
+        }
+    }
+
+    /**
+     * A scanner of the tickets kept by the players at the end of their game, which reads the ticket on which it is
+     * positioned straight from the archive; it is positioned before the first ticket when created
+     */
+    public final class TicketScanner {
+
+        private final int end;
+        private int game;
+        private int ticket;
+
+        private TicketScanner(int game, int first, int end) {
+            this.game = game;
+            this.ticket = first - 1;
+            this.end = end;
+        }
+
+        /**
+         * Moves to the next ticket, if any
+         *
+         * @return true if the scanner moved to the next ticket, false if there is none
+         */
+        public boolean next() {
+            if (ticket + 1 >= end)
+                return false;
+            ++ticket;
+            game = gameContaining(game, ticket, 2);
+            return true;
+        }
+
+        /**
+         * Returns the index of the game of the ticket
+         *
+         * @return the index of the game of the ticket
+         */
+        public int game() {
+            return game;
+        }
+
+        /**
+         * Returns the player who kept the ticket
+         *
+         * @return the player who kept the ticket
+         */
+        public PlayerId playerId() {
+            return PlayerId.ALL.get(ticketColumns[TICKET_PLAYERS].get(ticket));
+        }
+
+        /**
+         * Returns the index of the ticket in ChMap.tickets()
+         *
+         * @return the index of the ticket
+         */
+        public int ticketId() {
+            return ticketColumns[TICKET_IDS].get(ticket) & 0xFF;
+        }
+
+        /**
+         * Returns the ticket
+         *
+         * @return the ticket
+         */
+        public Ticket ticket() {
+            return TICKETS_BY_ID.get(ticketId());
+        }
+
+        /**
+         * Returns whether the player completed the ticket by the end of the game
+         *
+         * @return true if the ticket was completed
+         */
+        public boolean completed() {
+            return ticketColumns[TICKET_COMPLETED].get(ticket) != 0;
+        }
+    }
+
+    /**
+     * Writes the given logs to the given archive, if any, then prints the popularity of the routes and the completion
+     * rates of the tickets of the games of the archive
+     *
+     * @param args the path of the archive, followed by the paths of the logs to write to it
+     * @throws IOException if the archive or a log cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        Path path = Path.of(args[0]);
+        if (args.length > 1) {
+            try (ReplayArchiveWriter writer = new ReplayArchiveWriter(path)) {
+                for (int i = 1; i < args.length; ++i)
+                    writer.add(i, GameLog.read(Path.of(args[i])));
+            }
+        }
+
+        long start = System.nanoTime();
+        ReplayArchive archive = open(path);
+        int[] attempts = new int[ROUTES_BY_ID.size()];
+        int[] claims = new int[ROUTES_BY_ID.size()];
+        TurnScanner turns = archive.turns();
+        while (turns.next()) {
+            int route = turns.routeId();
+            if (route != -1) {
+                ++attempts[route];
+                if (turns.claimed())
+                    ++claims[route];
+            }
+        }
+        int[] kept = new int[TICKETS_BY_ID.size()];
+        int[] completed = new int[TICKETS_BY_ID.size()];
+        TicketScanner tickets = archive.tickets();
+        while (tickets.next()) {
+            ++kept[tickets.ticketId()];
+            if (tickets.completed())
+                ++completed[tickets.ticketId()];
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf(Locale.ROOT, "%d games, %d turns scanned in %.3f s%n",
+                archive.gameCount(), archive.turnCount(), seconds);
+        List<Integer> routes = new ArrayList<>();
+        for (int r = 0; r < claims.length; ++r)
+            routes.add(r);
+        routes.sort(Comparator.comparingInt((Integer r) -> claims[r]).reversed());
+        System.out.println("Most claimed routes:");
+        for (int route : routes.subList(0, Math.min(10, routes.size())))
+            System.out.printf(Locale.ROOT, "  %-30s %6d claims, %6d attempts%n",
+                    ROUTES_BY_ID.get(route).id(), claims[route], attempts[route]);
+        System.out.println("Ticket completion rates:");
+        for (int t = 0; t < kept.length; ++t) {
+            if (kept[t] > 0)
+                System.out.printf(Locale.ROOT, "  %-60s %5.1f%% of %d%n",
+                        TICKETS_BY_ID.get(t).text(), 100.0 * completed[t] / kept[t], kept[t]);
+        }
+    }
+}
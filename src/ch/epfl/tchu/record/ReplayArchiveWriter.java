@@ -0,0 +1,294 @@
+package ch.epfl.tchu.record;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Constants;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.game.Route;
+import ch.epfl.tchu.game.Ticket;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static ch.epfl.tchu.record.ReplayArchive.*;
+
+/**
+ * This class writes an archive of recorded games, to be read by ReplayArchive.
+ * <p>
+ * Each game is replayed once when it is added, to find out which claims succeeded and which tickets were completed;
+ * its turns and tickets are then appended to temporary files, one per column, which are gathered into the archive
+ * when the writer is closed. The writer thus only keeps the index of the games in memory, whatever their number.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+public final class ReplayArchiveWriter implements AutoCloseable {
+
+    private static final Map<Route, Integer> ROUTE_INDICES = ids(ChMap.routes());
+    private static final Map<Ticket, Integer> TICKET_INDICES = ids(ChMap.tickets());
+
+    private final Path path;
+    private final Path[] columnPaths = new Path[TURN_COLUMN_BYTES.length + TICKET_COLUMN_BYTES.length];
+    private final DataOutputStream[] columns = new DataOutputStream[columnPaths.length];
+    private final DataOutputStream games;
+    private final Path gamesPath;
+    private long[] gameIds = new long[16];
+    private int gameCount;
+    private int turnCount;
+    private int ticketCount;
+
+    /**
+     * A turn of a game, as found in its record
+     */
+    private static final class Turn {
+
+        private final PlayerId playerId;
+        private final Player.TurnKind kind;
+        private final int[] slots = new int[2];
+        private int slotCount;
+        private Route route;
+        private SortedBag<Card> cards = SortedBag.of();
+        private SortedBag<Ticket> tickets = SortedBag.of();
+        private boolean claimed;
+
+        private Turn(PlayerId playerId, Player.TurnKind kind) {
+            this.playerId = playerId;
+            this.kind = kind;
+        }
+    }
+
+    /**
+     * An observer keeping the last state of its player
+     */
+    private static final class LastState implements GameObserver {
+
+        private PlayerState ownState;
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            this.ownState = ownState;
+        }
+    }
+
+    /**
+     * Constructs a writer of an archive at the given path, replaced if it exists once the writer is closed
+     *
+     * @param path the path of the archive
+     * @throws IOException if the temporary files cannot be created
+     */
+    public ReplayArchiveWriter(Path path) throws IOException {
+        this.path = path;
+        Path directory = path.toAbsolutePath().getParent();
+        gamesPath = Files.createTempFile(directory, "tchu", ".games");
+        games = open(gamesPath);
+        for (int c = 0; c < columnPaths.length; ++c) {
+            columnPaths[c] = Files.createTempFile(directory, "tchu", ".column");
+            columns[c] = open(columnPaths[c]);
+        }
+    }
+
+    private static DataOutputStream open(Path path) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+    }
+
+    private static <T> Map<T, Integer> ids(List<T> list) {
+        Map<T, Integer> ids = new HashMap<>();
+        for (int i = 0; i < list.size(); ++i)
+            ids.put(list.get(i), i);
+        return ids;
+    }
+
+    /**
+     * Adds the given game to the archive
+     *
+     * @param gameId the id of the game, which must differ from the ids of the other games of the archive
+     * @param record the recorded game
+     * @throws IllegalStateException if the game cannot be replayed, e.g. if its record ends before the game, or if
+     *                               the archive is full
+     * @throws IOException           if the temporary files cannot be written
+     */
+    public void add(long gameId, GameRecord record) throws IOException {
+        Map<PlayerId, LastState> lastStates = new EnumMap<>(PlayerId.class);
+        for (PlayerId playerId : record.playerNames().keySet())
+            lastStates.put(playerId, new LastState());
+        Replayer.replay(record, lastStates);
+
+        List<Turn> turns = turns(record);
+        if (turns.size() > MAX_TURNS - turnCount)
+            throw new IllegalStateException("the archive is full");
+
+        // As a route cannot be claimed twice, a route owned at the end of the game was claimed by the last attempt of
+        // its owner, while all the other attempts failed
+        Map<PlayerId, Set<Route>> owned = new EnumMap<>(PlayerId.class);
+        for (Map.Entry<PlayerId, LastState> e : lastStates.entrySet())
+            owned.put(e.getKey(), new HashSet<>(e.getValue().ownState.routes()));
+        for (int i = turns.size() - 1; i >= 0; --i) {
+            Turn turn = turns.get(i);
+            turn.claimed = turn.route != null && owned.get(turn.playerId).remove(turn.route);
+        }
+
+        for (Turn turn : turns)
+            writeTurn(turn);
+        int firstTicket = ticketCount;
+        for (Map.Entry<PlayerId, LastState> e : lastStates.entrySet()) {
+            PlayerState ownState = e.getValue().ownState;
+            for (Ticket ticket : ownState.tickets()) {
+                columns[TURN_COLUMN_BYTES.length + TICKET_PLAYERS].writeByte(e.getKey().ordinal());
+                columns[TURN_COLUMN_BYTES.length + TICKET_IDS].writeByte(TICKET_INDICES.get(ticket));
+                columns[TURN_COLUMN_BYTES.length + TICKET_COMPLETED].writeByte(
+                        ownState.isTicketCompleted(ticket) ? 1 : 0);
+                ++ticketCount;
+            }
+        }
+
+        games.writeLong(gameId);
+        games.writeInt(turnCount);
+        games.writeInt(turns.size());
+        games.writeInt(firstTicket);
+        games.writeInt(ticketCount - firstTicket);
+        turnCount += turns.size();
+        if (gameCount == gameIds.length)
+            gameIds = Arrays.copyOf(gameIds, 2 * gameCount);
+        gameIds[gameCount++] = gameId;
+    }
+
+    /**
+     * Returns the turns of the given game, as recorded; whether claims succeeded is left to be found
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Turn> turns(GameRecord record) {
+        List<Turn> turns = new ArrayList<>();
+        Turn turn = null;
+        for (GameRecord.Decision decision : record.decisions()) {
+            switch (decision.kind()) {
+                case NEXT_TURN:
+                    turn = new Turn(decision.playerId(), (Player.TurnKind) decision.value());
+                    turns.add(turn);
+                    break;
+                case CHOOSE_TICKETS:
+                    turn.tickets = (SortedBag<Ticket>) decision.value();
+                    break;
+                case DRAW_SLOT:
+                    turn.slots[turn.slotCount++] = (int) decision.value();
+                    break;
+                case ROUTE:
+                    turn.route = (Route) decision.value();
+                    break;
+                case CARDS:
+                case CHOOSE_ADDITIONAL_CARDS:
+                    turn.cards = turn.cards.union((SortedBag<Card>) decision.value());
+                    break;
+                default:
+                    // The initial tickets are not part of a turn, the tickets kept are archived at the end of the game
+                    break;
+            }
+        }
+        return turns;
+    }
+
+    private void writeTurn(Turn turn) throws IOException {
+        columns[PLAYERS].writeByte(turn.playerId.ordinal());
+        columns[KINDS].writeByte(turn.kind.ordinal());
+        columns[ROUTES].writeByte(turn.route == null ? NO_ROUTE : ROUTE_INDICES.get(turn.route));
+        columns[CLAIMED].writeByte(turn.claimed ? 1 : 0);
+
+        int slots = NO_VALUE;
+        for (int i = 0; i < turn.slotCount; ++i)
+            slots |= (turn.slots[i] - Constants.DECK_SLOT + 1) << (4 * i);
+        columns[SLOTS].writeByte(slots);
+
+        // The cards of a claim are all of a single color, apart from the locomotives
+        int locomotives = turn.cards.countOf(Card.LOCOMOTIVE);
+        int cards = locomotives;
+        for (Card card : turn.cards.toSet()) {
+            if (card != Card.LOCOMOTIVE) {
+                Preconditions.checkArgument(turn.cards.size() - locomotives == turn.cards.countOf(card));
+                cards |= card.ordinal() << 8 | turn.cards.countOf(card) << 4;
+            }
+        }
+        columns[CARDS].writeShort(cards);
+
+        int tickets = NO_VALUE;
+        int t = 0;
+        for (Ticket ticket : turn.tickets)
+            tickets |= (TICKET_INDICES.get(ticket) + 1) << (8 * t++);
+        columns[TICKETS].writeInt(tickets);
+    }
+
+    /**
+     * Writes the archive, then deletes the temporary files
+     *
+     * @throws IOException              if the archive cannot be written
+     * @throws IllegalArgumentException if two games have the same id
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            games.close();
+            for (DataOutputStream column : columns)
+                column.close();
+
+            // The ids are sorted, then each one is paired with the index of its game
+            long[] sortedIds = Arrays.copyOf(gameIds, gameCount);
+            Arrays.sort(sortedIds);
+            for (int i = 1; i < gameCount; ++i)
+                Preconditions.checkArgument(sortedIds[i - 1] != sortedIds[i]);
+            int[] gameIndices = new int[gameCount];
+            for (int game = 0; game < gameCount; ++game)
+                gameIndices[Arrays.binarySearch(sortedIds, gameIds[game])] = game;
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.put(MAGIC).putInt(FORMAT_VERSION).putInt(gameCount).putInt(turnCount).putInt(ticketCount).flip();
+            ByteBuffer idIndex = ByteBuffer.allocate(gameCount * GAME_ID_BYTES);
+            for (int i = 0; i < gameCount; ++i)
+                idIndex.putLong(sortedIds[i]).putInt(gameIndices[i]);
+            idIndex.flip();
+
+            try (FileChannel archive = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeFully(archive, header);
+                transfer(gamesPath, archive);
+                writeFully(archive, idIndex);
+                for (Path columnPath : columnPaths)
+                    transfer(columnPath, archive);
+            }
+        } finally {
+            Files.deleteIfExists(gamesPath);
+            for (Path columnPath : columnPaths)
+                Files.deleteIfExists(columnPath);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    private static void transfer(Path from, FileChannel to) throws IOException {
+        try (FileChannel source = FileChannel.open(from, StandardOpenOption.READ)) {
+            long position = 0;
+            while (position < source.size())
+                position += source.transferTo(position, source.size() - position, to);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package ch.epfl.tchu.record;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.game.Route;
+import ch.epfl.tchu.game.Ticket;
+import ch.epfl.tchu.net.MessageId;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class represents a player taking the decisions of a recorded game, in the same order; the notifications it
+ * receives are forwarded to an observer, if any.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+final class ReplayedPlayer implements Player {
+
+    private final Deque<GameRecord.Decision> decisions;
+    private final GameObserver observer;
+
+    /**
+     * Constructs a replayed player
+     *
+     * @param decisions the decisions taken by the player, in order
+     * @param observer  the observer to which the notifications are forwarded, or null
+     */
+    ReplayedPlayer(List<GameRecord.Decision> decisions, GameObserver observer) {
+        this.decisions = new ArrayDeque<>(decisions);
+        this.observer = observer;
+    }
+
+    /**
+     * Returns whether all the decisions of the player were taken
+     *
+     * @return true if all the decisions of the player were taken
+     */
+    boolean isDone() {
+        return decisions.isEmpty();
+    }
+
+    /**
+     * Returns the value of the next decision of the player
+     *
+     * @param kind the message asking for the decision
+     * @param <T>  the type of the value
+     * @return the value of the next decision
+     * @throws IllegalStateException if all the decisions were taken, or if the next one isn't of the given kind
+     */
+    @SuppressWarnings("unchecked")
+    <T> T decide(MessageId kind) {
+        GameRecord.Decision decision = decisions.pollFirst();
+        if (decision == null)
+            throw new IllegalStateException("the record ends before the game, which asks for " + kind);
+        if (decision.kind() != kind)
+            throw new IllegalStateException("the record expected " + decision + ", but the game asked for " + kind);
+        return (T) decision.value();
+    }
+
+    @Override
+    public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+        if (observer != null)
+            observer.initPlayers(ownId, playerNames);
+    }
+
+    @Override
+    public void receiveInfo(String info) {
+        if (observer != null)
+            observer.receiveInfo(info);
+    }
+
+    @Override
+    public void updateState(PublicGameState newState, PlayerState ownState) {
+        if (observer != null)
+            observer.updateState(newState, ownState);
+    }
+
+    @Override
+    public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+        if (observer != null)
+            observer.setInitialTicketChoice(tickets);
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseInitialTickets() {
+        return decide(MessageId.CHOOSE_INITIAL_TICKETS);
+    }
+
+    @Override
+    public TurnKind nextTurn() {
+        return decide(MessageId.NEXT_TURN);
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+        return decide(MessageId.CHOOSE_TICKETS);
+    }
+
+    @Override
+    public int drawSlot() {
+        return decide(MessageId.DRAW_SLOT);
+    }
+
+    @Override
+    public Route claimedRoute() {
+        return decide(MessageId.ROUTE);
+    }
+
+    @Override
+    public SortedBag<Card> initialClaimCards() {
+        return decide(MessageId.CARDS);
+    }
+
+    @Override
+    public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+        return decide(MessageId.CHOOSE_ADDITIONAL_CARDS);
+    }
+}
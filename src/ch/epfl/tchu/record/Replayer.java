@@ -0,0 +1,108 @@
+package ch.epfl.tchu.record;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Game;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.Ticket;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * This class replays recorded games: the game is played again by the engine from the recorded seed, its players
+ * taking the recorded decisions instead of being asked for them. Since the game only depends on these, the replay goes
+ * through exactly the same states and infos as the recorded game, without waiting for any player, which makes it
+ * suitable to reproduce a bug or to compute statistics over past games.
+ * <p>
+ * Usage: {@code Replayer log...}, e.g. {@code Replayer game1.tchu game2.tchu}.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+public final class Replayer {
+
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+
+    private Replayer() {
+    }
+
+    /**
+     * Replays the given game, without observing it
+     *
+     * @param record the recorded game
+     * @return the points of each player at the end of the game
+     * @throws IllegalStateException if the recorded decisions don't match the game, e.g. if the record ends before
+     *                               the game, as the one of a game that crashed
+     */
+    public static Map<PlayerId, Integer> replay(GameRecord record) {
+        return replay(record, Map.of());
+    }
+
+    /**
+     * Replays the given game; the notifications sent to each of the given players are forwarded to the given observer,
+     * exactly as they were sent to the player during the recorded game
+     *
+     * @param record    the recorded game
+     * @param observers the observers of some of the players (possibly none)
+     * @return the points of each player at the end of the game
+     * @throws IllegalArgumentException if an observer observes a player which didn't play the game
+     * @throws IllegalStateException    if the recorded decisions don't match the game, e.g. if the record ends before
+     *                                  the game, as the one of a game that crashed
+     */
+    public static Map<PlayerId, Integer> replay(GameRecord record, Map<PlayerId, ? extends GameObserver> observers) {
+        Preconditions.checkArgument(record.playerNames().keySet().containsAll(observers.keySet()));
+
+        Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        List<ReplayedPlayer> replayedPlayers = new ArrayList<>();
+        for (PlayerId playerId : record.playerNames().keySet()) {
+            ReplayedPlayer player = new ReplayedPlayer(record.decisionsOf(playerId), observers.get(playerId));
+            replayedPlayers.add(player);
+            players.put(playerId, player);
+        }
+
+        Map<PlayerId, Integer> points = Game.play(players, record.playerNames(), TICKETS, new Random(record.seed()));
+        for (ReplayedPlayer player : replayedPlayers) {
+            if (!player.isDone())
+                throw new IllegalStateException("the game ended before the record");
+        }
+        return points;
+    }
+
+    /**
+     * Replays the given logs and prints the points of each game, as well as the replay throughput
+     *
+     * @param args the paths of the logs
+     * @throws IOException if a log cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        List<GameRecord> records = new ArrayList<>();
+        int decisions = 0;
+        for (String path : args) {
+            GameRecord record = GameLog.read(Path.of(path));
+            records.add(record);
+            decisions += record.decisions().size();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < records.size(); ++i) {
+            try {
+                System.out.println(args[i] + ": " + replay(records.get(i)));
+            } catch (IllegalStateException e) {
+                System.out.println(args[i] + ": " + e.getMessage());
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf(Locale.ROOT, "%d games (%d decisions) replayed in %.3f s: %.1f games/s%n",
+                records.size(), decisions, seconds, records.size() / seconds);
+    }
+}
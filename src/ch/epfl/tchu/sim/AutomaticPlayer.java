@@ -0,0 +1,241 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Constants;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.game.Route;
+import ch.epfl.tchu.game.Ticket;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * This class represents a player that plays on its own, without any graphical interface nor network connection, so
+ * that whole games can be simulated as fast as the engine allows.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+public final class AutomaticPlayer implements Player {
+
+    /**
+     * This enum represents the strategies an automatic player can follow.
+     */
+    public enum Strategy {
+
+        /**
+         * Keeps random tickets, claims a random claimable route and draws random cards.
+         */
+        RANDOM,
+
+        /**
+         * Keeps the easiest tickets, claims the route worth the most points (tickets included) and draws the cards it
+         * is collecting.
+         */
+        GREEDY;
+
+        public static final List<Strategy> ALL = List.of(Strategy.values());
+    }
+
+    /**
+     * Number of turns after which a player considers the game stuck and aborts it.
+     */
+    public static final int MAX_TURNS = 1_000;
+
+    private static final List<Route> ALL_ROUTES = ChMap.routes();
+    private static final int MIN_INITIAL_TICKETS = Constants.INITIAL_TICKETS_COUNT - Constants.DISCARDABLE_TICKETS_COUNT;
+    private static final int MIN_CARDS_BEFORE_CLAIM = 6;
+    private static final int DRAW_TICKETS_ODDS = 20;
+
+    private final Strategy strategy;
+    private final Random rng;
+
+    private PublicGameState gameState;
+    private PlayerState ownState;
+    private SortedBag<Ticket> initialTickets;
+    private Route routeToClaim;
+    private SortedBag<Card> initialClaimCards;
+    private int turnCount;
+
+    /**
+     * Constructs an automatic player following the given strategy
+     *
+     * @param strategy   the strategy followed by the player
+     * @param randomSeed the seed of the random generator used by the player to take its decisions
+     */
+    public AutomaticPlayer(Strategy strategy, long randomSeed) {
+        this.strategy = strategy;
+        this.rng = new Random(randomSeed);
+    }
+
+    /**
+     * Returns the strategy followed by the player
+     *
+     * @return the strategy followed by the player
+     */
+    public Strategy strategy() {
+        return strategy;
+    }
+
+    /**
+     * Returns the number of turns played so far by the player
+     *
+     * @return the number of turns played so far by the player
+     */
+    public int turnCount() {
+        return turnCount;
+    }
+
+    @Override
+    public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+    }
+
+    @Override
+    public void receiveInfo(String info) {
+    }
+
+    @Override
+    public void updateState(PublicGameState newState, PlayerState ownState) {
+        this.gameState = newState;
+        this.ownState = ownState;
+    }
+
+    @Override
+    public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+        this.initialTickets = tickets;
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseInitialTickets() {
+        return keptTickets(initialTickets, strategy == Strategy.RANDOM
+                ? MIN_INITIAL_TICKETS + rng.nextInt(initialTickets.size() - MIN_INITIAL_TICKETS + 1)
+                : MIN_INITIAL_TICKETS);
+    }
+
+    /**
+     * Chooses the turn to play; a player aborts the game by throwing a GameStuckException once it has played
+     * MAX_TURNS turns, as neither player is able to end it anymore.
+     *
+     * @return the type of the turn for the player
+     * @throws GameStuckException if the player has already played MAX_TURNS turns
+     */
+    @Override
+    public TurnKind nextTurn() {
+        if (++turnCount > MAX_TURNS)
+            throw new GameStuckException(MAX_TURNS);
+
+        if (strategy == Strategy.RANDOM && gameState.canDrawTickets() && rng.nextInt(DRAW_TICKETS_ODDS) == 0)
+            return TurnKind.DRAW_TICKETS;
+
+        routeToClaim = null;
+        if (ownState.cardCount() >= MIN_CARDS_BEFORE_CLAIM || !gameState.canDrawCards())
+            routeToClaim = strategy == Strategy.RANDOM ? randomClaimableRoute() : bestClaimableRoute();
+
+        if (routeToClaim != null)
+            return TurnKind.CLAIM_ROUTE;
+        else if (gameState.canDrawCards() || !gameState.canDrawTickets())
+            return TurnKind.DRAW_CARDS;
+        else
+            return TurnKind.DRAW_TICKETS;
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+        return keptTickets(options, strategy == Strategy.RANDOM ? 1 + rng.nextInt(options.size()) : 1);
+    }
+
+    @Override
+    public int drawSlot() {
+        if (strategy == Strategy.RANDOM)
+            return rng.nextInt(Constants.FACE_UP_CARDS_COUNT + 1) - 1;
+
+        int bestSlot = Constants.DECK_SLOT;
+        int bestCount = 0;
+        for (int slot : Constants.FACE_UP_CARD_SLOTS) {
+            Card card = gameState.cardState().faceUpCard(slot);
+            if (card == Card.LOCOMOTIVE)
+                return slot;
+            int count = ownState.cardBag().countOf(card);
+            if (count > bestCount) {
+                bestSlot = slot;
+                bestCount = count;
+            }
+        }
+        return bestSlot;
+    }
+
+    @Override
+    public Route claimedRoute() {
+        return routeToClaim;
+    }
+
+    @Override
+    public SortedBag<Card> initialClaimCards() {
+        return initialClaimCards;
+    }
+
+    @Override
+    public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+        return strategy == Strategy.RANDOM
+                ? options.get(rng.nextInt(options.size()))
+                : options.get(0);
+    }
+
+    /**
+     * Keeps count of the given tickets: random ones or, for the greedy strategy, the ones that lose the fewest points
+     * given the routes the player already owns.
+     */
+    private SortedBag<Ticket> keptTickets(SortedBag<Ticket> options, int count) {
+        List<Ticket> tickets = new ArrayList<>(options.toList());
+        if (strategy == Strategy.RANDOM)
+            Collections.shuffle(tickets, rng);
+        else
+            tickets.sort(Comparator.comparingInt((Ticket t) -> t.points(ownState.connectivity())).reversed());
+        return SortedBag.of(tickets.subList(0, count));
+    }
+
+    private List<Route> claimableRoutes() {
+        List<Route> claimableRoutes = new ArrayList<>();
+        for (Route route : ALL_ROUTES)
+            if (!gameState.isRouteClaimed(route) && ownState.canClaimRoute(route))
+                claimableRoutes.add(route);
+        return claimableRoutes;
+    }
+
+    private Route randomClaimableRoute() {
+        List<Route> claimableRoutes = claimableRoutes();
+        if (claimableRoutes.isEmpty())
+            return null;
+        Route route = claimableRoutes.get(rng.nextInt(claimableRoutes.size()));
+        List<SortedBag<Card>> possibleCards = ownState.possibleClaimCards(route);
+        initialClaimCards = possibleCards.get(rng.nextInt(possibleCards.size()));
+        return route;
+    }
+
+    private Route bestClaimableRoute() {
+        int currentTicketPoints = ownState.ticketPoints();
+        Route bestRoute = null;
+        int bestValue = Integer.MIN_VALUE;
+        for (Route route : claimableRoutes()) {
+            SortedBag<Card> cards = ownState.possibleClaimCards(route).get(0);
+            int value = route.claimPoints()
+                    + ownState.withClaimedRoute(route, cards).ticketPoints() - currentTicketPoints;
+            if (value > bestValue) {
+                bestRoute = route;
+                bestValue = value;
+                initialClaimCards = cards;
+            }
+        }
+        return bestRoute;
+    }
+}
@@ -0,0 +1,83 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.game.PlayerId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class represents the outcome of a simulated game: the final points of each player and the number of turns the
+ * game lasted.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+public final class GameOutcome {
+
+    private final long seed;
+    private final Map<PlayerId, Integer> points;
+    private final int turnCount;
+
+    /**
+     * Constructs the outcome of a simulated game
+     *
+     * @param seed      the seed the game was played with
+     * @param points    the final points of each player
+     * @param turnCount the total number of turns played
+     */
+    public GameOutcome(long seed, Map<PlayerId, Integer> points, int turnCount) {
+        this.seed = seed;
+        this.points = Collections.unmodifiableMap(new EnumMap<>(points));
+        this.turnCount = turnCount;
+    }
+
+    /**
+     * Returns the seed the game was played with
+     *
+     * @return the seed the game was played with
+     */
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * Returns the final points of each player
+     *
+     * @return the final points of each player
+     */
+    public Map<PlayerId, Integer> points() {
+        return points;
+    }
+
+    /**
+     * Returns the total number of turns played
+     *
+     * @return the total number of turns played
+     */
+    public int turnCount() {
+        return turnCount;
+    }
+
+    /**
+     * Returns the players having the most points (several of them in case of a draw)
+     *
+     * @return the players having the most points
+     */
+    public List<PlayerId> winners() {
+        int maxPoints = Collections.max(points.values());
+        List<PlayerId> winners = new ArrayList<>();
+        for (Map.Entry<PlayerId, Integer> e : points.entrySet())
+            if (e.getValue() == maxPoints)
+                winners.add(e.getKey());
+        return winners;
+    }
+
+    @Override
+    public String toString() {
+        return "GameOutcome{seed=" + seed + ", points=" + points + ", turns=" + turnCount + "}";
+    }
+}
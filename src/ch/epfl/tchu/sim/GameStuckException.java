@@ -0,0 +1,24 @@
+package ch.epfl.tchu.sim;
+
+/**
+ * This class represents the exception thrown by an automatic player to abort a game that got stuck, because neither
+ * player was able to end it after AutomaticPlayer.MAX_TURNS turns. It is the only exception that aborts a simulated
+ * game; any other one is a bug of the game or of a player.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+public final class GameStuckException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs the exception of a game stuck after the given number of turns
+     *
+     * @param turnCount the number of turns played by the player aborting the game
+     */
+    public GameStuckException(int turnCount) {
+        super("game stuck after " + turnCount + " turns");
+    }
+}
@@ -0,0 +1,85 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.net.GameServer;
+import ch.epfl.tchu.net.RemotePlayerClient;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class contains a load test of the game server: a local server is started, and a given number of automatic
+ * players connect to it all at once, each through its own client (their number being rounded down to fill whole
+ * tables). Once every client has been disconnected, the number of games played and aborted, the throughput, and the
+ * peak numbers of tables played at once and of threads are printed.
+ * <p>
+ * Usage: {@code LoadSimulation [clients [playersPerTable [replyTimeoutMillis]]]}, e.g.
+ * {@code LoadSimulation 3000 3 60000}.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+public final class LoadSimulation {
+
+    // The clients only read and write small messages, a small stack is enough for each of them
+    private static final long CLIENT_STACK_SIZE = 256 * 1024;
+    private static final long SAMPLING_PERIOD_MILLIS = 10;
+
+    private LoadSimulation() {
+    }
+
+    /**
+     * Runs the load test
+     *
+     * @param args the number of clients, the number of players per table and the reply timeout of the server, all
+     *             optional
+     * @throws IOException          if the server cannot be started
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int clientCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int playersPerTable = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int replyTimeoutMillis = args.length > 2 ? Integer.parseInt(args[2]) : 60_000;
+        // Clients that could not fill a table would wait forever
+        clientCount -= clientCount % playersPerTable;
+
+        AtomicInteger peakTables = new AtomicInteger();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        try (GameServer server = new GameServer(0, playersPerTable, replyTimeoutMillis,
+                Executors.newCachedThreadPool())) {
+            server.start();
+            sampler.scheduleAtFixedRate(() -> peakTables.accumulateAndGet(
+                    server.startedTables() - server.finishedTables() - server.abortedTables(), Math::max),
+                    0, SAMPLING_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+
+            long start = System.nanoTime();
+            List<Thread> clients = new ArrayList<>();
+            for (int i = 0; i < clientCount; ++i) {
+                AutomaticPlayer player = new AutomaticPlayer(AutomaticPlayer.Strategy.GREEDY, i);
+                Thread client = new Thread(null,
+                        () -> new RemotePlayerClient(player, "localhost", server.port()).run(),
+                        "tchu-client-" + i, CLIENT_STACK_SIZE);
+                client.start();
+                clients.add(client);
+            }
+            for (Thread client : clients)
+                client.join();
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf(Locale.ROOT, "%d clients, %d players per table%n", clientCount, playersPerTable);
+            System.out.printf(Locale.ROOT, "%d games played, %d aborted in %.2f s: %.1f games/s%n",
+                    server.finishedTables(), server.abortedTables(), seconds, server.finishedTables() / seconds);
+            System.out.printf(Locale.ROOT, "peak of %d tables played at once, %d threads%n",
+                    peakTables.get(), ManagementFactory.getThreadMXBean().getPeakThreadCount());
+        } finally {
+            sampler.shutdown();
+        }
+    }
+}
@@ -0,0 +1,558 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Constants;
+import ch.epfl.tchu.game.GameState;
+import ch.epfl.tchu.game.MutableGameState;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.game.Route;
+import ch.epfl.tchu.game.Ticket;
+import ch.epfl.tchu.game.Trail;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class represents a player that chooses its turns by Monte Carlo tree search over the transitions of the game
+ * state. As the player cannot see the cards and tickets of the other players nor the decks, every iteration of the
+ * search first deals them at random, consistently with what the player knows (see
+ * {@link GameState#determinized(PublicGameState, PlayerId, PlayerState, SortedBag, Random)}), and the tree is shared by
+ * all these determinizations, which are played on a {@link MutableGameState}. The search runs on several threads, each
+ * one growing its own tree until the time budget of the turn is spent, and the turn most visited by all trees is
+ * played. The threads come from a pool shared by all players, whose idle threads end after a while, so that players
+ * never need to be closed.
+ * <p>
+ * The tree branches on whole turns: drawing tickets, drawing cards (the first card drawn being part of the turn) or
+ * claiming a route with its cheapest cards. The other decisions (tickets kept, second card drawn, additional cards) are
+ * taken by simple heuristics, both in the game and in the simulated games.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+public final class MctsPlayer implements Player {
+
+    /**
+     * Default time budget of a turn, in milliseconds.
+     */
+    public static final int DEFAULT_TIME_BUDGET_MILLIS = 200;
+
+    private static final List<Route> ALL_ROUTES = ChMap.routes();
+    private static final SortedBag<Ticket> ALL_TICKETS = SortedBag.of(ChMap.tickets());
+    private static final int MIN_INITIAL_TICKETS = Constants.INITIAL_TICKETS_COUNT - Constants.DISCARDABLE_TICKETS_COUNT;
+    private static final int MIN_CARDS_BEFORE_CLAIM = 6;
+    private static final int MAX_SIMULATED_TURNS = 300;
+    private static final double EXPLORATION = 0.7;
+    // Shared by all players, so that creating many of them (e.g. in a tournament) doesn't accumulate idle threads
+    private static final ExecutorService SEARCH_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "tchu-mcts");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final long timeBudgetNanos;
+    private final int threads;
+    private final Random rng;
+
+    private PlayerId ownId;
+    private PublicGameState gameState;
+    private PlayerState ownState;
+    private SortedBag<Ticket> initialTickets;
+    private SortedBag<Ticket> discardedTickets = SortedBag.of();
+    private Move move;
+    private boolean firstDraw;
+    private int turnCount;
+
+    /**
+     * Constructs a player searching its turns on all available processors during DEFAULT_TIME_BUDGET_MILLIS
+     *
+     * @param randomSeed the seed of the random generator used by the player to take its decisions
+     */
+    public MctsPlayer(long randomSeed) {
+        this(randomSeed, DEFAULT_TIME_BUDGET_MILLIS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a player searching its turns with the given number of threads during the given time
+     *
+     * @param randomSeed       the seed of the random generator used by the player to take its decisions
+     * @param timeBudgetMillis the time spent searching each turn, in milliseconds
+     * @param threads          the number of threads searching in parallel
+     * @throws IllegalArgumentException if the time budget or the number of threads isn't strictly positive
+     */
+    public MctsPlayer(long randomSeed, int timeBudgetMillis, int threads) {
+        Preconditions.checkArgument(timeBudgetMillis > 0 && threads > 0);
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000L;
+        this.threads = threads;
+        this.rng = new Random(randomSeed);
+    }
+
+    /**
+     * Returns the number of turns played so far by the player
+     *
+     * @return the number of turns played so far by the player
+     */
+    public int turnCount() {
+        return turnCount;
+    }
+
+    @Override
+    public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+        this.ownId = ownId;
+    }
+
+    @Override
+    public void receiveInfo(String info) {
+    }
+
+    @Override
+    public void updateState(PublicGameState newState, PlayerState ownState) {
+        this.gameState = newState;
+        this.ownState = ownState;
+    }
+
+    @Override
+    public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+        this.initialTickets = tickets;
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseInitialTickets() {
+        SortedBag<Ticket> kept = keptTickets(initialTickets, ownState, MIN_INITIAL_TICKETS);
+        discardedTickets = discardedTickets.union(initialTickets.difference(kept));
+        return kept;
+    }
+
+    /**
+     * Chooses the turn to play by searching the game tree during the time budget; a player aborts the game by throwing
+     * a GameStuckException once it has played AutomaticPlayer.MAX_TURNS turns, as neither player is able to end it
+     * anymore.
+     *
+     * @return the type of the turn for the player
+     * @throws GameStuckException if the player has already played AutomaticPlayer.MAX_TURNS turns
+     */
+    @Override
+    public TurnKind nextTurn() {
+        if (++turnCount > AutomaticPlayer.MAX_TURNS)
+            throw new GameStuckException(AutomaticPlayer.MAX_TURNS);
+
+        move = search();
+        firstDraw = move.kind == TurnKind.DRAW_CARDS;
+        return move.kind;
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+        SortedBag<Ticket> kept = keptTickets(options, ownState, 1);
+        discardedTickets = discardedTickets.union(options.difference(kept));
+        return kept;
+    }
+
+    @Override
+    public int drawSlot() {
+        if (firstDraw) {
+            firstDraw = false;
+            return move.slot;
+        }
+
+        int bestSlot = Constants.DECK_SLOT;
+        int bestCount = 0;
+        for (int slot : Constants.FACE_UP_CARD_SLOTS) {
+            Card card = gameState.cardState().faceUpCard(slot);
+            if (card == Card.LOCOMOTIVE)
+                return slot;
+            int count = ownState.cardBag().countOf(card);
+            if (count > bestCount) {
+                bestSlot = slot;
+                bestCount = count;
+            }
+        }
+        return bestSlot;
+    }
+
+    @Override
+    public Route claimedRoute() {
+        return move.route;
+    }
+
+    @Override
+    public SortedBag<Card> initialClaimCards() {
+        return move.cards;
+    }
+
+    @Override
+    public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+        return options.get(0);
+    }
+
+    /**
+     * Searches the turn to play on all threads and returns the one most visited by their trees.
+     */
+    private Move search() {
+        long deadline = System.nanoTime() + timeBudgetNanos;
+        PublicGameState state = gameState;
+        PlayerState playerState = ownState;
+        SortedBag<Ticket> unseenTickets = ALL_TICKETS.difference(playerState.tickets()).difference(discardedTickets);
+
+        List<Node> roots = new ArrayList<>();
+        if (threads == 1)
+            roots.add(searchTree(state, playerState, unseenTickets, new Random(rng.nextLong()), deadline));
+        else {
+            List<Callable<Node>> searches = new ArrayList<>();
+            for (int i = 0; i < threads; ++i) {
+                Random searchRng = new Random(rng.nextLong());
+                searches.add(() -> searchTree(state, playerState, unseenTickets, searchRng, deadline));
+            }
+            try {
+                for (Future<Node> root : SEARCH_EXECUTOR.invokeAll(searches))
+                    roots.add(root.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        Map<Move, Integer> visits = new LinkedHashMap<>();
+        for (Node root : roots)
+            for (Node child : root.children.values())
+                visits.merge(child.move, child.visits, Integer::sum);
+
+        Move bestMove = null;
+        int bestVisits = -1;
+        for (Map.Entry<Move, Integer> e : visits.entrySet())
+            if (e.getValue() > bestVisits) {
+                bestMove = e.getKey();
+                bestVisits = e.getValue();
+            }
+        return bestMove;
+    }
+
+    /**
+     * Grows a tree from the given state until the deadline, every iteration playing a determinization of the state
+     * down the tree and then at random until the end of the game.
+     */
+    private Node searchTree(PublicGameState state, PlayerState playerState, SortedBag<Ticket> unseenTickets,
+                            Random rng, long deadline) {
+        Node root = new Node(null, null, null);
+        do {
+            SimulatedGame simulation = new SimulatedGame(MutableGameState.of(
+                    GameState.determinized(state, ownId, playerState, unseenTickets, rng)), rng);
+
+            Node node = root;
+            while (!simulation.isOver()) {
+                Node child = node.select(simulation.legalMoves(), simulation.state.currentPlayerId(), rng);
+                simulation.play(child.move);
+                node = child;
+                if (node.visits == 0)
+                    break;
+            }
+
+            while (!simulation.isOver())
+                simulation.play(simulation.playoutMove());
+
+            double[] rewards = simulation.rewards();
+            for (; node != null; node = node.parent) {
+                node.visits += 1;
+                if (node.mover != null)
+                    node.reward += rewards[node.mover.ordinal()];
+            }
+        } while (System.nanoTime() < deadline);
+        return root;
+    }
+
+    /**
+     * Keeps count of the given tickets, the ones that lose the fewest points given the routes the player already owns.
+     */
+    private static SortedBag<Ticket> keptTickets(SortedBag<Ticket> options, PlayerState playerState, int count) {
+        List<Ticket> tickets = new ArrayList<>(options.toList());
+        tickets.sort(Comparator.comparingInt((Ticket t) -> t.points(playerState.connectivity())).reversed());
+        return SortedBag.of(tickets.subList(0, count));
+    }
+
+    /**
+     * A turn of the search tree; two moves are equal if they are the same turn, regardless of the claim cards.
+     */
+    private static final class Move {
+        private static final Move DRAW_TICKETS = new Move(TurnKind.DRAW_TICKETS, Constants.DECK_SLOT, null, null);
+
+        private final TurnKind kind;
+        private final int slot;
+        private final Route route;
+        private final SortedBag<Card> cards;
+
+        private Move(TurnKind kind, int slot, Route route, SortedBag<Card> cards) {
+            this.kind = kind;
+            this.slot = slot;
+            this.route = route;
+            this.cards = cards;
+        }
+
+        static Move drawCards(int slot) {
+            return new Move(TurnKind.DRAW_CARDS, slot, null, null);
+        }
+
+        static Move claimRoute(Route route, SortedBag<Card> cards) {
+            return new Move(TurnKind.CLAIM_ROUTE, Constants.DECK_SLOT, route, cards);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Move))
+                return false;
+            Move that = (Move) o;
+            return kind == that.kind && slot == that.slot && route == that.route;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, slot, route);
+        }
+    }
+
+    /**
+     * A node of the search tree, reached by the given move of the given player.
+     */
+    private static final class Node {
+        private final Node parent;
+        private final Move move;
+        private final PlayerId mover;
+        private final Map<Move, Node> children = new LinkedHashMap<>();
+        private int visits;
+        private int availability;
+        private double reward;
+
+        private Node(Node parent, Move move, PlayerId mover) {
+            this.parent = parent;
+            this.move = move;
+            this.mover = mover;
+        }
+
+        /**
+         * Returns the child reached by a random untried move among the legal ones, if any, and otherwise the child
+         * maximizing the upper confidence bound among the legal ones.
+         */
+        Node select(List<Move> legalMoves, PlayerId mover, Random rng) {
+            List<Move> untriedMoves = new ArrayList<>();
+            List<Node> availableChildren = new ArrayList<>();
+            for (Move move : legalMoves) {
+                Node child = children.get(move);
+                if (child == null)
+                    untriedMoves.add(move);
+                else {
+                    child.availability += 1;
+                    availableChildren.add(child);
+                }
+            }
+
+            if (!untriedMoves.isEmpty()) {
+                Move move = untriedMoves.get(rng.nextInt(untriedMoves.size()));
+                Node child = new Node(this, move, mover);
+                child.availability = 1;
+                children.put(move, child);
+                return child;
+            }
+
+            Node bestChild = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (Node child : availableChildren) {
+                double value = child.reward / child.visits
+                        + EXPLORATION * Math.sqrt(Math.log(child.availability) / child.visits);
+                if (value > bestValue) {
+                    bestChild = child;
+                    bestValue = value;
+                }
+            }
+            return bestChild;
+        }
+    }
+
+    /**
+     * A game simulated from a determinized state, following the same rules as Game.play.
+     */
+    private static final class SimulatedGame {
+        private final MutableGameState state;
+        private final Random rng;
+        private boolean over;
+        private int turns;
+
+        private SimulatedGame(MutableGameState state, Random rng) {
+            this.state = state;
+            this.rng = rng;
+        }
+
+        boolean isOver() {
+            return over || turns >= MAX_SIMULATED_TURNS;
+        }
+
+        /**
+         * Returns the turns the current player can play: drawing tickets, drawing the top card of the deck or one of
+         * each distinct face up card, and claiming any free route it can claim. A player that can do none of these
+         * draws cards, which passes its turn.
+         */
+        List<Move> legalMoves() {
+            List<Move> moves = new ArrayList<>();
+            if (state.ticketsCount() >= Constants.IN_GAME_TICKETS_COUNT)
+                moves.add(Move.DRAW_TICKETS);
+            if (state.canDrawCards()) {
+                moves.add(Move.drawCards(Constants.DECK_SLOT));
+                Set<Card> faceUpCards = EnumSet.noneOf(Card.class);
+                for (int slot : Constants.FACE_UP_CARD_SLOTS)
+                    if (faceUpCards.add(state.faceUpCard(slot)))
+                        moves.add(Move.drawCards(slot));
+            }
+            for (Route route : ALL_ROUTES)
+                if (state.routeOwner(route) == null && state.canClaimRoute(route))
+                    moves.add(Move.claimRoute(route, state.possibleClaimCards(route).get(0)));
+            if (moves.isEmpty())
+                moves.add(Move.drawCards(Constants.DECK_SLOT));
+            return moves;
+        }
+
+        /**
+         * Returns the turn played by the current player once out of the tree: it claims a random claimable route if it
+         * has enough cards or cannot draw any, and otherwise draws random cards, or tickets.
+         */
+        Move playoutMove() {
+            if (state.cardCount(state.currentPlayerId()) >= MIN_CARDS_BEFORE_CLAIM || !state.canDrawCards()) {
+                int start = rng.nextInt(ALL_ROUTES.size());
+                for (int i = 0; i < ALL_ROUTES.size(); ++i) {
+                    Route route = ALL_ROUTES.get((start + i) % ALL_ROUTES.size());
+                    if (state.routeOwner(route) == null && state.canClaimRoute(route))
+                        return Move.claimRoute(route, state.possibleClaimCards(route).get(0));
+                }
+            }
+            if (state.canDrawCards())
+                return Move.drawCards(rng.nextInt(Constants.FACE_UP_CARDS_COUNT + 1) - 1);
+            else if (state.ticketsCount() >= Constants.IN_GAME_TICKETS_COUNT)
+                return Move.DRAW_TICKETS;
+            else
+                return Move.drawCards(Constants.DECK_SLOT);
+        }
+
+        /**
+         * Plays the given turn for the current player, and then passes to the next one unless the game is over.
+         */
+        void play(Move move) {
+            switch (move.kind) {
+                case DRAW_TICKETS:
+                    SortedBag<Ticket> options = state.topTickets(Constants.IN_GAME_TICKETS_COUNT);
+                    state.chooseAdditionalTickets(options,
+                            keptTickets(options, state.playerState(state.currentPlayerId()), 1));
+                    break;
+                case DRAW_CARDS:
+                    for (int i = 0; i < 2; ++i) {
+                        boolean canDrawCards = state.canDrawCards();
+                        state.recreateDeckIfNeeded(rng);
+                        if (canDrawCards) {
+                            int slot = i == 0 ? move.slot : rng.nextInt(Constants.FACE_UP_CARDS_COUNT + 1) - 1;
+                            if (slot == Constants.DECK_SLOT)
+                                state.drawBlindCard();
+                            else
+                                state.drawFaceUpCard(slot);
+                        }
+                    }
+                    break;
+                case CLAIM_ROUTE:
+                    //The cards of a move of the tree may come from another deal of the hidden cards
+                    if (state.routeOwner(move.route) == null && state.canClaimRoute(move.route))
+                        claimRoute(move.route, state.possibleClaimCards(move.route).get(0));
+                    break;
+                default:
+                    break;
+            }
+
+            turns += 1;
+            if (state.currentPlayerId().equals(state.lastPlayer()))
+                over = true;
+            else
+                state.endTurn();
+        }
+
+        private void claimRoute(Route route, SortedBag<Card> cards) {
+            if (route.level() == Route.Level.OVERGROUND) {
+                state.claimRoute(route, cards);
+                return;
+            }
+
+            SortedBag.Builder<Card> drawnBuilder = new SortedBag.Builder<>();
+            for (int i = 0; i < Constants.ADDITIONAL_TUNNEL_CARDS; ++i) {
+                state.recreateDeckIfNeeded(rng);
+                if (state.isDeckEmpty())
+                    break;
+                drawnBuilder.add(state.topCard());
+                state.removeTopCard();
+            }
+            SortedBag<Card> drawnCards = drawnBuilder.build();
+
+            SortedBag<Card> additionalCards = SortedBag.of();
+            boolean claimed = true;
+            if (drawnCards.size() == Constants.ADDITIONAL_TUNNEL_CARDS) {
+                int additionalCount = route.additionalClaimCardsCount(cards, drawnCards);
+                if (additionalCount >= 1) {
+                    List<SortedBag<Card>> options = state.possibleAdditionalCards(additionalCount, cards, drawnCards);
+                    claimed = !options.isEmpty();
+                    if (claimed)
+                        additionalCards = options.get(0);
+                }
+            }
+
+            if (claimed)
+                state.claimRoute(route, cards.union(additionalCards));
+            state.discard(drawnCards);
+        }
+
+        /**
+         * Returns the reward of each player, indexed by the ordinal of its identity: the winners of the game share a
+         * reward of 1, the longest trail bonus included.
+         */
+        double[] rewards() {
+            int playerCount = state.playerCount();
+            double[] rewards = new double[PlayerId.ALL.size()];
+            int[] points = new int[playerCount];
+            int[] trailLengths = new int[playerCount];
+            int longestLength = 0;
+            for (int player = 0; player < playerCount; ++player) {
+                PlayerState playerState = state.playerState(PlayerId.ALL.get(player));
+                points[player] = playerState.finalPoints();
+                trailLengths[player] = Trail.longest(playerState.routes()).length();
+                longestLength = Math.max(longestLength, trailLengths[player]);
+            }
+
+            int maxPoints = Integer.MIN_VALUE;
+            for (int player = 0; player < playerCount; ++player) {
+                if (trailLengths[player] == longestLength)
+                    points[player] += Constants.LONGEST_TRAIL_BONUS_POINTS;
+                maxPoints = Math.max(maxPoints, points[player]);
+            }
+
+            int winnerCount = 0;
+            for (int player = 0; player < playerCount; ++player)
+                if (points[player] == maxPoints)
+                    winnerCount += 1;
+            for (int player = 0; player < playerCount; ++player)
+                if (points[player] == maxPoints)
+                    rewards[player] = 1.0 / winnerCount;
+            return rewards;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Game;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.Ticket;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * This class plays whole games of tChu between automatic players, without graphical interface nor network, and
+ * reports the throughput of the engine as well as the distribution of the turn counts and scores.
+ * <p>
+ * Usage: {@code Simulation [games [seed [strategy...]]]}, e.g. {@code Simulation 1000 2021 GREEDY RANDOM}.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+public final class Simulation {
+
+    private static final int DEFAULT_GAMES = 1_000;
+    private static final long DEFAULT_SEED = 2021;
+    private static final List<AutomaticPlayer.Strategy> DEFAULT_STRATEGIES =
+            List.of(AutomaticPlayer.Strategy.GREEDY, AutomaticPlayer.Strategy.RANDOM);
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+
+    private Simulation() {
+    }
+
+    /**
+     * Plays a whole game between automatic players following the given strategies; the i-th strategy is played by the
+     * i-th player of PlayerId.ALL. The game only depends on the strategies and on the seed.
+     *
+     * @param strategies the strategies of the players (2 or 3 of them)
+     * @param seed       the seed from which the game and the players' decisions are derived
+     * @return the outcome of the game
+     * @throws IllegalArgumentException if there are less than 2 or more than PlayerId.COUNT strategies
+     * @throws GameStuckException      if the game got stuck and was aborted
+     */
+    public static GameOutcome playGame(List<AutomaticPlayer.Strategy> strategies, long seed) {
+        Preconditions.checkArgument(strategies.size() >= 2 && strategies.size() <= PlayerId.COUNT);
+
+        Random rng = new Random(seed);
+        Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        Map<PlayerId, String> playerNames = new EnumMap<>(PlayerId.class);
+        List<AutomaticPlayer> automaticPlayers = new ArrayList<>();
+        for (int i = 0; i < strategies.size(); ++i) {
+            AutomaticPlayer player = new AutomaticPlayer(strategies.get(i), rng.nextLong());
+            automaticPlayers.add(player);
+            players.put(PlayerId.ALL.get(i), player);
+            playerNames.put(PlayerId.ALL.get(i), strategies.get(i).name() + " " + (i + 1));
+        }
+
+        Map<PlayerId, Integer> points = Game.play(players, playerNames, TICKETS, rng);
+
+        int turnCount = 0;
+        for (AutomaticPlayer player : automaticPlayers)
+            turnCount += player.turnCount();
+        return new GameOutcome(seed, points, turnCount);
+    }
+
+    /**
+     * Plays the requested number of games, each with its own seed derived from the given one, and prints a report of
+     * the simulation on the standard output.
+     *
+     * @param args the number of games, the seed and the strategies of the players, all optional
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_SEED;
+        List<AutomaticPlayer.Strategy> strategies = DEFAULT_STRATEGIES;
+        if (args.length > 2) {
+            strategies = new ArrayList<>();
+            for (String strategy : Arrays.asList(args).subList(2, args.length))
+                strategies.add(AutomaticPlayer.Strategy.valueOf(strategy.toUpperCase(Locale.ROOT)));
+        }
+
+        Random seeds = new Random(seed);
+        List<GameOutcome> outcomes = new ArrayList<>(games);
+        int abortedGames = 0;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < games; ++i) {
+            try {
+                outcomes.add(playGame(strategies, seeds.nextLong()));
+            } catch (GameStuckException e) {
+                ++abortedGames;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf(Locale.ROOT, "%d games (%d aborted) in %.2f s: %.1f games/s%n",
+                games, abortedGames, seconds, games / seconds);
+        System.out.println(report(strategies, outcomes));
+    }
+
+    /**
+     * Returns a textual report of the turn counts, the scores and the wins of each player over the given outcomes
+     *
+     * @param strategies the strategies of the players
+     * @param outcomes   the outcomes of the games played
+     * @return a textual report of the outcomes
+     */
+    public static String report(List<AutomaticPlayer.Strategy> strategies, List<GameOutcome> outcomes) {
+        StringBuilder report = new StringBuilder();
+
+        int[] turns = new int[outcomes.size()];
+        for (int i = 0; i < turns.length; ++i)
+            turns[i] = outcomes.get(i).turnCount();
+        report.append(distribution("turns", turns)).append('\n');
+
+        for (int p = 0; p < strategies.size(); ++p) {
+            PlayerId playerId = PlayerId.ALL.get(p);
+            int[] points = new int[outcomes.size()];
+            double wins = 0;
+            for (int i = 0; i < points.length; ++i) {
+                GameOutcome outcome = outcomes.get(i);
+                points[i] = outcome.points().get(playerId);
+                List<PlayerId> winners = outcome.winners();
+                if (winners.contains(playerId))
+                    wins += 1.0 / winners.size();
+            }
+            report.append(distribution(playerId + " " + strategies.get(p), points))
+                    .append(String.format(Locale.ROOT, ", win rate %.1f%%",
+                            outcomes.isEmpty() ? 0 : 100 * wins / outcomes.size()))
+                    .append('\n');
+        }
+        return report.toString();
+    }
+
+    private static String distribution(String name, int[] values) {
+        if (values.length == 0)
+            return name + ": no data";
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        IntSummaryStatistics stats = Arrays.stream(sorted).summaryStatistics();
+        return String.format(Locale.ROOT, "%s: mean %.1f, min %d, p10 %d, median %d, p90 %d, max %d",
+                name, stats.getAverage(), stats.getMin(), percentile(sorted, 10), percentile(sorted, 50),
+                percentile(sorted, 90), stats.getMax());
+    }
+
+    private static int percentile(int[] sorted, int percent) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+    }
+}
@@ -0,0 +1,353 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Game;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.Ticket;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * This class represents a tournament between a roster of player strategies. Games are independent from each other
+ * (the engine is immutable), so they are played concurrently on a ForkJoinPool; each game is derived from its own
+ * seed, so that the results of a tournament do not depend on the number of threads used.
+ * <p>
+ * Usage: {@code Tournament [games [seed [strategy...]]]}, e.g. {@code Tournament 10000 2021 GREEDY RANDOM}; the
+ * standings are followed by a report of the throughput for increasing numbers of threads.
+ *
+ * @author Marvin Chedid (302446)
+ * @author Johnny Borkhoche (296169)
+ */
+
+public final class Tournament {
+
+    /**
+     * Rating given to every entrant at the start of the tournament.
+     */
+    public static final double INITIAL_ELO = 1500;
+
+    private static final double ELO_K_FACTOR = 16;
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+
+    private final List<Entrant> roster;
+    private final int playersPerGame;
+
+    /**
+     * This class represents an entrant of a tournament: a name, and a way of creating a new player for each game.
+     */
+    public static final class Entrant {
+
+        private final String name;
+        private final LongFunction<Player> playerFactory;
+
+        /**
+         * Constructs an entrant
+         *
+         * @param name          the name of the entrant
+         * @param playerFactory creates a new player for each game, from a seed that the player must derive all its
+         *                      random decisions from
+         */
+        public Entrant(String name, LongFunction<Player> playerFactory) {
+            this.name = Objects.requireNonNull(name);
+            this.playerFactory = Objects.requireNonNull(playerFactory);
+        }
+
+        /**
+         * Returns an entrant playing automatically with the given strategy
+         *
+         * @param strategy the strategy of the entrant
+         * @return an entrant playing automatically with the given strategy
+         */
+        public static Entrant of(AutomaticPlayer.Strategy strategy) {
+            return new Entrant(strategy.name(), seed -> new AutomaticPlayer(strategy, seed));
+        }
+
+        /**
+         * Returns the name of the entrant
+         *
+         * @return the name of the entrant
+         */
+        public String name() {
+            return name;
+        }
+    }
+
+    /**
+     * Constructs a tournament between the entrants of the given roster
+     *
+     * @param roster         the entrants of the tournament; an entrant may appear several times
+     * @param playersPerGame the number of players taking part in each game
+     * @throws IllegalArgumentException if the number of players per game is not between 2 and PlayerId.COUNT, or if
+     *                                  the roster has less entrants than players per game
+     */
+    public Tournament(List<Entrant> roster, int playersPerGame) {
+        Preconditions.checkArgument(playersPerGame >= 2 && playersPerGame <= PlayerId.COUNT);
+        Preconditions.checkArgument(roster.size() >= playersPerGame);
+        this.roster = List.copyOf(roster);
+        this.playersPerGame = playersPerGame;
+    }
+
+    /**
+     * Plays the given number of games on a pool of the given number of threads and returns the standings. For each
+     * game, the seated entrants and their order are drawn from the seed of the game. Games stuck are counted as
+     * aborted, but any other failure of a game ends the tournament.
+     *
+     * @param games       the number of games to play
+     * @param seed        the seed from which the seeds of all games are derived
+     * @param parallelism the number of threads playing games
+     * @return the standings of the tournament
+     * @throws IllegalArgumentException if the number of games is negative or the parallelism is not positive
+     * @throws IllegalStateException    if a game failed for another reason than getting stuck
+     */
+    public Standings run(int games, long seed, int parallelism) {
+        Preconditions.checkArgument(games >= 0 && parallelism > 0);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        long start = System.nanoTime();
+        try {
+            List<GameRecord> records = pool.submit(() -> IntStream.range(0, games)
+                    .parallel()
+                    .mapToObj(i -> playGame(gameSeed(seed, i)))
+                    .collect(Collectors.toList()))
+                    .get();
+            return new Standings(records, (System.nanoTime() - start) / 1e9);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static long gameSeed(long seed, int game) {
+        return new SplittableRandom(seed + game).nextLong();
+    }
+
+    private GameRecord playGame(long seed) {
+        Random rng = new Random(seed);
+
+        List<Integer> entrants = new ArrayList<>();
+        for (int i = 0; i < roster.size(); ++i)
+            entrants.add(i);
+        Collections.shuffle(entrants, rng);
+
+        int[] seats = new int[playersPerGame];
+        Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        Map<PlayerId, String> playerNames = new EnumMap<>(PlayerId.class);
+        for (int s = 0; s < playersPerGame; ++s) {
+            Entrant entrant = roster.get(entrants.get(s));
+            seats[s] = entrants.get(s);
+            players.put(PlayerId.ALL.get(s), entrant.playerFactory.apply(rng.nextLong()));
+            playerNames.put(PlayerId.ALL.get(s), entrant.name);
+        }
+
+        try {
+            Map<PlayerId, Integer> points = Game.play(players, playerNames, TICKETS, rng);
+            int[] seatPoints = new int[playersPerGame];
+            for (int s = 0; s < playersPerGame; ++s)
+                seatPoints[s] = points.get(PlayerId.ALL.get(s));
+            return new GameRecord(seats, seatPoints);
+        } catch (GameStuckException e) {
+            return new GameRecord(seats, null);
+        }
+    }
+
+    /**
+     * The entrants seated in a game and their final points, or null if the game was aborted.
+     */
+    private static final class GameRecord {
+
+        private final int[] seats;
+        private final int[] points;
+
+        private GameRecord(int[] seats, int[] points) {
+            this.seats = seats;
+            this.points = points;
+        }
+    }
+
+    /**
+     * This class represents the standings of a tournament: the games played, the win rate, mean points and Elo rating
+     * of each entrant, and the throughput at which the games were played.
+     */
+    public final class Standings {
+
+        private final int games;
+        private final int abortedGames;
+        private final double seconds;
+        private final int[] played;
+        private final double[] wins;
+        private final long[] points;
+        private final double[] elo;
+
+        private Standings(List<GameRecord> records, double seconds) {
+            this.games = records.size();
+            this.seconds = seconds;
+            this.played = new int[roster.size()];
+            this.wins = new double[roster.size()];
+            this.points = new long[roster.size()];
+            this.elo = new double[roster.size()];
+            Arrays.fill(elo, INITIAL_ELO);
+
+            // Games are rated in the order of their index, so that ratings are reproducible
+            int aborted = 0;
+            for (GameRecord record : records) {
+                if (record.points == null) {
+                    ++aborted;
+                    continue;
+                }
+                int maxPoints = Arrays.stream(record.points).max().orElseThrow();
+                long winnerCount = Arrays.stream(record.points).filter(p -> p == maxPoints).count();
+                for (int s = 0; s < record.seats.length; ++s) {
+                    int entrant = record.seats[s];
+                    played[entrant] += 1;
+                    points[entrant] += record.points[s];
+                    if (record.points[s] == maxPoints)
+                        wins[entrant] += 1.0 / winnerCount;
+                }
+                rate(record);
+            }
+            this.abortedGames = aborted;
+        }
+
+        /**
+         * Updates the ratings with every pair of players of the game, each pair counting as a duel
+         */
+        private void rate(GameRecord record) {
+            double[] delta = new double[record.seats.length];
+            for (int a = 0; a < record.seats.length; ++a)
+                for (int b = a + 1; b < record.seats.length; ++b) {
+                    double expectedA = 1 / (1 + Math.pow(10, (elo[record.seats[b]] - elo[record.seats[a]]) / 400));
+                    double scoreA = Integer.signum(record.points[a] - record.points[b]) * 0.5 + 0.5;
+                    delta[a] += ELO_K_FACTOR * (scoreA - expectedA);
+                    delta[b] -= ELO_K_FACTOR * (scoreA - expectedA);
+                }
+            for (int s = 0; s < record.seats.length; ++s)
+                elo[record.seats[s]] += delta[s];
+        }
+
+        /**
+         * Returns the number of games played, aborted ones included
+         *
+         * @return the number of games played
+         */
+        public int games() {
+            return games;
+        }
+
+        /**
+         * Returns the number of games aborted because they got stuck
+         *
+         * @return the number of games aborted
+         */
+        public int abortedGames() {
+            return abortedGames;
+        }
+
+        /**
+         * Returns the number of games played per second
+         *
+         * @return the number of games played per second
+         */
+        public double gamesPerSecond() {
+            return games / seconds;
+        }
+
+        /**
+         * Returns the share of the games played by the given entrant that it won, draws being split between the winners
+         *
+         * @param entrant the index of the entrant in the roster
+         * @return the win rate of the entrant, between 0 and 1
+         */
+        public double winRate(int entrant) {
+            return played[entrant] == 0 ? 0 : wins[entrant] / played[entrant];
+        }
+
+        /**
+         * Returns the mean final points of the given entrant
+         *
+         * @param entrant the index of the entrant in the roster
+         * @return the mean final points of the entrant
+         */
+        public double meanPoints(int entrant) {
+            return played[entrant] == 0 ? 0 : (double) points[entrant] / played[entrant];
+        }
+
+        /**
+         * Returns the Elo rating of the given entrant at the end of the tournament
+         *
+         * @param entrant the index of the entrant in the roster
+         * @return the Elo rating of the entrant
+         */
+        public double elo(int entrant) {
+            return elo[entrant];
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder(String.format(Locale.ROOT,
+                    "%d games (%d aborted) in %.2f s: %.1f games/s%n", games, abortedGames, seconds,
+                    gamesPerSecond()));
+            for (int e = 0; e < roster.size(); ++e)
+                report.append(String.format(Locale.ROOT,
+                        "%2d %-10s played %6d, win rate %5.1f%%, mean points %6.1f, Elo %6.0f%n", e, roster.get(e).name(), played[e], 100 * winRate(e), meanPoints(e), elo[e]));
+            return report.toString();
+        }
+    }
+
+    /**
+     * Plays a tournament on all available processors and prints its standings, followed by the throughput obtained
+     * for increasing numbers of threads.
+     *
+     * @param args the number of games, the seed and the strategies of the roster, all optional
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 2021;
+        List<Entrant> roster = new ArrayList<>();
+        for (String strategy : args.length > 2
+                ? Arrays.asList(args).subList(2, args.length)
+                : List.of("GREEDY", "RANDOM"))
+            roster.add(Entrant.of(AutomaticPlayer.Strategy.valueOf(strategy.toUpperCase(Locale.ROOT))));
+
+        Tournament tournament = new Tournament(roster, Math.min(roster.size(), PlayerId.COUNT));
+        int processors = Runtime.getRuntime().availableProcessors();
+        System.out.print(tournament.run(games, seed, processors));
+
+        // Warm-up, so that the first measure is not penalized by the compilation of the engine
+        tournament.run(Math.max(1, games / 10), seed, processors);
+
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < processors; threads *= 2)
+            threadCounts.add(threads);
+        threadCounts.add(processors);
+
+        System.out.println("threads  games/s  speedup");
+        double baseline = 0;
+        for (int threads : threadCounts) {
+            double gamesPerSecond = tournament.run(games, seed, threads).gamesPerSecond();
+            if (threads == 1)
+                baseline = gamesPerSecond;
+            System.out.printf(Locale.ROOT, "%7d %8.1f %8.2f%n", threads, gamesPerSecond, gamesPerSecond / baseline);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.TestRandomizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardBagTest {
+    @Test
+    void cardBagOfFailsWithInvalidCount() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            CardBag.of(-1, Card.BLUE);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            CardBag.of(CardBag.MAX_COUNT + 1, Card.LOCOMOTIVE);
+        });
+    }
+
+    @Test
+    void cardBagEmptyIsEmpty() {
+        assertTrue(CardBag.EMPTY.isEmpty());
+        assertEquals(0, CardBag.EMPTY.size());
+        assertEquals(SortedBag.of(), CardBag.EMPTY.toSortedBag());
+        for (var card : Card.ALL)
+            assertEquals(0, CardBag.EMPTY.countOf(card));
+    }
+
+    @Test
+    void cardBagCountsAreIndependent() {
+        var bag = CardBag.EMPTY;
+        for (var card : Card.ALL)
+            bag = bag.union(CardBag.of(CardBag.MAX_COUNT, card));
+        for (var card : Card.ALL)
+            assertEquals(CardBag.MAX_COUNT, bag.countOf(card));
+        assertEquals(CardBag.MAX_COUNT * Card.COUNT, bag.size());
+    }
+
+    @Test
+    void cardBagWithFailsOnOverflow() {
+        var bag = CardBag.of(CardBag.MAX_COUNT, Card.WHITE);
+        assertThrows(IllegalArgumentException.class, () -> {
+            bag.with(Card.WHITE);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            bag.union(CardBag.of(1, Card.WHITE));
+        });
+    }
+
+    @Test
+    void cardBagBehavesLikeSortedBag() {
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            var sortedBag1 = randomHand(rng);
+            var sortedBag2 = randomHand(rng);
+            var bag1 = CardBag.of(sortedBag1);
+            var bag2 = CardBag.of(sortedBag2);
+
+            assertEquals(sortedBag1, bag1.toSortedBag());
+            assertEquals(sortedBag1.size(), bag1.size());
+            assertEquals(sortedBag1.isEmpty(), bag1.isEmpty());
+            for (var card : Card.ALL)
+                assertEquals(sortedBag1.countOf(card), bag1.countOf(card));
+
+            assertEquals(sortedBag1.contains(sortedBag2), bag1.contains(bag2));
+            assertEquals(sortedBag2.contains(sortedBag1), bag2.contains(bag1));
+            assertEquals(sortedBag1.union(sortedBag2), bag1.union(bag2).toSortedBag());
+            assertEquals(sortedBag1.difference(sortedBag2), bag1.difference(bag2).toSortedBag());
+            assertEquals(sortedBag2.difference(sortedBag1), bag2.difference(bag1).toSortedBag());
+
+            var card = Card.ALL.get(rng.nextInt(Card.COUNT));
+            assertEquals(sortedBag1.union(SortedBag.of(card)), bag1.with(card).toSortedBag());
+        }
+    }
+
+    @Test
+    void cardBagContainsItsSubsets() {
+        var bag = CardBag.of(3, Card.RED, 2, Card.LOCOMOTIVE);
+        assertTrue(bag.contains(CardBag.EMPTY));
+        assertTrue(bag.contains(bag));
+        assertTrue(bag.contains(CardBag.of(2, Card.RED, 2, Card.LOCOMOTIVE)));
+        assertFalse(bag.contains(CardBag.of(3, Card.LOCOMOTIVE)));
+        assertFalse(bag.contains(CardBag.of(1, Card.BLUE)));
+        assertTrue(bag.contains(3, Card.RED));
+        assertFalse(bag.contains(4, Card.RED));
+    }
+
+    @Test
+    void cardBagEqualsAndHashCodeAreStructural() {
+        var bag1 = CardBag.of(2, Card.BLACK, 1, Card.VIOLET);
+        var bag2 = CardBag.of(SortedBag.of(1, Card.VIOLET, 2, Card.BLACK));
+        assertEquals(bag1, bag2);
+        assertEquals(bag1.hashCode(), bag2.hashCode());
+        assertNotEquals(bag1, bag1.with(Card.BLACK));
+        assertEquals(SortedBag.of(1, Card.VIOLET, 2, Card.BLACK).toString(), bag1.toString());
+    }
+
+    private static SortedBag<Card> randomHand(Random rng) {
+        var builder = new SortedBag.Builder<Card>();
+        for (var card : Card.ALL)
+            builder.add(rng.nextInt(Constants.LOCOMOTIVE_CARDS_COUNT + 1), card);
+        return builder.build();
+    }
+}
@@ -126,6 +126,72 @@ public final class CardStateTest {
         }
     }
 
+    @Test
+    void cardStateTransitionsDoNotModifyPreviousStates() {
+        var cardState1 = CardState.of(Deck.of(allCards(), new Random(2021)));
+        var topDeckCard = cardState1.topDeckCard();
+        var faceUpCards = cardState1.faceUpCards();
+        var deckSize = cardState1.deckSize();
+
+        var cardState2 = cardState1
+                .withDrawnFaceUpCard(0)
+                .withoutTopDeckCard()
+                .withMoreDiscardedCards(SortedBag.of(2, Card.BLUE));
+        var cardState3 = cardState2.withMoreDiscardedCards(SortedBag.of(Card.RED));
+
+        assertEquals(topDeckCard, cardState1.topDeckCard());
+        assertEquals(faceUpCards, cardState1.faceUpCards());
+        assertEquals(deckSize, cardState1.deckSize());
+        assertEquals(0, cardState1.discardsSize());
+        assertEquals(deckSize - 2, cardState2.deckSize());
+        assertEquals(2, cardState2.discardsSize());
+        assertEquals(3, cardState3.discardsSize());
+        assertEquals(topDeckCard, cardState2.faceUpCard(0));
+    }
+
+    @Test
+    void cardStateDiscardsOfSiblingStatesAreIndependent() {
+        var cardState = CardState.of(Deck.of(SortedBag.of(6, Card.RED), TestRandomizer.newRandom()))
+                .withoutTopDeckCard()
+                .withMoreDiscardedCards(SortedBag.of(Card.BLUE));
+        var sibling1 = cardState.withMoreDiscardedCards(SortedBag.of(2, Card.GREEN));
+        var sibling2 = cardState.withMoreDiscardedCards(SortedBag.of(3, Card.WHITE));
+        var child1 = sibling1.withMoreDiscardedCards(SortedBag.of(Card.BLACK));
+
+        assertEquals(SortedBag.of(1, Card.BLUE), discardsOf(cardState));
+        assertEquals(SortedBag.of(1, Card.BLUE, 2, Card.GREEN), discardsOf(sibling1));
+        assertEquals(SortedBag.of(1, Card.BLUE, 3, Card.WHITE), discardsOf(sibling2));
+        assertEquals(SortedBag.of(1, Card.BLUE, 2, Card.GREEN).union(SortedBag.of(Card.BLACK)), discardsOf(child1));
+    }
+
+    @Test
+    void cardStateWithDeckRecreatedFromDiscardsShufflesLikeCollections() {
+        var discards = SortedBag.of(4, Card.RED, 3, Card.LOCOMOTIVE).union(SortedBag.of(5, Card.ORANGE));
+        var cardState = CardState.of(Deck.of(SortedBag.of(5, Card.BLUE), TestRandomizer.newRandom()))
+                .withMoreDiscardedCards(discards);
+
+        var expectedDeck = new ArrayList<>(discards.toList());
+        Collections.shuffle(expectedDeck, new Random(2021));
+        var recreated = cardState.withDeckRecreatedFromDiscards(new Random(2021));
+        var actualDeck = new ArrayList<Card>();
+        while (!recreated.isDeckEmpty()) {
+            actualDeck.add(recreated.topDeckCard());
+            recreated = recreated.withoutTopDeckCard();
+        }
+        assertEquals(expectedDeck, actualDeck);
+        assertEquals(0, recreated.discardsSize());
+    }
+
+    private static SortedBag<Card> discardsOf(CardState cardState) {
+        var recreated = cardState.withDeckRecreatedFromDiscards(TestRandomizer.newRandom());
+        var discards = new SortedBag.Builder<Card>();
+        while (!recreated.isDeckEmpty()) {
+            discards.add(recreated.topDeckCard());
+            recreated = recreated.withoutTopDeckCard();
+        }
+        return discards.build();
+    }
+
     @Test
     void cardStateWithDeckRecreatedFromDiscardsFailsWhenDeckIsNotEmpty() {
         var deck = Deck.of(SortedBag.of(6, Card.RED), TestRandomizer.newRandom());
@@ -120,6 +120,32 @@ class DeckTest {
         assertEquals(cards, actualCardsBuilder.build());
     }
 
+    @Test
+    void deckDerivedDecksAreIndependent() {
+        var deck = Deck.of(SortedBag.of(listOfSize(50)), TestRandomizer.newRandom());
+        var cards = deckToList(deck);
+
+        var deck1 = deck.withoutTopCards(10);
+        var deck2 = deck1.withoutTopCard();
+        var deck3 = deck.withoutTopCards(30);
+
+        assertEquals(cards, deckToList(deck));
+        assertEquals(cards.subList(10, 50), deckToList(deck1));
+        assertEquals(cards.subList(11, 50), deckToList(deck2));
+        assertEquals(cards.subList(30, 50), deckToList(deck3));
+        assertEquals(SortedBag.of(cards.subList(11, 21)), deck2.topCards(10));
+        assertEquals(cards, deck.toList());
+    }
+
+    @Test
+    void deckTopCardsCountsDuplicates() {
+        var cards = SortedBag.of(3, "a", 4, "b");
+        var deck = Deck.of(cards, TestRandomizer.newRandom());
+        assertEquals(cards, deck.topCards(7));
+        assertEquals(SortedBag.of(deck.topCard()), deck.topCards(1));
+        assertEquals(SortedBag.of(), deck.topCards(0));
+    }
+
     private static <E extends Comparable<E>> List<E> deckToList(Deck<E> deck) {
         var list = new ArrayList<E>(deck.size());
         while (!deck.isEmpty()) {
@@ -135,4 +161,4 @@ class DeckTest {
         for (int i = 0; i < size; i++) list.add(i);
         return Collections.unmodifiableList(list);
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
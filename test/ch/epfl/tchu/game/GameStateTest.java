@@ -0,0 +1,96 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameStateTest {
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+
+    private static GameState playedState(long seed) {
+        var rng = new Random(seed);
+        var state = GameState.initial(TICKETS, rng, 2);
+        for (var playerId : PlayerId.ALL.subList(0, 2)) {
+            state = state.withInitiallyChosenTickets(playerId, state.topTickets(3)).withoutTopTickets(3);
+        }
+        for (var turn = 0; turn < 20; turn++) {
+            state = state.withCardsDeckRecreatedIfNeeded(rng).withBlindlyDrawnCard();
+            state = state.withCardsDeckRecreatedIfNeeded(rng).withDrawnFaceUpCard(turn % 5);
+            var player = state.currentPlayerState();
+            for (var route : ChMap.routes()) {
+                if (!state.claimedRoutes().contains(route) && player.canClaimRoute(route)) {
+                    state = state.withClaimedRoute(route, player.possibleClaimCards(route).get(0));
+                    break;
+                }
+            }
+            state = state.forNextTurn();
+        }
+        return state;
+    }
+
+    @Test
+    void gameStateDeterminizedKeepsWhatThePlayerKnows() {
+        for (var seed = 0; seed < 5; seed++) {
+            var state = playedState(seed);
+            var ownId = PlayerId.PLAYER_1;
+            var ownState = state.playerState(ownId);
+            var unseenTickets = TICKETS.difference(ownState.tickets());
+
+            var determinized = GameState.determinized(state, ownId, ownState, unseenTickets, new Random(seed));
+            assertEquals(state.cardState().faceUpCards(), determinized.cardState().faceUpCards());
+            assertEquals(state.cardState().deckSize(), determinized.cardState().deckSize());
+            assertEquals(state.cardState().discardsSize(), determinized.cardState().discardsSize());
+            assertEquals(state.ticketsCount(), determinized.ticketsCount());
+            assertEquals(state.currentPlayerId(), determinized.currentPlayerId());
+            assertEquals(state.lastPlayer(), determinized.lastPlayer());
+            assertSame(ownState, determinized.playerState(ownId));
+
+            var opponentState = state.playerState(PlayerId.PLAYER_2);
+            var determinizedOpponentState = determinized.playerState(PlayerId.PLAYER_2);
+            assertEquals(opponentState.cardCount(), determinizedOpponentState.cardCount());
+            assertEquals(opponentState.ticketCount(), determinizedOpponentState.ticketCount());
+            assertEquals(opponentState.routes(), determinizedOpponentState.routes());
+            assertTrue(unseenTickets.contains(determinizedOpponentState.tickets()));
+
+            var cards = new SortedBag.Builder<Card>()
+                    .add(SortedBag.of(determinized.cardState().faceUpCards()))
+                    .add(ownState.cards())
+                    .add(determinizedOpponentState.cards());
+            while (!determinized.cardState().isDeckEmpty()) {
+                cards.add(determinized.topCard());
+                determinized = determinized.withoutTopCard();
+            }
+            assertEquals(Constants.ALL_CARDS.size(), cards.size() + determinized.cardState().discardsSize());
+        }
+    }
+
+    @Test
+    void gameStateKeepsRouteOwnersAcrossTransitions() {
+        for (var seed = 0; seed < 5; seed++) {
+            var state = playedState(seed);
+            var determinized = GameState.determinized(state, PlayerId.PLAYER_1, state.playerState(PlayerId.PLAYER_1),
+                    TICKETS.difference(state.playerState(PlayerId.PLAYER_1).tickets()), new Random(seed));
+            for (var route : ChMap.routes()) {
+                PlayerId owner = null;
+                for (var playerId : state.getPlayerState().keySet())
+                    if (state.playerState(playerId).routes().contains(route))
+                        owner = playerId;
+                assertEquals(owner, state.routeOwner(route));
+                assertEquals(owner != null, state.isRouteClaimed(route));
+                assertEquals(owner, determinized.routeOwner(route));
+            }
+        }
+    }
+
+    @Test
+    void gameStateDeterminizedFailsWithTooFewUnseenTickets() {
+        var state = playedState(2021);
+        var ownState = state.playerState(PlayerId.PLAYER_1);
+        assertThrows(IllegalArgumentException.class, () -> {
+            GameState.determinized(state, PlayerId.PLAYER_1, ownState, SortedBag.of(), new Random(2021));
+        });
+    }
+}
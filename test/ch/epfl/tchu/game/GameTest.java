@@ -245,6 +245,47 @@ class GameTest {
         }
     }
 
+    @Test
+    void gamePlayWorksWithThreePlayers() {
+        var rng = new Random(2034);
+        var p1 = new TestPlayer(rng.nextLong(), ChMap.ALL_ROUTES);
+        var p2 = new TestPlayer(rng.nextLong(), ChMap.ALL_ROUTES);
+        var p3 = new TestPlayer(rng.nextLong(), ChMap.ALL_ROUTES);
+        var players = Map.of(
+                PlayerId.PLAYER_1, (Player) p1,
+                PlayerId.PLAYER_2, (Player) p2,
+                PlayerId.PLAYER_3, (Player) p3);
+        var playerNames = Map.of(
+                PlayerId.PLAYER_1, "Ada",
+                PlayerId.PLAYER_2, "Charles",
+                PlayerId.PLAYER_3, "Grace");
+        Game.play(players, playerNames, SortedBag.of(ChMap.ALL_TICKETS), rng);
+
+        for (var player : List.of(p1, p2, p3)) {
+            assertEquals(1, player.callSummary().get(PlayerMethod.INIT_PLAYERS));
+            assertEquals(playerNames, player.playerNames);
+            var outcomeInfo = player.allInfos.stream()
+                    .filter(i -> i.contains("remporte la victoire") || i.contains("sont ex æqo"))
+                    .collect(Collectors.toList());
+            assertEquals(1, outcomeInfo.size());
+            assertEquals(player.allInfos.getLast(), outcomeInfo.get(0));
+        }
+        assertEquals(List.copyOf(p1.allInfos), List.copyOf(p3.allInfos));
+    }
+
+    @Test
+    void gamePlayFailsWithMismatchedPlayerIds() {
+        var players = Map.of(
+                PlayerId.PLAYER_1, (Player) new TestPlayer(0, List.of()),
+                PlayerId.PLAYER_3, (Player) new TestPlayer(0, List.of()));
+        var playerNames = Map.of(
+                PlayerId.PLAYER_1, "Ada",
+                PlayerId.PLAYER_3, "Grace");
+        assertThrows(IllegalArgumentException.class, () -> {
+            Game.play(players, playerNames, SortedBag.of(), new Random(2021));
+        });
+    }
+
     private static List<TestPlayer> playRandomGame(long randomSeed) {
         var rng = new Random(randomSeed);
         var routes = ChMap.ALL_ROUTES;
@@ -0,0 +1,192 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MutableGameStateTest {
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+
+    private static GameState initialState(long seed, int playerCount) {
+        var state = GameState.initial(TICKETS, new Random(seed), playerCount);
+        for (var playerId : PlayerId.ALL.subList(0, playerCount))
+            state = state.withInitiallyChosenTickets(playerId, state.topTickets(3)).withoutTopTickets(5);
+        return state;
+    }
+
+    /**
+     * Returns a description of everything the given state holds, hidden cards and tickets included
+     */
+    private static String describe(GameState state) {
+        var description = new ArrayList<Object>(List.of(state.ticketDeck().toList(),
+                state.cardState().faceUpCards(), state.fullCardState().deckCards(),
+                state.fullCardState().discardedCards(), state.currentPlayerId(), String.valueOf(state.lastPlayer())));
+        for (var playerId : state.getPlayerState().keySet()) {
+            var playerState = state.playerState(playerId);
+            description.addAll(List.of(playerState.tickets(), playerState.cards(), playerState.routes()));
+        }
+        return description.toString();
+    }
+
+    /**
+     * Plays a random turn on both states, following the rules of Game.play, and returns the new immutable state
+     */
+    private static GameState playTurn(GameState state, MutableGameState mutableState, Random decisions,
+                                      Random rng, Random mutableRng) {
+        var player = state.currentPlayerState();
+        var claimableRoutes = new ArrayList<Route>();
+        for (var route : ChMap.routes())
+            if (!state.claimedRoutes().contains(route) && player.canClaimRoute(route))
+                claimableRoutes.add(route);
+        for (var route : ChMap.routes())
+            assertEquals(player.canClaimRoute(route), mutableState.canClaimRoute(route));
+
+        if (!claimableRoutes.isEmpty() && (decisions.nextInt(3) == 0 || !state.canDrawCards())) {
+            var route = claimableRoutes.get(decisions.nextInt(claimableRoutes.size()));
+            var possibleCards = player.possibleClaimCards(route);
+            assertEquals(possibleCards, mutableState.possibleClaimCards(route));
+            var cards = possibleCards.get(decisions.nextInt(possibleCards.size()));
+            if (route.level() == Route.Level.UNDERGROUND) {
+                var drawnCards = new SortedBag.Builder<Card>();
+                for (var i = 0; i < Constants.ADDITIONAL_TUNNEL_CARDS; i++) {
+                    state = state.withCardsDeckRecreatedIfNeeded(rng);
+                    mutableState.recreateDeckIfNeeded(mutableRng);
+                    drawnCards.add(state.topCard());
+                    assertEquals(state.topCard(), mutableState.topCard());
+                    state = state.withoutTopCard();
+                    mutableState.removeTopCard();
+                }
+                var additionalCount = route.additionalClaimCardsCount(cards, drawnCards.build());
+                if (additionalCount > 0) {
+                    var options = player.possibleAdditionalCards(additionalCount, cards, drawnCards.build());
+                    assertEquals(options, mutableState.possibleAdditionalCards(additionalCount, cards,
+                            drawnCards.build()));
+                    cards = options.isEmpty() ? null : cards.union(options.get(0));
+                }
+                if (cards != null) {
+                    state = state.withClaimedRoute(route, cards);
+                    mutableState.claimRoute(route, cards);
+                }
+                state = state.withMoreDiscardedCards(drawnCards.build());
+                mutableState.discard(drawnCards.build());
+            } else {
+                state = state.withClaimedRoute(route, cards);
+                mutableState.claimRoute(route, cards);
+            }
+        } else if (state.ticketsCount() >= Constants.IN_GAME_TICKETS_COUNT && decisions.nextInt(10) == 0) {
+            var drawnTickets = state.topTickets(Constants.IN_GAME_TICKETS_COUNT);
+            assertEquals(drawnTickets, mutableState.topTickets(Constants.IN_GAME_TICKETS_COUNT));
+            var chosenTickets = SortedBag.of(drawnTickets.get(decisions.nextInt(drawnTickets.size())));
+            state = state.withChosenAdditionalTickets(drawnTickets, chosenTickets);
+            mutableState.chooseAdditionalTickets(drawnTickets, chosenTickets);
+        } else {
+            for (var i = 0; i < 2; i++) {
+                assertEquals(state.canDrawCards(), mutableState.canDrawCards());
+                state = state.withCardsDeckRecreatedIfNeeded(rng);
+                mutableState.recreateDeckIfNeeded(mutableRng);
+                if (state.canDrawCards()) {
+                    var slot = decisions.nextInt(Constants.FACE_UP_CARDS_COUNT + 1) - 1;
+                    if (slot == Constants.DECK_SLOT) {
+                        state = state.withBlindlyDrawnCard();
+                        mutableState.drawBlindCard();
+                    } else {
+                        state = state.withDrawnFaceUpCard(slot);
+                        mutableState.drawFaceUpCard(slot);
+                    }
+                }
+            }
+        }
+
+        assertEquals(state.lastTurnBegins(), mutableState.lastTurnBegins());
+        state = state.forNextTurn();
+        mutableState.endTurn();
+        return state;
+    }
+
+    @Test
+    void mutableGameStateFollowsTheTransitionsOfGameState() {
+        for (var seed = 0; seed < 10; seed++) {
+            var playerCount = 2 + seed % 2;
+            var state = initialState(seed, playerCount);
+            var mutableState = MutableGameState.of(state);
+            var decisions = new Random(seed);
+            var rng = new Random(seed);
+            var mutableRng = new Random(seed);
+
+            for (var turn = 0; turn < 200 && !state.currentPlayerId().equals(state.lastPlayer()); turn++) {
+                state = playTurn(state, mutableState, decisions, rng, mutableRng);
+                assertEquals(describe(state), describe(mutableState.toGameState()));
+                for (var playerId : state.getPlayerState().keySet()) {
+                    assertEquals(state.playerState(playerId).carCount(), mutableState.carCount(playerId));
+                    assertEquals(state.playerState(playerId).claimPoints(), mutableState.claimPoints(playerId));
+                    assertEquals(state.playerState(playerId).cardCount(), mutableState.cardCount(playerId));
+                }
+                for (var route : ChMap.routes()) {
+                    PlayerId owner = null;
+                    for (var playerId : state.getPlayerState().keySet())
+                        if (state.playerState(playerId).routes().contains(route))
+                            owner = playerId;
+                    assertEquals(owner, mutableState.routeOwner(route));
+                }
+            }
+        }
+    }
+
+    @Test
+    void mutableGameStateUndoesTransitionsBackToTheMark() {
+        for (var seed = 0; seed < 10; seed++) {
+            var state = initialState(seed, 2);
+            var mutableState = MutableGameState.of(state);
+            var decisions = new Random(seed);
+            var rng = new Random(seed);
+            var mutableRng = new Random(seed);
+
+            var states = new ArrayList<String>();
+            var marks = new ArrayList<Integer>();
+            for (var turn = 0; turn < 150 && !state.currentPlayerId().equals(state.lastPlayer()); turn++) {
+                states.add(describe(state));
+                marks.add(mutableState.mark());
+                state = playTurn(state, mutableState, decisions, rng, mutableRng);
+            }
+            for (var i = marks.size() - 1; i >= 0; i--) {
+                mutableState.undo(marks.get(i));
+                assertEquals(states.get(i), describe(mutableState.toGameState()));
+            }
+            assertEquals(0, mutableState.mark());
+        }
+    }
+
+    @Test
+    void mutableGameStateConvertsToAndFromGameState() {
+        var state = initialState(2021, 3);
+        var mutableState = MutableGameState.of(state);
+        assertEquals(describe(state), describe(mutableState.toGameState()));
+        assertEquals(describe(state), describe(MutableGameState.of(mutableState.toGameState()).toGameState()));
+        assertEquals(3, mutableState.playerCount());
+        assertEquals(state.ticketsCount(), mutableState.ticketsCount());
+        assertEquals(state.cardState().deckSize(), mutableState.deckSize());
+        for (var slot : Constants.FACE_UP_CARD_SLOTS)
+            assertEquals(state.cardState().faceUpCard(slot), mutableState.faceUpCard(slot));
+    }
+
+    @Test
+    void mutableGameStateFailsWithInvalidTransitions() {
+        var mutableState = MutableGameState.of(initialState(2021, 2));
+        var route = ChMap.routes().get(0);
+        assertThrows(IllegalArgumentException.class, () -> {
+            mutableState.claimRoute(route, SortedBag.of(route.length() + 6, Card.LOCOMOTIVE));
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            mutableState.undo(1);
+        });
+        assertThrows(IndexOutOfBoundsException.class, () -> {
+            mutableState.drawFaceUpCard(Constants.FACE_UP_CARDS_COUNT);
+        });
+        assertEquals(0, mutableState.mark());
+    }
+}
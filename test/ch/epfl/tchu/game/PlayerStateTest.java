@@ -8,7 +8,9 @@ import org.junit.jupiter.api.Test;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class PlayerStateTest {
     private static final int INITIAL_CARD_COUNT = 4;
@@ -342,6 +344,19 @@ class PlayerStateTest {
         }
     }
 
+    @Test
+    void playerStatePossibleAdditionalCardsOnlyUsesCardsLeftAfterInitialCards() {
+        var playerState = new PlayerState(SortedBag.of(), SortedBag.of(List.of(
+                Card.YELLOW, Card.YELLOW, Card.YELLOW, Card.YELLOW, Card.WHITE, Card.LOCOMOTIVE)), List.of());
+        var initialCards = SortedBag.of(4, Card.YELLOW, 1, Card.LOCOMOTIVE);
+        var drawnCards = SortedBag.of(List.of(Card.YELLOW, Card.GREEN, Card.RED));
+        assertEquals(List.of(), playerState.possibleAdditionalCards(1, initialCards, drawnCards));
+
+        var richerPlayerState = playerState.withAddedCard(Card.LOCOMOTIVE);
+        assertEquals(List.of(SortedBag.of(Card.LOCOMOTIVE)),
+                richerPlayerState.possibleAdditionalCards(1, initialCards, drawnCards));
+    }
+
     @Test
     void playerStatePossibleAdditionalCardsWorksWithOnlyLocomotivesInitials() {
         var playerCards = sixOfEachCard();
@@ -480,6 +495,30 @@ class PlayerStateTest {
         assertEquals(6 - 5, s5.ticketPoints());
     }
 
+    @Test
+    void playerStateTicketPointsIsUpdatedByWithClaimedRoute() {
+        var chMap = new ChMap();
+
+        var routes = List.of(
+                chMap.FR2_GEN_1, chMap.GEN_LAU_1, chMap.LAU_MAR_1,
+                chMap.MAR_SIO_1, chMap.BRI_SIO_1, chMap.BRI_IT5_1, chMap.LAU_NEU_1,
+                chMap.FRI_LAU_1, chMap.BER_FRI_1, chMap.BER_LUC_1, chMap.LUC_ZOU_1,
+                chMap.ZOU_ZUR_1, chMap.STG_ZUR_1, chMap.DE5_STG_1, chMap.STG_VAD_1);
+        var tickets = SortedBag.of(1, chMap.GEN_ZUR, 1, chMap.INT_WIN);
+
+        var incremental = new PlayerState(tickets, SortedBag.of(), List.of());
+        for (var route : routes) {
+            incremental = incremental.withClaimedRoute(route, SortedBag.of());
+            var rebuilt = new PlayerState(tickets, SortedBag.of(), incremental.routes());
+            assertEquals(rebuilt.ticketPoints(), incremental.ticketPoints());
+            for (var ticket : tickets)
+                assertEquals(rebuilt.isTicketCompleted(ticket), incremental.isTicketCompleted(ticket));
+        }
+        assertEquals(14 - 7, incremental.ticketPoints());
+        assertTrue(incremental.isTicketCompleted(chMap.GEN_ZUR));
+        assertFalse(incremental.isTicketCompleted(chMap.INT_WIN));
+    }
+
     @Test
     void playerStateFinalPointsWorksOnKnownExample1() {
         var chMap = new ChMap();
@@ -189,6 +189,51 @@ class PublicGameStateTest {
         }
     }
 
+    @Test
+    void publicGameStateRouteOwnerReturnsOwnerOfRoute() {
+        var faceUpCards = SortedBag.of(5, Card.LOCOMOTIVE).toList();
+        var cardState = new PublicCardState(faceUpCards, 0, 0);
+        var mapRoutes = ch.epfl.tchu.game.ChMap.routes();
+        var routes = new ArrayList<>(mapRoutes);
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            Collections.shuffle(routes, rng);
+            var n1 = rng.nextInt(routes.size() / 2);
+            var n2 = rng.nextInt(routes.size() / 2);
+            var routes1 = List.copyOf(routes.subList(0, n1));
+            var routes2 = List.copyOf(routes.subList(n1, n1 + n2));
+
+            var playerState = Map.of(
+                    PLAYER_1, new PublicPlayerState(0, 0, routes1),
+                    PLAYER_2, new PublicPlayerState(0, 0, routes2));
+            var pgs = new PublicGameState(1, cardState, PLAYER_1, playerState, PLAYER_1);
+            for (var route : mapRoutes) {
+                var owner = routes1.contains(route) ? PLAYER_1 : routes2.contains(route) ? PLAYER_2 : null;
+                assertEquals(owner, pgs.routeOwner(route));
+                assertEquals(owner != null, pgs.isRouteClaimed(route));
+            }
+        }
+    }
+
+    @Test
+    void publicGameStateRouteOwnerWorksWithRoutesOutsideTheMap() {
+        var faceUpCards = SortedBag.of(5, Card.LOCOMOTIVE).toList();
+        var cardState = new PublicCardState(faceUpCards, 0, 0);
+        var routes = new ChMap().ALL_ROUTES;
+        var playerState = Map.of(
+                PLAYER_1, new PublicPlayerState(0, 0, List.of()),
+                PLAYER_2, new PublicPlayerState(0, 0, List.of(routes.get(0))));
+        var pgs = new PublicGameState(1, cardState, PLAYER_1, playerState, PLAYER_1);
+        assertEquals(PLAYER_2, pgs.routeOwner(routes.get(0)));
+        assertTrue(pgs.isRouteClaimed(routes.get(0)));
+        assertNull(pgs.routeOwner(routes.get(1)));
+        assertFalse(pgs.isRouteClaimed(routes.get(1)));
+        assertFalse(pgs.isRouteClaimed(ch.epfl.tchu.game.ChMap.routes().get(0)));
+        assertThrows(NullPointerException.class, () -> {
+            pgs.routeOwner(null);
+        });
+    }
+
     @Test
     void publicGameStateLastPlayerReturnsLastPlayer() {
         var faceUpCards = SortedBag.of(5, Card.LOCOMOTIVE).toList();
@@ -205,6 +250,24 @@ class PublicGameStateTest {
         assertNull(pgsN.lastPlayer());
     }
 
+    @Test
+    void publicGameStateIsImmutable() {
+        var faceUpCards = SortedBag.of(5, Card.LOCOMOTIVE).toList();
+        var cardState = new PublicCardState(faceUpCards, 0, 0);
+        var initialPlayerState = (PublicPlayerState) PlayerState.initial(SortedBag.of(4, Card.RED));
+        var playerState = new HashMap<PlayerId, PublicPlayerState>();
+        playerState.put(PLAYER_1, initialPlayerState);
+        playerState.put(PLAYER_2, initialPlayerState);
+        var pgs = new PublicGameState(1, cardState, PLAYER_1, playerState, null);
+
+        playerState.remove(PLAYER_2);
+        assertEquals(2, pgs.getPlayerState().size());
+        assertSame(initialPlayerState, pgs.playerState(PLAYER_2));
+        assertThrows(UnsupportedOperationException.class, () -> {
+            pgs.getPlayerState().remove(PLAYER_1);
+        });
+    }
+
     private static final class ChMap {
         //region Stations
         final Station BAD = new Station(0, "Baden");
@@ -368,4 +431,4 @@ class PublicGameStateTest {
                 WIN_ZUR_1, WIN_ZUR_2, ZOU_ZUR_1, ZOU_ZUR_2);
         //endregion
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
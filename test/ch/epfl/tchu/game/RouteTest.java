@@ -383,4 +383,34 @@ class RouteTest {
             assertEquals(expectedClaimPoints.get(l), r.claimPoints());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void routePossibleClaimCardsIsComputedOnceAndUnmodifiable() {
+        for (var route : ChMap.routes()) {
+            var claimCards = route.possibleClaimCards();
+            assertSame(claimCards, route.possibleClaimCards());
+            assertThrows(UnsupportedOperationException.class, () -> {
+                claimCards.clear();
+            });
+        }
+    }
+
+    @Test
+    void routeCanBeClaimedWithAgreesWithPossibleClaimCards() {
+        var rng = TestRandomizer.newRandom();
+        for (var i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            var handBuilder = new SortedBag.Builder<Card>();
+            for (var card : Card.ALL)
+                handBuilder.add(rng.nextInt(4), card);
+            var hand = handBuilder.build();
+            var handBag = CardBag.of(hand);
+
+            for (var route : ChMap.routes()) {
+                var payable = false;
+                for (var claimCards : route.possibleClaimCards())
+                    payable |= hand.contains(claimCards);
+                assertEquals(payable, route.canBeClaimedWith(handBag));
+            }
+        }
+    }
+}
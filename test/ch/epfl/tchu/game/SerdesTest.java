@@ -2,6 +2,9 @@ package ch.epfl.tchu.game;
 
 
 import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.net.BinaryReader;
+import ch.epfl.tchu.net.BinaryWriter;
+import ch.epfl.tchu.net.Serde;
 import ch.epfl.tchu.net.Serdes;
 import org.junit.jupiter.api.Test;
 
@@ -54,11 +57,43 @@ public class SerdesTest {
         assertEquals(ChMap.tickets().get(1), Serdes.ticketSerde.deserialize(Serdes.ticketSerde.serialize(ChMap.tickets().get(1))));
     }
 
+    @Test
+    public void serdeOneOfUsesListIndices(){
+        for (int i = 0; i < ChMap.routes().size(); i++) {
+            assertEquals(Integer.toString(i), Serdes.routeSerde.serialize(ChMap.routes().get(i)));
+            assertSame(ChMap.routes().get(i), Serdes.routeSerde.deserialize(Integer.toString(i)));
+        }
+        assertEquals("", Serdes.routeSerde.serialize(null));
+        assertNull(Serdes.routeSerde.deserialize(""));
+    }
+
+    @Test
+    public void serdeOneOfFailsWithInvalidIndex(){
+        assertThrows(NumberFormatException.class, () -> Serdes.cardSerde.deserialize("-1"));
+        assertThrows(NumberFormatException.class, () -> Serdes.cardSerde.deserialize("1a"));
+        assertThrows(NumberFormatException.class, () -> Serdes.cardSerde.deserialize("99999999999"));
+        assertThrows(IndexOutOfBoundsException.class, () -> Serdes.cardSerde.deserialize("9"));
+    }
+
+    @Test
+    public void serdeOneOfFailsWithValueNotInList(){
+        var serde = Serde.oneOf(List.of("a", "b"));
+        assertThrows(IllegalArgumentException.class, () -> serde.serialize("c"));
+        assertThrows(IllegalArgumentException.class, () -> serde.write(new BinaryWriter(), "c"));
+        assertEquals("", serde.serialize(null));
+    }
+
     @Test
     public void serdeListString(){
         assertEquals(List.of("p", "bite", "pute"), Serdes.listStringSerde.deserialize(Serdes.listStringSerde.serialize(List.of("p", "bite", "pute"))));
     }
 
+    @Test
+    public void serdeListStringKeepsEmptyElements(){
+        assertEquals(List.of("", "Ada", ""), Serdes.listStringSerde.deserialize(Serdes.listStringSerde.serialize(List.of("", "Ada", ""))));
+        assertEquals(List.of(), Serdes.listStringSerde.deserialize(""));
+    }
+
     @Test
     public void serdeListCard(){
         assertEquals(List.of(Card.ORANGE, Card.WHITE, Card.BLUE), Serdes.listCardSerde.deserialize(Serdes.listCardSerde.serialize(List.of(Card.ORANGE, Card.WHITE, Card.BLUE))));
@@ -151,4 +186,55 @@ public class SerdesTest {
         assertEquals(game.currentPlayerId(), gameN.currentPlayerId());
         assertEquals(game.lastPlayer(), gameN.lastPlayer());
     }
-}
\ No newline at end of file
+
+    private static <T> T binaryRoundTrip(Serde<T> serde, T value) {
+        var writer = new BinaryWriter();
+        serde.write(writer, value);
+        var reader = new BinaryReader(writer.toByteArray());
+        var read = serde.read(reader);
+        assertFalse(reader.hasRemaining());
+        return read;
+    }
+
+    @Test
+    public void serdeBinaryIntAndString(){
+        for (int i : new int[]{0, -1, 1, 63, -64, 64, 1 << 20, Integer.MAX_VALUE, Integer.MIN_VALUE})
+            assertEquals(i, binaryRoundTrip(Serdes.intSerde, i));
+        assertEquals("Charlès 🚂", binaryRoundTrip(Serdes.stringSerde, "Charlès 🚂"));
+    }
+
+    @Test
+    public void serdeBinaryEnumsAndLists(){
+        assertNull(binaryRoundTrip(Serdes.playerIdSerde, null));
+        assertEquals(PlayerId.PLAYER_3, binaryRoundTrip(Serdes.playerIdSerde, PlayerId.PLAYER_3));
+        var routes = List.of(ChMap.routes().get(5), ChMap.routes().get(2));
+        assertEquals(routes, binaryRoundTrip(Serdes.listRouteSerde, routes));
+        var options = List.of(SortedBag.of(2, Card.RED), SortedBag.of(1, Card.RED, 1, Card.LOCOMOTIVE));
+        assertEquals(options, binaryRoundTrip(Serdes.listSortedBagCardSerde, options));
+        var names = Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles", PlayerId.PLAYER_3, "Grace");
+        assertEquals(names, binaryRoundTrip(Serdes.mapPlayerIdStringSerde, names));
+    }
+
+    @Test
+    public void serdeBinaryGameStates(){
+        var routes = List.of(ChMap.routes().get(0), ChMap.routes().get(12), ChMap.routes().get(86));
+        var ownState = new PlayerState(SortedBag.of(1, ChMap.tickets().get(3), 1, ChMap.tickets().get(40)),
+                SortedBag.of(3, Card.RED, 2, Card.LOCOMOTIVE), routes);
+        var readOwnState = binaryRoundTrip(Serdes.playerStateSerde, ownState);
+        assertEquals(ownState.tickets(), readOwnState.tickets());
+        assertEquals(ownState.cards(), readOwnState.cards());
+        assertEquals(routes, readOwnState.routes());
+
+        var cardState = new PublicCardState(List.of(Card.RED, Card.WHITE, Card.BLUE, Card.BLACK, Card.LOCOMOTIVE), 30, 31);
+        var playerStates = new EnumMap<PlayerId, PublicPlayerState>(PlayerId.class);
+        playerStates.put(PlayerId.PLAYER_1, new PublicPlayerState(2, 5, routes));
+        playerStates.put(PlayerId.PLAYER_2, new PublicPlayerState(3, 1, List.of()));
+        var gameState = new PublicGameState(36, cardState, PlayerId.PLAYER_2, playerStates, null);
+        var readGameState = binaryRoundTrip(Serdes.publicGameStateSerde, gameState);
+        assertEquals(Serdes.publicGameStateSerde.serialize(gameState), Serdes.publicGameStateSerde.serialize(readGameState));
+
+        var writer = new BinaryWriter();
+        Serdes.publicGameStateSerde.write(writer, gameState);
+        assertTrue(3 * writer.size() < 2 * Serdes.publicGameStateSerde.serialize(gameState).length());
+    }
+}
\ No newline at end of file
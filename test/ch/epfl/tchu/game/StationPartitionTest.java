@@ -154,6 +154,90 @@ class StationPartitionTest {
         }
     }
 
+    @Test
+    void stationPartitionBuilderCanBeReusedAfterBuild() {
+        var stations = reducedChStations();
+        var builder = new StationPartition.Builder(stations.size())
+                .connect(stations.get(0), stations.get(1));
+        var partition1 = builder.build();
+        var partition2 = builder
+                .connect(stations.get(1), stations.get(2))
+                .build();
+
+        assertTrue(partition1.connected(stations.get(0), stations.get(1)));
+        assertFalse(partition1.connected(stations.get(0), stations.get(2)));
+        assertTrue(partition2.connected(stations.get(0), stations.get(2)));
+    }
+
+    @Test
+    void stationPartitionBuilderResetDisconnectsEverything() {
+        var stations = reducedChStations();
+        var builder = new StationPartition.Builder(stations.size());
+        for (var i = 1; i < stations.size(); i++)
+            builder.connect(stations.get(i - 1), stations.get(i));
+        var partition = builder.reset().build();
+
+        for (var s1 : stations) {
+            for (var s2 : stations)
+                assertEquals(s1.equals(s2), partition.connected(s1, s2));
+        }
+    }
+
+    @Test
+    void stationPartitionWorksOnRandomConnections() {
+        var stations = new ChMap().ALL_STATIONS;
+        var rng = TestRandomizer.newRandom();
+        var builder = new StationPartition.Builder(stations.size());
+        for (var i = 0; i < 100; i++) {
+            var subset = new int[stations.size()];
+            for (var j = 0; j < subset.length; j++)
+                subset[j] = j;
+
+            builder.reset();
+            for (var j = 0; j < 30; j++) {
+                var s1 = stations.get(rng.nextInt(stations.size()));
+                var s2 = stations.get(rng.nextInt(stations.size()));
+                builder.connect(s1, s2);
+                var oldSubset = subset[s2.id()];
+                for (var k = 0; k < subset.length; k++) {
+                    if (subset[k] == oldSubset)
+                        subset[k] = subset[s1.id()];
+                }
+            }
+
+            var partition = builder.build();
+            for (var s1 : stations) {
+                for (var s2 : stations)
+                    assertEquals(subset[s1.id()] == subset[s2.id()], partition.connected(s1, s2));
+            }
+        }
+    }
+
+    @Test
+    void stationPartitionWithConnectedDoesNotModifyReceiver() {
+        var stations = reducedChStations();
+        var partition1 = new StationPartition.Builder(stations.size())
+                .connect(stations.get(0), stations.get(1))
+                .build();
+        var partition2 = partition1.withConnected(stations.get(1), stations.get(2));
+
+        assertFalse(partition1.connected(stations.get(0), stations.get(2)));
+        assertTrue(partition2.connected(stations.get(0), stations.get(2)));
+        assertSame(partition2, partition2.withConnected(stations.get(2), stations.get(0)));
+    }
+
+    @Test
+    void stationPartitionWithConnectedAddsUnknownStations() {
+        var stations = reducedChStations();
+        var unknown = new Station(stations.size() + 10, "Unknown");
+        var partition = new StationPartition.Builder(stations.size())
+                .build()
+                .withConnected(stations.get(3), unknown);
+
+        assertTrue(partition.connected(unknown, stations.get(3)));
+        assertFalse(partition.connected(unknown, stations.get(4)));
+    }
+
     private static List<Station> reducedChStations() {
         return List.of(
                 new Station(0, "Berne"),
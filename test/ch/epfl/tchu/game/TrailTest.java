@@ -1,8 +1,16 @@
 package ch.epfl.tchu.game;
 
+import ch.epfl.tchu.TestRandomizer;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -335,6 +343,78 @@ class TrailTest {
         assertEquals(28, longestG.length());
     }
 
+    @Test
+    void trailLongestWorksOnWholeMap() {
+        var longest = assertTimeout(Duration.ofSeconds(1), () -> Trail.longest(ChMap.routes()));
+        assertEquals(159, longest.length());
+        assertEquals(159, lengthOf(longest, ChMap.routes()));
+    }
+
+    @Test
+    void trailLongestWorksOnRandomNetworks() {
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            var routes = new ArrayList<>(ChMap.routes());
+            Collections.shuffle(routes, rng);
+            var network = routes.subList(0, 1 + rng.nextInt(12));
+
+            var longest = Trail.longest(network);
+            var expectedLength = 0;
+            for (var station : ChMap.stations())
+                expectedLength = Math.max(expectedLength, longestFrom(station, network, new HashSet<>()));
+            assertEquals(expectedLength, longest.length());
+            assertEquals(expectedLength, lengthOf(longest, network));
+        }
+    }
+
+    @Test
+    void trailLongestWorksOnLargerRandomNetworks() {
+        var rng = new Random(2021);
+        for (int i = 0; i < 200; i++) {
+            var routes = new ArrayList<>(ChMap.routes());
+            Collections.shuffle(routes, rng);
+            var network = routes.subList(0, 15 + rng.nextInt(6));
+
+            var longest = Trail.longest(network);
+            var expectedLength = 0;
+            for (var station : ChMap.stations())
+                expectedLength = Math.max(expectedLength, longestFrom(station, network, new HashSet<>()));
+            assertEquals(expectedLength, longest.length());
+            assertEquals(expectedLength, lengthOf(longest, network));
+        }
+    }
+
+    private static int longestFrom(Station station, List<Route> routes, Set<Route> usedRoutes) {
+        var longest = 0;
+        for (var route : routes)
+            if (!usedRoutes.contains(route) && route.stations().contains(station)) {
+                usedRoutes.add(route);
+                longest = Math.max(longest,
+                        route.length() + longestFrom(route.stationOpposite(station), routes, usedRoutes));
+                usedRoutes.remove(route);
+            }
+        return longest;
+    }
+
+    // Total length of the trail, checking that it is made of distinct consecutive routes of the given list
+    private static int lengthOf(Trail trail, List<Route> routes) {
+        var stations = trail.getStations();
+        var unusedRoutes = new ArrayList<>(routes);
+        var length = 0;
+        for (int i = 0; i < stations.size(); i += 2) {
+            if (i > 0)
+                assertEquals(stations.get(i - 1), stations.get(i));
+            var ends = Set.of(stations.get(i), stations.get(i + 1));
+            var route = unusedRoutes.stream()
+                    .filter(r -> Set.copyOf(r.stations()).equals(ends))
+                    .max(Comparator.comparingInt(Route::length))
+                    .orElseThrow();
+            unusedRoutes.remove(route);
+            length += route.length();
+        }
+        return length;
+    }
+
     private static final class ChRoutes {
         // Stations
         final Station BAD = new Station(0, "Baden");
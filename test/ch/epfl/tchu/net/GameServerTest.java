@@ -0,0 +1,137 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.sim.AutomaticPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+
+import static ch.epfl.tchu.sim.AutomaticPlayer.Strategy.GREEDY;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameServerTest {
+    @Test
+    void gameServerConstructorFailsWithInvalidPlayersPerTable() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new GameServer(0, 1);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            new GameServer(0, 4);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            new GameServer(0, 2, -1, Executors.newCachedThreadPool());
+        });
+    }
+
+    @Test
+    void gameServerPlaysSeveralTablesAtOnce() throws Exception {
+        for (var playersPerTable = 2; playersPerTable <= 3; playersPerTable++) {
+            try (var server = new GameServer(0, playersPerTable)) {
+                server.start();
+                var clients = new ArrayList<Thread>();
+                for (var i = 0; i < 3 * playersPerTable; i++) {
+                    var player = new AutomaticPlayer(GREEDY, i);
+                    var client = new Thread(() -> new RemotePlayerClient(player, "localhost", server.port()).run());
+                    client.start();
+                    clients.add(client);
+                }
+                for (var client : clients) {
+                    client.join(30_000);
+                    assertFalse(client.isAlive());
+                }
+                assertEquals(3, server.startedTables());
+                assertEquals(3, server.finishedTables() + server.abortedTables());
+            }
+        }
+    }
+
+    @Test
+    void gameServerAbortsTablesOfClientsThatDoNotAnswer() throws Exception {
+        try (var server = new GameServer(0, 2, 200, Executors.newCachedThreadPool())) {
+            server.start();
+            try (var silentClient = new Socket("localhost", server.port())) {
+                var client = new Thread(() ->
+                        new RemotePlayerClient(new AutomaticPlayer(GREEDY, 0), "localhost", server.port()).run());
+                client.start();
+                client.join(10_000);
+                assertFalse(client.isAlive());
+                assertEquals(1, server.abortedTables());
+                assertEquals(0, server.finishedTables());
+
+                // The aborted table closes the connection of the silent client too
+                silentClient.setSoTimeout(10_000);
+                var in = silentClient.getInputStream();
+                in.readAllBytes();
+                assertEquals(-1, in.read());
+            }
+        }
+    }
+
+    @Test
+    void gameServerAbortsTablesOfClientsThatSendInvalidReplies() throws Exception {
+        try (var server = new GameServer(0, 2)) {
+            server.start();
+            try (var socket = new Socket("localhost", server.port())) {
+                var channel = MessageChannel.text(socket);
+                assertEquals(MessageId.PROTOCOL, channel.receiveMessage());
+                channel = channel.answerOffer(channel.read(Serdes.wireFormatSerde), WireFormat.BINARY);
+                assertEquals(WireFormat.BINARY, channel.format());
+                // Not a bag of tickets: ticket 1000 doesn't exist
+                channel.beginReply();
+                channel.write(Serdes.intSerde, 1000);
+                channel.write(Serdes.intSerde, 1000);
+                channel.send();
+
+                var client = new Thread(() ->
+                        new RemotePlayerClient(new AutomaticPlayer(GREEDY, 0), "localhost", server.port()).run());
+                client.start();
+                client.join(10_000);
+                assertFalse(client.isAlive());
+                assertEquals(1, server.abortedTables());
+                assertEquals(0, server.finishedTables());
+            }
+        }
+    }
+
+    @Test
+    void gameServerReplacesClientsThatLeaveWhileWaitingForTheirTable() throws Exception {
+        try (var server = new GameServer(0, 2)) {
+            server.start();
+            try (var socket = new Socket("localhost", server.port())) {
+                var channel = MessageChannel.text(socket);
+                assertEquals(MessageId.PROTOCOL, channel.receiveMessage());
+                channel = channel.answerOffer(channel.read(Serdes.wireFormatSerde), WireFormat.BINARY);
+                assertEquals(WireFormat.BINARY, channel.format());
+            }
+
+            var clients = new ArrayList<Thread>();
+            for (var i = 0; i < 2; i++) {
+                var player = new AutomaticPlayer(GREEDY, i);
+                var client = new Thread(() -> new RemotePlayerClient(player, "localhost", server.port()).run());
+                client.start();
+                clients.add(client);
+            }
+            for (var client : clients) {
+                client.join(30_000);
+                assertFalse(client.isAlive());
+            }
+            assertEquals(1, server.startedTables());
+            assertEquals(1, server.finishedTables() + server.abortedTables());
+        }
+    }
+
+    @Test
+    void gameServerDisconnectsWaitingClientsWhenClosed() throws Exception {
+        Thread client;
+        try (var server = new GameServer(0, 3)) {
+            server.start();
+            client = new Thread(() ->
+                    new RemotePlayerClient(new AutomaticPlayer(GREEDY, 0), "localhost", server.port()).run());
+            client.start();
+            Thread.sleep(200);
+        }
+        client.join(5_000);
+        assertFalse(client.isAlive());
+    }
+}
@@ -0,0 +1,97 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.game.PlayerId;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageChannelTest {
+    private static MessageChannel textChannelReading(String text) {
+        return MessageChannel.text(new ByteArrayInputStream(text.getBytes(US_ASCII)), new ByteArrayOutputStream());
+    }
+
+    @Test
+    void textChannelReceivesMessagesAndTheirArguments() {
+        var channel = textChannelReading("INIT_PLAYERS 1 QWRh,Q2hhcmxlcw==\nRECEIVE_INFO \nNEXT_TURN\n");
+        assertEquals(MessageId.INIT_PLAYERS, channel.receiveMessage());
+        assertEquals(PlayerId.PLAYER_2, channel.read(Serdes.playerIdSerde));
+        assertEquals(List.of("Ada", "Charles"), channel.read(Serdes.listStringSerde));
+        assertEquals(MessageId.RECEIVE_INFO, channel.receiveMessage());
+        assertEquals("", channel.read(Serdes.stringSerde));
+        assertEquals(MessageId.NEXT_TURN, channel.receiveMessage());
+        assertNull(channel.receiveMessage());
+    }
+
+    @Test
+    void textChannelSkipsUnknownMessagesAndReadsLastLineWithoutNewline() {
+        var channel = textChannelReading("NEXT\nNEXT_TURNS 1\nDRAW_SLOT");
+        assertEquals(MessageId.DRAW_SLOT, channel.receiveMessage());
+        assertNull(channel.receiveMessage());
+    }
+
+    @Test
+    void textChannelReceivesLongLines() {
+        var info = "x".repeat(3_000);
+        var channel = textChannelReading("RECEIVE_INFO " + Serdes.stringSerde.serialize(info) + "\nNEXT_TURN\n");
+        assertEquals(MessageId.RECEIVE_INFO, channel.receiveMessage());
+        assertEquals(info, channel.read(Serdes.stringSerde));
+        assertEquals(MessageId.NEXT_TURN, channel.receiveMessage());
+    }
+
+    @Test
+    void textChannelRejectsLinesTooLong() {
+        var channel = textChannelReading("RECEIVE_INFO " + "x".repeat(10_000) + "\nNEXT_TURN\n");
+        var e = assertThrows(UncheckedIOException.class, channel::receiveMessage);
+        assertEquals("line too long", e.getCause().getMessage());
+    }
+
+    @Test
+    void textChannelSkipsProtocolAnswersWhileWaitingForReply() {
+        var channel = textChannelReading("PROTOCOL 1\n42\n");
+        channel.receiveReply();
+        assertEquals(42, channel.read(Serdes.intSerde));
+    }
+
+    @Test
+    void textChannelDoesNotConsumeBytesPastTheLineBeforeSwitchingFormat() {
+        var out = new ByteArrayOutputStream();
+        var writer = MessageChannel.text(new ByteArrayInputStream(new byte[0]), out);
+        writer.beginMessage(MessageId.PROTOCOL);
+        writer.write(Serdes.wireFormatSerde, WireFormat.BINARY);
+        writer.send();
+        writer = writer.switchTo(WireFormat.BINARY);
+        writer.beginMessage(MessageId.DRAW_SLOT);
+        writer.write(Serdes.intSerde, 3);
+        writer.send();
+
+        var reader = MessageChannel.text(new ByteArrayInputStream(out.toByteArray()), new ByteArrayOutputStream());
+        assertEquals(MessageId.PROTOCOL, reader.receiveMessage());
+        assertEquals(WireFormat.BINARY, reader.read(Serdes.wireFormatSerde));
+        reader = reader.switchTo(WireFormat.BINARY);
+        assertEquals(MessageId.DRAW_SLOT, reader.receiveMessage());
+        assertEquals(3, reader.read(Serdes.intSerde));
+        assertNull(reader.receiveMessage());
+    }
+
+    @Test
+    void textChannelIsNotABinaryChannel() {
+        var channel = textChannelReading("");
+        assertThrows(IllegalStateException.class, channel::binary);
+        assertNotNull(channel.switchTo(WireFormat.BINARY).binary().writer());
+    }
+
+    @Test
+    void binaryChannelRejectsFramesTooLong() {
+        var header = new BinaryWriter().writeVarInt(Integer.MAX_VALUE).toByteArray();
+        var channel = MessageChannel.text(new ByteArrayInputStream(header), new ByteArrayOutputStream())
+                .switchTo(WireFormat.BINARY);
+        var e = assertThrows(UncheckedIOException.class, channel::receiveMessage);
+        assertEquals("frame too long", e.getCause().getMessage());
+    }
+}
@@ -0,0 +1,86 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Game;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.sim.AutomaticPlayer;
+import ch.epfl.tchu.sim.Simulation;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static ch.epfl.tchu.sim.AutomaticPlayer.Strategy.GREEDY;
+import static ch.epfl.tchu.sim.AutomaticPlayer.Strategy.RANDOM;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RemotePlayerProxyTest {
+    private static final long SEED = 2021;
+
+    @Test
+    void remotePlayerProxyNegotiatesBinaryFormat() throws Exception {
+        assertEquals(WireFormat.BINARY, playRemoteGame(WireFormat.BINARY, WireFormat.BINARY));
+    }
+
+    @Test
+    void remotePlayerProxyFallsBackToTextFormat() throws Exception {
+        assertEquals(WireFormat.TEXT, playRemoteGame(WireFormat.BINARY, WireFormat.TEXT));
+        assertEquals(WireFormat.TEXT, playRemoteGame(WireFormat.TEXT, WireFormat.BINARY));
+    }
+
+    /**
+     * Plays through a proxy the game that Simulation.playGame plays locally, checks that it ends the same way and that
+     * the distant player received every info, and returns the format that was negotiated
+     */
+    private static WireFormat playRemoteGame(WireFormat serverFormat, WireFormat clientFormat) throws Exception {
+        var expectedPoints = Simulation.playGame(List.of(GREEDY, RANDOM), SEED).points();
+
+        var rng = new Random(SEED);
+        var remoteInfos = new ArrayList<String>();
+        var localInfos = new ArrayList<String>();
+        var remotePlayer = recordingInfos(new AutomaticPlayer(GREEDY, rng.nextLong()), remoteInfos);
+        var localPlayer = recordingInfos(new AutomaticPlayer(RANDOM, rng.nextLong()), localInfos);
+        try (var serverSocket = new ServerSocket(0)) {
+            var client = new Thread(() ->
+                    new RemotePlayerClient(remotePlayer, "localhost", serverSocket.getLocalPort(), clientFormat).run());
+            client.start();
+            try (Socket socket = serverSocket.accept()) {
+                var proxy = new RemotePlayerProxy(socket, serverFormat);
+                var points = Game.play(
+                        Map.of(PlayerId.PLAYER_1, (Player) proxy, PlayerId.PLAYER_2, localPlayer),
+                        Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles"),
+                        SortedBag.of(ChMap.tickets()), rng);
+                proxy.flush();
+                assertEquals(expectedPoints, points);
+                return proxy.wireFormat();
+            } finally {
+                client.join(5_000);
+                assertEquals(localInfos, remoteInfos);
+            }
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static Player recordingInfos(Player player, List<String> infos) {
+        return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("receiveInfo"))
+                        infos.add((String) args[0]);
+                    try {
+                        return method.invoke(player, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,96 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Game;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.sim.AutomaticPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static ch.epfl.tchu.sim.AutomaticPlayer.Strategy.GREEDY;
+import static ch.epfl.tchu.sim.AutomaticPlayer.Strategy.RANDOM;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StateDeltaCodecTest {
+    @Test
+    void stateDeltaCodecRebuildsEveryStateOfAGame() {
+        var updates = recordUpdates(2021);
+        var encoder = new StateDeltaCodec();
+        var decoder = new StateDeltaCodec();
+        encoder.setBase(updates.get(0));
+        decoder.setBase(updates.get(0));
+
+        var deltaBytes = 0;
+        var fullBytes = 0;
+        var writer = new BinaryWriter();
+        for (var update : updates.subList(1, updates.size())) {
+            assertTrue(encoder.isApplicable(update));
+            writer.reset();
+            encoder.write(writer, update);
+            deltaBytes += writer.size();
+
+            var reader = new BinaryReader(writer.toByteArray());
+            var read = decoder.read(reader);
+            assertFalse(reader.hasRemaining());
+            assertEquals(Serdes.publicGameStateSerde.serialize(update.gameState()),
+                    Serdes.publicGameStateSerde.serialize(read.gameState()));
+            assertEquals(Serdes.playerStateSerde.serialize(update.ownState()),
+                    Serdes.playerStateSerde.serialize(read.ownState()));
+
+            writer.reset();
+            Serdes.publicGameStateSerde.write(writer, update.gameState());
+            Serdes.playerStateSerde.write(writer, update.ownState());
+            fullBytes += writer.size();
+        }
+        assertTrue(3 * deltaBytes < fullBytes);
+    }
+
+    @Test
+    void stateDeltaCodecIsNotApplicableWhenRoutesOrTicketsAreRemoved() {
+        var updates = recordUpdates(2021);
+        var last = updates.get(updates.size() - 1);
+        var codec = new StateDeltaCodec();
+        assertFalse(codec.isApplicable(last));
+
+        codec.setBase(last);
+        assertTrue(codec.isApplicable(last));
+        assertFalse(codec.isApplicable(updates.get(0)));
+
+        var ownState = last.ownState();
+        var fewerTickets = new PlayerState(SortedBag.of(), ownState.cards(), ownState.routes());
+        assertFalse(codec.isApplicable(new StateDeltaCodec.Update(last.gameState(), fewerTickets)));
+    }
+
+    /**
+     * Plays a game and returns the states sent to its first player
+     */
+    private static List<StateDeltaCodec.Update> recordUpdates(long seed) {
+        var rng = new Random(seed);
+        var updates = new ArrayList<StateDeltaCodec.Update>();
+        var player = new AutomaticPlayer(GREEDY, rng.nextLong());
+        var recorded = (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("updateState"))
+                        updates.add(new StateDeltaCodec.Update((PublicGameState) args[0], (PlayerState) args[1]));
+                    try {
+                        return method.invoke(player, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        Game.play(Map.of(PlayerId.PLAYER_1, recorded, PlayerId.PLAYER_2, (Player) new AutomaticPlayer(RANDOM, rng.nextLong())),
+                Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles"),
+                SortedBag.of(ChMap.tickets()), rng);
+        return updates;
+    }
+}
@@ -0,0 +1,161 @@
+package ch.epfl.tchu.record;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Game;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.net.MessageId;
+import ch.epfl.tchu.net.Serdes;
+import ch.epfl.tchu.sim.AutomaticPlayer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import static ch.epfl.tchu.sim.AutomaticPlayer.Strategy.GREEDY;
+import static ch.epfl.tchu.sim.AutomaticPlayer.Strategy.RANDOM;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameLogTest {
+    private static final Map<PlayerId, String> NAMES = Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles");
+
+    @TempDir
+    Path directory;
+
+    private static Map<PlayerId, Player> players(long seed) {
+        return Map.of(PlayerId.PLAYER_1, new AutomaticPlayer(GREEDY, seed),
+                PlayerId.PLAYER_2, new AutomaticPlayer(RANDOM, seed + 1));
+    }
+
+    @Test
+    void gameLogRecordsTheSeedAndTheDecisionsOfAGame() throws IOException {
+        var path = directory.resolve("game.tchu");
+        var points = GameLog.play(path, players(1), NAMES, 2021);
+        assertEquals(Game.play(players(1), NAMES, SortedBag.of(ChMap.tickets()), new Random(2021)), points);
+
+        var record = GameLog.read(path);
+        assertEquals(2021, record.seed());
+        assertEquals(NAMES, record.playerNames());
+        assertTrue(record.decisions().size() > 2);
+        for (var decision : record.decisions().subList(0, 2))
+            assertEquals(MessageId.CHOOSE_INITIAL_TICKETS, decision.kind());
+        assertEquals(MessageId.NEXT_TURN, record.decisions().get(2).kind());
+    }
+
+    @Test
+    void gameLogResumesAGameInTheStateInWhichItCrashed() throws IOException {
+        var path = directory.resolve("game.tchu");
+        var states = new ArrayList<String>();
+        var crashing = recording(new AutomaticPlayer(GREEDY, 1), states, 20);
+        assertThrows(IllegalStateException.class, () -> {
+            GameLog.play(path, Map.of(PlayerId.PLAYER_1, crashing,
+                    PlayerId.PLAYER_2, new AutomaticPlayer(RANDOM, 2)), NAMES, 2021);
+        });
+        var decisionsBeforeCrash = GameLog.read(path).decisions().size();
+
+        var resumedStates = new ArrayList<String>();
+        var resumed = recording(new AutomaticPlayer(GREEDY, 3), resumedStates, Integer.MAX_VALUE);
+        var points = GameLog.resume(path, Map.of(PlayerId.PLAYER_1, resumed,
+                PlayerId.PLAYER_2, new AutomaticPlayer(RANDOM, 4)));
+        assertEquals(NAMES.keySet(), points.keySet());
+        // The resumed player catches up with the game once its logged decisions are replayed, from the same states
+        var caughtUp = states.indexOf(resumedStates.get(0));
+        assertTrue(caughtUp > 0);
+        assertEquals(states.subList(caughtUp, states.size()),
+                resumedStates.subList(0, states.size() - caughtUp));
+
+        var record = GameLog.read(path);
+        assertTrue(record.decisions().size() > decisionsBeforeCrash);
+        assertEquals(points, GameLog.resume(path, players(5)));
+    }
+
+    @Test
+    void gameLogIgnoresAPartiallyWrittenFrame() throws IOException {
+        var path = directory.resolve("game.tchu");
+        var points = GameLog.play(path, players(1), NAMES, 2021);
+        var length = Files.size(path);
+        var decisions = GameLog.read(path).decisions().size();
+
+        Files.write(path, new byte[]{42, 1, 2, 3}, StandardOpenOption.APPEND);
+        assertEquals(decisions, GameLog.read(path).decisions().size());
+        assertEquals(points, GameLog.resume(path, players(2)));
+        assertEquals(length, Files.size(path));
+    }
+
+    @Test
+    void gameLogFailsWithInvalidFile() throws IOException {
+        var path = directory.resolve("game.tchu");
+        Files.write(path, new byte[]{'t', 'C', 'h'});
+        assertThrows(IllegalArgumentException.class, () -> {
+            GameLog.read(path);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            GameLog.create(path, 2021, NAMES, 0);
+        });
+    }
+
+    @Test
+    void gameLogWritesFixedDecisionCodesAndRejectsUnknownOnes() throws IOException {
+        var path = directory.resolve("game.tchu");
+        try (var log = GameLog.create(path, 2021, NAMES, 1)) {
+            log.append(PlayerId.PLAYER_2, MessageId.NEXT_TURN, Player.TurnKind.DRAW_CARDS);
+            log.endTurn();
+            assertThrows(IllegalArgumentException.class, () -> {
+                log.append(PlayerId.PLAYER_1, MessageId.UPDATE_STATE_DELTA, Player.TurnKind.DRAW_CARDS);
+            });
+        }
+        var bytes = Files.readAllBytes(path);
+        // The last frame starts with its length, the player and the code of NEXT_TURN, followed by the turn kind and the
+        // CRC
+        assertArrayEquals(new byte[]{3, 1, 5}, Arrays.copyOfRange(bytes, bytes.length - 8, bytes.length - 5));
+        var decision = GameLog.read(path).decisions().get(0);
+        assertEquals(MessageId.NEXT_TURN, decision.kind());
+        assertEquals(Player.TurnKind.DRAW_CARDS, decision.value());
+
+        var content = new byte[]{0, 99, 0};
+        var crc = new CRC32();
+        crc.update(content);
+        var checksum = (int) crc.getValue();
+        Files.write(path, new byte[]{(byte) content.length, content[0], content[1], content[2],
+                (byte) (checksum >>> 24), (byte) (checksum >>> 16), (byte) (checksum >>> 8), (byte) checksum},
+                StandardOpenOption.APPEND);
+        assertThrows(IllegalArgumentException.class, () -> {
+            GameLog.read(path);
+        });
+    }
+
+    /**
+     * Returns a player recording the states it is sent, which crashes when asked for its turn after the given number
+     * of turns
+     */
+    private static Player recording(Player player, List<String> states, int turns) {
+        var turnCount = new int[1];
+        return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("updateState"))
+                        states.add(Serdes.publicGameStateSerde.serialize((PublicGameState) args[0])
+                                + " " + Serdes.playerStateSerde.serialize((PlayerState) args[1]));
+                    if (method.getName().equals("nextTurn") && turnCount[0]++ == turns)
+                        throw new IllegalStateException("crash");
+                    try {
+                        return method.invoke(player, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,167 @@
+package ch.epfl.tchu.record;
+
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.net.MessageId;
+import ch.epfl.tchu.sim.AutomaticPlayer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static ch.epfl.tchu.sim.AutomaticPlayer.Strategy.GREEDY;
+import static ch.epfl.tchu.sim.AutomaticPlayer.Strategy.RANDOM;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayArchiveTest {
+    private static final Map<PlayerId, String> NAMES = Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles");
+    private static final long[] GAME_IDS = {30, 10, 40, 20};
+
+    @TempDir
+    Path directory;
+
+    private List<GameRecord> recordGames() throws IOException {
+        var records = new ArrayList<GameRecord>();
+        for (var seed = 0; seed < GAME_IDS.length; seed++) {
+            var path = directory.resolve("game" + seed + ".tchu");
+            GameLog.play(path, Map.of(PlayerId.PLAYER_1, new AutomaticPlayer(GREEDY, seed),
+                    PlayerId.PLAYER_2, new AutomaticPlayer(RANDOM, seed)), NAMES, seed);
+            records.add(GameLog.read(path));
+        }
+        return records;
+    }
+
+    private Path writeArchive(List<GameRecord> records) throws IOException {
+        var path = directory.resolve("games.tcha");
+        try (var writer = new ReplayArchiveWriter(path)) {
+            for (var i = 0; i < records.size(); i++)
+                writer.add(GAME_IDS[i], records.get(i));
+        }
+        return path;
+    }
+
+    @Test
+    void replayArchiveIndexesGamesById() throws IOException {
+        var archive = ReplayArchive.open(writeArchive(recordGames()));
+        assertEquals(GAME_IDS.length, archive.gameCount());
+        for (var game = 0; game < GAME_IDS.length; game++) {
+            assertEquals(GAME_IDS[game], archive.gameId(game));
+            assertEquals(game, archive.gameIndex(GAME_IDS[game]));
+        }
+        assertEquals(-1, archive.gameIndex(25));
+        assertEquals(-1, archive.gameIndex(50));
+        assertThrows(IndexOutOfBoundsException.class, () -> {
+            archive.turns(GAME_IDS.length);
+        });
+    }
+
+    @Test
+    void replayArchiveScansTheTurnsAndTicketsOfEachGame() throws IOException {
+        var records = recordGames();
+        var archive = ReplayArchive.open(writeArchive(records));
+
+        for (var game = 0; game < records.size(); game++) {
+            var record = records.get(game);
+            var finalStates = finalStates(record);
+
+            var kinds = new ArrayList<Player.TurnKind>();
+            var slots = new ArrayList<Integer>();
+            for (var decision : record.decisions()) {
+                if (decision.kind() == MessageId.NEXT_TURN)
+                    kinds.add((Player.TurnKind) decision.value());
+                else if (decision.kind() == MessageId.DRAW_SLOT)
+                    slots.add((Integer) decision.value());
+            }
+
+            var scannedKinds = new ArrayList<Player.TurnKind>();
+            var scannedSlots = new ArrayList<Integer>();
+            var claimedRoutes = new EnumMap<PlayerId, HashSet<String>>(PlayerId.class);
+            var turns = archive.turns(game);
+            while (turns.next()) {
+                assertEquals(game, turns.game());
+                scannedKinds.add(turns.kind());
+                for (var i = 0; i < turns.drawCount(); i++)
+                    scannedSlots.add(turns.slot(i));
+                if (turns.kind() == Player.TurnKind.CLAIM_ROUTE) {
+                    assertNotNull(turns.route());
+                    assertTrue(turns.cards().size() >= turns.route().length());
+                }
+                if (turns.claimed())
+                    assertTrue(claimedRoutes.computeIfAbsent(turns.playerId(), p -> new HashSet<>())
+                            .add(turns.route().id()));
+            }
+            assertEquals(kinds, scannedKinds);
+            assertEquals(slots, scannedSlots);
+
+            var tickets = archive.tickets(game);
+            var ticketCounts = new EnumMap<PlayerId, Integer>(PlayerId.class);
+            while (tickets.next()) {
+                var ownState = finalStates.get(tickets.playerId());
+                assertTrue(ownState.tickets().contains(tickets.ticket()));
+                assertEquals(ownState.isTicketCompleted(tickets.ticket()), tickets.completed());
+                ticketCounts.merge(tickets.playerId(), 1, Integer::sum);
+            }
+
+            for (var e : finalStates.entrySet()) {
+                var routeIds = new HashSet<String>();
+                for (var route : e.getValue().routes())
+                    routeIds.add(route.id());
+                assertEquals(routeIds, claimedRoutes.getOrDefault(e.getKey(), new HashSet<>()));
+                assertEquals(e.getValue().ticketCount(), ticketCounts.get(e.getKey()));
+            }
+        }
+
+        var turnCount = 0;
+        var lastGame = 0;
+        var turns = archive.turns();
+        while (turns.next()) {
+            assertTrue(turns.game() >= lastGame);
+            lastGame = turns.game();
+            turnCount++;
+        }
+        assertEquals(archive.turnCount(), turnCount);
+        assertEquals(records.size() - 1, lastGame);
+    }
+
+    @Test
+    void replayArchiveFailsWithDuplicateGameIdOrInvalidFile() throws IOException {
+        var record = recordGames().get(0);
+        var path = directory.resolve("games.tcha");
+        var writer = new ReplayArchiveWriter(path);
+        writer.add(1, record);
+        writer.add(1, record);
+        assertThrows(IllegalArgumentException.class, writer::close);
+
+        Files.write(path, new byte[]{'t', 'C', 'h', 'u', 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0});
+        assertThrows(IllegalArgumentException.class, () -> {
+            ReplayArchive.open(path);
+        });
+    }
+
+    /**
+     * Replays the given game and returns the states of its players at its end
+     */
+    private static Map<PlayerId, PlayerState> finalStates(GameRecord record) {
+        var states = new EnumMap<PlayerId, PlayerState>(PlayerId.class);
+        var observers = new EnumMap<PlayerId, GameObserver>(PlayerId.class);
+        for (var playerId : record.playerNames().keySet()) {
+            observers.put(playerId, new GameObserver() {
+                @Override
+                public void updateState(PublicGameState newState, PlayerState ownState) {
+                    states.put(playerId, ownState);
+                }
+            });
+        }
+        Replayer.replay(record, observers);
+        return states;
+    }
+}
@@ -0,0 +1,110 @@
+package ch.epfl.tchu.record;
+
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.net.Serdes;
+import ch.epfl.tchu.sim.AutomaticPlayer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static ch.epfl.tchu.sim.AutomaticPlayer.Strategy.GREEDY;
+import static ch.epfl.tchu.sim.AutomaticPlayer.Strategy.RANDOM;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayerTest {
+    private static final Map<PlayerId, String> NAMES = Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayerGoesThroughTheSameNotificationsAsTheRecordedGame() throws IOException {
+        for (var seed = 0; seed < 5; seed++) {
+            var path = directory.resolve("game" + seed + ".tchu");
+            var notifications = new ArrayList<String>();
+            var points = GameLog.play(path, Map.of(
+                    PlayerId.PLAYER_1, observing(new AutomaticPlayer(GREEDY, seed), notifications, Integer.MAX_VALUE),
+                    PlayerId.PLAYER_2, new AutomaticPlayer(RANDOM, seed)), NAMES, seed);
+
+            var replayedNotifications = new ArrayList<String>();
+            var record = GameLog.read(path);
+            assertEquals(points, Replayer.replay(record,
+                    Map.of(PlayerId.PLAYER_1, GameObserver.of(observing(null, replayedNotifications, 0)))));
+            assertEquals(notifications, replayedNotifications);
+            assertEquals(points, Replayer.replay(record));
+        }
+    }
+
+    @Test
+    void replayerReproducesAGameUntilItCrashed() throws IOException {
+        var path = directory.resolve("game.tchu");
+        var notifications = new ArrayList<String>();
+        assertThrows(IllegalStateException.class, () -> {
+            GameLog.play(path, Map.of(
+                    PlayerId.PLAYER_1, observing(new AutomaticPlayer(GREEDY, 1), notifications, 10),
+                    PlayerId.PLAYER_2, new AutomaticPlayer(RANDOM, 2)), NAMES, 2021);
+        });
+
+        var replayedNotifications = new ArrayList<String>();
+        var record = GameLog.read(path);
+        assertThrows(IllegalStateException.class, () -> {
+            Replayer.replay(record, Map.of(PlayerId.PLAYER_1, GameObserver.of(observing(null, replayedNotifications, 0))));
+        });
+        assertEquals(notifications, replayedNotifications);
+    }
+
+    @Test
+    void replayerFailsWithObserverOfUnknownPlayer() throws IOException {
+        var path = directory.resolve("game.tchu");
+        GameLog.play(path, Map.of(PlayerId.PLAYER_1, new AutomaticPlayer(GREEDY, 1),
+                PlayerId.PLAYER_2, new AutomaticPlayer(RANDOM, 2)), NAMES, 2021);
+        var record = GameLog.read(path);
+        assertThrows(IllegalArgumentException.class, () -> {
+            Replayer.replay(record, Map.of(PlayerId.PLAYER_3, new GameObserver() {
+            }));
+        });
+    }
+
+    /**
+     * Returns a player recording the notifications it receives, delegating to the given player if any, which crashes
+     * when asked for its turn after the given number of turns
+     */
+    private static Player observing(Player player, List<String> notifications, int turns) {
+        var turnCount = new int[1];
+        return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "updateState":
+                            notifications.add(Serdes.publicGameStateSerde.serialize((PublicGameState) args[0])
+                                    + " " + Serdes.playerStateSerde.serialize((PlayerState) args[1]));
+                            break;
+                        case "receiveInfo":
+                            notifications.add((String) args[0]);
+                            break;
+                        case "nextTurn":
+                            if (turnCount[0]++ == turns)
+                                throw new IllegalStateException("crash");
+                            break;
+                        default:
+                            break;
+                    }
+                    if (player == null)
+                        return null;
+                    try {
+                        return method.invoke(player, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
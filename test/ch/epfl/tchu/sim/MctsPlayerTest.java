@@ -0,0 +1,57 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Game;
+import ch.epfl.tchu.game.GameState;
+import ch.epfl.tchu.game.PlayerId;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Random;
+
+import static ch.epfl.tchu.sim.AutomaticPlayer.Strategy.GREEDY;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MctsPlayerTest {
+    @Test
+    void mctsPlayerPlaysWholeGames() {
+        for (var threads = 1; threads <= 2; threads++) {
+            var player = new MctsPlayer(threads, 2, threads);
+            var points = Game.play(
+                    Map.of(PlayerId.PLAYER_1, player, PlayerId.PLAYER_2, new AutomaticPlayer(GREEDY, threads)),
+                    Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles"),
+                    SortedBag.of(ChMap.tickets()), new Random(2021));
+            assertEquals(2, points.size());
+            assertTrue(player.turnCount() > 0);
+        }
+    }
+
+    @Test
+    void mctsPlayersShareTheirSearchThreads() {
+        var state = GameState.initial(SortedBag.of(ChMap.tickets()), new Random(2021), 2);
+        for (var playerId : PlayerId.ALL.subList(0, 2))
+            state = state.withInitiallyChosenTickets(playerId, state.topTickets(3)).withoutTopTickets(5);
+        for (var seed = 0; seed < 20; seed++) {
+            var player = new MctsPlayer(seed, 1, 2);
+            player.initPlayers(state.currentPlayerId(), Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles"));
+            player.updateState(state, state.currentPlayerState());
+            player.nextTurn();
+        }
+        // Each player would otherwise keep its own two threads alive
+        var searchThreads = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("tchu-mcts"))
+                .count();
+        assertTrue(searchThreads < 10);
+    }
+
+    @Test
+    void mctsPlayerConstructorFailsWithInvalidBudgetOrThreads() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new MctsPlayer(1, 0, 1);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            new MctsPlayer(1, 10, 0);
+        });
+    }
+}
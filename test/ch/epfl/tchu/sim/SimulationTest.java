@@ -0,0 +1,70 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.GameState;
+import ch.epfl.tchu.game.PlayerId;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static ch.epfl.tchu.sim.AutomaticPlayer.Strategy.GREEDY;
+import static ch.epfl.tchu.sim.AutomaticPlayer.Strategy.RANDOM;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationTest {
+    @Test
+    void simulationPlayGameIsDeterministic() {
+        for (long seed = 0; seed < 5; seed++) {
+            var outcome1 = Simulation.playGame(List.of(GREEDY, RANDOM), seed);
+            var outcome2 = Simulation.playGame(List.of(GREEDY, RANDOM), seed);
+            assertEquals(outcome1.points(), outcome2.points());
+            assertEquals(outcome1.turnCount(), outcome2.turnCount());
+        }
+    }
+
+    @Test
+    void simulationPlayGameWorksWithAllPlayerCounts() {
+        for (var strategies : List.of(List.of(RANDOM, RANDOM), List.of(GREEDY, GREEDY, RANDOM))) {
+            var outcome = Simulation.playGame(strategies, 2021);
+            assertEquals(PlayerId.ALL.subList(0, strategies.size()), List.copyOf(outcome.points().keySet()));
+            assertTrue(outcome.turnCount() > 0);
+            assertFalse(outcome.winners().isEmpty());
+        }
+    }
+
+    @Test
+    void simulationPlayGameFailsWithInvalidPlayerCount() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            Simulation.playGame(List.of(GREEDY), 2021);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            Simulation.playGame(List.of(GREEDY, GREEDY, GREEDY, GREEDY), 2021);
+        });
+    }
+
+    @Test
+    void automaticPlayerAbortsGamesStuckAfterMaxTurns() {
+        var state = GameState.initial(SortedBag.of(ChMap.tickets()), new Random(2021), 2);
+        var player = new AutomaticPlayer(GREEDY, 2021);
+        player.initPlayers(state.currentPlayerId(), Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles"));
+        player.updateState(state, state.currentPlayerState());
+        for (int i = 0; i < AutomaticPlayer.MAX_TURNS; i++)
+            player.nextTurn();
+        var e = assertThrows(GameStuckException.class, player::nextTurn);
+        assertEquals("game stuck after " + AutomaticPlayer.MAX_TURNS + " turns", e.getMessage());
+    }
+
+    @Test
+    void simulationGreedyPlayerBeatsRandomPlayer() {
+        var greedyWins = 0;
+        for (long seed = 0; seed < 20; seed++) {
+            var outcome = Simulation.playGame(List.of(RANDOM, GREEDY), seed);
+            if (outcome.winners().equals(List.of(PlayerId.PLAYER_2)))
+                greedyWins += 1;
+        }
+        assertTrue(greedyWins >= 15);
+    }
+}
@@ -0,0 +1,147 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.game.Route;
+import ch.epfl.tchu.game.Ticket;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static ch.epfl.tchu.sim.AutomaticPlayer.Strategy.GREEDY;
+import static ch.epfl.tchu.sim.AutomaticPlayer.Strategy.RANDOM;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentTest {
+    private static final List<Tournament.Entrant> ROSTER =
+            List.of(Tournament.Entrant.of(GREEDY), Tournament.Entrant.of(RANDOM), Tournament.Entrant.of(GREEDY));
+
+    @Test
+    void tournamentConstructorFailsWithInvalidPlayersPerGame() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new Tournament(ROSTER, 1);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            new Tournament(ROSTER, 4);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            new Tournament(ROSTER.subList(0, 2), 3);
+        });
+    }
+
+    @Test
+    void tournamentRunDoesNotDependOnParallelism() {
+        var tournament = new Tournament(ROSTER, 2);
+        var standings1 = tournament.run(30, 2021, 1);
+        var standings4 = tournament.run(30, 2021, 4);
+        for (int e = 0; e < ROSTER.size(); e++) {
+            assertEquals(standings1.winRate(e), standings4.winRate(e));
+            assertEquals(standings1.meanPoints(e), standings4.meanPoints(e));
+            assertEquals(standings1.elo(e), standings4.elo(e));
+        }
+    }
+
+    @Test
+    void tournamentRunRanksEntrants() {
+        var standings = new Tournament(ROSTER, 3).run(20, 2021, 2);
+        assertEquals(20, standings.games());
+        var totalWinRate = 0.0;
+        var totalElo = 0.0;
+        for (int e = 0; e < ROSTER.size(); e++) {
+            totalWinRate += standings.winRate(e);
+            totalElo += standings.elo(e);
+        }
+        // Every entrant plays every game, so win rates add up to 1 and ratings are only exchanged
+        assertEquals(1, totalWinRate, 1e-9);
+        assertEquals(3 * Tournament.INITIAL_ELO, totalElo, 1e-6);
+        assertTrue(standings.elo(0) > standings.elo(1));
+        assertTrue(standings.elo(2) > standings.elo(1));
+    }
+
+    @Test
+    void tournamentRunCountsStuckGamesAsAborted() {
+        var stuck = new Tournament.Entrant("STUCK", seed -> new TestPlayer(seed, () -> new GameStuckException(0)));
+        var standings = new Tournament(List.of(stuck, Tournament.Entrant.of(GREEDY)), 2).run(5, 2021, 2);
+        assertEquals(5, standings.games());
+        assertEquals(5, standings.abortedGames());
+    }
+
+    @Test
+    void tournamentRunFailsWhenAGameFailsForAnotherReason() {
+        var faulty = new Tournament.Entrant("FAULTY", seed -> new TestPlayer(seed, IllegalStateException::new));
+        var tournament = new Tournament(List.of(faulty, Tournament.Entrant.of(GREEDY)), 2);
+        assertThrows(IllegalStateException.class, () -> {
+            tournament.run(5, 2021, 2);
+        });
+    }
+
+    private static final class TestPlayer implements Player {
+        private final AutomaticPlayer player;
+        private final Supplier<RuntimeException> turnFailure;
+
+        TestPlayer(long seed, Supplier<RuntimeException> turnFailure) {
+            this.player = new AutomaticPlayer(GREEDY, seed);
+            this.turnFailure = turnFailure;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+            player.initPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            player.setInitialTicketChoice(tickets);
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            return player.chooseInitialTickets();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            throw turnFailure.get();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            return player.chooseTickets(options);
+        }
+
+        @Override
+        public int drawSlot() {
+            return player.drawSlot();
+        }
+
+        @Override
+        public Route claimedRoute() {
+            return player.claimedRoute();
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            return player.initialClaimCards();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            return player.chooseAdditionalCards(options);
+        }
+    }
+}